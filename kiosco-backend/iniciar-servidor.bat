@@ -10,8 +10,8 @@ if not exist "src\main\resources\application.properties" (
     echo spring.datasource.username=root>> src\main\resources\application.properties
     echo spring.datasource.password=>> src\main\resources\application.properties
     echo spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver>> src\main\resources\application.properties
-    echo spring.jpa.hibernate.ddl-auto=update>> src\main\resources\application.properties
-    echo spring.flyway.enabled=false>> src\main\resources\application.properties
+    echo spring.jpa.hibernate.ddl-auto=validate>> src\main\resources\application.properties
+    echo spring.flyway.enabled=true>> src\main\resources\application.properties
     echo server.address=0.0.0.0>> src\main\resources\application.properties
     echo server.port=8080>> src\main\resources\application.properties
 )
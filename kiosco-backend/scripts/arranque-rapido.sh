@@ -0,0 +1,34 @@
+#!/bin/sh
+# Arranca el backend en modo "arranque rapido":
+#   - perfil prod (sin comparacion de esquema, beans perezosos, catalogo precargado)
+#   - archivo CDS (Class Data Sharing) con las clases ya cargadas en una corrida anterior
+#   - opcional: contexto AOT si el jar se construyo con ./mvnw -Paot package (KIOSCO_AOT=true)
+#
+# La primera vez extrae el jar y hace una corrida de entrenamiento que arranca el
+# contexto (necesita la base de datos disponible), guarda app.jsa y termina.
+# Las siguientes veces arranca directamente usando ese archivo.
+#
+# Uso: scripts/arranque-rapido.sh [ruta-del-jar]
+set -e
+
+JAR=${1:-target/kiosco-backend-0.0.1-SNAPSHOT.jar}
+DIR=${KIOSCO_APP_DIR:-target/app}
+APP="$DIR/$(basename "$JAR")"
+CDS="$DIR/app.jsa"
+
+OPCIONES="-Dspring.profiles.active=prod"
+if [ "$KIOSCO_AOT" = "true" ]; then
+    OPCIONES="$OPCIONES -Dspring.aot.enabled=true"
+fi
+
+if [ ! -f "$APP" ]; then
+    echo "Extrayendo $JAR en $DIR"
+    java -Djarmode=tools -jar "$JAR" extract --destination "$DIR"
+fi
+
+if [ ! -f "$CDS" ]; then
+    echo "Corrida de entrenamiento para generar $CDS"
+    java -XX:ArchiveClassesAtExit="$CDS" -Dspring.context.exit=onRefresh $OPCIONES -jar "$APP"
+fi
+
+exec java -XX:SharedArchiveFile="$CDS" $OPCIONES $JAVA_OPTS -jar "$APP"
@@ -0,0 +1,81 @@
+#!/bin/sh
+# Mide el tiempo hasta la primera respuesta de GET /api/productos (tiempo hasta poder vender)
+# en tres configuraciones: por defecto, perfil prod, y perfil prod + CDS.
+# Con JAR_ANTES=<jar> mide primero ese jar (por ejemplo uno construido antes del perfil
+# prod) como referencia de "antes".
+#
+# Ademas del tiempo externo toma del log lo que informa la aplicacion
+# ("Arranque: aplicación lista en ..." y "Arranque: catálogo precargado en ...").
+# Los resultados quedan en target/medicion-arranque.csv y los promedios en
+# target/medicion-arranque.md (tabla para copiar en el README, seccion "Mediciones").
+#
+# Necesita la base de datos configurada y el jar construido (./mvnw package).
+# Uso: [JAR_ANTES=antes.jar] scripts/medir-arranque.sh [repeticiones]
+set -e
+
+REPETICIONES=${1:-5}
+JAR=target/kiosco-backend-0.0.1-SNAPSHOT.jar
+URL=http://localhost:${PORT:-8080}/api/productos
+RESULTADOS=target/medicion-arranque.csv
+RESUMEN=target/medicion-arranque.md
+LOG=/tmp/kiosco-arranque.log
+
+echo "configuracion,repeticion,primera_respuesta_ms,lista_ms,catalogo_ms" > "$RESULTADOS"
+{
+    echo "| configuración | primera respuesta (ms) | repeticiones |"
+    echo "|---|---|---|"
+} > "$RESUMEN"
+
+# espera la primera respuesta; si la aplicacion termina antes (sin base, puerto ocupado)
+# corta la medicion en lugar de esperar para siempre
+esperar_respuesta() {
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$1" 2>/dev/null; then
+            echo "La aplicación terminó antes de responder; últimas líneas de $LOG:" >&2
+            tail -20 "$LOG" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+}
+
+medir() {
+    nombre=$1
+    shift
+    total=0
+    for i in $(seq "$REPETICIONES"); do
+        inicio=$(date +%s%N)
+        "$@" > "$LOG" 2>&1 &
+        pid=$!
+        esperar_respuesta "$pid"
+        fin=$(date +%s%N)
+        # la precarga del catalogo sigue en segundo plano: se le da un momento para loguear
+        sleep 1
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        ms=$(( (fin - inicio) / 1000000 ))
+        total=$(( total + ms ))
+        lista=$(sed -n 's/.*Arranque: aplicación lista en \([0-9]*\) ms.*/\1/p' "$LOG" | tail -1)
+        catalogo=$(sed -n 's/.*Arranque: catálogo precargado en \([0-9]*\) ms.*/\1/p' "$LOG" | tail -1)
+        echo "$nombre,$i,$ms,$lista,$catalogo" >> "$RESULTADOS"
+        echo "$nombre #$i: ${ms} ms (lista: ${lista:--} ms, catálogo: ${catalogo:--} ms)"
+    done
+    echo "$nombre promedio: $(( total / REPETICIONES )) ms"
+    echo "| $nombre | $(( total / REPETICIONES )) | $REPETICIONES |" >> "$RESUMEN"
+    echo
+}
+
+if [ -n "$JAR_ANTES" ]; then
+    medir "antes" java -jar "$JAR_ANTES"
+fi
+medir "por defecto" java -jar "$JAR"
+medir "perfil prod" java -Dspring.profiles.active=prod -jar "$JAR"
+
+# genera el archivo CDS (una sola vez) y mide con el
+KIOSCO_APP_DIR=target/app-medicion sh scripts/arranque-rapido.sh "$JAR" > "$LOG" 2>&1 &
+pid=$!
+esperar_respuesta "$pid"
+kill "$pid"; wait "$pid" 2>/dev/null || true
+medir "perfil prod + CDS" env KIOSCO_APP_DIR=target/app-medicion sh scripts/arranque-rapido.sh "$JAR"
+
+echo "Resultados en $RESULTADOS (promedios en $RESUMEN)"
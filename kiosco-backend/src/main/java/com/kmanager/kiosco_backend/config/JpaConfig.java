@@ -0,0 +1,22 @@
+package com.kmanager.kiosco_backend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración adicional de Hibernate.
+ */
+@Configuration
+public class JpaConfig {
+
+    /**
+     * Registra el muestreo de sentencias SQL (ver SqlMuestreoInspector).
+     */
+    @Bean
+    public HibernatePropertiesCustomizer muestreoSql(@Value("${kiosco.sql.muestreo:100}") int cadaN) {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlMuestreoInspector(cadaN));
+    }
+}
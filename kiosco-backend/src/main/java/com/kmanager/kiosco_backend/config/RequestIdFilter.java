@@ -0,0 +1,45 @@
+package com.kmanager.kiosco_backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Asigna un identificador a cada petición y lo deja en el MDC ("requestId"),
+ * así todos los logs de una misma petición se pueden filtrar juntos.
+ *
+ * Si el cliente manda el header "X-Request-Id" se usa ese valor; siempre se
+ * devuelve en la respuesta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_CLAVE = "requestId";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > 64) {
+            requestId = UUID.randomUUID().toString().substring(0, 8);
+        }
+        MDC.put(MDC_CLAVE, requestId);
+        response.setHeader(HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_CLAVE);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.kmanager.kiosco_backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loguea una muestra de las sentencias SQL (1 de cada N) en lugar de todas,
+ * como hacía spring.jpa.show-sql.
+ *
+ * Si el logger "com.kmanager.kiosco_backend.sql" no está en DEBUG el costo por
+ * sentencia es solo la consulta del nivel del logger. Las sentencias lentas no
+ * pasan por acá: las loguea completas Hibernate (hibernate.log_slow_query).
+ */
+public class SqlMuestreoInspector implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("com.kmanager.kiosco_backend.sql");
+
+    private final int cadaN;
+    private final AtomicLong contador = new AtomicLong();
+
+    public SqlMuestreoInspector(int cadaN) {
+        this.cadaN = Math.max(cadaN, 1);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isDebugEnabled() && contador.incrementAndGet() % cadaN == 0) {
+            log.debug("SQL (muestra 1/{}): {}", cadaN, sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,16 @@
+package com.kmanager.kiosco_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled).
+ *
+ * Con spring.main.lazy-initialization=true (perfil prod) un bean lazy nunca
+ * se crea y sus tareas no se registran: los beans con @Scheduled deben
+ * llevar @Lazy(false).
+ */
+@Configuration
+@EnableScheduling
+public class TareasConfig {
+}
@@ -0,0 +1,38 @@
+package com.kmanager.kiosco_backend.config;
+
+/**
+ * Guarda la tienda (kiosco) de la petición actual.
+ *
+ * Lo completa TiendaInterceptor a partir del header "X-Tienda-Id" al inicio
+ * de cada petición y lo limpia al terminar. Los servicios lo leen con
+ * TiendaContext.actual() para filtrar todas las consultas por tienda.
+ *
+ * Si la petición no trae el header se usa la tienda por defecto (ID 1),
+ * así una instalación de un solo kiosco sigue funcionando sin cambios.
+ */
+public final class TiendaContext {
+
+    public static final String HEADER = "X-Tienda-Id";
+    public static final Long TIENDA_POR_DEFECTO = 1L;
+
+    private static final ThreadLocal<Long> TIENDA_ACTUAL = new ThreadLocal<>();
+
+    private TiendaContext() {
+    }
+
+    /**
+     * Devuelve la tienda de la petición actual (o la tienda por defecto).
+     */
+    public static Long actual() {
+        Long tiendaId = TIENDA_ACTUAL.get();
+        return tiendaId != null ? tiendaId : TIENDA_POR_DEFECTO;
+    }
+
+    public static void establecer(Long tiendaId) {
+        TIENDA_ACTUAL.set(tiendaId);
+    }
+
+    public static void limpiar() {
+        TIENDA_ACTUAL.remove();
+    }
+}
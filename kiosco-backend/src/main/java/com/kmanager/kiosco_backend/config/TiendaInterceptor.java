@@ -0,0 +1,59 @@
+package com.kmanager.kiosco_backend.config;
+
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lee el header "X-Tienda-Id" de cada petición y lo deja en TiendaContext
+ * (y en el MDC, para que los logs indiquen la tienda).
+ *
+ * Una tienda que no existe se rechaza acá con 400, antes de que llegue a los
+ * servicios y termine en un error de clave foránea. Las tiendas no se borran,
+ * así que las que ya se encontraron se recuerdan y no se consulta la base en
+ * cada petición.
+ */
+@Component
+@RequiredArgsConstructor
+public class TiendaInterceptor implements HandlerInterceptor {
+
+    private final TiendaRepository tiendaRepository;
+
+    private final Set<Long> tiendasExistentes = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String header = request.getHeader(TiendaContext.HEADER);
+        if (header != null && !header.isBlank()) {
+            Long tiendaId;
+            try {
+                tiendaId = Long.valueOf(header.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Header " + TiendaContext.HEADER + " inválido: " + header);
+            }
+            if (!tiendasExistentes.contains(tiendaId)) {
+                if (!tiendaRepository.existsById(tiendaId)) {
+                    throw new IllegalArgumentException("La tienda " + tiendaId + " no existe");
+                }
+                tiendasExistentes.add(tiendaId);
+            }
+            TiendaContext.establecer(tiendaId);
+        }
+        MDC.put("tiendaId", String.valueOf(TiendaContext.actual()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        TiendaContext.limpiar();
+        MDC.remove("tiendaId");
+    }
+}
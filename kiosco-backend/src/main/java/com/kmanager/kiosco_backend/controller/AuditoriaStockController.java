@@ -0,0 +1,55 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.EstadoAuditoriaStockDTO;
+import com.kmanager.kiosco_backend.service.AuditoriaStockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST de la auditoría de stock (ver AuditoriaStockService).
+ */
+@RestController
+@RequestMapping("/api/auditoria-stock")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class AuditoriaStockController {
+
+    private final AuditoriaStockService auditoriaStockService;
+
+    /**
+     * GET /api/auditoria-stock
+     * Resultado de la última auditoría (o progreso de la que está en curso).
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "enCurso": false, "corregir": false,
+     *   "inicio": "2025-06-02T09:00:00", "fin": "2025-06-02T09:01:12",
+     *   "tiendas": 1, "productosRevisados": 1840, "corregidos": 0,
+     *   "discrepancias": [
+     *     { "tiendaId": 1, "productoId": 3, "nombre": "Alfajor triple", "stockActual": 18, "stockEsperado": 20,
+     *       "diferencia": -2, "ajustes": 540, "vendido": 520, "corregido": false }
+     *   ],
+     *   "error": null
+     * }
+     */
+    @GetMapping
+    public ResponseEntity<EstadoAuditoriaStockDTO> obtenerEstado() {
+        return ResponseEntity.ok(auditoriaStockService.obtenerEstado());
+    }
+
+    /**
+     * POST /api/auditoria-stock/ejecutar?corregir=false
+     * Audita la tienda de la petición en segundo plano (responde 202 sin esperar).
+     * Con corregir=true el stock de los productos con diferencias se lleva al esperado.
+     */
+    @PostMapping("/ejecutar")
+    public ResponseEntity<EstadoAuditoriaStockDTO> ejecutar(@RequestParam(defaultValue = "false") boolean corregir) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(auditoriaStockService.ejecutarEnSegundoPlano(List.of(TiendaContext.actual()), corregir));
+    }
+}
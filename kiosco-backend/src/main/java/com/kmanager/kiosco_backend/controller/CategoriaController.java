@@ -0,0 +1,80 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.dto.CategoriaResumenDTO;
+import com.kmanager.kiosco_backend.entity.Categoria;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.service.CategoriaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para las categorías de productos.
+ *
+ * Los productos siguen aceptando "categoria" como texto (si no existe se
+ * crea la categoría) o "categoriaId".
+ */
+@RestController
+@RequestMapping("/api/categorias")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class CategoriaController {
+
+    private final CategoriaService categoriaService;
+
+    /**
+     * GET /api/categorias
+     * Categorías de la tienda con sus contadores (sin recorrer productos).
+     *
+     * Respuesta:
+     * [
+     *   { "id": 1, "nombre": "Bebidas", "cantidadProductos": 24,
+     *     "productosStockBajo": 3, "valorStockCosto": 185000.0, "valorStockVenta": 260000.0 }
+     * ]
+     */
+    @GetMapping
+    public ResponseEntity<List<CategoriaResumenDTO>> obtenerResumen() {
+        return ResponseEntity.ok(categoriaService.obtenerResumen());
+    }
+
+    /**
+     * GET /api/categorias/{id}/productos
+     * Productos de una categoría.
+     */
+    @GetMapping("/{id}/productos")
+    public ResponseEntity<List<Producto>> obtenerProductos(@PathVariable Long id) {
+        return ResponseEntity.ok(categoriaService.obtenerProductos(id));
+    }
+
+    /**
+     * POST /api/categorias
+     * Body: { "nombre": "Lácteos" }
+     */
+    @PostMapping
+    public ResponseEntity<Categoria> crear(@RequestBody Categoria categoria) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(categoriaService.crear(categoria.getNombre()));
+    }
+
+    /**
+     * PUT /api/categorias/{id}
+     * Renombra la categoría (y el texto "categoria" de sus productos).
+     * Body: { "nombre": "Gaseosas" }
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Categoria> renombrar(@PathVariable Long id, @RequestBody Categoria categoria) {
+        return ResponseEntity.ok(categoriaService.renombrar(id, categoria.getNombre()));
+    }
+
+    /**
+     * DELETE /api/categorias/{id}
+     * Solo se puede borrar una categoría sin productos.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminar(@PathVariable Long id) {
+        categoriaService.eliminar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.dto.DeudaClientesDTO;
+import com.kmanager.kiosco_backend.entity.Cliente;
+import com.kmanager.kiosco_backend.entity.MovimientoCuenta;
+import com.kmanager.kiosco_backend.service.ClienteService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para los clientes y su cuenta corriente (fiado).
+ *
+ * Las ventas en cuenta corriente se registran con POST /api/ventas
+ * ("metodoPago": "Cuenta corriente" y "clienteId").
+ */
+@RestController
+@RequestMapping("/api/clientes")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ClienteController {
+
+    private final ClienteService clienteService;
+
+    /**
+     * GET /api/clientes
+     */
+    @GetMapping
+    public ResponseEntity<List<Cliente>> obtenerTodos() {
+        return ResponseEntity.ok(clienteService.obtenerTodos());
+    }
+
+    /**
+     * GET /api/clientes/{id}
+     * Incluye el saldo actual (positivo = lo que debe).
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Cliente> obtenerPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(clienteService.obtenerPorId(id));
+    }
+
+    /**
+     * POST /api/clientes
+     * Body: { "nombre": "Juan Pérez", "documento": "30111222", "telefono": "11-5555-0000", "limiteCredito": 20000 }
+     * limiteCredito es opcional (sin límite).
+     */
+    @PostMapping
+    public ResponseEntity<Cliente> crear(@RequestBody Cliente cliente) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(clienteService.crear(cliente));
+    }
+
+    /**
+     * PUT /api/clientes/{id}
+     * Actualiza los datos del cliente; el saldo se ignora (solo cambia con ventas y pagos).
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Cliente> actualizar(@PathVariable Long id, @RequestBody Cliente cliente) {
+        return ResponseEntity.ok(clienteService.actualizar(id, cliente));
+    }
+
+    /**
+     * POST /api/clientes/{id}/pagos
+     * Registra un pago a cuenta.
+     * Body: { "importe": 5000, "metodoPago": "Efectivo", "observaciones": "pago parcial" }
+     *
+     * Devuelve el movimiento con el saldo que quedó:
+     * { "id": 120, "tipo": "PAGO", "importe": -5000.0, "saldo": 7350.0, "metodoPago": "Efectivo", ... }
+     */
+    @PostMapping("/{id}/pagos")
+    public ResponseEntity<MovimientoCuenta> registrarPago(@PathVariable Long id, @RequestBody PagoRequest request) {
+        MovimientoCuenta movimiento = clienteService.registrarPago(
+                id, request.getImporte(), request.getMetodoPago(), request.getObservaciones());
+        return ResponseEntity.status(HttpStatus.CREATED).body(movimiento);
+    }
+
+    /**
+     * GET /api/clientes/{id}/movimientos?limite=50
+     * GET /api/clientes/{id}/movimientos?antesDe=120&limite=50
+     * Resumen de cuenta, del movimiento más nuevo al más viejo. Para la página
+     * siguiente se manda antesDe = id del último movimiento recibido.
+     *
+     * Ejemplo de respuesta:
+     * [
+     *   { "id": 120, "fecha": "2025-06-03T18:10:00", "tipo": "PAGO", "importe": -5000.0, "saldo": 7350.0 },
+     *   { "id": 98, "fecha": "2025-06-01T10:22:05", "tipo": "VENTA", "importe": 2400.0, "saldo": 12350.0, "ventaId": 815 }
+     * ]
+     */
+    @GetMapping("/{id}/movimientos")
+    public ResponseEntity<List<MovimientoCuenta>> obtenerMovimientos(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long antesDe,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(clienteService.obtenerMovimientos(id, antesDe, limite));
+    }
+
+    /**
+     * GET /api/clientes/deudores
+     * Clientes con deuda, de mayor a menor, y el total adeudado.
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "totalAdeudado": 48250.0,
+     *   "cantidadDeudores": 2,
+     *   "deudores": [
+     *     { "id": 4, "nombre": "Juan Pérez", "saldo": 30000.0, "limiteCredito": 40000.0, ... },
+     *     { "id": 9, "nombre": "María Gómez", "saldo": 18250.0, "limiteCredito": null, ... }
+     *   ]
+     * }
+     */
+    @GetMapping("/deudores")
+    public ResponseEntity<DeudaClientesDTO> obtenerDeudores() {
+        return ResponseEntity.ok(clienteService.obtenerDeudores());
+    }
+
+    /**
+     * DTO para registrar un pago.
+     */
+    @Data
+    public static class PagoRequest {
+        private Double importe;
+        private String metodoPago;      // opcional
+        private String observaciones;   // opcional
+    }
+}
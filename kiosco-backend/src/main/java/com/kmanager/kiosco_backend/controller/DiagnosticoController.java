@@ -0,0 +1,74 @@
+package com.kmanager.kiosco_backend.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controlador de diagnóstico para las pruebas de carga.
+ *
+ * Solo existe con el perfil "carga" (ver application-carga.properties), que
+ * además activa las estadísticas de Hibernate.
+ */
+@RestController
+@RequestMapping("/api/diagnostico")
+@CrossOrigin(origins = "*")
+@Profile("carga")
+@RequiredArgsConstructor
+public class DiagnosticoController {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * GET /api/diagnostico/estadisticas-db
+     * Contadores de Hibernate desde el último reinicio.
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "sentencias": 5230,
+     *   "consultas": 1210,
+     *   "transacciones": 1800,
+     *   "entidadesCargadas": 4100,
+     *   "entidadesInsertadas": 2900,
+     *   "entidadesActualizadas": 2300,
+     *   "consultaMasLenta": "select ...",
+     *   "consultaMasLentaMs": 48
+     * }
+     */
+    @GetMapping("/estadisticas-db")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasDb() {
+        Statistics estadisticas = estadisticas();
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("sentencias", estadisticas.getPrepareStatementCount());
+        respuesta.put("consultas", estadisticas.getQueryExecutionCount());
+        respuesta.put("transacciones", estadisticas.getTransactionCount());
+        respuesta.put("entidadesCargadas", estadisticas.getEntityLoadCount());
+        respuesta.put("entidadesInsertadas", estadisticas.getEntityInsertCount());
+        respuesta.put("entidadesActualizadas", estadisticas.getEntityUpdateCount());
+        respuesta.put("fallosBloqueoOptimista", estadisticas.getOptimisticFailureCount());
+        respuesta.put("consultaMasLenta", estadisticas.getQueryExecutionMaxTimeQueryString());
+        respuesta.put("consultaMasLentaMs", estadisticas.getQueryExecutionMaxTime());
+        return ResponseEntity.ok(respuesta);
+    }
+
+    /**
+     * POST /api/diagnostico/estadisticas-db/reiniciar
+     * Pone los contadores en cero (se llama antes de empezar la carga).
+     */
+    @PostMapping("/estadisticas-db/reiniciar")
+    public ResponseEntity<Void> reiniciarEstadisticasDb() {
+        estadisticas().clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    private Statistics estadisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
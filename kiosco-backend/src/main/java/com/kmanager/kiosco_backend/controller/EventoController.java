@@ -0,0 +1,89 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.FeedEventosDTO;
+import com.kmanager.kiosco_backend.service.EventosSalidaService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST del feed de eventos para otros sistemas (ver EventosSalidaService).
+ *
+ * En vez de leer GET /api/ventas completo, una integración lee solo lo que
+ * cambió desde la última vez:
+ * 1. GET /api/eventos/consumidores/{consumidor}   → la página siguiente a su cursor
+ * 2. procesa los eventos (descartando por id los que ya tenía)
+ * 3. PUT /api/eventos/consumidores/{consumidor}   → confirma con el "ultimoId" de la página
+ */
+@RestController
+@RequestMapping("/api/eventos")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class EventoController {
+
+    private final EventosSalidaService eventosSalidaService;
+
+    /**
+     * GET /api/eventos?desde=0&limite=500
+     * Eventos de la tienda con secuencia mayor a "desde" (el orden de confirmación;
+     * los eventos recién guardados aparecen cuando se numeran, en menos de un segundo).
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "eventos": [
+     *     { "id": 1041, "secuencia": 1041, "tiendaId": 1, "tipo": "STOCK", "entidadId": 3, "creado": "2025-06-01T10:22:05",
+     *       "datos": { "productoId": 3, "stockActual": 18, "diferencia": -2 } },
+     *     { "id": 1042, "secuencia": 1042, "tiendaId": 1, "tipo": "VENTA", "entidadId": 815, "creado": "2025-06-01T10:22:05",
+     *       "datos": { "ventaId": 815, "timestamp": "2025-06-01T10:22:05", "metodoPago": "Efectivo", "total": 2400.0,
+     *                  "items": [ { "productoId": 3, "cantidad": 2, "precioUnitario": 1200.0, "descuento": 0.0 } ] } }
+     *   ],
+     *   "ultimoId": 1042,
+     *   "hayMas": false
+     * }
+     */
+    @GetMapping
+    public ResponseEntity<FeedEventosDTO> obtenerFeed(
+            @RequestParam(defaultValue = "0") long desde,
+            @RequestParam(defaultValue = "500") int limite) {
+        return ResponseEntity.ok(eventosSalidaService.obtenerFeed(TiendaContext.actual(), desde, limite));
+    }
+
+    /**
+     * GET /api/eventos/consumidores/{consumidor}?limite=500
+     * Página siguiente al cursor guardado del consumidor (desde el principio si es nuevo).
+     */
+    @GetMapping("/consumidores/{consumidor}")
+    public ResponseEntity<FeedEventosDTO> obtenerSiguientes(
+            @PathVariable String consumidor,
+            @RequestParam(defaultValue = "500") int limite) {
+        Long tiendaId = TiendaContext.actual();
+        long desde = eventosSalidaService.obtenerCursor(consumidor, tiendaId);
+        return ResponseEntity.ok(eventosSalidaService.obtenerFeed(tiendaId, desde, limite));
+    }
+
+    /**
+     * PUT /api/eventos/consumidores/{consumidor}
+     * Body: { "ultimoId": 1042 }
+     * Confirma lo procesado; el cursor nunca retrocede. Responde la posición guardada.
+     */
+    @PutMapping("/consumidores/{consumidor}")
+    public ResponseEntity<CursorRequest> confirmar(@PathVariable String consumidor,
+                                                   @RequestBody CursorRequest request) {
+        if (request.getUltimoId() == null) {
+            throw new IllegalArgumentException("ultimoId es obligatorio");
+        }
+        long ultimoId = eventosSalidaService.confirmar(consumidor, TiendaContext.actual(), request.getUltimoId());
+        return ResponseEntity.ok(new CursorRequest(ultimoId));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CursorRequest {
+        private Long ultimoId;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.dto.LineaCompraDTO;
+import com.kmanager.kiosco_backend.entity.OrdenCompra;
+import com.kmanager.kiosco_backend.service.OrdenCompraService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para las órdenes de compra a proveedores.
+ *
+ * Flujo típico:
+ * 1. POST /api/ordenes-compra                  → se arma el pedido (PENDIENTE)
+ * 2. POST /api/ordenes-compra/{id}/recepcion   → llega la mercadería: se escanea
+ *    todo y se suma el stock de la entrega entera en una sola operación
+ */
+@RestController
+@RequestMapping("/api/ordenes-compra")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class OrdenCompraController {
+
+    private final OrdenCompraService ordenCompraService;
+
+    /**
+     * GET /api/ordenes-compra?estado=PENDIENTE
+     * Órdenes de la tienda, de la más nueva a la más vieja (estado opcional).
+     */
+    @GetMapping
+    public ResponseEntity<List<OrdenCompra>> obtenerTodas(@RequestParam(required = false) String estado) {
+        return ResponseEntity.ok(ordenCompraService.obtenerOrdenes(estado));
+    }
+
+    /**
+     * GET /api/ordenes-compra/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<OrdenCompra> obtenerPorId(@PathVariable Long id) {
+        return ordenCompraService.obtenerOrden(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/ordenes-compra
+     * Crea una orden PENDIENTE (sin costo, se usa el costo actual del producto).
+     *
+     * Body:
+     * {
+     *   "proveedorId": 1,
+     *   "observaciones": "Entrega el martes",
+     *   "items": [
+     *     { "productoId": 3, "cantidad": 24 },
+     *     { "codigoBarras": "7790895000997", "cantidad": 12, "precioCosto": 850 }
+     *   ]
+     * }
+     */
+    @PostMapping
+    public ResponseEntity<OrdenCompra> crear(@RequestBody CrearOrdenRequest request) {
+        OrdenCompra orden = ordenCompraService.crearOrden(
+                request.getProveedorId(), request.getItems(), request.getObservaciones());
+        return ResponseEntity.status(HttpStatus.CREATED).body(orden);
+    }
+
+    /**
+     * POST /api/ordenes-compra/{id}/recepcion
+     * Recibe la mercadería: suma el stock y actualiza los costos de toda la
+     * entrega en una sola transacción.
+     *
+     * Body (opcional; sin body se recibe exactamente lo pedido):
+     * {
+     *   "items": [
+     *     { "codigoBarras": "7790895000997", "cantidad": 12, "precioCosto": 900 },
+     *     { "codigoBarras": "7790580123456", "cantidad": 6 }
+     *   ]
+     * }
+     */
+    @PostMapping("/{id}/recepcion")
+    public ResponseEntity<OrdenCompra> recibir(@PathVariable Long id,
+                                               @RequestBody(required = false) RecepcionRequest request) {
+        List<LineaCompraDTO> items = request != null ? request.getItems() : null;
+        return ResponseEntity.ok(ordenCompraService.recibir(id, items));
+    }
+
+    /**
+     * POST /api/ordenes-compra/{id}/cancelar
+     */
+    @PostMapping("/{id}/cancelar")
+    public ResponseEntity<OrdenCompra> cancelar(@PathVariable Long id) {
+        return ResponseEntity.ok(ordenCompraService.cancelarOrden(id));
+    }
+
+    @Data
+    public static class CrearOrdenRequest {
+        private Long proveedorId;
+        private String observaciones;
+        private List<LineaCompraDTO> items;
+    }
+
+    @Data
+    public static class RecepcionRequest {
+        private List<LineaCompraDTO> items;
+    }
+}
@@ -1,23 +1,37 @@
 package com.kmanager.kiosco_backend.controller;
 
+import com.kmanager.kiosco_backend.dto.CatalogoCompactoDTO;
+import com.kmanager.kiosco_backend.dto.PrecioVigenteDTO;
+import com.kmanager.kiosco_backend.dto.ProductoLoteDTO;
 import com.kmanager.kiosco_backend.dto.ProductoDTO;
+import com.kmanager.kiosco_backend.entity.PrecioHistorial;
 import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.exception.PrecondicionRequeridaException;
+import com.kmanager.kiosco_backend.service.HistorialPreciosService;
 import com.kmanager.kiosco_backend.service.ProductoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/productos")
 @CrossOrigin(origins = "*")
+@Lazy(false)
 @RequiredArgsConstructor
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final HistorialPreciosService historialPreciosService;
 
     @GetMapping
     public ResponseEntity<List<Producto>> obtenerTodos() {
@@ -25,6 +39,19 @@ public class ProductoController {
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * GET /api/productos/compacto
+     * Obtiene el catálogo completo en formato columnar (ver CatalogoCompactoDTO).
+     *
+     * Pensado para las tablets del POS: el payload es mucho más chico que
+     * GET /api/productos. Con "Accept: application/x-jackson-smile" se
+     * devuelve en binario (Smile) en lugar de JSON.
+     */
+    @GetMapping("/compacto")
+    public ResponseEntity<CatalogoCompactoDTO> obtenerCatalogoCompacto() {
+        return ResponseEntity.ok(productoService.obtenerCatalogoCompacto());
+    }
+
     /**
      * Obtiene un producto espicifico por su ID
      * Extrae el valor de la URL
@@ -53,18 +80,26 @@ public class ProductoController {
     }
 
     /**
-     * Actualiza un producto existente
+     * Actualiza los datos de catálogo de un producto (el stock se ignora:
+     * se cambia con PATCH /api/productos/{id}/stock).
+     *
+     * Hay que mandar la "version" que se leyó (sin ella responde 428
+     * Precondition Required): si otro modificó el producto mientras tanto
+     * responde 409 Conflict.
+     *
+     * Body: { "nombre": "Coca Cola 500ml", ..., "version": 3 }
      */
     @PutMapping("/{id}")
     public ResponseEntity<Producto> actualizar(@PathVariable Long id, @Valid @RequestBody Producto producto) {
         try {
-            System.out.println("📥 Datos recibidos:");
-            System.out.println("  Tipo Venta: " + producto.getTipoVenta());
-            System.out.println("  Unidad Medida: " + producto.getUnidadMedida());
-            System.out.println("  Incremento: " + producto.getIncrementoMinimo());
+            log.debug("Actualizando producto {}: tipoVenta={}, unidadMedida={}, incremento={}",
+                    id, producto.getTipoVenta(), producto.getUnidadMedida(), producto.getIncrementoMinimo());
 
             Producto productoActualizado = productoService.actualizar(id, producto);
             return ResponseEntity.ok(productoActualizado);
+        } catch (ObjectOptimisticLockingFailureException | PrecondicionRequeridaException e) {
+            //409 / 428 con el mensaje del GlobalExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -167,6 +202,51 @@ public class ProductoController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * POST /api/productos/lote
+     * Busca varios productos (por ID o código de barras) en una sola llamada,
+     * por ejemplo para recuperar un carrito. Se responde en el mismo orden.
+     *
+     * Body:
+     * [ { "id": 3 }, { "codigoBarras": "7790895000997" }, { "id": 99 } ]
+     *
+     * Respuesta:
+     * [
+     *   { "id": 3, "codigoBarras": null, "encontrado": true, "producto": { ... } },
+     *   { "id": null, "codigoBarras": "7790895000997", "encontrado": true, "producto": { ... } },
+     *   { "id": 99, "codigoBarras": null, "encontrado": false, "producto": null }
+     * ]
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<List<ProductoLoteDTO>> buscarLote(@RequestBody List<ProductoLoteDTO> consultas) {
+        return ResponseEntity.ok(productoService.buscarLote(consultas));
+    }
+
+    /**
+     * GET /api/productos/{id}/historial-precios
+     * Historial de precios de venta y costo del producto, del más viejo al más nuevo.
+     */
+    @GetMapping("/{id}/historial-precios")
+    public ResponseEntity<List<PrecioHistorial>> obtenerHistorialPrecios(@PathVariable Long id) {
+        return ResponseEntity.ok(historialPreciosService.obtenerHistorial(id));
+    }
+
+    /**
+     * GET /api/productos/precios-en?momento=2025-06-01T12:00:00&ids=1,2,3
+     * Precio de venta y costo que tenían los productos en un momento dado.
+     *
+     * Ejemplo de respuesta:
+     * [
+     *   { "productoId": 1, "precioVenta": 1200.0, "precioCosto": 800.0, "vigenteDesde": "2025-05-20T09:14:00" }
+     * ]
+     */
+    @GetMapping("/precios-en")
+    public ResponseEntity<List<PrecioVigenteDTO>> obtenerPreciosEn(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime momento,
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(historialPreciosService.obtenerPreciosEn(ids, momento));
+    }
+
     /**
      * Clase interna para recibir el ajuste de stock.
      * Representa el JSON: { "cantidad": 10 }
@@ -0,0 +1,47 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.entity.Proveedor;
+import com.kmanager.kiosco_backend.service.OrdenCompraService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para los proveedores de la tienda.
+ */
+@RestController
+@RequestMapping("/api/proveedores")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ProveedorController {
+
+    private final OrdenCompraService ordenCompraService;
+
+    /**
+     * GET /api/proveedores
+     */
+    @GetMapping
+    public ResponseEntity<List<Proveedor>> obtenerTodos() {
+        return ResponseEntity.ok(ordenCompraService.obtenerProveedores());
+    }
+
+    /**
+     * POST /api/proveedores
+     * Body: { "nombre": "Distribuidora Norte", "telefono": "11-5555-0000", "email": "ventas@norte.com" }
+     */
+    @PostMapping
+    public ResponseEntity<Proveedor> crear(@RequestBody Proveedor proveedor) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ordenCompraService.crearProveedor(proveedor));
+    }
+
+    /**
+     * PUT /api/proveedores/{id}
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Proveedor> actualizar(@PathVariable Long id, @RequestBody Proveedor proveedor) {
+        return ResponseEntity.ok(ordenCompraService.actualizarProveedor(id, proveedor));
+    }
+}
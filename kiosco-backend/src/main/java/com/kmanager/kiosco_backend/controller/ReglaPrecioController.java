@@ -0,0 +1,86 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.entity.ReglaPrecio;
+import com.kmanager.kiosco_backend.service.ReglaPrecioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para las reglas de precio (promociones).
+ *
+ * Ejemplos de body:
+ * - 10% en Bebidas:         { "nombre": "10% Bebidas", "tipo": "PORCENTAJE", "categoria": "Bebidas", "porcentaje": 10 }
+ * - 2x1 en un producto:     { "nombre": "2x1 Alfajor", "tipo": "NXM", "productoId": 3, "llevar": 2, "pagar": 1 }
+ * - Combo:                  { "nombre": "Café + medialuna", "tipo": "COMBO", "productosCombo": { "7": 1, "8": 1 }, "precioCombo": 1500 }
+ * - Happy hour (opcional):  "horaDesde": "18:00", "horaHasta": "20:00"
+ */
+@RestController
+@RequestMapping("/api/reglas-precio")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ReglaPrecioController {
+
+    private final ReglaPrecioService reglaPrecioService;
+
+    /**
+     * GET /api/reglas-precio
+     * Obtiene todas las reglas de la tienda (activas e inactivas).
+     */
+    @GetMapping
+    public ResponseEntity<List<ReglaPrecio>> obtenerTodas() {
+        return ResponseEntity.ok(reglaPrecioService.obtenerTodas());
+    }
+
+    /**
+     * GET /api/reglas-precio/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ReglaPrecio> obtenerPorId(@PathVariable Long id) {
+        return reglaPrecioService.obtenerPorId(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/reglas-precio
+     * Crea una regla. Se aplica a las ventas siguientes, sin reiniciar.
+     */
+    @PostMapping
+    public ResponseEntity<ReglaPrecio> crear(@RequestBody ReglaPrecio regla) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reglaPrecioService.crear(regla));
+    }
+
+    /**
+     * PUT /api/reglas-precio/{id}
+     * Modifica una regla (para desactivarla: "activa": false).
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ReglaPrecio> actualizar(@PathVariable Long id, @RequestBody ReglaPrecio regla) {
+        return ResponseEntity.ok(reglaPrecioService.actualizar(id, regla));
+    }
+
+    /**
+     * DELETE /api/reglas-precio/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminar(@PathVariable Long id) {
+        reglaPrecioService.eliminar(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /api/reglas-precio/recargar
+     * Vuelve a compilar las reglas activas de la tienda.
+     *
+     * Respuesta: { "reglasActivas": 4 }
+     */
+    @PostMapping("/recargar")
+    public ResponseEntity<Map<String, Integer>> recargar() {
+        return ResponseEntity.ok(Map.of("reglasActivas", reglaPrecioService.recargar()));
+    }
+}
@@ -1,14 +1,29 @@
 package com.kmanager.kiosco_backend.controller;
 
+import com.kmanager.kiosco_backend.dto.MargenProductoDTO;
+import com.kmanager.kiosco_backend.dto.ResumenTiendaDTO;
+import com.kmanager.kiosco_backend.dto.ResumenVentasDTO;
+import com.kmanager.kiosco_backend.dto.ValuacionInventarioDTO;
 import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.ProductoResumenDiario;
+import com.kmanager.kiosco_backend.entity.VentaResumenDiario;
+import com.kmanager.kiosco_backend.service.HistorialPreciosService;
 import com.kmanager.kiosco_backend.service.ProductoService;
+import com.kmanager.kiosco_backend.service.ReportesParalelos;
+import com.kmanager.kiosco_backend.service.RetencionVentasService;
+import com.kmanager.kiosco_backend.service.TiendaService;
+import com.kmanager.kiosco_backend.service.ValuacionInventarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,6 +33,11 @@ import java.util.List;
 public class ReporteController {
 
     private final ProductoService productoService;
+    private final TiendaService tiendaService;
+    private final HistorialPreciosService historialPreciosService;
+    private final ReportesParalelos reportesParalelos;
+    private final ValuacionInventarioService valuacionInventarioService;
+    private final RetencionVentasService retencionVentasService;
 
     /**
      * GET /api/reportes/stock-bajo
@@ -67,6 +87,120 @@ public class ReporteController {
         return ResponseEntity.ok(new CountResponse(productos.size()));
     }
 
+    /**
+     * GET /api/reportes/consolidado?inicio=...&fin=...
+     * Reporte consolidado de TODAS las tiendas (ignora el header X-Tienda-Id).
+     *
+     * Ejemplo de respuesta:
+     * [
+     *   { "tiendaId": 1, "nombre": "Principal", "cantidadVentas": 120, "totalVendido": 185000.0,
+     *     "cantidadProductos": 340, "productosStockBajo": 12 },
+     *   { "tiendaId": 2, "nombre": "Kiosco Centro", "cantidadVentas": 95, "totalVendido": 143000.0,
+     *     "cantidadProductos": 280, "productosStockBajo": 4 }
+     * ]
+     */
+    @GetMapping("/consolidado")
+    public ResponseEntity<List<ResumenTiendaDTO>> obtenerReporteConsolidado(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        return ResponseEntity.ok(tiendaService.generarReporteConsolidado(inicio, fin));
+    }
+
+    /**
+     * GET /api/reportes/margenes?inicio=...&fin=...
+     * Margen por producto en el rango, usando el costo que tenía cada
+     * producto al momento de la venta (no el costo actual).
+     *
+     * Ejemplo de respuesta:
+     * [
+     *   { "productoId": 1, "nombre": "Coca Cola 500ml", "unidades": 120, "ingresos": 144000.0,
+     *     "costo": 93600.0, "margen": 50400.0, "margenPorcentaje": 35.0 }
+     * ]
+     */
+    @GetMapping("/margenes")
+    public ResponseEntity<List<MargenProductoDTO>> obtenerMargenes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        return ResponseEntity.ok(historialPreciosService.calcularMargenes(inicio, fin));
+    }
+
+    /**
+     * GET /api/reportes/ventas?inicio=...&fin=...&particion=DIA
+     * Resumen de ventas de un rango largo, calculado en paralelo por día o
+     * por semana (si no se indica: semana para rangos de más de 62 días).
+     * Las particiones ya cerradas se sirven desde cache.
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "inicio": "2025-01-01 00:00:00", "fin": "2025-03-31 23:59:59", "particion": "SEMANA",
+     *   "cantidadVentas": 10450, "totalVendido": 15230000.0, "unidades": 38110,
+     *   "totalesPorMetodoPago": { "Efectivo": 9100000.0, "Tarjeta": 6130000.0 },
+     *   "particiones": [ { "inicio": "2025-01-01 00:00:00", "fin": "2025-01-06 00:00:00", "cantidadVentas": 610, ... } ],
+     *   "particionesDesdeCache": 12
+     * }
+     */
+    @GetMapping("/ventas")
+    public ResponseEntity<ResumenVentasDTO> obtenerResumenVentas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(required = false) String particion) {
+        return ResponseEntity.ok(reportesParalelos.resumirVentas(inicio, fin, particion));
+    }
+
+    /**
+     * GET /api/reportes/valuacion
+     * Valor del stock al costo y a precio de venta, total y por categoría.
+     * Los totales se mantienen en memoria: no recorre los productos.
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "cantidadProductos": 120,
+     *   "valorCosto": 850000.0,
+     *   "valorVenta": 1240000.0,
+     *   "margenPotencial": 390000.0,
+     *   "categorias": [
+     *     { "id": 1, "nombre": "Bebidas", "cantidadProductos": 24, "productosStockBajo": 3,
+     *       "valorStockCosto": 185000.0, "valorStockVenta": 260000.0 }
+     *   ]
+     * }
+     */
+    @GetMapping("/valuacion")
+    public ResponseEntity<ValuacionInventarioDTO> obtenerValuacion() {
+        return ResponseEntity.ok(valuacionInventarioService.obtener());
+    }
+
+    /**
+     * GET /api/reportes/historico?desde=2023-01-01&hasta=2023-12-31
+     * Totales diarios por método de pago de las ventas que ya borró la
+     * retención (ver kiosco.retencion.meses). Las ventas recientes no aparecen acá.
+     *
+     * Ejemplo de respuesta:
+     * [
+     *   { "id": 1, "tiendaId": 1, "fecha": "2023-01-02", "metodoPago": "Efectivo",
+     *     "cantidadVentas": 140, "cantidadDevoluciones": 2, "total": 98500.0 }
+     * ]
+     */
+    @GetMapping("/historico")
+    public ResponseEntity<List<VentaResumenDiario>> obtenerHistorico(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(retencionVentasService.obtenerHistorico(desde, hasta));
+    }
+
+    /**
+     * GET /api/reportes/historico/productos?desde=2023-01-01&hasta=2023-01-31
+     * Unidades e importe diarios por producto de las ventas ya borradas.
+     *
+     * Ejemplo de respuesta:
+     * [ { "id": 7, "tiendaId": 1, "fecha": "2023-01-02", "productoId": 3, "unidades": 48, "importe": 28800.0 } ]
+     */
+    @GetMapping("/historico/productos")
+    public ResponseEntity<List<ProductoResumenDiario>> obtenerHistoricoProductos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(retencionVentasService.obtenerHistoricoProductos(desde, hasta));
+    }
+
     /**
      * DTO para respuestas de conteo.
      */
@@ -0,0 +1,102 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.ResumenDiarioDTO;
+import com.kmanager.kiosco_backend.service.ReporteDiarioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Controlador REST para los reportes diarios precalculados (ver ReporteDiarioService).
+ *
+ * Los archivos se guardan comprimidos: si el cliente acepta gzip se envían
+ * tal cual (Content-Encoding: gzip), si no se descomprimen al vuelo.
+ */
+@RestController
+@RequestMapping("/api/reportes/diarios")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ReporteDiarioController {
+
+    private final ReporteDiarioService reporteDiarioService;
+
+    /**
+     * GET /api/reportes/diarios
+     * Días con reporte generado, del más nuevo al más viejo.
+     *
+     * Ejemplo de respuesta: ["2025-06-02", "2025-06-01", "2025-05-31"]
+     */
+    @GetMapping
+    public ResponseEntity<List<LocalDate>> obtenerFechas() {
+        return ResponseEntity.ok(reporteDiarioService.obtenerFechas(TiendaContext.actual()));
+    }
+
+    /**
+     * GET /api/reportes/diarios/{fecha}
+     * Resumen del día (JSON). Ejemplo: GET /api/reportes/diarios/2025-06-01
+     */
+    @GetMapping("/{fecha}")
+    public ResponseEntity<StreamingResponseBody> obtenerResumen(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return enviar(fecha, ReporteDiarioService.RESUMEN, MediaType.APPLICATION_JSON, acceptEncoding);
+    }
+
+    /**
+     * GET /api/reportes/diarios/{fecha}/{archivo}
+     * Descarga un CSV del día: ventas-por-producto.csv o stock.csv
+     */
+    @GetMapping("/{fecha}/{archivo:.+\\.csv}")
+    public ResponseEntity<StreamingResponseBody> obtenerCsv(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @PathVariable String archivo,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return enviar(fecha, archivo, new MediaType("text", "csv"), acceptEncoding);
+    }
+
+    /**
+     * POST /api/reportes/diarios/{fecha}/generar
+     * Genera (o regenera) el reporte de un día de la tienda, por ejemplo para
+     * días anteriores a la primera ejecución programada.
+     * Si el día no tenía reporte, el stock es el actual ("stockTomado" dice
+     * cuándo se leyó); si ya tenía, se conserva el stock guardado.
+     */
+    @PostMapping("/{fecha}/generar")
+    public ResponseEntity<ResumenDiarioDTO> generar(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(reporteDiarioService.generar(TiendaContext.actual(), fecha));
+    }
+
+    private ResponseEntity<StreamingResponseBody> enviar(LocalDate fecha, String archivo, MediaType tipo,
+                                                         String acceptEncoding) {
+        Path ruta = reporteDiarioService.obtenerArchivo(TiendaContext.actual(), fecha, archivo).orElse(null);
+        if (ruta == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().contentType(tipo);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (!MediaType.APPLICATION_JSON.equals(tipo)) {
+            respuesta.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fecha + "-" + archivo + "\"");
+        }
+        return respuesta.body(salida -> {
+            try (InputStream entrada = gzip ? Files.newInputStream(ruta) : new GZIPInputStream(Files.newInputStream(ruta))) {
+                entrada.transferTo(salida);
+            }
+        });
+    }
+}
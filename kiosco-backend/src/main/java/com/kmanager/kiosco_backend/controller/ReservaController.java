@@ -0,0 +1,82 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.ReservaStockDTO;
+import com.kmanager.kiosco_backend.dto.StockDisponibleDTO;
+import com.kmanager.kiosco_backend.service.ReservasStock;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para las reservas de stock de los carritos del POS.
+ *
+ * Flujo típico de una caja:
+ * 1. POST /api/reservas                 → al escanear el primer producto
+ * 2. PUT  /api/reservas/{id}            → cada vez que cambia el carrito (renueva el vencimiento)
+ * 3. POST /api/ventas con "reservaId"   → la venta usa y libera la reserva
+ *    (o DELETE /api/reservas/{id} si se cancela el carrito)
+ *
+ * Si el carrito no se toca durante kiosco.reservas.ttl-segundos la reserva se libera sola.
+ */
+@RestController
+@RequestMapping("/api/reservas")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ReservaController {
+
+    private final ReservasStock reservasStock;
+
+    /**
+     * POST /api/reservas
+     * Body: { "terminal": "CAJA-1", "items": { "3": 2, "7": 1 } }
+     *
+     * Si no hay stock disponible para algún producto responde 400 y no reserva nada.
+     */
+    @PostMapping
+    public ResponseEntity<ReservaStockDTO> crear(@RequestBody ReservaRequest request) {
+        ReservaStockDTO reserva = reservasStock.crear(TiendaContext.actual(), request.getTerminal(), request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+    }
+
+    /**
+     * PUT /api/reservas/{id}
+     * Reemplaza el carrito completo: Body: { "items": { "3": 3, "7": 1 } }
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ReservaStockDTO> actualizar(@PathVariable String id, @RequestBody ReservaRequest request) {
+        return ResponseEntity.ok(reservasStock.actualizar(TiendaContext.actual(), id, request.getItems()));
+    }
+
+    /**
+     * DELETE /api/reservas/{id}
+     * Libera la reserva (carrito cancelado).
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> liberar(@PathVariable String id) {
+        reservasStock.liberar(TiendaContext.actual(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * GET /api/reservas/disponible?ids=1,2,3
+     * Stock disponible de los productos (stockActual - reservado).
+     *
+     * Respuesta: [ { "productoId": 1, "stockActual": 10, "reservado": 3, "disponible": 7 } ]
+     */
+    @GetMapping("/disponible")
+    public ResponseEntity<List<StockDisponibleDTO>> obtenerDisponibles(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(reservasStock.obtenerDisponibles(TiendaContext.actual(), ids));
+    }
+
+    @Data
+    public static class ReservaRequest {
+        private String terminal;
+        private Map<Long, Integer> items;
+    }
+}
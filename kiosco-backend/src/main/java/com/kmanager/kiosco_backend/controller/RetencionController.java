@@ -0,0 +1,46 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.dto.EstadoRetencionDTO;
+import com.kmanager.kiosco_backend.service.RetencionVentasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de la retención de ventas (ver RetencionVentasService).
+ * Afecta a todas las tiendas (ignora el header X-Tienda-Id).
+ */
+@RestController
+@RequestMapping("/api/retencion")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class RetencionController {
+
+    private final RetencionVentasService retencionVentasService;
+
+    /**
+     * GET /api/retencion
+     * Progreso de la última ejecución (o de la que está en curso).
+     *
+     * Ejemplo de respuesta:
+     * {
+     *   "habilitada": true, "enCurso": true,
+     *   "inicio": "2025-06-02T04:00:00", "fin": null, "limite": "2023-06-02T00:00:00",
+     *   "lotes": 42, "ventasBorradas": 21000, "itemsBorrados": 63400, "eventosBorrados": 0, "error": null
+     * }
+     */
+    @GetMapping
+    public ResponseEntity<EstadoRetencionDTO> obtenerEstado() {
+        return ResponseEntity.ok(retencionVentasService.obtenerEstado());
+    }
+
+    /**
+     * POST /api/retencion/ejecutar
+     * Lanza la retención ahora, en segundo plano (responde 202 sin esperar).
+     */
+    @PostMapping("/ejecutar")
+    public ResponseEntity<EstadoRetencionDTO> ejecutar() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(retencionVentasService.ejecutarEnSegundoPlano());
+    }
+}
@@ -0,0 +1,95 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.service.TicketService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Controlador REST para los tickets de venta (ver TicketService).
+ *
+ * formato=texto: texto plano del ancho de la impresora (ancho=32, 42 o 48 columnas).
+ * formato=html: página lista para imprimir o guardar como PDF desde el navegador.
+ */
+@RestController
+@RequestMapping("/api/tickets")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class TicketController {
+
+    private static final MediaType TEXTO = new MediaType("text", "plain", StandardCharsets.UTF_8);
+    private static final MediaType HTML = new MediaType("text", "html", StandardCharsets.UTF_8);
+
+    private final TicketService ticketService;
+
+    /**
+     * GET /api/tickets/{ventaId}?formato=texto&ancho=42
+     * Ticket de una venta, para reimprimirlo.
+     *
+     * Ejemplo de respuesta (texto, ancho=32):
+     *         Kiosco Centro
+     * --------------------------------
+     * Ticket #15      01/06/2025 10:22
+     * --------------------------------
+     * Alfajor triple
+     *   2 x $800,00          $1.600,00
+     *   2x1 alfajores         -$800,00
+     * --------------------------------
+     * TOTAL                    $800,00
+     * Pago: Efectivo
+     */
+    @GetMapping("/{ventaId}")
+    public ResponseEntity<StreamingResponseBody> obtenerTicket(
+            @PathVariable Long ventaId,
+            @RequestParam(defaultValue = TicketService.TEXTO) String formato,
+            @RequestParam(defaultValue = "42") int ancho) {
+        Long tiendaId = TiendaContext.actual();
+        ticketService.validar(formato, ancho);
+        //la venta se busca antes de empezar la respuesta: si no existe se contesta el error normal
+        Venta venta = ticketService.obtenerVenta(tiendaId, ventaId);
+        return ResponseEntity.ok()
+                .contentType(tipo(formato))
+                .body(salida -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                    ticketService.escribir(tiendaId, venta, formato, ancho, writer);
+                });
+    }
+
+    /**
+     * GET /api/tickets?fecha=2025-06-01&formato=html
+     * Todos los tickets de un día, uno detrás del otro (reimpresión o archivo).
+     * Se descarga como archivo: tickets-2025-06-01.txt o .html
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> obtenerTicketsDelDia(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @RequestParam(defaultValue = TicketService.TEXTO) String formato,
+            @RequestParam(defaultValue = "42") int ancho) {
+        Long tiendaId = TiendaContext.actual();
+        ticketService.validar(formato, ancho);
+        String archivo = "tickets-" + fecha + (TicketService.HTML.equals(formato) ? ".html" : ".txt");
+        return ResponseEntity.ok()
+                .contentType(tipo(formato))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+                .body(salida -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                    ticketService.escribirDia(tiendaId, fecha, formato, ancho, writer);
+                });
+    }
+
+    private static MediaType tipo(String formato) {
+        return TicketService.HTML.equals(formato) ? HTML : TEXTO;
+    }
+}
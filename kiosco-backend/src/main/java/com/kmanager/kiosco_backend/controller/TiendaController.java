@@ -0,0 +1,45 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.service.TiendaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para las tiendas (kioscos).
+ *
+ * El resto de la API trabaja siempre sobre la tienda indicada en el
+ * header "X-Tienda-Id" (o la tienda 1 si no se envía).
+ */
+@RestController
+@RequestMapping("/api/tiendas")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class TiendaController {
+
+    private final TiendaService tiendaService;
+
+    /**
+     * GET /api/tiendas
+     * Obtiene todas las tiendas.
+     */
+    @GetMapping
+    public ResponseEntity<List<Tienda>> obtenerTodas() {
+        return ResponseEntity.ok(tiendaService.obtenerTodas());
+    }
+
+    /**
+     * POST /api/tiendas
+     * Crea una nueva tienda.
+     *
+     * Body: { "nombre": "Kiosco Centro", "direccion": "San Martín 123" }
+     */
+    @PostMapping
+    public ResponseEntity<Tienda> crear(@RequestBody Tienda tienda) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(tiendaService.crear(tienda));
+    }
+}
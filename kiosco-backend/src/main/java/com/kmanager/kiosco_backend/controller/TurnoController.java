@@ -0,0 +1,100 @@
+package com.kmanager.kiosco_backend.controller;
+
+import com.kmanager.kiosco_backend.entity.Turno;
+import com.kmanager.kiosco_backend.service.TurnoService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para los turnos de caja (apertura y cierre de caja).
+ *
+ * Flujo típico de una terminal:
+ * 1. POST /api/turnos/abrir              → abre la caja
+ * 2. POST /api/ventas con "terminal"     → cada venta suma a los totales del turno
+ * 3. POST /api/turnos/{id}/cerrar        → devuelve el resumen ya calculado
+ */
+@RestController
+@RequestMapping("/api/turnos")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class TurnoController {
+
+    private final TurnoService turnoService;
+
+    /**
+     * POST /api/turnos/abrir
+     * Abre un turno para una terminal.
+     *
+     * Body: { "terminal": "CAJA-1", "montoInicial": 5000 }
+     */
+    @PostMapping("/abrir")
+    public ResponseEntity<Turno> abrir(@RequestBody AbrirTurnoRequest request) {
+        Turno turno = turnoService.abrir(request.getTerminal(), request.getMontoInicial());
+        return ResponseEntity.status(HttpStatus.CREATED).body(turno);
+    }
+
+    /**
+     * POST /api/turnos/{id}/cerrar
+     * Cierra el turno y devuelve el resumen (totales por método de pago,
+     * cantidad de ventas e items, devoluciones y diferencia de caja).
+     *
+     * Body (opcional): { "efectivoContado": 23500 }
+     */
+    @PostMapping("/{id}/cerrar")
+    public ResponseEntity<Turno> cerrar(@PathVariable Long id,
+                                        @RequestBody(required = false) CerrarTurnoRequest request) {
+        Double efectivoContado = request != null ? request.getEfectivoContado() : null;
+        return ResponseEntity.ok(turnoService.cerrar(id, efectivoContado));
+    }
+
+    /**
+     * GET /api/turnos/abierto?terminal=CAJA-1
+     * Obtiene el turno abierto de una terminal con sus totales parciales.
+     */
+    @GetMapping("/abierto")
+    public ResponseEntity<Turno> obtenerAbierto(@RequestParam String terminal) {
+        return turnoService.obtenerAbierto(terminal)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/turnos/{id}
+     * Obtiene un turno (abierto o cerrado) por ID.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Turno> obtenerPorId(@PathVariable Long id) {
+        return turnoService.obtenerPorId(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/turnos?inicio=...&fin=...
+     * Obtiene los turnos abiertos en un rango de fechas (historial de cierres).
+     */
+    @GetMapping
+    public ResponseEntity<List<Turno>> obtenerEntreFechas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        return ResponseEntity.ok(turnoService.obtenerEntreFechas(inicio, fin));
+    }
+
+    @Data
+    public static class AbrirTurnoRequest {
+        private String terminal;
+        private Double montoInicial;
+    }
+
+    @Data
+    public static class CerrarTurnoRequest {
+        private Double efectivoContado;
+    }
+}
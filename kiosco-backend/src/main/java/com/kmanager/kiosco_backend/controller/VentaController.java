@@ -1,10 +1,14 @@
 package com.kmanager.kiosco_backend.controller;
 
+import com.kmanager.kiosco_backend.dto.VentasCompactasDTO;
+import com.kmanager.kiosco_backend.dto.VentasPorHoraDTO;
+import com.kmanager.kiosco_backend.dto.VentasPorIntervaloDTO;
 import com.kmanager.kiosco_backend.entity.Venta;
 import com.kmanager.kiosco_backend.service.VentaService;
 import jakarta.validation.Valid;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +24,7 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/ventas")
 @CrossOrigin(origins = "*")
+@Lazy(false)
 @RequiredArgsConstructor
 public class VentaController {
 
@@ -32,6 +37,9 @@ public class VentaController {
      * Recibe un JSON como este:
      * {
      *   "metodoPago": "Efectivo",
+     *   "terminal": "CAJA-1",   // opcional: suma la venta al turno de caja abierto
+     *   "reservaId": "…",       // opcional: reserva de stock del carrito (POST /api/reservas)
+     *   "clienteId": 4,         // opcional; obligatorio con "metodoPago": "Cuenta corriente" (fiado)
      *   "items": {
      *     "1": 2,    // Producto ID 1, cantidad 2
      *     "3": 1,    // Producto ID 3, cantidad 1
@@ -50,7 +58,10 @@ public class VentaController {
         try {
             Venta venta = ventaService.registraVenta(
                     request.getMetodoPago(),
-                    request.getItems()
+                    request.getItems(),
+                    request.getTerminal(),
+                    request.getReservaId(),
+                    request.getClienteId()
             );
 
             // Devuelve la venta con código 201 Created
@@ -68,6 +79,68 @@ public class VentaController {
         }
     }
 
+    /**
+     * POST /api/ventas/{id}/anular
+     * Anula una venta: devuelve todos los productos que queden sin devolver.
+     *
+     * Repone el stock de todos los productos en una sola transacción y registra
+     * una venta negativa vinculada a la original (ver POST /api/ventas/{id}/devolucion).
+     *
+     * Body (opcional): { "terminal": "CAJA-1" }
+     */
+    @PostMapping("/{id}/anular")
+    public ResponseEntity<?> anularVenta(@PathVariable Long id,
+                                         @RequestBody(required = false) DevolucionRequest request) {
+        String terminal = request != null ? request.getTerminal() : null;
+        try {
+            Venta devolucion = ventaService.registrarDevolucion(id, null, terminal);
+            return ResponseEntity.status(HttpStatus.CREATED).body(devolucion);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/ventas/{id}/devolucion
+     * Devuelve parte de los productos de una venta.
+     *
+     * Recibe un JSON como este:
+     * {
+     *   "terminal": "CAJA-1",   // opcional
+     *   "items": {
+     *     "1": 1,    // devuelve 1 unidad del producto ID 1
+     *     "5": 2     // devuelve 2 unidades del producto ID 5
+     *   }
+     * }
+     *
+     * Devuelve la venta negativa registrada (cantidades y total negativos).
+     */
+    @PostMapping("/{id}/devolucion")
+    public ResponseEntity<?> registrarDevolucion(@PathVariable Long id,
+                                                 @RequestBody DevolucionRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("La devolución debe tener al menos un producto"));
+        }
+        try {
+            Venta devolucion = ventaService.registrarDevolucion(id, request.getItems(), request.getTerminal());
+            return ResponseEntity.status(HttpStatus.CREATED).body(devolucion);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/ventas/{id}/devoluciones
+     * Obtiene las devoluciones registradas para una venta.
+     */
+    @GetMapping("/{id}/devoluciones")
+    public ResponseEntity<List<Venta>> obtenerDevoluciones(@PathVariable Long id) {
+        return ResponseEntity.ok(ventaService.obtenerDevoluciones(id));
+    }
+
     /**
      * GET /api/ventas
      * Obtiene todas las ventas registradas.
@@ -116,6 +189,20 @@ public class VentaController {
         return ResponseEntity.ok(ventas);
     }
 
+    /**
+     * GET /api/ventas/compacto?inicio=2025-01-01T00:00:00&fin=2025-01-31T23:59:59
+     * Obtiene ventas en un rango de fechas en formato columnar (ver VentasCompactasDTO).
+     *
+     * Cada producto vendido aparece una sola vez, en lugar de repetirse
+     * dentro de cada item. Acepta también "Accept: application/x-jackson-smile".
+     */
+    @GetMapping("/compacto")
+    public ResponseEntity<VentasCompactasDTO> obtenerVentasCompactas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        return ResponseEntity.ok(ventaService.obtenerVentasCompactasEntreFechas(inicio, fin));
+    }
+
     /**
      * GET /api/ventas/ultimas
      * Obtiene las últimas 10 ventas registradas.
@@ -183,6 +270,38 @@ public class VentaController {
         return ResponseEntity.ok(estadisticas);
     }
 
+    /**
+     * GET /api/ventas/estadisticas/por-hora?inicio=...&fin=...
+     * Mapa de calor: cantidad de ventas, recaudación y unidades por
+     * día de la semana (1 = domingo ... 7 = sábado) y hora del día.
+     * Las devoluciones no cuentan como ventas (van en cantidadDevoluciones)
+     * y ya están restadas de la recaudación y las unidades.
+     *
+     * Ejemplo de respuesta:
+     * [
+     *   { "diaSemana": 2, "hora": 9, "cantidadVentas": 14, "recaudacion": 21500.0, "unidades": 37, "cantidadDevoluciones": 0 },
+     *   { "diaSemana": 2, "hora": 10, "cantidadVentas": 22, "recaudacion": 30100.0, "unidades": 51, "cantidadDevoluciones": 1 }
+     * ]
+     */
+    @GetMapping("/estadisticas/por-hora")
+    public ResponseEntity<List<VentasPorHoraDTO>> obtenerEstadisticasPorHora(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        return ResponseEntity.ok(ventaService.calcularVentasPorDiaYHora(inicio, fin));
+    }
+
+    /**
+     * GET /api/ventas/estadisticas/por-intervalo?inicio=...&fin=...&minutos=30
+     * Ventas agrupadas en intervalos del tamaño indicado (por defecto 60 minutos).
+     */
+    @GetMapping("/estadisticas/por-intervalo")
+    public ResponseEntity<List<VentasPorIntervaloDTO>> obtenerEstadisticasPorIntervalo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "60") int minutos) {
+        return ResponseEntity.ok(ventaService.calcularVentasPorIntervalo(inicio, fin, minutos));
+    }
+
     // ========== Clases auxiliares para Request/Response ==========
 
     /**
@@ -192,9 +311,21 @@ public class VentaController {
     @Data
     public static class RegistrarVentaRequest {
         private String metodoPago;
+        private String terminal;           // opcional
+        private String reservaId;          // opcional
+        private Long clienteId;            // obligatorio en "Cuenta corriente"
         private Map<Long, Integer> items;  // productoId → cantidad
     }
 
+    /**
+     * DTO para anular o devolver una venta.
+     */
+    @Data
+    public static class DevolucionRequest {
+        private String terminal;           // opcional
+        private Map<Long, Integer> items;  // productoId → cantidad a devolver
+    }
+
     /**
      * DTO para respuestas de totales.
      */
@@ -0,0 +1,104 @@
+package com.kmanager.kiosco_backend.dto;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representacion columnar del catalogo de productos.
+ *
+ * En lugar de una lista de objetos (que repite los nombres de campo en cada
+ * producto), cada campo es un arreglo y la posicion i de todos los arreglos
+ * corresponde al mismo producto. Las categorias, tipos de venta y unidades se
+ * envian una sola vez en un diccionario y cada producto guarda solo el indice.
+ *
+ * Ejemplo:
+ * {
+ *   "categorias": ["Bebidas", "Golosinas"],
+ *   "ids": [1, 2, 3],
+ *   "nombres": ["Coca Cola 500ml", "Sprite 500ml", "Alfajor"],
+ *   "categoria": [0, 0, 1],
+ *   ...
+ * }
+ */
+@Data
+public class CatalogoCompactoDTO {
+
+    // ===== Diccionarios =====
+    private List<String> categorias = new ArrayList<>();
+    private List<String> tiposVenta = new ArrayList<>();
+    private List<String> unidadesMedida = new ArrayList<>();
+
+    // ===== Columnas (una posicion por producto) =====
+    private long[] ids;
+    private String[] nombres;
+    private String[] codigosBarras;
+    private double[] preciosVenta;
+    private double[] preciosCosto;
+    private int[] stockActual;
+    private int[] stockMinimo;
+    private int[] categoria;
+    private String[] imagenesUrl;
+    private int[] tipoVenta;
+    private int[] unidadMedida;
+    private Double[] incrementoMinimo;
+
+    /**
+     * Arma el catalogo columnar a partir de la lista de productos.
+     */
+    public static CatalogoCompactoDTO desde(List<Producto> productos) {
+        int n = productos.size();
+        CatalogoCompactoDTO dto = new CatalogoCompactoDTO();
+        dto.ids = new long[n];
+        dto.nombres = new String[n];
+        dto.codigosBarras = new String[n];
+        dto.preciosVenta = new double[n];
+        dto.preciosCosto = new double[n];
+        dto.stockActual = new int[n];
+        dto.stockMinimo = new int[n];
+        dto.categoria = new int[n];
+        dto.imagenesUrl = new String[n];
+        dto.tipoVenta = new int[n];
+        dto.unidadMedida = new int[n];
+        dto.incrementoMinimo = new Double[n];
+
+        Map<String, Integer> indiceCategorias = new HashMap<>();
+        Map<String, Integer> indiceTipos = new HashMap<>();
+        Map<String, Integer> indiceUnidades = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Producto p = productos.get(i);
+            dto.ids[i] = p.getId();
+            dto.nombres[i] = p.getNombre();
+            dto.codigosBarras[i] = p.getCodigoBarras();
+            dto.preciosVenta[i] = p.getPrecioVenta();
+            dto.preciosCosto[i] = p.getPrecioCosto();
+            dto.stockActual[i] = p.getStockActual();
+            dto.stockMinimo[i] = p.getStockMinimo();
+            dto.categoria[i] = indice(p.getCategoria(), indiceCategorias, dto.categorias);
+            dto.imagenesUrl[i] = p.getImagenUrl();
+            dto.tipoVenta[i] = indice(p.getTipoVenta(), indiceTipos, dto.tiposVenta);
+            dto.unidadMedida[i] = indice(p.getUnidadMedida(), indiceUnidades, dto.unidadesMedida);
+            dto.incrementoMinimo[i] = p.getIncrementoMinimo();
+        }
+        return dto;
+    }
+
+    /**
+     * Devuelve la posicion del valor en el diccionario, agregandolo si es nuevo.
+     * Los valores nulos se codifican como -1.
+     */
+    private static int indice(String valor, Map<String, Integer> indices, List<String> diccionario) {
+        if (valor == null) {
+            return -1;
+        }
+        return indices.computeIfAbsent(valor, v -> {
+            diccionario.add(v);
+            return diccionario.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Categoria con sus contadores (ver ResumenCategorias).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoriaResumenDTO {
+    private Long id;
+    private String nombre;
+    private long cantidadProductos;
+    private long productosStockBajo;
+    //stockActual x precioCosto de los productos de la categoria
+    private double valorStockCosto;
+    //stockActual x precioVenta
+    private double valorStockVenta;
+}
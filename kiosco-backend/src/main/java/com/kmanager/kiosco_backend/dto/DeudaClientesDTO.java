@@ -0,0 +1,20 @@
+package com.kmanager.kiosco_backend.dto;
+
+import com.kmanager.kiosco_backend.entity.Cliente;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Deuda de los clientes de la tienda, leída de los saldos mantenidos
+ * (ver ClienteService).
+ */
+@Data
+@AllArgsConstructor
+public class DeudaClientesDTO {
+    private double totalAdeudado;
+    private int cantidadDeudores;
+    //de la mayor deuda a la menor
+    private List<Cliente> deudores;
+}
@@ -0,0 +1,23 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.Data;
+
+/**
+ * Producto cuyo stock no coincide con sus movimientos (ver AuditoriaStockService).
+ */
+@Data
+public class DiscrepanciaStockDTO {
+    private Long tiendaId;
+    private Long productoId;
+    private String nombre;
+    private long stockActual;
+    //ajustes - vendido
+    private long stockEsperado;
+    //stockActual - stockEsperado (> 0 sobran unidades, < 0 faltan)
+    private long diferencia;
+    //altas, ajustes manuales y recepciones
+    private long ajustes;
+    //ventas menos devoluciones, incluidas las ventas ya resumidas por la retencion
+    private long vendido;
+    private boolean corregido;
+}
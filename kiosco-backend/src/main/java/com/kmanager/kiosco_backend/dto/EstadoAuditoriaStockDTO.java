@@ -0,0 +1,23 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de la última (o actual) auditoría de stock (ver AuditoriaStockService).
+ */
+@Data
+public class EstadoAuditoriaStockDTO {
+    private boolean enCurso;
+    private boolean corregir;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private long tiendas;
+    private long productosRevisados;
+    private long corregidos;
+    private List<DiscrepanciaStockDTO> discrepancias = new ArrayList<>();
+    private String error;
+}
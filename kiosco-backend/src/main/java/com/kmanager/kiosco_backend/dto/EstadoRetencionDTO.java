@@ -0,0 +1,24 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de la última (o actual) ejecución de la retención de ventas
+ * (ver RetencionVentasService).
+ */
+@Data
+public class EstadoRetencionDTO {
+    private boolean habilitada;
+    private boolean enCurso;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    //se resumen y borran las ventas anteriores a este momento
+    private LocalDateTime limite;
+    private long lotes;
+    private long ventasBorradas;
+    private long itemsBorrados;
+    private long eventosBorrados;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package com.kmanager.kiosco_backend.dto;
+
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Una página del feed de eventos (ver EventosSalidaService).
+ * Para seguir leyendo se pide desde "ultimoId" (la secuencia, no el id del evento;
+ * en los eventos anteriores a la secuencia son iguales).
+ */
+@Data
+@AllArgsConstructor
+public class FeedEventosDTO {
+    private List<EventoSalida> eventos;
+    //secuencia del ultimo evento de la pagina (o el "desde" pedido si no hubo eventos)
+    private Long ultimoId;
+    //true si la pagina vino llena: probablemente hay mas eventos
+    private boolean hayMas;
+}
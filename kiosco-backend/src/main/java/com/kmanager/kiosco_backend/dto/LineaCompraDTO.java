@@ -0,0 +1,20 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Línea de una orden de compra o de una recepción de mercadería.
+ * El producto se indica por ID o por código de barras (el que se escanea
+ * al descargar la entrega); precioCosto es opcional.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineaCompraDTO {
+    private Long productoId;
+    private String codigoBarras;
+    private Integer cantidad;
+    private Double precioCosto;
+}
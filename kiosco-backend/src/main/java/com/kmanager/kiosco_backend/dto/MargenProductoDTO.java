@@ -0,0 +1,22 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del reporte de margenes: lo vendido de un producto en un rango,
+ * con el costo que tenia el producto al momento de cada venta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MargenProductoDTO {
+    private Long productoId;
+    private String nombre;
+    private long unidades;
+    private double ingresos;
+    private double costo;
+    private double margen;
+    private double margenPorcentaje;
+}
@@ -0,0 +1,21 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precio de venta y de costo de un producto en un momento dado,
+ * con la fecha desde la que rige ese precio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecioVigenteDTO {
+    private Long productoId;
+    private double precioVenta;
+    private double precioCosto;
+    private LocalDateTime vigenteDesde;
+}
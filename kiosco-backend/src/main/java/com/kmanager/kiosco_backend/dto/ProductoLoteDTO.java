@@ -0,0 +1,22 @@
+package com.kmanager.kiosco_backend.dto;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una posición de la búsqueda en lote de productos (POST /api/productos/lote).
+ *
+ * En el pedido solo se completa id o codigoBarras; en la respuesta se
+ * devuelven los mismos datos con el producto encontrado, o encontrado=false.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoLoteDTO {
+    private Long id;
+    private String codigoBarras;
+    private boolean encontrado;
+    private Producto producto;
+}
@@ -0,0 +1,23 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Reserva de stock de un carrito en curso (ver ReservasStock).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaStockDTO {
+    private String id;
+    private String terminal;
+    //productoId -> cantidad reservada
+    private Map<Long, Integer> items;
+    //si no se renueva (modificando el carrito) antes de esta hora, se libera sola
+    private LocalDateTime vence;
+}
@@ -0,0 +1,55 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumen del día de una tienda que genera ReporteDiarioService al cierre
+ * (se guarda como resumen.json.gz junto a los CSV del día).
+ */
+@Data
+@NoArgsConstructor
+public class ResumenDiarioDTO {
+    private Long tiendaId;
+    private LocalDate fecha;
+    private LocalDateTime generado;
+
+    // ===== Ventas =====
+    private long cantidadVentas;
+    private long cantidadDevoluciones;
+    private double totalVendido;
+    private double totalDevoluciones;
+    private long unidades;
+    private double descuentos;
+    private Map<String, Double> totalesPorMetodoPago = new TreeMap<>();
+    //recaudacion por hora del dia (posicion 0 = 00:00 a 00:59)
+    private double[] recaudacionPorHora = new double[24];
+    private List<ProductoVendido> productosMasVendidos = new ArrayList<>();
+
+    // ===== Stock en el momento stockTomado =====
+    //el de la primera generacion del dia (normalmente pasada la medianoche, con el dia cerrado);
+    //si se genero tarde para un dia viejo, es el stock de ese momento y no el del cierre
+    private LocalDateTime stockTomado;
+    private long cantidadProductos;
+    private long productosStockBajo;
+    private double valorStockCosto;
+    private double valorStockVenta;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductoVendido {
+        private Long productoId;
+        private String nombre;
+        private long unidades;
+        private double importe;
+    }
+}
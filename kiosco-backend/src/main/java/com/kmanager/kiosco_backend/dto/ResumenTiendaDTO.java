@@ -0,0 +1,20 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del reporte consolidado: totales de una tienda.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenTiendaDTO {
+    private Long tiendaId;
+    private String nombre;
+    private long cantidadVentas;
+    private double totalVendido;
+    private long cantidadProductos;
+    private long productosStockBajo;
+}
@@ -0,0 +1,58 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumen de ventas de un rango, con el detalle por partición (día o semana).
+ * Ver ReportesParalelos.
+ */
+@Data
+@NoArgsConstructor
+public class ResumenVentasDTO {
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private String particion;
+
+    private long cantidadVentas;
+    private double totalVendido;
+    private long unidades;
+    private Map<String, Double> totalesPorMetodoPago = new TreeMap<>();
+
+    private List<Particion> particiones = new ArrayList<>();
+    //cuantas particiones salieron del cache (ya cerradas) en lugar de la base
+    private int particionesDesdeCache;
+
+    /**
+     * Suma una partición a los totales del rango.
+     */
+    public void sumar(Particion particion) {
+        cantidadVentas += particion.getCantidadVentas();
+        totalVendido += particion.getTotalVendido();
+        unidades += particion.getUnidades();
+        particion.getTotalesPorMetodoPago().forEach((metodo, total) ->
+                totalesPorMetodoPago.merge(metodo, total, Double::sum));
+    }
+
+    /**
+     * Totales de una partición [inicio, fin).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Particion {
+        private LocalDateTime inicio;
+        private LocalDateTime fin;
+        private long cantidadVentas;
+        private double totalVendido;
+        private long unidades;
+        private Map<String, Double> totalesPorMetodoPago = new TreeMap<>();
+    }
+}
@@ -0,0 +1,19 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock de un producto descontando lo reservado por los carritos en curso.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDisponibleDTO {
+    private Long productoId;
+    private int stockActual;
+    private int reservado;
+    //stockActual - reservado
+    private int disponible;
+}
@@ -0,0 +1,20 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Valor del stock de la tienda al costo y a precio de venta,
+ * en total y por categoría (ver ValuacionInventarioService).
+ */
+@Data
+public class ValuacionInventarioDTO {
+    private long cantidadProductos;
+    private double valorCosto;
+    private double valorVenta;
+    //valorVenta - valorCosto: la ganancia si se vendiera todo el stock
+    private double margenPotencial;
+    private List<CategoriaResumenDTO> categorias = new ArrayList<>();
+}
@@ -0,0 +1,100 @@
+package com.kmanager.kiosco_backend.dto;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.entity.VentaItem;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representacion columnar de un listado de ventas.
+ *
+ * El JSON normal repite el producto completo dentro de cada item vendido.
+ * Aca cada producto aparece una sola vez en "productos" (catalogo columnar)
+ * y los items solo guardan el indice del producto dentro de ese catalogo.
+ *
+ * Los items de todas las ventas van aplanados en las columnas item*:
+ * los items de la venta i son las posiciones desde itemsDesde[i] hasta
+ * itemsDesde[i + 1] (excluida).
+ */
+@Data
+public class VentasCompactasDTO {
+
+    // ===== Diccionarios =====
+    private CatalogoCompactoDTO productos;
+    private List<String> metodosPago = new ArrayList<>();
+
+    // ===== Columnas de ventas (una posicion por venta) =====
+    private long[] ids;
+    private LocalDateTime[] timestamps;
+    private double[] totales;
+    private int[] metodoPago;
+    private int[] itemsDesde;
+
+    // ===== Columnas de items (aplanados) =====
+    private int[] itemProducto;
+    private int[] itemCantidad;
+    private double[] itemPrecioUnitario;
+    private double[] itemDescuento;
+
+    /**
+     * Arma el listado columnar. Las ventas deben venir con sus items y
+     * productos ya cargados (ver VentaRepository#findConItemsByTimestampBetween).
+     */
+    public static VentasCompactasDTO desde(List<Venta> ventas) {
+        int n = ventas.size();
+        int totalItems = 0;
+        for (Venta venta : ventas) {
+            totalItems += venta.getItemsVendidos().size();
+        }
+
+        VentasCompactasDTO dto = new VentasCompactasDTO();
+        dto.ids = new long[n];
+        dto.timestamps = new LocalDateTime[n];
+        dto.totales = new double[n];
+        dto.metodoPago = new int[n];
+        dto.itemsDesde = new int[n + 1];
+        dto.itemProducto = new int[totalItems];
+        dto.itemCantidad = new int[totalItems];
+        dto.itemPrecioUnitario = new double[totalItems];
+        dto.itemDescuento = new double[totalItems];
+
+        Map<String, Integer> indiceMetodos = new HashMap<>();
+        Map<Long, Integer> indiceProductos = new HashMap<>();
+        Map<Long, Producto> productos = new LinkedHashMap<>();
+
+        int item = 0;
+        for (int i = 0; i < n; i++) {
+            Venta venta = ventas.get(i);
+            dto.ids[i] = venta.getId();
+            dto.timestamps[i] = venta.getTimestamp();
+            dto.totales[i] = venta.getTotalVenta();
+            dto.metodoPago[i] = indiceMetodos.computeIfAbsent(venta.getMetodoPago(), m -> {
+                dto.metodosPago.add(m);
+                return dto.metodosPago.size() - 1;
+            });
+            dto.itemsDesde[i] = item;
+
+            for (VentaItem ventaItem : venta.getItemsVendidos()) {
+                Producto producto = ventaItem.getProducto();
+                dto.itemProducto[item] = indiceProductos.computeIfAbsent(producto.getId(), id -> {
+                    productos.put(id, producto);
+                    return productos.size() - 1;
+                });
+                dto.itemCantidad[item] = ventaItem.getCantidad();
+                dto.itemPrecioUnitario[item] = ventaItem.getPrecioUnitario();
+                dto.itemDescuento[item] = ventaItem.getDescuento();
+                item++;
+            }
+        }
+        dto.itemsDesde[n] = item;
+        dto.productos = CatalogoCompactoDTO.desde(new ArrayList<>(productos.values()));
+        return dto;
+    }
+}
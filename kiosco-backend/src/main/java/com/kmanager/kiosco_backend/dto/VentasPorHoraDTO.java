@@ -0,0 +1,25 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Celda del mapa de calor de ventas: totales para un día de la semana y una hora.
+ *
+ * diaSemana: 1 = domingo ... 7 = sábado (igual que DAYOFWEEK de MySQL)
+ * hora: 0 ... 23
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentasPorHoraDTO {
+    private int diaSemana;
+    private int hora;
+    //sin contar las devoluciones
+    private long cantidadVentas;
+    //neta: las devoluciones ya estan restadas
+    private double recaudacion;
+    private long unidades;
+    private long cantidadDevoluciones;
+}
@@ -0,0 +1,24 @@
+package com.kmanager.kiosco_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totales de ventas de un intervalo de tiempo (bucket).
+ * El intervalo va desde "inicio" hasta inicio + tamaño del bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentasPorIntervaloDTO {
+    private LocalDateTime inicio;
+    //sin contar las devoluciones
+    private long cantidadVentas;
+    //neta: las devoluciones ya estan restadas
+    private double recaudacion;
+    private long unidades;
+    private long cantidadDevoluciones;
+}
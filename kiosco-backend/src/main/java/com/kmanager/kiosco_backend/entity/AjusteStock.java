@@ -0,0 +1,58 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de stock que no es una venta: alta de un producto con stock,
+ * ajuste manual o recepción de una orden de compra.
+ *
+ * Las ventas y devoluciones ya quedan en venta_items; con estos movimientos se
+ * puede reconstruir el stock esperado de cada producto (ver AuditoriaStockService).
+ */
+@Entity
+@Immutable
+@Table(name = "ajustes_stock")
+@Data
+@NoArgsConstructor
+public class AjusteStock {
+    public static final String INICIAL = "INICIAL";
+    public static final String AJUSTE = "AJUSTE";
+    public static final String COMPRA = "COMPRA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    //unidades que entran (> 0) o salen (< 0)
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    //orden de compra en las recepciones
+    @Column(name = "referencia_id")
+    private Long referenciaId;
+
+    public AjusteStock(Producto producto, String tipo, Integer cantidad) {
+        this.tiendaId = producto.getTiendaId();
+        this.productoId = producto.getId();
+        this.fecha = LocalDateTime.now();
+        this.tipo = tipo;
+        this.cantidad = cantidad;
+    }
+}
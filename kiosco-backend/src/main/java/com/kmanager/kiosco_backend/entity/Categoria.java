@@ -0,0 +1,32 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Categoria de productos de una tienda (el nombre es unico por tienda).
+ */
+@Entity
+@Table(name = "categorias", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_categorias_tienda_nombre", columnNames = {"tienda_id", "nombre"})
+})
+@Data
+@NoArgsConstructor
+public class Categoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    public Categoria(Long tiendaId, String nombre) {
+        this.tiendaId = tiendaId;
+        this.nombre = nombre;
+    }
+}
@@ -0,0 +1,49 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cliente de una tienda, con su cuenta corriente (fiado).
+ *
+ * saldo es lo que el cliente debe (negativo: saldo a favor). Lo mantiene
+ * ClienteService en la misma transacción que cada venta, devolución o pago,
+ * así el reporte de deudores no recorre el historial.
+ */
+@Entity
+@Table(name = "clientes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_clientes_tienda_nombre", columnNames = {"tienda_id", "nombre"})
+})
+@Data
+@NoArgsConstructor
+public class Cliente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    @Column(length = 30)
+    private String documento;
+
+    @Column(length = 50)
+    private String telefono;
+
+    //deuda maxima permitida; null = sin limite
+    @Column
+    private Double limiteCredito;
+
+    @Column(nullable = false)
+    private Double saldo = 0.0;
+
+    @Column
+    private LocalDateTime ultimoMovimiento;
+}
@@ -0,0 +1,48 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hasta dónde leyó un consumidor el feed de eventos (ver EventosSalidaService).
+ *
+ * tiendaId = TODAS para los destinos del relay, que reciben los eventos de
+ * todas las tiendas; los consumidores externos llevan un cursor por tienda.
+ */
+@Entity
+@Table(name = "cursores_eventos", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cursores_eventos_consumidor_tienda", columnNames = {"consumidor", "tienda_id"})
+})
+@Data
+@NoArgsConstructor
+public class CursorEventos {
+
+    public static final long TODAS = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String consumidor;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    //ultimo evento confirmado; el consumidor sigue desde el siguiente
+    @Column(name = "ultimo_evento_id", nullable = false)
+    private Long ultimoEventoId;
+
+    @Column(nullable = false)
+    private LocalDateTime actualizado;
+
+    public CursorEventos(String consumidor, Long tiendaId) {
+        this.consumidor = consumidor;
+        this.tiendaId = tiendaId;
+        this.ultimoEventoId = 0L;
+        this.actualizado = LocalDateTime.now();
+    }
+}
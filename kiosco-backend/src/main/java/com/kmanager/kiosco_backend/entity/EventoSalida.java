@@ -0,0 +1,66 @@
+package com.kmanager.kiosco_backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de la bandeja de salida (ver EventosSalidaService): una venta,
+ * devolución o cambio de producto para los sistemas externos.
+ *
+ * Se guarda en la misma transacción que el cambio y no se modifica más
+ * (salvo la secuencia, que le asigna NumeradorEventos con un UPDATE).
+ * La secuencia es creciente y solo la tienen los eventos ya confirmados:
+ * los consumidores leen "los eventos después de la secuencia N".
+ */
+@Entity
+@Immutable
+@Table(name = "eventos_salida")
+@Data
+@NoArgsConstructor
+public class EventoSalida {
+
+    public static final String VENTA = "VENTA";
+    public static final String DEVOLUCION = "DEVOLUCION";
+    public static final String STOCK = "STOCK";
+    public static final String PRODUCTO = "PRODUCTO";
+    public static final String PRODUCTO_ELIMINADO = "PRODUCTO_ELIMINADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //null hasta que NumeradorEventos la asigna, ya confirmada la transaccion
+    @Column
+    private Long secuencia;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false, length = 30)
+    private String tipo;
+
+    //id de la venta o del producto
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    //JSON con los datos del evento; se envia tal cual, sin volver a serializar
+    @JsonRawValue
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String datos;
+
+    @Column(nullable = false)
+    private LocalDateTime creado;
+
+    public EventoSalida(Long tiendaId, String tipo, Long entidadId, String datos) {
+        this.tiendaId = tiendaId;
+        this.tipo = tipo;
+        this.entidadId = entidadId;
+        this.datos = datos;
+        this.creado = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,67 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de la cuenta corriente de un cliente.
+ *
+ * importe > 0 aumenta la deuda (venta), importe < 0 la reduce (pago, devolución).
+ * saldo es el saldo del cliente después del movimiento.
+ */
+@Entity
+@Immutable
+@Table(name = "movimientos_cuenta")
+@Data
+@NoArgsConstructor
+public class MovimientoCuenta {
+    public static final String VENTA = "VENTA";
+    public static final String DEVOLUCION = "DEVOLUCION";
+    public static final String PAGO = "PAGO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    @Column(nullable = false)
+    private Double importe;
+
+    @Column(nullable = false)
+    private Double saldo;
+
+    //venta o devolucion que genero el movimiento (null en los pagos)
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    //con que se pago (solo en los pagos)
+    @Column
+    private String metodoPago;
+
+    @Column
+    private String observaciones;
+
+    public MovimientoCuenta(Cliente cliente, String tipo, Double importe) {
+        this.tiendaId = cliente.getTiendaId();
+        this.clienteId = cliente.getId();
+        this.fecha = LocalDateTime.now();
+        this.tipo = tipo;
+        this.importe = importe;
+        this.saldo = cliente.getSaldo();
+    }
+}
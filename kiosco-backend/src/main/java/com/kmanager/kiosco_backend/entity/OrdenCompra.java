@@ -0,0 +1,60 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orden de compra a un proveedor.
+ *
+ * Se crea PENDIENTE con lo pedido y pasa a RECIBIDA cuando llega la
+ * mercadería: la recepción suma el stock (y actualiza los costos) de todos
+ * los productos de la entrega de una sola vez (ver OrdenCompraService).
+ */
+@Entity
+@Table(name = "ordenes_compra")
+@Data
+@NoArgsConstructor
+public class OrdenCompra {
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String RECIBIDA = "RECIBIDA";
+    public static final String CANCELADA = "CANCELADA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(name = "proveedor_id", nullable = false)
+    private Long proveedorId;
+
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column
+    private LocalDateTime fechaRecepcion;
+
+    //costo total de lo recibido (cantidadRecibida x precioCosto)
+    @Column(nullable = false)
+    private Double totalCosto = 0.0;
+
+    @Column(length = 500)
+    private String observaciones;
+
+    @OneToMany(mappedBy = "orden", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrdenCompraItem> items = new ArrayList<>();
+
+    public void agregarItem(OrdenCompraItem item) {
+        items.add(item);
+        item.setOrden(this);
+    }
+}
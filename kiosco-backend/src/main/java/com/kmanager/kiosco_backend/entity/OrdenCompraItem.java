@@ -0,0 +1,41 @@
+package com.kmanager.kiosco_backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@Table(name = "orden_compra_items")
+@NoArgsConstructor
+public class OrdenCompraItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "orden_id", nullable = false)
+    @JsonIgnore
+    private OrdenCompra orden;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Integer cantidadPedida = 0;
+
+    //0 hasta que se recibe; puede diferir de lo pedido (faltantes o agregados del proveedor)
+    @Column(nullable = false)
+    private Integer cantidadRecibida = 0;
+
+    //costo unitario pactado; al recibir queda el costo de la factura
+    @Column(nullable = false)
+    private Double precioCosto;
+
+    public OrdenCompraItem(Long productoId, Integer cantidadPedida, Double precioCosto) {
+        this.productoId = productoId;
+        this.cantidadPedida = cantidadPedida;
+        this.precioCosto = precioCosto;
+    }
+}
@@ -0,0 +1,51 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro del historial de precios de un producto: desde "vigenteDesde"
+ * el producto tiene este precio de venta y de costo, hasta el registro
+ * siguiente.
+ *
+ * El historial solo crece: los registros no se modifican ni se borran
+ * (tampoco al borrar el producto, para poder explicar ventas viejas).
+ */
+@Entity
+@Immutable
+@Table(name = "precios_historial")
+@Data
+@NoArgsConstructor
+public class PrecioHistorial {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Double precioVenta;
+
+    @Column(nullable = false)
+    private Double precioCosto;
+
+    @Column(nullable = false)
+    private LocalDateTime vigenteDesde;
+
+    public PrecioHistorial(Producto producto, LocalDateTime vigenteDesde) {
+        this.tiendaId = producto.getTiendaId();
+        this.productoId = producto.getId();
+        this.precioVenta = producto.getPrecioVenta();
+        this.precioCosto = producto.getPrecioCosto();
+        this.vigenteDesde = vigenteDesde;
+    }
+}
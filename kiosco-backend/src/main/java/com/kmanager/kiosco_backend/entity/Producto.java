@@ -4,23 +4,33 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_productos_tienda_nombre", columnNames = {"tienda_id", "nombre"}),
+        @UniqueConstraint(name = "uk_productos_tienda_codigo_barras", columnNames = {"tienda_id", "codigo_barras"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+//el UPDATE solo lleva las columnas que cambiaron: editar el catalogo no pisa el stock
+@DynamicUpdate
 public class Producto {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    //tienda a la que pertenece el producto (nombre y codigo de barras son unicos por tienda)
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String nombre;
 
-    @Column(unique = true)
+    @Column(name = "codigo_barras")
     private String codigoBarras;
 
     @Column(nullable = false)
@@ -29,15 +39,23 @@ public class Producto {
     @Column(nullable = false)
     private Double precioCosto;
 
+    //el stock lo mueven ventas, devoluciones y ajustes (con la fila bloqueada):
+    //no cuenta como edicion del producto, asi no choca con las ediciones del catalogo
+    @OptimisticLock(excluded = true)
     @Column(nullable = false)
     private Integer stockActual;
 
     @Column(nullable = false)
     private Integer stockMinimo;
 
+    //nombre de la categoria; se mantiene igual al de categoriaId (lo completa ProductoService)
+    //para los clientes que todavia filtran por texto
     @Column(nullable = false)
     private String categoria;
 
+    @Column(name = "categoria_id")
+    private Long categoriaId;
+
     @Column(length = 500)
     private String imagenUrl;
 
@@ -50,11 +68,48 @@ public class Producto {
     @Column
     private Double incrementoMinimo = 1.0;
 
+    //control de concurrencia optimista: aumenta con cada edicion del catalogo (no con el stock).
+    //el cliente manda la version que leyo; si otro la cambio antes, la edicion se rechaza (409)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    //cuenta los movimientos de stock (igual que version con el catalogo): con el y la
+    //version los caches ordenan las fotos del producto y no pisan una nueva con una vieja
+    @OptimisticLock(excluded = true)
+    @Column(name = "movimientos_stock", nullable = false)
+    private Long movimientosStock = 0L;
+
     @Transient
     public boolean isStockBajo(){
         return stockActual < stockMinimo;
     }
 
+    /**
+     * Copia de todos los campos (para guardar en caches o eventos
+     * sin compartir la entidad administrada por JPA).
+     */
+    public Producto copia() {
+        Producto copia = new Producto();
+        copia.setId(id);
+        copia.setTiendaId(tiendaId);
+        copia.setNombre(nombre);
+        copia.setCodigoBarras(codigoBarras);
+        copia.setPrecioVenta(precioVenta);
+        copia.setPrecioCosto(precioCosto);
+        copia.setStockActual(stockActual);
+        copia.setStockMinimo(stockMinimo);
+        copia.setCategoria(categoria);
+        copia.setCategoriaId(categoriaId);
+        copia.setImagenUrl(imagenUrl);
+        copia.setTipoVenta(tipoVenta);
+        copia.setUnidadMedida(unidadMedida);
+        copia.setIncrementoMinimo(incrementoMinimo);
+        copia.setVersion(version);
+        copia.setMovimientosStock(movimientosStock);
+        return copia;
+    }
+
     public boolean esPorPeso() {
         return "PESO".equalsIgnoreCase(tipoVenta);
     }
@@ -68,6 +123,7 @@ public class Producto {
             );
         }
         this.stockActual -= cantidad;
+        this.movimientosStock++;
     }
 
     public void agregarStock(Integer cantidad) {
@@ -75,5 +131,14 @@ public class Producto {
             throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
         }
         this.stockActual += cantidad;
+        this.movimientosStock++;
+    }
+
+    /**
+     * Pone el stock en un valor dado (correccion de la auditoria de stock).
+     */
+    public void corregirStock(Integer stock) {
+        this.stockActual = stock;
+        this.movimientosStock++;
     }
 }
@@ -0,0 +1,39 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+/**
+ * Unidades e importe vendidos de un producto en un día, de ventas ya borradas
+ * por la retención (ver RetencionVentasService). Las devoluciones ya están restadas.
+ */
+@Entity
+@Immutable
+@Table(name = "productos_resumen_diario")
+@Data
+@NoArgsConstructor
+public class ProductoResumenDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Long unidades;
+
+    @Column(nullable = false)
+    private Double importe;
+}
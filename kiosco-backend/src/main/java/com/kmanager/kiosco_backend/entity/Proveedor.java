@@ -0,0 +1,33 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proveedor de mercadería de una tienda (el nombre es único por tienda).
+ */
+@Entity
+@Table(name = "proveedores", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_proveedores_tienda_nombre", columnNames = {"tienda_id", "nombre"})
+})
+@Data
+@NoArgsConstructor
+public class Proveedor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    @Column(length = 50)
+    private String telefono;
+
+    @Column
+    private String email;
+}
@@ -0,0 +1,88 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Regla de precio (promoción) que se aplica al cobrar.
+ *
+ * Tipos:
+ * - PORCENTAJE: descuento de "porcentaje"% sobre un producto o una categoría.
+ * - NXM: lleva "llevar" y paga "pagar" (2x1, 3x2) de un producto o una categoría.
+ * - COMBO: los productos de "productosCombo" (productoId -> cantidad) juntos
+ *   cuestan "precioCombo".
+ *
+ * Opcionalmente la regla vale solo entre "vigenteDesde" y "vigenteHasta" y/o
+ * en una franja horaria de todos los días (happy hour). Si "horaDesde" es
+ * mayor que "horaHasta" la franja cruza la medianoche (por ejemplo 22:00 a 02:00).
+ */
+@Entity
+@Table(name = "reglas_precio")
+@Data
+@NoArgsConstructor
+public class ReglaPrecio {
+    public static final String PORCENTAJE = "PORCENTAJE";
+    public static final String NXM = "NXM";
+    public static final String COMBO = "COMBO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    @Column(nullable = false)
+    private Boolean activa = true;
+
+    // ===== A qué se aplica (PORCENTAJE y NXM: producto o categoría) =====
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Column(length = 100)
+    private String categoria;
+
+    // ===== Parámetros según el tipo =====
+    @Column
+    private Double porcentaje;
+
+    @Column
+    private Integer llevar;
+
+    @Column
+    private Integer pagar;
+
+    @Column
+    private Double precioCombo;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "regla_precio_combo_items", joinColumns = @JoinColumn(name = "regla_id"))
+    @MapKeyColumn(name = "producto_id")
+    @Column(name = "cantidad", nullable = false)
+    private Map<Long, Integer> productosCombo = new HashMap<>();
+
+    // ===== Vigencia =====
+    @Column
+    private LocalDateTime vigenteDesde;
+
+    @Column
+    private LocalDateTime vigenteHasta;
+
+    @Column
+    private LocalTime horaDesde;
+
+    @Column
+    private LocalTime horaHasta;
+}
@@ -0,0 +1,26 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un kiosco / local. Productos y ventas pertenecen a una tienda.
+ */
+@Entity
+@Table(name = "tiendas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tienda {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String nombre;
+
+    @Column(length = 200)
+    private String direccion;
+}
@@ -0,0 +1,148 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turno de caja de una terminal (apertura -> cierre de caja).
+ *
+ * Los totales se van acumulando a medida que se registran las ventas,
+ * así el cierre devuelve el resumen ya calculado, sin volver a recorrer
+ * las ventas del turno.
+ */
+@Entity
+@Table(name = "turnos")
+@Data
+@NoArgsConstructor
+public class Turno {
+    public static final String ABIERTO = "ABIERTO";
+    public static final String CERRADO = "CERRADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false, length = 50)
+    private String terminal;
+
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    //la terminal mientras el turno esta abierto, null al cerrarlo:
+    //el indice unico (tienda_id, terminal_abierta) impide dos turnos abiertos en la misma terminal
+    @Column(name = "terminal_abierta", length = 50)
+    private String terminalAbierta;
+
+    @Column(nullable = false)
+    private LocalDateTime apertura;
+
+    @Column
+    private LocalDateTime cierre;
+
+    //efectivo con el que se abre la caja
+    @Column(nullable = false)
+    private Double montoInicial = 0.0;
+
+    // ===== Totales acumulados =====
+    @Column(nullable = false)
+    private Integer cantidadVentas = 0;
+
+    @Column(nullable = false)
+    private Integer cantidadItems = 0;
+
+    @Column(nullable = false)
+    private Double totalVentas = 0.0;
+
+    @Column(nullable = false)
+    private Integer cantidadDevoluciones = 0;
+
+    @Column(nullable = false)
+    private Double totalDevoluciones = 0.0;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "turno_totales_metodo_pago", joinColumns = @JoinColumn(name = "turno_id"))
+    @MapKeyColumn(name = "metodo_pago")
+    @Column(name = "total", nullable = false)
+    private Map<String, Double> totalesPorMetodoPago = new HashMap<>();
+
+    // ===== Datos del cierre =====
+    //efectivo contado al cerrar la caja y diferencia contra lo esperado
+    @Column
+    private Double efectivoContado;
+
+    @Column
+    private Double diferencia;
+
+    public Turno(Long tiendaId, String terminal, Double montoInicial) {
+        this.tiendaId = tiendaId;
+        this.terminal = terminal;
+        this.montoInicial = montoInicial != null ? montoInicial : 0.0;
+        this.estado = ABIERTO;
+        this.terminalAbierta = terminal;
+        this.apertura = LocalDateTime.now();
+    }
+
+    public boolean isAbierto() {
+        return ABIERTO.equals(estado);
+    }
+
+    /**
+     * Suma una venta a los totales del turno.
+     */
+    public void acumularVenta(Venta venta) {
+        cantidadVentas++;
+        totalVentas += venta.getTotalVenta();
+        for (VentaItem item : venta.getItemsVendidos()) {
+            cantidadItems += item.getCantidad();
+        }
+        totalesPorMetodoPago.merge(venta.getMetodoPago(), venta.getTotalVenta(), Double::sum);
+    }
+
+    /**
+     * Suma una devolucion (venta negativa) al turno.
+     * Los totales por metodo de pago y la cantidad de items quedan netos
+     * (lo que realmente hay en caja y lo que realmente se llevaron).
+     */
+    public void acumularDevolucion(Venta devolucion) {
+        cantidadDevoluciones++;
+        totalDevoluciones += Math.abs(devolucion.getTotalVenta());
+        //los items de una devolucion tienen cantidad negativa
+        for (VentaItem item : devolucion.getItemsVendidos()) {
+            cantidadItems += item.getCantidad();
+        }
+        totalesPorMetodoPago.merge(devolucion.getMetodoPago(), devolucion.getTotalVenta(), Double::sum);
+    }
+
+    /**
+     * Efectivo que deberia haber en la caja: monto inicial + ventas en efectivo.
+     */
+    @Transient
+    public Double getEfectivoEsperado() {
+        double efectivo = totalesPorMetodoPago.entrySet().stream()
+                .filter(e -> "Efectivo".equalsIgnoreCase(e.getKey()))
+                .mapToDouble(Map.Entry::getValue)
+                .sum();
+        return montoInicial + efectivo;
+    }
+
+    public void cerrar(Double efectivoContado) {
+        if (!isAbierto()) {
+            throw new IllegalArgumentException("El turno " + id + " ya está cerrado");
+        }
+        this.estado = CERRADO;
+        this.terminalAbierta = null;
+        this.cierre = LocalDateTime.now();
+        if (efectivoContado != null) {
+            this.efectivoContado = efectivoContado;
+            this.diferencia = efectivoContado - getEfectivoEsperado();
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class Venta {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
@@ -27,15 +30,38 @@ public class Venta {
     @Column(nullable = false)
     private String metodoPago;
 
+    //turno de caja en el que se registro la venta (null si no se indico terminal)
+    @Column(name = "turno_id")
+    private Long turnoId;
+
+    //cliente de la venta (obligatorio si se paga en cuenta corriente, ver ClienteService)
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    //si es una devolucion/anulacion: venta original a la que corresponde.
+    //las devoluciones se registran como una venta negativa (cantidades y total < 0)
+    @Column(name = "venta_original_id")
+    private Long ventaOriginalId;
+
+    //true cuando todos los productos de la venta fueron devueltos
+    @Column(nullable = false)
+    private Boolean anulada = false;
+
     @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<VentaItem> itemsVendidos = new ArrayList<>();
 
-    public Venta(String metodoPago) {
+    public Venta(Long tiendaId, String metodoPago) {
+        this.tiendaId = tiendaId;
         this.timestamp = LocalDateTime.now();
         this.metodoPago = metodoPago;
         this.totalVenta = 0.0;
     }
 
+    @Transient
+    public boolean isDevolucion() {
+        return ventaOriginalId != null;
+    }
+
     public void agregarItem(VentaItem item) {
         itemsVendidos.add(item);
         item.setVenta(this);
@@ -57,7 +83,7 @@ public class Venta {
                 .mapToDouble(item -> {
                     double ganaciaUnitaria = item.getPrecioUnitario() -
                                              item.getProducto().getPrecioCosto();
-                    return ganaciaUnitaria * item.getCantidad();
+                    return ganaciaUnitaria * item.getCantidad() - item.getDescuento();
                 })
                 .sum();
     }
@@ -32,14 +32,31 @@ public class VentaItem {
     @Column(nullable = false)
     private Double precioUnitario;
 
+    //descuento total de la linea por promociones (ver MotorPrecios).
+    //en las devoluciones es negativo: se devuelve la parte proporcional
+    @Column(nullable = false)
+    private Double descuento = 0.0;
+
+    //promociones aplicadas a la linea, si hubo
+    @Column
+    private String promocion;
+
     @Transient
     public Double getSubtotal(){
-        return cantidad * precioUnitario;
+        return cantidad * precioUnitario - descuento;
     }
 
     public VentaItem(Producto producto, Integer cantiad) {
+        this(producto, cantiad, producto.getPrecioVenta());
+    }
+
+    /**
+     * item con un precio unitario dado (por ejemplo, al devolver se usa
+     * el precio de la venta original y no el precio actual del producto).
+     */
+    public VentaItem(Producto producto, Integer cantidad, Double precioUnitario) {
         this.producto = producto;
-        this.cantidad = cantiad;
-        this.precioUnitario = producto.getPrecioVenta();
+        this.cantidad = cantidad;
+        this.precioUnitario = precioUnitario;
     }
 }
\ No newline at end of file
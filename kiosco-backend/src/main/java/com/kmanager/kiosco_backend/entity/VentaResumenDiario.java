@@ -0,0 +1,43 @@
+package com.kmanager.kiosco_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+/**
+ * Totales de un día y método de pago de ventas ya borradas por la retención
+ * (ver RetencionVentasService). Las filas las escribe la retención con SQL.
+ */
+@Entity
+@Immutable
+@Table(name = "ventas_resumen_diario")
+@Data
+@NoArgsConstructor
+public class VentaResumenDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tienda_id", nullable = false)
+    private Long tiendaId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private String metodoPago;
+
+    @Column(nullable = false)
+    private Long cantidadVentas;
+
+    @Column(nullable = false)
+    private Long cantidadDevoluciones;
+
+    //ventas menos devoluciones
+    @Column(nullable = false)
+    private Double total;
+}
@@ -0,0 +1,16 @@
+package com.kmanager.kiosco_backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Evento que publica CategoriaService al crear, renombrar o borrar
+ * categorias: la lista en memoria de la tienda se vuelve a leer cuando
+ * la transaccion se confirma.
+ */
+@Data
+@AllArgsConstructor
+public class CategoriasModificadasEvent {
+
+    private Long tiendaId;
+}
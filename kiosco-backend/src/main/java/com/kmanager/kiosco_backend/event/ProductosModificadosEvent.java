@@ -0,0 +1,33 @@
+package com.kmanager.kiosco_backend.event;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Evento que publican ProductoService y VentaService cada vez que una
+ * operacion modifica productos (alta, edicion, baja, stock).
+ *
+ * Una operacion publica un solo evento con todos los productos que toco
+ * (por ejemplo, una venta de 5 productos es un evento con 5 cambios), asi
+ * los caches y agregados se actualizan una vez por operacion.
+ *
+ * Los productos del evento son copias: "antes" es el estado previo (null en
+ * un alta) y "despues" el estado final (null en una baja).
+ */
+@Data
+@AllArgsConstructor
+public class ProductosModificadosEvent {
+
+    private Long tiendaId;
+    private List<Cambio> cambios;
+
+    @Data
+    @AllArgsConstructor
+    public static class Cambio {
+        private Producto antes;
+        private Producto despues;
+    }
+}
@@ -0,0 +1,16 @@
+package com.kmanager.kiosco_backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Evento que publica ReglaPrecioService al crear, editar o borrar reglas
+ * de precio: MotorPrecios vuelve a compilar las reglas de la tienda cuando
+ * la transaccion se confirma.
+ */
+@Data
+@AllArgsConstructor
+public class ReglasPrecioModificadasEvent {
+
+    private Long tiendaId;
+}
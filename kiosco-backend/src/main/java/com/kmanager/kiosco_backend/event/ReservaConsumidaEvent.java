@@ -0,0 +1,17 @@
+package com.kmanager.kiosco_backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Evento que publica VentaService cuando una venta usa una reserva de stock:
+ * la reserva se libera recién cuando la venta se confirma (si se deshace,
+ * la reserva sigue vigente y la caja puede reintentar).
+ */
+@Data
+@AllArgsConstructor
+public class ReservaConsumidaEvent {
+
+    private Long tiendaId;
+    private String reservaId;
+}
@@ -0,0 +1,12 @@
+package com.kmanager.kiosco_backend.exception;
+
+/**
+ * La operación choca con el estado actual de los datos (por ejemplo, abrir un
+ * turno en una terminal que ya tiene uno abierto). Se responde 409.
+ */
+public class ConflictoException extends RuntimeException {
+
+    public ConflictoException(String mensaje) {
+        super(mensaje);
+    }
+}
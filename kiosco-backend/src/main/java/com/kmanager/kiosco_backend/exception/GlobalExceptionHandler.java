@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -83,9 +84,82 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Maneja RuntimeException genéricas.
+     * Maneja los conflictos de edición concurrente (control optimista con @Version).
      *
-     * Por ejemplo: "Producto no encontrado", "Venta no encontrada"
+     * Por ejemplo: dos encargados editan el mismo producto; el segundo en
+     * guardar recibe 409 y tiene que recargar el producto antes de reintentar.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConflictoEdicion(
+            ObjectOptimisticLockingFailureException ex) {
+
+        ErrorResponse response = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Otro usuario modificó este registro mientras lo editabas. Recargá los datos e intentá de nuevo",
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Maneja las ediciones que no mandan la versión que leyeron.
+     *
+     * Por ejemplo: un PUT de producto sin "version"; sin ella no se puede
+     * saber si otro lo modificó antes.
+     */
+    @ExceptionHandler(PrecondicionRequeridaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionRequerida(PrecondicionRequeridaException ex) {
+
+        ErrorResponse response = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.PRECONDITION_REQUIRED.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(response);
+    }
+
+    /**
+     * Maneja los registros que no existen.
+     *
+     * Por ejemplo: "Venta no encontrada con ID: 15"
+     */
+    @ExceptionHandler(RecursoNoEncontradoException.class)
+    public ResponseEntity<ErrorResponse> handleNoEncontrado(RecursoNoEncontradoException ex) {
+
+        ErrorResponse response = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.NOT_FOUND.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    /**
+     * Maneja los conflictos con el estado actual de los datos.
+     *
+     * Por ejemplo: abrir un turno en una terminal que ya tiene uno abierto.
+     */
+    @ExceptionHandler(ConflictoException.class)
+    public ResponseEntity<ErrorResponse> handleConflicto(ConflictoException ex) {
+
+        ErrorResponse response = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Maneja RuntimeException genéricas (errores inesperados).
      */
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(
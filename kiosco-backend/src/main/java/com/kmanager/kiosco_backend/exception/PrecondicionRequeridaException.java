@@ -0,0 +1,12 @@
+package com.kmanager.kiosco_backend.exception;
+
+/**
+ * Falta el dato que permite detectar una edición concurrente (por ejemplo, la
+ * versión del producto que leyó el cliente). Se responde 428.
+ */
+public class PrecondicionRequeridaException extends RuntimeException {
+
+    public PrecondicionRequeridaException(String mensaje) {
+        super(mensaje);
+    }
+}
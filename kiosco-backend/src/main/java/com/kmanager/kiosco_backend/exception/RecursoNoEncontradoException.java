@@ -0,0 +1,11 @@
+package com.kmanager.kiosco_backend.exception;
+
+/**
+ * El registro pedido no existe (o es de otra tienda). Se responde 404.
+ */
+public class RecursoNoEncontradoException extends RuntimeException {
+
+    public RecursoNoEncontradoException(String mensaje) {
+        super(mensaje);
+    }
+}
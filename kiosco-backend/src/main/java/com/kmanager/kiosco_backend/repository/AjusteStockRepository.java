@@ -0,0 +1,55 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.AjusteStock;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface AjusteStockRepository extends JpaRepository<AjusteStock, Long> {
+
+    //columnas: producto_id, nombre, stock_actual, ajustes, vendido (venta_items), resumido (ventas ya borradas)
+    String COMPARAR_STOCK =
+            "SELECT p.id, p.nombre, p.stock_actual, " +
+            "       COALESCE(m.ajustes, 0), COALESCE(m.vendido, 0), COALESCE(m.resumido, 0) " +
+            "FROM productos p LEFT JOIN (" +
+            "  SELECT producto_id, SUM(ajustes) AS ajustes, SUM(vendido) AS vendido, SUM(resumido) AS resumido " +
+            "  FROM (" +
+            "    SELECT a.producto_id, a.cantidad AS ajustes, 0 AS vendido, 0 AS resumido " +
+            "    FROM ajustes_stock a WHERE a.tienda_id = :tiendaId " +
+            "    UNION ALL " +
+            "    SELECT i.producto_id, 0, i.cantidad, 0 " +
+            "    FROM venta_items i JOIN ventas v ON v.id = i.venta_id WHERE v.tienda_id = :tiendaId " +
+            "    UNION ALL " +
+            "    SELECT r.producto_id, 0, 0, r.unidades " +
+            "    FROM productos_resumen_diario r WHERE r.tienda_id = :tiendaId" +
+            "  ) movimientos GROUP BY producto_id" +
+            ") m ON m.producto_id = p.id " +
+            "WHERE p.tienda_id = :tiendaId";
+
+    /**
+     * Stock actual y movimientos sumados de todos los productos de la tienda,
+     * en una sola pasada por ajustes, items de venta y resúmenes. Es una sola
+     * sentencia: todo sale de la misma foto de la base aunque se siga vendiendo.
+     *
+     * Las filas se leen de a una (fetch size MIN_VALUE = streaming en el driver
+     * de MySQL): hay que consumir el Stream dentro de una transacción y cerrarlo.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query(value = COMPARAR_STOCK, nativeQuery = true)
+    Stream<Object[]> compararStock(@Param("tiendaId") Long tiendaId);
+
+    /**
+     * Igual que compararStock pero solo para algunos productos (al corregir).
+     */
+    @Query(value = COMPARAR_STOCK + " AND p.id IN (:productoIds)", nativeQuery = true)
+    List<Object[]> compararStock(@Param("tiendaId") Long tiendaId,
+                                  @Param("productoIds") Collection<Long> productoIds);
+}
@@ -0,0 +1,18 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.Categoria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
+
+    List<Categoria> findByTiendaIdOrderByNombre(Long tiendaId);
+
+    Optional<Categoria> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    Optional<Categoria> findByTiendaIdAndNombre(Long tiendaId, String nombre);
+}
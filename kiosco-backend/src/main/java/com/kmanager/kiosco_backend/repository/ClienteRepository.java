@@ -0,0 +1,34 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.Cliente;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+
+    List<Cliente> findByTiendaIdOrderByNombre(Long tiendaId);
+
+    Optional<Cliente> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    /**
+     * Igual que findByIdAndTiendaId pero bloquea al cliente hasta el fin de la
+     * transaccion: dos movimientos del mismo cliente no se pisan el saldo.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Cliente> findForUpdateByIdAndTiendaId(Long id, Long tiendaId);
+
+    boolean existsByTiendaIdAndNombre(Long tiendaId, String nombre);
+
+    /**
+     * Clientes que deben algo, de la mayor deuda a la menor (usa el indice tienda + saldo).
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.tiendaId = ?1 AND c.saldo > 0 ORDER BY c.saldo DESC")
+    List<Cliente> findDeudores(Long tiendaId);
+}
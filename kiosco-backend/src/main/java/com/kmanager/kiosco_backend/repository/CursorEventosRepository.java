@@ -0,0 +1,13 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.CursorEventos;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CursorEventosRepository extends JpaRepository<CursorEventos, Long> {
+
+    Optional<CursorEventos> findByConsumidorAndTiendaId(String consumidor, Long tiendaId);
+}
@@ -0,0 +1,63 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoSalidaRepository extends JpaRepository<EventoSalida, Long> {
+
+    /**
+     * Eventos de una tienda despues de una secuencia, en orden (los que no tienen
+     * secuencia todavia no se ven).
+     */
+    @Query("SELECT e FROM EventoSalida e " +
+           "WHERE e.tiendaId = ?1 AND e.secuencia > ?2 " +
+           "ORDER BY e.secuencia")
+    List<EventoSalida> findSiguientes(Long tiendaId, Long desde, Pageable pagina);
+
+    /**
+     * Igual que findSiguientes pero de todas las tiendas (destinos del relay).
+     */
+    @Query("SELECT e FROM EventoSalida e " +
+           "WHERE e.secuencia > ?1 " +
+           "ORDER BY e.secuencia")
+    List<EventoSalida> findSiguientesTodas(Long desde, Pageable pagina);
+
+    /**
+     * Ultima secuencia asignada; bloquea la fila hasta el fin de la transaccion
+     * (dos numeraciones no se mezclan).
+     */
+    @Query(value = "SELECT ultima FROM eventos_salida_secuencia WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Long bloquearUltimaSecuencia();
+
+    @Modifying
+    @Query(value = "UPDATE eventos_salida_secuencia SET ultima = ?1 WHERE id = 1", nativeQuery = true)
+    int guardarUltimaSecuencia(long ultima);
+
+    /**
+     * Eventos confirmados sin secuencia, en orden de id (lectura sin bloqueo:
+     * los de transacciones abiertas no aparecen).
+     */
+    @Query(value = "SELECT id FROM eventos_salida WHERE secuencia IS NULL ORDER BY id LIMIT ?1", nativeQuery = true)
+    List<Long> findIdsSinSecuencia(int cantidad);
+
+    @Modifying
+    @Query(value = "UPDATE eventos_salida SET secuencia = ?2 WHERE id = ?1", nativeQuery = true)
+    int asignarSecuencia(Long id, long secuencia);
+
+    /**
+     * Borra hasta ?2 eventos creados antes de ?1, los mas viejos primero
+     * (solo los ya numerados: los demas todavia no los leyo nadie).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM eventos_salida WHERE creado < ?1 AND secuencia IS NOT NULL ORDER BY id LIMIT ?2",
+           nativeQuery = true)
+    int borrarAnterioresA(LocalDateTime limite, int cantidad);
+}
@@ -0,0 +1,22 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.MovimientoCuenta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MovimientoCuentaRepository extends JpaRepository<MovimientoCuenta, Long> {
+
+    /**
+     * Movimientos de un cliente anteriores al id ?3, del mas nuevo al mas viejo.
+     * La pagina siguiente se pide con el id del ultimo movimiento recibido.
+     */
+    @Query("SELECT m FROM MovimientoCuenta m " +
+           "WHERE m.clienteId = ?1 AND m.tiendaId = ?2 AND m.id < ?3 " +
+           "ORDER BY m.id DESC")
+    List<MovimientoCuenta> findAnteriores(Long clienteId, Long tiendaId, Long antesDe, Pageable pagina);
+}
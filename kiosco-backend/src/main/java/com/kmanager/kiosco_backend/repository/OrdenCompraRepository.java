@@ -0,0 +1,27 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.OrdenCompra;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrdenCompraRepository extends JpaRepository<OrdenCompra, Long> {
+
+    Optional<OrdenCompra> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    /**
+     * Bloquea la orden hasta el fin de la transaccion: una misma entrega
+     * no se puede recibir dos veces (por ejemplo, con un doble click).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OrdenCompra> findForUpdateByIdAndTiendaId(Long id, Long tiendaId);
+
+    List<OrdenCompra> findByTiendaIdOrderByFechaCreacionDesc(Long tiendaId);
+
+    List<OrdenCompra> findByTiendaIdAndEstadoOrderByFechaCreacionDesc(Long tiendaId, String estado);
+}
@@ -0,0 +1,21 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.PrecioHistorial;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PrecioHistorialRepository extends JpaRepository<PrecioHistorial, Long> {
+
+    List<PrecioHistorial> findByTiendaIdAndProductoIdOrderByVigenteDesdeAscIdAsc(Long tiendaId, Long productoId);
+
+    /**
+     * Todo el historial de la tienda agrupado por producto y en orden
+     * cronologico (lo que necesita LineaTiempoPrecios para armarse en una pasada).
+     */
+    @Query("SELECT p FROM PrecioHistorial p WHERE p.tiendaId = ?1 ORDER BY p.productoId, p.vigenteDesde, p.id")
+    List<PrecioHistorial> findLineaTiempo(Long tiendaId);
+}
@@ -1,37 +1,74 @@
 package com.kmanager.kiosco_backend.repository;
 
 import com.kmanager.kiosco_backend.entity.Producto;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Todas las consultas reciben la tienda como filtro: cada kiosco
+ * solo ve (y recorre en los indices) sus propios productos.
+ */
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
-    List<Producto> findByCategoria(String categoria);
+    List<Producto> findByTiendaId(Long tiendaId);
 
-    List<Producto> findByNombreContainingIgnoreCase(String nombre);
+    Optional<Producto> findByIdAndTiendaId(Long id, Long tiendaId);
 
-    Optional<Producto> findByCodigoBarras(String codigoBarras);
+    boolean existsByIdAndTiendaId(Long id, Long tiendaId);
 
-    @Query("SELECT p FROM Producto p WHERE p.stockActual < p.stockMinimo")
-    List<Producto> findProductosConStockBajo();
+    /**
+     * Trae varios productos en una sola consulta (IN) y bloquea sus filas
+     * (SELECT ... FOR UPDATE) hasta el fin de la transaccion, para modificar
+     * el stock de todos juntos sin perder actualizaciones concurrentes.
+     * Se ordena por ID para que dos transacciones bloqueen siempre en el mismo orden.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Producto p WHERE p.tiendaId = ?1 AND p.id IN ?2 ORDER BY p.id")
+    List<Producto> findAllParaActualizarStock(Long tiendaId, Collection<Long> ids);
+
+    List<Producto> findByTiendaIdAndCategoriaId(Long tiendaId, Long categoriaId);
+
+    List<Producto> findByTiendaIdAndNombreContainingIgnoreCase(Long tiendaId, String nombre);
+
+    Optional<Producto> findByTiendaIdAndCodigoBarras(Long tiendaId, String codigoBarras);
+
+    //busqueda en lote (una consulta IN por tipo de clave)
+    List<Producto> findByTiendaIdAndIdIn(Long tiendaId, Collection<Long> ids);
+
+    List<Producto> findByTiendaIdAndCodigoBarrasIn(Long tiendaId, Collection<String> codigosBarras);
+
+    @Query("SELECT p FROM Producto p WHERE p.tiendaId = ?1 AND p.stockActual < p.stockMinimo")
+    List<Producto> findProductosConStockBajo(Long tiendaId);
+
+    //por categoriaId (indice idx_productos_tienda_categoria_id), no por el texto de la categoria
+    @Query("SELECT p FROM Producto p WHERE p.tiendaId = ?1 AND p.categoriaId = ?2 AND p.stockActual < p.stockMinimo")
+    List<Producto> findProductosConStockBajoPorCategoria(Long tiendaId, Long categoriaId);
 
-    @Query("SELECT p FROM Producto p WHERE p.categoria = ?1 AND p.stockActual < p.stockMinimo")
-    List<Producto> findProductosConStockBajoPorCategoria(String categoria);
+    boolean existsByTiendaIdAndCategoriaId(Long tiendaId, Long categoriaId);
 
     /**
-     * Cuenta cuántos productos hay en total por categoría.
-     * Útil para estadísticas.
+     * Valuacion de la tienda sumada en MySQL, para controlar los contadores en memoria.
+     * Cada fila: [categoriaId, cantidadProductos, productosStockBajo, valorStockCosto, valorStockVenta]
      */
-    Long countByCategoria(String categoria);
+    @Query("SELECT p.categoriaId, COUNT(p), " +
+           "SUM(CASE WHEN p.stockActual < p.stockMinimo THEN 1 ELSE 0 END), " +
+           "SUM(p.stockActual * p.precioCosto), SUM(p.stockActual * p.precioVenta) " +
+           "FROM Producto p WHERE p.tiendaId = ?1 GROUP BY p.categoriaId")
+    List<Object[]> sumarValuacionPorCategoria(Long tiendaId);
 
     /**
-     * Obtiene todas las categorías únicas.
-     * DISTINCT elimina duplicados.
+     * Reporte consolidado: cantidad de productos y de productos con stock bajo por tienda.
+     * Cada fila: [tiendaId, cantidadProductos, cantidadStockBajo]
      */
-    @Query("SELECT DISTINCT p.categoria FROM Producto p ORDER BY p.categoria")
-    List<String> findAllCategorias();
+    @Query("SELECT p.tiendaId, COUNT(p), " +
+           "SUM(CASE WHEN p.stockActual < p.stockMinimo THEN 1 ELSE 0 END) " +
+           "FROM Producto p GROUP BY p.tiendaId")
+    List<Object[]> contarProductosPorTienda();
 }
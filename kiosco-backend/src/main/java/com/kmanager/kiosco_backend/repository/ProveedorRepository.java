@@ -0,0 +1,18 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.Proveedor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProveedorRepository extends JpaRepository<Proveedor, Long> {
+
+    List<Proveedor> findByTiendaIdOrderByNombre(Long tiendaId);
+
+    Optional<Proveedor> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    boolean existsByTiendaIdAndNombre(Long tiendaId, String nombre);
+}
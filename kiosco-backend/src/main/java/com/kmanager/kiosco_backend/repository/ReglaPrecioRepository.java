@@ -0,0 +1,21 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.ReglaPrecio;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReglaPrecioRepository extends JpaRepository<ReglaPrecio, Long> {
+
+    List<ReglaPrecio> findByTiendaId(Long tiendaId);
+
+    Optional<ReglaPrecio> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    /**
+     * Reglas activas de una tienda (las que compila MotorPrecios).
+     */
+    List<ReglaPrecio> findByTiendaIdAndActivaTrue(Long tiendaId);
+}
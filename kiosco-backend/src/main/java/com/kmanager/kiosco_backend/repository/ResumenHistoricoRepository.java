@@ -0,0 +1,62 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.ProductoResumenDiario;
+import com.kmanager.kiosco_backend.entity.VentaResumenDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resumenes diarios de las ventas borradas por la retención.
+ *
+ * Los "sumar" agregan un grupo de ventas a los resumenes (si el día ya tenía
+ * resumen se suma, ON DUPLICATE KEY UPDATE); la retención los llama en la misma
+ * transacción en la que borra esas ventas, así nada se cuenta dos veces.
+ */
+@Repository
+public interface ResumenHistoricoRepository extends JpaRepository<VentaResumenDiario, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_resumen_diario " +
+                   "(tienda_id, fecha, metodo_pago, cantidad_ventas, cantidad_devoluciones, total) " +
+                   "SELECT * FROM (" +
+                   "  SELECT v.tienda_id, DATE(v.timestamp) AS fecha, v.metodo_pago, " +
+                   "         SUM(v.venta_original_id IS NULL) AS ventas, SUM(v.venta_original_id IS NOT NULL) AS devoluciones, " +
+                   "         SUM(v.total_venta) AS importe " +
+                   "  FROM ventas v WHERE v.id IN (?1) " +
+                   "  GROUP BY v.tienda_id, DATE(v.timestamp), v.metodo_pago" +
+                   ") AS nuevo " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "cantidad_ventas = ventas_resumen_diario.cantidad_ventas + nuevo.ventas, " +
+                   "cantidad_devoluciones = ventas_resumen_diario.cantidad_devoluciones + nuevo.devoluciones, " +
+                   "total = ventas_resumen_diario.total + nuevo.importe",
+           nativeQuery = true)
+    int sumarVentas(Collection<Long> ventaIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO productos_resumen_diario (tienda_id, fecha, producto_id, unidades, importe) " +
+                   "SELECT * FROM (" +
+                   "  SELECT v.tienda_id, DATE(v.timestamp) AS fecha, i.producto_id, " +
+                   "         SUM(i.cantidad) AS cantidad, SUM(i.cantidad * i.precio_unitario - i.descuento) AS monto " +
+                   "  FROM venta_items i JOIN ventas v ON v.id = i.venta_id WHERE v.id IN (?1) " +
+                   "  GROUP BY v.tienda_id, DATE(v.timestamp), i.producto_id" +
+                   ") AS nuevo " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "unidades = productos_resumen_diario.unidades + nuevo.cantidad, " +
+                   "importe = productos_resumen_diario.importe + nuevo.monto",
+           nativeQuery = true)
+    int sumarProductos(Collection<Long> ventaIds);
+
+    List<VentaResumenDiario> findByTiendaIdAndFechaBetweenOrderByFechaAscMetodoPagoAsc(
+            Long tiendaId, LocalDate desde, LocalDate hasta);
+
+    @Query("SELECT r FROM ProductoResumenDiario r " +
+           "WHERE r.tiendaId = ?1 AND r.fecha BETWEEN ?2 AND ?3 " +
+           "ORDER BY r.fecha, r.productoId")
+    List<ProductoResumenDiario> findProductosEntreFechas(Long tiendaId, LocalDate desde, LocalDate hasta);
+}
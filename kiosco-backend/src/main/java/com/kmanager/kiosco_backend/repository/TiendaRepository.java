@@ -0,0 +1,11 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.Tienda;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TiendaRepository extends JpaRepository<Tienda, Long> {
+
+    boolean existsByNombre(String nombre);
+}
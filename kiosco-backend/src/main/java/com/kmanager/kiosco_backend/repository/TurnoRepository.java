@@ -0,0 +1,40 @@
+package com.kmanager.kiosco_backend.repository;
+
+import com.kmanager.kiosco_backend.entity.Turno;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TurnoRepository extends JpaRepository<Turno, Long> {
+
+    Optional<Turno> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    /**
+     * Igual que findByIdAndTiendaId pero bloquea el turno hasta el fin de la
+     * transaccion: el cierre espera a las ventas que estan acumulando totales
+     * y no las pisa al guardar.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Turno> findForUpdateByIdAndTiendaId(Long id, Long tiendaId);
+
+    Optional<Turno> findFirstByTiendaIdAndTerminalAndEstado(Long tiendaId, String terminal, String estado);
+
+    /**
+     * Igual que findFirstByTiendaIdAndTerminalAndEstado pero bloquea la fila
+     * (SELECT ... FOR UPDATE) hasta el fin de la transaccion, para acumular
+     * los totales de una venta sin perder actualizaciones concurrentes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Turno> findFirstForUpdateByTiendaIdAndTerminalAndEstado(Long tiendaId, String terminal, String estado);
+
+    /**
+     * Turnos abiertos en un rango de fechas, del mas reciente al mas antiguo.
+     */
+    List<Turno> findByTiendaIdAndAperturaBetweenOrderByAperturaDesc(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
+}
@@ -1,55 +1,214 @@
 package com.kmanager.kiosco_backend.repository;
 
 import com.kmanager.kiosco_backend.entity.Venta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
 
+    /**
+     * Busca una venta por ID dentro de una tienda.
+     */
+    Optional<Venta> findByIdAndTiendaId(Long id, Long tiendaId);
+
+    List<Venta> findByTiendaId(Long tiendaId);
+
+    /**
+     * Igual que findByIdAndTiendaId pero bloquea la venta hasta el fin de la
+     * transaccion (dos devoluciones de la misma venta no pueden cruzarse).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Venta> findForUpdateByIdAndTiendaId(Long id, Long tiendaId);
+
+    /**
+     * Devoluciones registradas para una venta.
+     */
+    List<Venta> findByVentaOriginalIdAndTiendaId(Long ventaOriginalId, Long tiendaId);
+
+    /**
+     * Cantidades ya devueltas de cada producto de una venta (valores negativos).
+     * Cada fila: [productoId, cantidadDevuelta]
+     */
+    @Query("SELECT i.producto.id, SUM(i.cantidad) FROM VentaItem i " +
+           "WHERE i.venta.ventaOriginalId = ?1 " +
+           "GROUP BY i.producto.id")
+    List<Object[]> sumarCantidadesDevueltas(Long ventaOriginalId);
+
     /**
      *
      * Encuentra ventas entre dos fechas(rango).
      * "between" genera WHERE timestamp BETWEEN ? AND ?
      */
-    List<Venta> findByTimestampBetween(LocalDateTime inicio, LocalDateTime fin);
+    List<Venta> findByTiendaIdAndTimestampBetween(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
 
     /**
      * Encuentra ventas por metodo de pago
      */
-    List<Venta> findByMetodoPago(String metodPago);
+    List<Venta> findByTiendaIdAndMetodoPago(Long tiendaId, String metodPago);
 
     /**
      * Calcula el total vendido en un rango de fechas.
      * SUM es una funcion de agregacion.
      */
-    @Query("SELECT SUM(v.totalVenta) FROM Venta v WHERE v.timestamp BETWEEN ?1 AND ?2")
-    Double calcularTotalVentasEntreFechas(LocalDateTime inicio, LocalDateTime fin);
+    @Query("SELECT SUM(v.totalVenta) FROM Venta v WHERE v.tiendaId = ?1 AND v.timestamp BETWEEN ?2 AND ?3")
+    Double calcularTotalVentasEntreFechas(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
 
     /*
     Cuenta cuantas ventas se hicieron en un rango de fechas.
      */
-    Long countByTimestampBetween(LocalDateTime inicio, LocalDateTime fin);
+    Long countByTiendaIdAndTimestampBetween(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
 
     /**
-     * obtiene las ultimas N ventas ordenadas por fecha descendente
-     * util para mostrar un historial reciente.
+     * IDs de las ultimas ventas, de la mas nueva a la mas vieja
+     * util para mostrar un historial reciente (las ventas se traen despues con findConItemsByIdIn).
      */
-    List<Venta> findTop10ByOrderByTimestampDesc();
+    @Query("SELECT v.id FROM Venta v WHERE v.tiendaId = ?1 ORDER BY v.timestamp DESC")
+    List<Long> findIdsRecientes(Long tiendaId, Pageable pagina);
 
     /**
      *Calcula el total vendido por metodo de pago en un rango de fechas.
      *GROUP BY agrupa los resultados.
      */
     @Query("SELECT v.metodoPago, SUM(v.totalVenta) FROM Venta v " +
-           "WHERE v.timestamp BETWEEN ?1 AND ?2 " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp BETWEEN ?2 AND ?3 " +
             "GROUP BY v.metodoPago")
     List<Object[]> calcularVentasPorMetodoPago(
+          @Param("tiendaId") Long tiendaId,
           @Param("inicio") LocalDateTime inicio,
           @Param("fin")  LocalDateTime fin);
+
+    /**
+     * Igual que findByTimestampBetween pero trae los items y sus productos
+     * en la misma consulta (JOIN FETCH), para armar el listado compacto
+     * sin una consulta extra por cada venta.
+     */
+    @Query("SELECT DISTINCT v FROM Venta v " +
+           "LEFT JOIN FETCH v.itemsVendidos i " +
+           "LEFT JOIN FETCH i.producto " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp BETWEEN ?2 AND ?3 " +
+           "ORDER BY v.timestamp")
+    List<Venta> findConItemsByTimestampBetween(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
+
+    /**
+     * IDs de las ventas de un tramo [inicio, fin), en orden.
+     * Para recorrer un dia entero por tandas (ver TicketService).
+     */
+    @Query("SELECT v.id FROM Venta v " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp >= ?2 AND v.timestamp < ?3 " +
+           "ORDER BY v.id")
+    List<Long> findIdsEntreFechas(Long tiendaId, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Ventas con sus items y productos (JOIN FETCH), ordenadas por ID.
+     */
+    @Query("SELECT DISTINCT v FROM Venta v " +
+           "LEFT JOIN FETCH v.itemsVendidos i " +
+           "LEFT JOIN FETCH i.producto " +
+           "WHERE v.tiendaId = ?1 AND v.id IN ?2 " +
+           "ORDER BY v.id")
+    List<Venta> findConItemsByIdIn(Long tiendaId, Collection<Long> ids);
+
+    /**
+     * Mapa de calor: ventas, recaudacion y unidades por dia de la semana y hora.
+     * Todo se agrupa en la base de datos, en una sola consulta.
+     * Las devoluciones (ventas negativas) se cuentan aparte y descuentan de la recaudacion y las unidades.
+     * Cada fila: [diaSemana, hora, cantidadVentas, recaudacion, unidades, cantidadDevoluciones]
+     */
+    @Query("SELECT extract(day of week from v.timestamp), extract(hour from v.timestamp), " +
+           "COUNT(DISTINCT CASE WHEN v.ventaOriginalId IS NULL THEN v.id END), " +
+           "SUM(i.cantidad * i.precioUnitario - i.descuento), SUM(i.cantidad), " +
+           "COUNT(DISTINCT CASE WHEN v.ventaOriginalId IS NOT NULL THEN v.id END) " +
+           "FROM Venta v JOIN v.itemsVendidos i " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp BETWEEN ?2 AND ?3 " +
+           "GROUP BY extract(day of week from v.timestamp), extract(hour from v.timestamp)")
+    List<Object[]> calcularVentasPorDiaYHora(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
+
+    /**
+     * Ventas agrupadas en intervalos de ?4 segundos contados desde ?2.
+     * Las devoluciones se cuentan aparte (igual que en el mapa de calor).
+     * Cada fila: [numeroDeIntervalo, cantidadVentas, recaudacion, unidades, cantidadDevoluciones]
+     */
+    @Query(value = "SELECT FLOOR(TIMESTAMPDIFF(SECOND, ?2, v.timestamp) / ?4) AS bucket, " +
+                   "COUNT(DISTINCT CASE WHEN v.venta_original_id IS NULL THEN v.id END), " +
+                   "SUM(i.cantidad * i.precio_unitario - i.descuento), SUM(i.cantidad), " +
+                   "COUNT(DISTINCT CASE WHEN v.venta_original_id IS NOT NULL THEN v.id END) " +
+                   "FROM ventas v JOIN venta_items i ON i.venta_id = v.id " +
+                   "WHERE v.tienda_id = ?1 AND v.timestamp BETWEEN ?2 AND ?3 " +
+                   "GROUP BY bucket ORDER BY bucket",
+           nativeQuery = true)
+    List<Object[]> calcularVentasPorIntervalo(Long tiendaId, LocalDateTime inicio, LocalDateTime fin, long segundos);
+
+    /**
+     * Reporte consolidado: cantidad de ventas y total vendido por tienda en un rango.
+     * Recorre todas las tiendas; cada fila: [tiendaId, cantidadVentas, totalVendido]
+     */
+    @Query("SELECT v.tiendaId, COUNT(v), SUM(v.totalVenta) FROM Venta v " +
+           "WHERE v.timestamp BETWEEN ?1 AND ?2 " +
+           "GROUP BY v.tiendaId")
+    List<Object[]> calcularTotalesPorTienda(LocalDateTime inicio, LocalDateTime fin);
+
+    /**
+     * Lineas vendidas (y devueltas) en un rango, sin armar entidades:
+     * producto, momento de la venta, cantidad, precio unitario, descuento y costo actual del producto.
+     */
+    @Query("SELECT i.producto.id, v.timestamp, i.cantidad, i.precioUnitario, i.descuento, i.producto.precioCosto " +
+           "FROM VentaItem i JOIN i.venta v " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp BETWEEN ?2 AND ?3")
+    List<Object[]> findLineasEntreFechas(Long tiendaId, LocalDateTime inicio, LocalDateTime fin);
+
+    /**
+     * Totales de un tramo [inicio, fin) agrupados por metodo de pago.
+     * Cada fila: [metodoPago, cantidadVentas, total, unidades]
+     * Lo usa ReportesParalelos, una consulta por particion.
+     */
+    @Query("SELECT v.metodoPago, COUNT(DISTINCT v.id), SUM(i.cantidad * i.precioUnitario - i.descuento), SUM(i.cantidad) " +
+           "FROM VentaItem i JOIN i.venta v " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp >= ?2 AND v.timestamp < ?3 " +
+           "GROUP BY v.metodoPago")
+    List<Object[]> resumirTramo(Long tiendaId, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Lineas de las ventas de un tramo [inicio, fin) con los datos de su venta,
+     * ordenadas por venta (el reporte diario las recorre en una sola pasada).
+     * Cada fila: [ventaId, timestamp, metodoPago, ventaOriginalId, productoId, cantidad, precioUnitario, descuento]
+     */
+    @Query("SELECT v.id, v.timestamp, v.metodoPago, v.ventaOriginalId, i.producto.id, i.cantidad, i.precioUnitario, i.descuento " +
+           "FROM VentaItem i JOIN i.venta v " +
+           "WHERE v.tiendaId = ?1 AND v.timestamp >= ?2 AND v.timestamp < ?3 " +
+           "ORDER BY v.id")
+    List<Object[]> findLineasConVentaEntreFechas(Long tiendaId, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Las ventas mas viejas de la tienda anteriores a ?2, hasta ?3 (usa el indice tienda + timestamp).
+     * Para la retencion (ver RetencionVentasService).
+     */
+    @Query(value = "SELECT id FROM ventas WHERE tienda_id = ?1 AND timestamp < ?2 ORDER BY timestamp LIMIT ?3",
+           nativeQuery = true)
+    List<Long> findIdsAnterioresA(Long tiendaId, LocalDateTime limite, int cantidad);
+
+    /**
+     * Borra los items de un grupo de ventas con una sola sentencia (sin cargar entidades).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM venta_items WHERE venta_id IN (?1)", nativeQuery = true)
+    int borrarItems(Collection<Long> ventaIds);
+
+    /**
+     * Borra un grupo de ventas (primero hay que borrar sus items).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM ventas WHERE id IN (?1)", nativeQuery = true)
+    int borrarVentas(Collection<Long> ventaIds);
 }
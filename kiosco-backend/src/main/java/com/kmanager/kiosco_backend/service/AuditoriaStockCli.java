@@ -0,0 +1,70 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.DiscrepanciaStockDTO;
+import com.kmanager.kiosco_backend.dto.EstadoAuditoriaStockDTO;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Auditoría de stock como comando: revisa todas las tiendas, imprime las
+ * diferencias en la salida estándar (CSV) y termina.
+ *
+ *   java -jar kiosco-backend.jar --spring.main.web-application-type=none \
+ *        --kiosco.auditoria-stock.cli=true [--kiosco.auditoria-stock.corregir=true]
+ *
+ * Código de salida: 0 sin diferencias pendientes, 1 si quedaron diferencias
+ * sin corregir, 2 si la auditoría falló.
+ */
+@Component
+@ConditionalOnProperty(name = "kiosco.auditoria-stock.cli", havingValue = "true")
+public class AuditoriaStockCli implements ApplicationRunner {
+
+    private final AuditoriaStockService auditoriaStockService;
+    private final TiendaRepository tiendaRepository;
+    private final ConfigurableApplicationContext contexto;
+    private final boolean corregir;
+
+    public AuditoriaStockCli(AuditoriaStockService auditoriaStockService,
+                             TiendaRepository tiendaRepository,
+                             ConfigurableApplicationContext contexto,
+                             @Value("${kiosco.auditoria-stock.corregir:false}") boolean corregir) {
+        this.auditoriaStockService = auditoriaStockService;
+        this.tiendaRepository = tiendaRepository;
+        this.contexto = contexto;
+        this.corregir = corregir;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> tiendas = tiendaRepository.findAll().stream().map(Tienda::getId).toList();
+        EstadoAuditoriaStockDTO resultado = auditoriaStockService.ejecutar(tiendas, corregir);
+
+        System.out.println("tienda_id,producto_id,nombre,stock_actual,stock_esperado,diferencia,ajustes,vendido,corregido");
+        long pendientes = 0;
+        for (DiscrepanciaStockDTO d : resultado.getDiscrepancias()) {
+            System.out.println(d.getTiendaId() + "," + d.getProductoId() + ",\"" + d.getNombre().replace("\"", "\"\"") + "\"," +
+                               d.getStockActual() + "," + d.getStockEsperado() + "," + d.getDiferencia() + "," +
+                               d.getAjustes() + "," + d.getVendido() + "," + d.isCorregido());
+            if (!d.isCorregido()) {
+                pendientes++;
+            }
+        }
+        System.err.println("Auditoría de stock: " + resultado.getTiendas() + " tiendas, " +
+                           resultado.getProductosRevisados() + " productos revisados, " +
+                           resultado.getDiscrepancias().size() + " con diferencias, " +
+                           resultado.getCorregidos() + " corregidos" +
+                           (resultado.getError() != null ? ". Error: " + resultado.getError() : ""));
+
+        int codigo = resultado.getError() != null ? 2 : pendientes > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(contexto, () -> codigo));
+    }
+}
@@ -0,0 +1,241 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.DiscrepanciaStockDTO;
+import com.kmanager.kiosco_backend.dto.EstadoAuditoriaStockDTO;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.AjusteStockRepository;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Auditoría de stock: compara el stockActual de cada producto con el que
+ * debería tener según sus movimientos.
+ *
+ *   stock esperado = ajustes (altas, ajustes manuales, recepciones)
+ *                    - vendido (venta_items + ventas ya resumidas por la retención)
+ *
+ * Se revisa cada tienda con una sola consulta (AjusteStockRepository.compararStock)
+ * que MySQL resuelve en una pasada por las tres tablas y agrupa por producto; las
+ * filas llegan de a una y solo se guardan las que no coinciden, así la memoria
+ * no depende del largo del historial.
+ *
+ * Con corregir=true el stockActual de los productos con diferencias se lleva
+ * al esperado, por tandas: los productos se bloquean, se vuelve a calcular lo
+ * esperado (pudo haber ventas desde la revisión) y se publica el cambio como
+ * cualquier otro movimiento de stock. Si el esperado da negativo faltan
+ * movimientos en el historial y no se corrige.
+ *
+ * Corre en segundo plano desde la API (una tienda) o como comando (todas, ver
+ * AuditoriaStockCli).
+ */
+@Slf4j
+@Service
+public class AuditoriaStockService {
+
+    //productos corregidos por transaccion
+    private static final int LOTE_CORRECCION = 200;
+
+    private final ProductoRepository productoRepository;
+    private final AjusteStockRepository ajusteStockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate lectura;
+    private final TransactionTemplate escritura;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    //resultado de la ultima ejecucion; lo escribe solo el hilo que la corre
+    private volatile EstadoAuditoriaStockDTO estado = new EstadoAuditoriaStockDTO();
+
+    public AuditoriaStockService(ProductoRepository productoRepository,
+                                 AjusteStockRepository ajusteStockRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.ajusteStockRepository = ajusteStockRepository;
+        this.eventPublisher = eventPublisher;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.escritura = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lanza la auditoría en segundo plano (desde la API).
+     */
+    public EstadoAuditoriaStockDTO ejecutarEnSegundoPlano(List<Long> tiendaIds, boolean corregir) {
+        EstadoAuditoriaStockDTO progreso = iniciar(corregir);
+        CompletableFuture.runAsync(() -> auditar(tiendaIds, progreso));
+        return obtenerEstado();
+    }
+
+    /**
+     * Ejecuta la auditoría en este hilo y devuelve el resultado.
+     */
+    public EstadoAuditoriaStockDTO ejecutar(List<Long> tiendaIds, boolean corregir) {
+        auditar(tiendaIds, iniciar(corregir));
+        return obtenerEstado();
+    }
+
+    public EstadoAuditoriaStockDTO obtenerEstado() {
+        EstadoAuditoriaStockDTO actual = estado;
+        EstadoAuditoriaStockDTO copia = new EstadoAuditoriaStockDTO();
+        copia.setEnCurso(enCurso.get());
+        copia.setCorregir(actual.isCorregir());
+        copia.setInicio(actual.getInicio());
+        copia.setFin(actual.getFin());
+        copia.setTiendas(actual.getTiendas());
+        copia.setProductosRevisados(actual.getProductosRevisados());
+        copia.setCorregidos(actual.getCorregidos());
+        copia.setDiscrepancias(actual.getDiscrepancias());
+        copia.setError(actual.getError());
+        return copia;
+    }
+
+    private EstadoAuditoriaStockDTO iniciar(boolean corregir) {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new IllegalArgumentException("La auditoría de stock ya se está ejecutando");
+        }
+        EstadoAuditoriaStockDTO progreso = new EstadoAuditoriaStockDTO();
+        progreso.setInicio(LocalDateTime.now());
+        progreso.setCorregir(corregir);
+        //la lista se reemplaza entera al terminar cada tienda (obtenerEstado la comparte)
+        progreso.setDiscrepancias(List.of());
+        estado = progreso;
+        return progreso;
+    }
+
+    private void auditar(List<Long> tiendaIds, EstadoAuditoriaStockDTO progreso) {
+        try {
+            for (Long tiendaId : tiendaIds) {
+                List<DiscrepanciaStockDTO> encontradas = revisar(tiendaId, progreso);
+                if (progreso.isCorregir() && !encontradas.isEmpty()) {
+                    corregir(tiendaId, encontradas, progreso);
+                }
+                List<DiscrepanciaStockDTO> todas = new ArrayList<>(progreso.getDiscrepancias());
+                todas.addAll(encontradas);
+                progreso.setDiscrepancias(List.copyOf(todas));
+                progreso.setTiendas(progreso.getTiendas() + 1);
+            }
+            log.info("Auditoría de stock terminada: {} productos revisados, {} con diferencias, {} corregidos",
+                    progreso.getProductosRevisados(), progreso.getDiscrepancias().size(), progreso.getCorregidos());
+        } catch (RuntimeException e) {
+            progreso.setError(e.getMessage());
+            log.error("La auditoría de stock se interrumpió", e);
+        } finally {
+            progreso.setFin(LocalDateTime.now());
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Recorre los productos de la tienda y devuelve los que no coinciden.
+     */
+    private List<DiscrepanciaStockDTO> revisar(Long tiendaId, EstadoAuditoriaStockDTO progreso) {
+        List<DiscrepanciaStockDTO> encontradas = new ArrayList<>();
+        long revisados = lectura.execute(status -> {
+            long cantidad = 0;
+            try (Stream<Object[]> filas = ajusteStockRepository.compararStock(tiendaId)) {
+                for (Iterator<Object[]> it = filas.iterator(); it.hasNext(); ) {
+                    cantidad++;
+                    DiscrepanciaStockDTO discrepancia = comparar(tiendaId, it.next());
+                    if (discrepancia != null) {
+                        encontradas.add(discrepancia);
+                    }
+                }
+            }
+            return cantidad;
+        });
+        progreso.setProductosRevisados(progreso.getProductosRevisados() + revisados);
+        if (!encontradas.isEmpty()) {
+            log.warn("Auditoría de stock: tienda {} con {} productos con diferencias", tiendaId, encontradas.size());
+        }
+        return encontradas;
+    }
+
+    private void corregir(Long tiendaId, List<DiscrepanciaStockDTO> discrepancias, EstadoAuditoriaStockDTO progreso) {
+        for (int desde = 0; desde < discrepancias.size(); desde += LOTE_CORRECCION) {
+            Map<Long, DiscrepanciaStockDTO> tanda = new LinkedHashMap<>();
+            for (DiscrepanciaStockDTO discrepancia : discrepancias.subList(desde,
+                    Math.min(desde + LOTE_CORRECCION, discrepancias.size()))) {
+                tanda.put(discrepancia.getProductoId(), discrepancia);
+            }
+            int corregidos = escritura.execute(status -> corregirTanda(tiendaId, tanda));
+            progreso.setCorregidos(progreso.getCorregidos() + corregidos);
+        }
+    }
+
+    private int corregirTanda(Long tiendaId, Map<Long, DiscrepanciaStockDTO> tanda) {
+        //con los productos bloqueados no entran ventas ni ajustes: se recalcula lo esperado
+        List<Producto> productos = productoRepository.findAllParaActualizarStock(tiendaId, tanda.keySet());
+        Map<Long, DiscrepanciaStockDTO> actuales = new HashMap<>();
+        for (Object[] fila : ajusteStockRepository.compararStock(tiendaId, tanda.keySet())) {
+            DiscrepanciaStockDTO actual = comparar(tiendaId, fila);
+            if (actual != null) {
+                actuales.put(actual.getProductoId(), actual);
+            }
+        }
+
+        List<ProductosModificadosEvent.Cambio> cambios = new ArrayList<>();
+        for (Producto producto : productos) {
+            DiscrepanciaStockDTO actual = actuales.get(producto.getId());
+            //null: ya coincide; negativo: faltan movimientos, no hay a que valor corregir
+            if (actual == null || actual.getStockEsperado() < 0) {
+                continue;
+            }
+            DiscrepanciaStockDTO reportada = tanda.get(producto.getId());
+            reportada.setStockActual(actual.getStockActual());
+            reportada.setStockEsperado(actual.getStockEsperado());
+            reportada.setDiferencia(actual.getDiferencia());
+            reportada.setCorregido(true);
+
+            Producto antes = producto.copia();
+            producto.corregirStock((int) actual.getStockEsperado());
+            cambios.add(new ProductosModificadosEvent.Cambio(antes, producto.copia()));
+            log.warn("Auditoría de stock: producto {} ({}) de la tienda {} corregido de {} a {}",
+                    producto.getId(), producto.getNombre(), tiendaId, antes.getStockActual(), producto.getStockActual());
+        }
+        if (!cambios.isEmpty()) {
+            productoRepository.saveAll(productos);
+            //caches, valuacion y eventos de salida se enteran como con cualquier ajuste
+            eventPublisher.publishEvent(new ProductosModificadosEvent(tiendaId, cambios));
+        }
+        return cambios.size();
+    }
+
+    /**
+     * Arma la discrepancia de una fila de compararStock; null si el stock coincide.
+     */
+    private static DiscrepanciaStockDTO comparar(Long tiendaId, Object[] fila) {
+        long stockActual = ((Number) fila[2]).longValue();
+        long ajustes = ((Number) fila[3]).longValue();
+        long vendido = ((Number) fila[4]).longValue() + ((Number) fila[5]).longValue();
+        long esperado = ajustes - vendido;
+        if (esperado == stockActual) {
+            return null;
+        }
+        DiscrepanciaStockDTO discrepancia = new DiscrepanciaStockDTO();
+        discrepancia.setTiendaId(tiendaId);
+        discrepancia.setProductoId(((Number) fila[0]).longValue());
+        discrepancia.setNombre((String) fila[1]);
+        discrepancia.setStockActual(stockActual);
+        discrepancia.setStockEsperado(esperado);
+        discrepancia.setDiferencia(stockActual - esperado);
+        discrepancia.setAjustes(ajustes);
+        discrepancia.setVendido(vendido);
+        return discrepancia;
+    }
+}
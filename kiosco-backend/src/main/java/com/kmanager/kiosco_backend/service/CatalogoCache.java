@@ -0,0 +1,222 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catálogo de productos en memoria, separado por tienda.
+ *
+ * El POS lee el catálogo completo y busca por código de barras en cada
+ * escaneo; con el cache esas lecturas no van a MySQL. El catálogo de una
+ * tienda se carga entero la primera vez que se pide (o al arrancar, en
+ * segundo plano) y después se mantiene con los ProductosModificadosEvent
+ * que publican los servicios, aplicados solo si la transacción se confirmó.
+ *
+ * Los productos del cache son copias: no se deben modificar.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class CatalogoCache {
+
+    private final ProductoRepository productoRepository;
+    private final TiendaRepository tiendaRepository;
+
+    @Value("${kiosco.catalogo.precalentar:true}")
+    private boolean precalentar;
+
+    private final Map<Long, CatalogoTienda> catalogos = new ConcurrentHashMap<>();
+
+    /**
+     * Productos, código de barras -> ID y categoría -> IDs de una tienda.
+     */
+    private static class CatalogoTienda {
+        private final Map<Long, Producto> porId = new ConcurrentHashMap<>();
+        private final Map<String, Long> idPorCodigoBarras = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> idsPorCategoria = new ConcurrentHashMap<>();
+        //IDs borrados: un evento atrasado de antes del borrado no los vuelve a agregar
+        private final Set<Long> eliminados = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Guarda la foto de un producto sin retroceder: los datos de catalogo se toman
+         * de la foto con mayor version y el stock de la de mas movimientos de stock.
+         * Los eventos de transacciones distintas pueden llegar en cualquier orden.
+         */
+        private void aplicar(Producto foto) {
+            if (eliminados.contains(foto.getId())) {
+                return;
+            }
+            Producto actual = porId.get(foto.getId());
+            if (actual == null) {
+                guardar(foto);
+                return;
+            }
+            boolean catalogoNuevo = foto.getVersion() >= actual.getVersion();
+            boolean stockNuevo = foto.getMovimientosStock() >= actual.getMovimientosStock();
+            if (!catalogoNuevo && !stockNuevo) {
+                return;
+            }
+            Producto combinado = catalogoNuevo ? foto.copia() : actual.copia();
+            Producto conStock = stockNuevo ? foto : actual;
+            combinado.setStockActual(conStock.getStockActual());
+            combinado.setMovimientosStock(conStock.getMovimientosStock());
+            guardar(combinado);
+        }
+
+        private void guardar(Producto producto) {
+            Producto anterior = porId.put(producto.getId(), producto);
+            if (anterior != null && anterior.getCodigoBarras() != null
+                    && !anterior.getCodigoBarras().equals(producto.getCodigoBarras())) {
+                idPorCodigoBarras.remove(anterior.getCodigoBarras(), anterior.getId());
+            }
+            if (producto.getCodigoBarras() != null) {
+                idPorCodigoBarras.put(producto.getCodigoBarras(), producto.getId());
+            }
+            if (anterior != null && anterior.getCategoriaId() != null
+                    && !anterior.getCategoriaId().equals(producto.getCategoriaId())) {
+                quitarDeCategoria(anterior.getCategoriaId(), anterior.getId());
+            }
+            if (producto.getCategoriaId() != null) {
+                idsPorCategoria.computeIfAbsent(producto.getCategoriaId(), c -> ConcurrentHashMap.newKeySet())
+                        .add(producto.getId());
+            }
+        }
+
+        private void quitar(Long id) {
+            eliminados.add(id);
+            Producto anterior = porId.remove(id);
+            if (anterior != null && anterior.getCodigoBarras() != null) {
+                idPorCodigoBarras.remove(anterior.getCodigoBarras(), id);
+            }
+            if (anterior != null && anterior.getCategoriaId() != null) {
+                quitarDeCategoria(anterior.getCategoriaId(), id);
+            }
+        }
+
+        private void quitarDeCategoria(Long categoriaId, Long id) {
+            Set<Long> ids = idsPorCategoria.get(categoriaId);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Todos los productos de la tienda, ordenados por ID.
+     */
+    public List<Producto> obtenerTodos(Long tiendaId) {
+        List<Producto> productos = new ArrayList<>(catalogo(tiendaId).porId.values());
+        productos.sort(Comparator.comparing(Producto::getId));
+        return productos;
+    }
+
+    public Optional<Producto> obtenerPorId(Long tiendaId, Long id) {
+        return Optional.ofNullable(catalogo(tiendaId).porId.get(id));
+    }
+
+    /**
+     * Productos de una categoría, ordenados por ID (sin recorrer el catálogo).
+     */
+    public List<Producto> obtenerPorCategoria(Long tiendaId, Long categoriaId) {
+        CatalogoTienda catalogo = catalogo(tiendaId);
+        Set<Long> ids = catalogo.idsPorCategoria.getOrDefault(categoriaId, Set.of());
+        List<Producto> productos = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Producto producto = catalogo.porId.get(id);
+            if (producto != null) {
+                productos.add(producto);
+            }
+        }
+        productos.sort(Comparator.comparing(Producto::getId));
+        return productos;
+    }
+
+    public Optional<Producto> buscarPorCodigoBarras(Long tiendaId, String codigoBarras) {
+        CatalogoTienda catalogo = catalogo(tiendaId);
+        Long id = catalogo.idPorCodigoBarras.get(codigoBarras);
+        return id != null ? Optional.ofNullable(catalogo.porId.get(id)) : Optional.empty();
+    }
+
+    /**
+     * Aplica los cambios de productos una vez confirmada la transacción.
+     * Si la transacción se deshace el evento no llega y el cache no cambia.
+     * Un evento atrasado (de una transacción que confirmó antes que otra ya
+     * aplicada) no pisa el stock ni la versión más nuevos.
+     * Va antes que los demás listeners, que arman sus agregados desde el catálogo.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent evento) {
+        //computeIfPresent espera si el catalogo de la tienda se esta cargando en ese momento;
+        //si todavia no se cargo no hace nada: se leera completo (y actualizado) cuando se pida
+        catalogos.computeIfPresent(evento.getTiendaId(), (id, catalogo) -> {
+            for (ProductosModificadosEvent.Cambio cambio : evento.getCambios()) {
+                if (cambio.getDespues() != null) {
+                    catalogo.aplicar(cambio.getDespues());
+                } else {
+                    catalogo.quitar(cambio.getAntes().getId());
+                }
+            }
+            return catalogo;
+        });
+    }
+
+    /**
+     * Carga en segundo plano el catálogo de todas las tiendas al arrancar,
+     * así la primera venta no espera la consulta del catálogo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precalentarAlArrancar() {
+        //lo lee scripts/medir-arranque.sh para comparar perfiles
+        log.info("Arranque: aplicación lista en {} ms desde el inicio de la JVM",
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        if (!precalentar) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            long inicio = System.nanoTime();
+            for (Tienda tienda : tiendaRepository.findAll()) {
+                int cantidad = catalogo(tienda.getId()).porId.size();
+                log.info("Catálogo de la tienda {} precargado: {} productos", tienda.getId(), cantidad);
+            }
+            log.info("Arranque: catálogo precargado en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        }).exceptionally(e -> {
+            log.warn("No se pudo precargar el catálogo", e);
+            return null;
+        });
+    }
+
+    private CatalogoTienda catalogo(Long tiendaId) {
+        return catalogos.computeIfAbsent(tiendaId, id -> {
+            CatalogoTienda catalogo = new CatalogoTienda();
+            for (Producto producto : productoRepository.findByTiendaId(id)) {
+                catalogo.guardar(producto.copia());
+            }
+            return catalogo;
+        });
+    }
+}
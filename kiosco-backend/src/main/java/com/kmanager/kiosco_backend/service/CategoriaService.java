@@ -0,0 +1,271 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.CategoriaResumenDTO;
+import com.kmanager.kiosco_backend.entity.Categoria;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.CategoriasModificadasEvent;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.exception.ConflictoException;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.CategoriaRepository;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Categorías de productos de cada tienda.
+ *
+ * La lista de categorías de una tienda se guarda en memoria (cambia muy poco)
+ * y se descarta cuando se confirma un alta, un renombre o una baja. Los
+ * contadores por categoría los lleva ResumenCategorias.
+ */
+@Service
+@Transactional
+public class CategoriaService {
+
+    private final CategoriaRepository categoriaRepository;
+    private final ProductoRepository productoRepository;
+    private final ResumenCategorias resumenCategorias;
+    private final CatalogoCache catalogoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate nuevaTransaccion;
+
+    //tiendaId -> categorias ordenadas por nombre (copias, no entidades administradas)
+    private final Map<Long, List<Categoria>> categorias = new ConcurrentHashMap<>();
+
+    public CategoriaService(CategoriaRepository categoriaRepository,
+                            ProductoRepository productoRepository,
+                            ResumenCategorias resumenCategorias,
+                            CatalogoCache catalogoCache,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager) {
+        this.categoriaRepository = categoriaRepository;
+        this.productoRepository = productoRepository;
+        this.resumenCategorias = resumenCategorias;
+        this.catalogoCache = catalogoCache;
+        this.eventPublisher = eventPublisher;
+        //el alta de una categoria va en su propia transaccion: si choca con la restriccion
+        //unica (otra peticion la creo al mismo tiempo) no deja marcada para rollback la de afuera
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Categorías de la tienda ordenadas por nombre.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Categoria> obtenerTodas() {
+        return listaTienda(TiendaContext.actual());
+    }
+
+    /**
+     * Categorías con sus contadores, sin recorrer productos.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoriaResumenDTO> obtenerResumen() {
+        Long tiendaId = TiendaContext.actual();
+        Map<Long, ResumenCategorias.Totales> totales = resumenCategorias.obtenerTodas(tiendaId);
+        List<CategoriaResumenDTO> resumen = new ArrayList<>();
+        for (Categoria categoria : listaTienda(tiendaId)) {
+            ResumenCategorias.Totales t = totales.getOrDefault(categoria.getId(), new ResumenCategorias.Totales());
+            resumen.add(new CategoriaResumenDTO(categoria.getId(), categoria.getNombre(),
+                    t.getCantidadProductos(), t.getProductosStockBajo(),
+                    t.getValorStockCosto(), t.getValorStockVenta()));
+        }
+        return resumen;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Categoria> obtenerPorId(Long id) {
+        return buscarPorId(TiendaContext.actual(), id);
+    }
+
+    /**
+     * Productos de una categoría (desde el catálogo en memoria).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Producto> obtenerProductos(Long id) {
+        Long tiendaId = TiendaContext.actual();
+        buscarPorId(tiendaId, id).orElseThrow(() -> new RecursoNoEncontradoException("Categoría no encontrada con ID: " + id));
+        return catalogoCache.obtenerPorCategoria(tiendaId, id);
+    }
+
+    /**
+     * Busca una categoría por nombre, sin distinguir mayúsculas (igual que la
+     * restricción única de MySQL).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Categoria> buscarPorNombre(String nombre) {
+        return buscarPorNombre(TiendaContext.actual(), nombre);
+    }
+
+    public Categoria crear(String nombre) {
+        Long tiendaId = TiendaContext.actual();
+        String limpio = validarNombre(nombre);
+        if (buscarPorNombre(tiendaId, limpio).isPresent()) {
+            throw new IllegalArgumentException("Ya existe la categoría: " + limpio);
+        }
+        return guardarNueva(tiendaId, limpio)
+                .orElseThrow(() -> new IllegalArgumentException("Ya existe la categoría: " + limpio));
+    }
+
+    /**
+     * Renombra una categoría y actualiza el texto de sus productos.
+     */
+    public Categoria renombrar(Long id, String nombre) {
+        Long tiendaId = TiendaContext.actual();
+        Categoria categoria = categoriaRepository.findByIdAndTiendaId(id, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Categoría no encontrada con ID: " + id));
+        String limpio = validarNombre(nombre);
+        Optional<Categoria> otra = buscarPorNombre(tiendaId, limpio);
+        if (otra.isPresent() && !otra.get().getId().equals(id)) {
+            throw new IllegalArgumentException("Ya existe la categoría: " + limpio);
+        }
+        categoria.setNombre(limpio);
+        Categoria guardada = categoriaRepository.save(categoria);
+
+        List<Producto> productos = productoRepository.findByTiendaIdAndCategoriaId(tiendaId, id);
+        List<Producto> antes = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            antes.add(producto.copia());
+            producto.setCategoria(limpio);
+        }
+        productoRepository.saveAll(productos);
+        //flush: los productos publicados tienen que llevar la version nueva
+        productoRepository.flush();
+        List<ProductosModificadosEvent.Cambio> cambios = new ArrayList<>(productos.size());
+        for (int i = 0; i < productos.size(); i++) {
+            cambios.add(new ProductosModificadosEvent.Cambio(antes.get(i), productos.get(i).copia()));
+        }
+        if (!cambios.isEmpty()) {
+            eventPublisher.publishEvent(new ProductosModificadosEvent(tiendaId, cambios));
+        }
+        eventPublisher.publishEvent(new CategoriasModificadasEvent(tiendaId));
+        return guardada;
+    }
+
+    /**
+     * Elimina una categoría; solo si no le quedan productos.
+     */
+    public void eliminar(Long id) {
+        Long tiendaId = TiendaContext.actual();
+        Categoria categoria = categoriaRepository.findByIdAndTiendaId(id, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Categoría no encontrada con ID: " + id));
+        if (productoRepository.existsByTiendaIdAndCategoriaId(tiendaId, id)) {
+            throw new IllegalArgumentException(
+                    "La categoría " + categoria.getNombre() + " todavía tiene productos");
+        }
+        categoriaRepository.delete(categoria);
+        eventPublisher.publishEvent(new CategoriasModificadasEvent(tiendaId));
+    }
+
+    /**
+     * Completa categoria y categoriaId de un producto que se está guardando.
+     *
+     * Si el cliente cambió categoriaId (o no mandó el texto) vale el ID;
+     * si no, vale el texto, y si no existe una categoría con ese nombre se crea.
+     * Así los clientes que solo conocen el texto siguen funcionando.
+     *
+     * @param anterior el producto antes del cambio (null en un alta)
+     */
+    public void asignar(Producto producto, Producto anterior) {
+        Long tiendaId = producto.getTiendaId();
+        String texto = producto.getCategoria() != null ? producto.getCategoria().trim() : "";
+        Long idAnterior = anterior != null ? anterior.getCategoriaId() : null;
+
+        Categoria categoria;
+        if (producto.getCategoriaId() != null
+                && (texto.isEmpty() || !Objects.equals(producto.getCategoriaId(), idAnterior))) {
+            Long categoriaId = producto.getCategoriaId();
+            categoria = buscarPorId(tiendaId, categoriaId)
+                    .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada con ID: " + categoriaId));
+        } else {
+            String nombre = validarNombre(texto);
+            categoria = buscarPorNombre(tiendaId, nombre)
+                    .or(() -> guardarNueva(tiendaId, nombre))
+                    .orElseGet(() -> releerCreada(tiendaId, nombre));
+        }
+        producto.setCategoriaId(categoria.getId());
+        producto.setCategoria(categoria.getNombre());
+    }
+
+    /**
+     * Descarta la lista en memoria de la tienda una vez confirmado el cambio.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCategorias(CategoriasModificadasEvent evento) {
+        categorias.remove(evento.getTiendaId());
+    }
+
+    /**
+     * Crea la categoría y la confirma enseguida. Vacío si ya existía (otra
+     * petición la creó entre la búsqueda y el alta).
+     */
+    private Optional<Categoria> guardarNueva(Long tiendaId, String nombre) {
+        try {
+            return Optional.ofNullable(nuevaTransaccion.execute(estado -> {
+                Categoria nueva = categoriaRepository.save(new Categoria(tiendaId, nombre));
+                //se publica en la transaccion nueva: la lista en memoria se descarta al confirmarla
+                eventPublisher.publishEvent(new CategoriasModificadasEvent(tiendaId));
+                return nueva;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lee la categoría que otra petición acaba de crear. Va en una transacción
+     * nueva: la actual puede tener una foto de la base de antes de ese alta.
+     */
+    private Categoria releerCreada(Long tiendaId, String nombre) {
+        return Optional.ofNullable(nuevaTransaccion.execute(estado ->
+                        categoriaRepository.findByTiendaIdAndNombre(tiendaId, nombre).orElse(null)))
+                .orElseThrow(() -> new ConflictoException(
+                        "La categoría " + nombre + " se modificó al mismo tiempo, reintentar"));
+    }
+
+    private Optional<Categoria> buscarPorId(Long tiendaId, Long id) {
+        return listaTienda(tiendaId).stream().filter(c -> c.getId().equals(id)).findFirst()
+                .or(() -> categoriaRepository.findByIdAndTiendaId(id, tiendaId));
+    }
+
+    private Optional<Categoria> buscarPorNombre(Long tiendaId, String nombre) {
+        //si no esta en memoria puede ser una categoria creada en esta misma transaccion
+        return listaTienda(tiendaId).stream().filter(c -> c.getNombre().equalsIgnoreCase(nombre)).findFirst()
+                .or(() -> categoriaRepository.findByTiendaIdAndNombre(tiendaId, nombre));
+    }
+
+    private List<Categoria> listaTienda(Long tiendaId) {
+        return categorias.computeIfAbsent(tiendaId, id -> categoriaRepository.findByTiendaIdOrderByNombre(id)
+                .stream()
+                .map(c -> {
+                    Categoria copia = new Categoria(c.getTiendaId(), c.getNombre());
+                    copia.setId(c.getId());
+                    return copia;
+                })
+                .toList());
+    }
+
+    private static String validarNombre(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            throw new IllegalArgumentException("El nombre de la categoría es obligatorio");
+        }
+        return nombre.trim();
+    }
+}
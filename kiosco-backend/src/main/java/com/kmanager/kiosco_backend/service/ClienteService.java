@@ -0,0 +1,198 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.DeudaClientesDTO;
+import com.kmanager.kiosco_backend.entity.Cliente;
+import com.kmanager.kiosco_backend.entity.MovimientoCuenta;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.ClienteRepository;
+import com.kmanager.kiosco_backend.repository.MovimientoCuentaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Clientes y cuenta corriente (fiado).
+ *
+ * Cada cliente tiene su saldo ya calculado. Las ventas en cuenta corriente, sus
+ * devoluciones y los pagos bloquean la fila del cliente, actualizan el saldo y
+ * registran el movimiento en la misma transacción: el saldo siempre es la suma
+ * de los movimientos, y el reporte de deudores solo lee los saldos.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ClienteService {
+
+    public static final String CUENTA_CORRIENTE = "Cuenta corriente";
+
+    public static final int LIMITE_MOVIMIENTOS = 50;
+    public static final int MAXIMO_MOVIMIENTOS = 500;
+
+    private final ClienteRepository clienteRepository;
+    private final MovimientoCuentaRepository movimientoCuentaRepository;
+
+    public static boolean esCuentaCorriente(String metodoPago) {
+        return CUENTA_CORRIENTE.equalsIgnoreCase(metodoPago);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Cliente> obtenerTodos() {
+        return clienteRepository.findByTiendaIdOrderByNombre(TiendaContext.actual());
+    }
+
+    @Transactional(readOnly = true)
+    public Cliente obtenerPorId(Long id) {
+        return clienteRepository.findByIdAndTiendaId(id, TiendaContext.actual())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado con ID: " + id));
+    }
+
+    /**
+     * crea un cliente con la cuenta en cero.
+     */
+    public Cliente crear(Cliente datos) {
+        Long tiendaId = TiendaContext.actual();
+        validar(datos);
+        if (clienteRepository.existsByTiendaIdAndNombre(tiendaId, datos.getNombre().strip())) {
+            throw new IllegalArgumentException("Ya existe un cliente con el nombre: " + datos.getNombre());
+        }
+        Cliente cliente = new Cliente();
+        cliente.setTiendaId(tiendaId);
+        copiarDatos(datos, cliente);
+        return clienteRepository.save(cliente);
+    }
+
+    /**
+     * actualiza los datos del cliente. El saldo no se toca: solo cambia con movimientos.
+     */
+    public Cliente actualizar(Long id, Cliente datos) {
+        Long tiendaId = TiendaContext.actual();
+        validar(datos);
+        Cliente cliente = clienteRepository.findForUpdateByIdAndTiendaId(id, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado con ID: " + id));
+        String nombre = datos.getNombre().strip();
+        if (!nombre.equals(cliente.getNombre()) && clienteRepository.existsByTiendaIdAndNombre(tiendaId, nombre)) {
+            throw new IllegalArgumentException("Ya existe un cliente con el nombre: " + nombre);
+        }
+        copiarDatos(datos, cliente);
+        return clienteRepository.save(cliente);
+    }
+
+    /**
+     * Carga en la cuenta del cliente una venta o devolución en cuenta corriente.
+     * Se llama desde VentaService en la misma transacción, con la venta ya guardada.
+     *
+     * Las ventas verifican el límite de crédito; las devoluciones (total negativo)
+     * siempre se aceptan.
+     */
+    public void registrarVenta(Venta venta) {
+        if (venta.getClienteId() == null) {
+            throw new IllegalArgumentException("Las ventas en cuenta corriente deben indicar el cliente");
+        }
+        Cliente cliente = bloquear(venta.getTiendaId(), venta.getClienteId());
+        double importe = redondear(venta.getTotalVenta());
+        double saldo = redondear(cliente.getSaldo() + importe);
+        if (importe > 0 && cliente.getLimiteCredito() != null && saldo > cliente.getLimiteCredito()) {
+            throw new IllegalArgumentException(
+                    "La venta supera el límite de crédito de " + cliente.getNombre() +
+                    ". Saldo: " + cliente.getSaldo() + ", Límite: " + cliente.getLimiteCredito() +
+                    ", Venta: " + importe);
+        }
+        String tipo = venta.isDevolucion() ? MovimientoCuenta.DEVOLUCION : MovimientoCuenta.VENTA;
+        MovimientoCuenta movimiento = mover(cliente, tipo, importe);
+        movimiento.setVentaId(venta.getId());
+        movimientoCuentaRepository.save(movimiento);
+    }
+
+    /**
+     * Registra un pago del cliente (reduce la deuda). Se permite pagar de más:
+     * queda saldo a favor.
+     *
+     * @param metodoPago con qué pagó (Efectivo, Tarjeta...), puede ser null
+     */
+    public MovimientoCuenta registrarPago(Long clienteId, Double importe, String metodoPago, String observaciones) {
+        if (importe == null || importe <= 0) {
+            throw new IllegalArgumentException("El importe del pago debe ser mayor a 0");
+        }
+        if (esCuentaCorriente(metodoPago)) {
+            throw new IllegalArgumentException("Un pago no puede hacerse en cuenta corriente");
+        }
+        Cliente cliente = bloquear(TiendaContext.actual(), clienteId);
+        MovimientoCuenta movimiento = mover(cliente, MovimientoCuenta.PAGO, -redondear(importe));
+        movimiento.setMetodoPago(metodoPago);
+        movimiento.setObservaciones(observaciones);
+        return movimientoCuentaRepository.save(movimiento);
+    }
+
+    /**
+     * Resumen de cuenta del cliente, del movimiento más nuevo al más viejo.
+     *
+     * Se pagina por id (no por número de página): la página siguiente se pide
+     * con antesDe = id del último movimiento recibido, así cuesta lo mismo
+     * aunque el cliente tenga años de movimientos.
+     *
+     * @param antesDe id del último movimiento de la página anterior, null para la primera
+     */
+    @Transactional(readOnly = true)
+    public List<MovimientoCuenta> obtenerMovimientos(Long clienteId, Long antesDe, Integer limite) {
+        Long tiendaId = TiendaContext.actual();
+        int tamanio = limite != null ? limite : LIMITE_MOVIMIENTOS;
+        if (tamanio <= 0 || tamanio > MAXIMO_MOVIMIENTOS) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAXIMO_MOVIMIENTOS);
+        }
+        if (clienteRepository.findByIdAndTiendaId(clienteId, tiendaId).isEmpty()) {
+            throw new RecursoNoEncontradoException("Cliente no encontrado con ID: " + clienteId);
+        }
+        return movimientoCuentaRepository.findAnteriores(clienteId, tiendaId,
+                antesDe != null ? antesDe : Long.MAX_VALUE, PageRequest.of(0, tamanio));
+    }
+
+    /**
+     * Clientes que deben algo y el total adeudado, leídos de los saldos.
+     */
+    @Transactional(readOnly = true)
+    public DeudaClientesDTO obtenerDeudores() {
+        List<Cliente> deudores = clienteRepository.findDeudores(TiendaContext.actual());
+        double total = 0;
+        for (Cliente cliente : deudores) {
+            total += cliente.getSaldo();
+        }
+        return new DeudaClientesDTO(redondear(total), deudores.size(), deudores);
+    }
+
+    private MovimientoCuenta mover(Cliente cliente, String tipo, double importe) {
+        cliente.setSaldo(redondear(cliente.getSaldo() + importe));
+        MovimientoCuenta movimiento = new MovimientoCuenta(cliente, tipo, importe);
+        cliente.setUltimoMovimiento(movimiento.getFecha());
+        return movimiento;
+    }
+
+    private Cliente bloquear(Long tiendaId, Long clienteId) {
+        return clienteRepository.findForUpdateByIdAndTiendaId(clienteId, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado con ID: " + clienteId));
+    }
+
+    private static void validar(Cliente datos) {
+        if (datos.getNombre() == null || datos.getNombre().isBlank()) {
+            throw new IllegalArgumentException("El nombre del cliente es obligatorio");
+        }
+        if (datos.getLimiteCredito() != null && datos.getLimiteCredito() < 0) {
+            throw new IllegalArgumentException("El límite de crédito no puede ser negativo");
+        }
+    }
+
+    private static void copiarDatos(Cliente datos, Cliente cliente) {
+        cliente.setNombre(datos.getNombre().strip());
+        cliente.setDocumento(datos.getDocumento());
+        cliente.setTelefono(datos.getTelefono());
+        cliente.setLimiteCredito(datos.getLimiteCredito());
+    }
+
+    private static double redondear(double importe) {
+        return Math.round(importe * 100) / 100.0;
+    }
+}
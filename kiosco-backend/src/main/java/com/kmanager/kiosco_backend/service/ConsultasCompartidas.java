@@ -0,0 +1,131 @@
+package com.kmanager.kiosco_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Junta las consultas iguales que llegan al mismo tiempo.
+ *
+ * Al abrir el kiosco todas las pestañas del dashboard piden el total del día,
+ * el stock bajo y las últimas ventas a la vez. La primera petición de cada
+ * clave ejecuta la consulta; las que llegan mientras tanto esperan ese mismo
+ * resultado en vez de lanzar otra consulta igual. Si la consulta falla, todas
+ * reciben el mismo error.
+ *
+ * Con kiosco.consultas.ttl-ms > 0 el resultado se sigue devolviendo durante
+ * ese tiempo después de terminar (para las ráfagas que no llegan exactamente
+ * juntas). Con 0 solo se comparte mientras la consulta está en curso. Los
+ * resultados vencidos que nadie volvió a pedir se barren al agregar una
+ * consulta nueva (como mucho una vez por ttl), así el mapa no crece con
+ * claves viejas (otros días, otros filtros).
+ *
+ * El resultado lo reciben varios hilos: tiene que estar completo (sin
+ * relaciones lazy por cargar) y nadie lo debe modificar.
+ */
+@Component
+public class ConsultasCompartidas {
+
+    private final long ttlNanos;
+
+    private final Map<String, Consulta> enCurso = new ConcurrentHashMap<>();
+    //proximo barrido de vencidas (System.nanoTime)
+    private final AtomicLong proximoBarrido = new AtomicLong(System.nanoTime());
+
+    private static final class Consulta {
+        private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        //hasta cuando se puede reutilizar el resultado (System.nanoTime); solo vale cuando termino
+        private volatile long venceNanos;
+
+        private boolean vencida(long ahora) {
+            return resultado.isDone() && venceNanos - ahora <= 0;
+        }
+    }
+
+    public ConsultasCompartidas(@Value("${kiosco.consultas.ttl-ms:0}") long ttlMs) {
+        this.ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+    }
+
+    /**
+     * Ejecuta la consulta, o espera la que ya está en curso con la misma clave.
+     *
+     * @param clave identifica la consulta, incluida la tienda y los parámetros
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String clave, Supplier<T> consulta) {
+        while (true) {
+            Consulta nueva = new Consulta();
+            Consulta existente = enCurso.putIfAbsent(clave, nueva);
+            if (existente == null) {
+                barrerVencidas();
+                return ejecutarPrimera(clave, nueva, consulta);
+            }
+            if (existente.vencida(System.nanoTime())) {
+                //resultado vencido: se descarta y se vuelve a intentar
+                enCurso.remove(clave, existente);
+                continue;
+            }
+            try {
+                return (T) existente.resultado.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private <T> T ejecutarPrimera(String clave, Consulta nueva, Supplier<T> consulta) {
+        T resultado;
+        try {
+            resultado = consulta.get();
+        } catch (RuntimeException | Error e) {
+            //los errores no se guardan: la proxima peticion vuelve a consultar
+            enCurso.remove(clave, nueva);
+            nueva.resultado.completeExceptionally(e);
+            throw e;
+        }
+        nueva.venceNanos = System.nanoTime() + ttlNanos;
+        if (ttlNanos <= 0) {
+            enCurso.remove(clave, nueva);
+        }
+        nueva.resultado.complete(resultado);
+        return resultado;
+    }
+
+    /**
+     * Saca los resultados vencidos. Con ttl 0 no hace falta: se sacan al terminar.
+     */
+    private void barrerVencidas() {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        long proximo = proximoBarrido.get();
+        //un solo hilo barre por vuelta
+        if (proximo - ahora > 0 || !proximoBarrido.compareAndSet(proximo, ahora + ttlNanos)) {
+            return;
+        }
+        //remove(clave, valor): si otro hilo ya puso una consulta nueva con esa clave, no se toca
+        enCurso.forEach((clave, consulta) -> {
+            if (consulta.vencida(ahora)) {
+                enCurso.remove(clave, consulta);
+            }
+        });
+    }
+
+    /**
+     * Claves guardadas (en curso o con resultado todavía no barrido).
+     */
+    int tamanio() {
+        return enCurso.size();
+    }
+}
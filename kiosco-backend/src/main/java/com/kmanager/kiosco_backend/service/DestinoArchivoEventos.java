@@ -0,0 +1,66 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Destino de eventos en archivos locales: un archivo JSON por línea y por día
+ * ({directorio}/eventos-2025-06-01.jsonl). Sirve de respaldo o para
+ * integraciones que levantan archivos.
+ */
+@Component
+public class DestinoArchivoEventos implements DestinoEventos {
+
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+    private final Path directorio;
+
+    public DestinoArchivoEventos(ObjectMapper objectMapper,
+                                 @Value("${kiosco.eventos.archivo.habilitado:false}") boolean habilitado,
+                                 @Value("${kiosco.eventos.archivo.directorio:eventos}") String directorio) {
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        this.directorio = Paths.get(directorio);
+    }
+
+    @Override
+    public String nombre() {
+        return "archivo";
+    }
+
+    @Override
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    @Override
+    public void enviar(List<EventoSalida> eventos) throws IOException {
+        Files.createDirectories(directorio);
+        Path archivo = directorio.resolve("eventos-" + LocalDate.now() + ".jsonl");
+        try (FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = Channels.newWriter(canal, StandardCharsets.UTF_8);
+            for (EventoSalida evento : eventos) {
+                writer.write(objectMapper.writeValueAsString(evento));
+                writer.write('\n');
+            }
+            writer.flush();
+            //en disco antes de avanzar el cursor
+            canal.force(false);
+        }
+    }
+}
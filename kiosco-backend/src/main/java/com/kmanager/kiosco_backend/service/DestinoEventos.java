@@ -0,0 +1,25 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino al que RelayEventos entrega los eventos de la bandeja de salida.
+ *
+ * Cada destino tiene su propio cursor (por nombre): si uno falla, los demás
+ * siguen. enviar() debe terminar recién cuando los eventos quedaron entregados;
+ * si lanza excepción la misma página se reintenta en la siguiente vuelta.
+ */
+public interface DestinoEventos {
+
+    /**
+     * Nombre del destino (es el nombre de su cursor).
+     */
+    String nombre();
+
+    boolean habilitado();
+
+    void enviar(List<EventoSalida> eventos) throws IOException;
+}
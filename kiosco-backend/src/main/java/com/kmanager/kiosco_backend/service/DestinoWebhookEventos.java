@@ -0,0 +1,64 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Destino de eventos por HTTP: cada página se envía con un POST (array JSON)
+ * a kiosco.eventos.webhook.url. Cualquier respuesta que no sea 2xx se toma
+ * como fallo y la página se reintenta.
+ */
+@Component
+public class DestinoWebhookEventos implements DestinoEventos {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+    public DestinoWebhookEventos(ObjectMapper objectMapper,
+                                 @Value("${kiosco.eventos.webhook.url:}") String url) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+    }
+
+    @Override
+    public String nombre() {
+        return "webhook";
+    }
+
+    @Override
+    public boolean habilitado() {
+        return !url.isBlank();
+    }
+
+    @Override
+    public void enviar(List<EventoSalida> eventos) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(eventos)))
+                .build();
+        HttpResponse<Void> respuesta;
+        try {
+            respuesta = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Envio al webhook interrumpido", e);
+        }
+        if (respuesta.statusCode() / 100 != 2) {
+            throw new IOException("El webhook respondió " + respuesta.statusCode());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kmanager.kiosco_backend.dto.FeedEventosDTO;
+import com.kmanager.kiosco_backend.entity.CursorEventos;
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.entity.VentaItem;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.CursorEventosRepository;
+import com.kmanager.kiosco_backend.repository.EventoSalidaRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bandeja de salida de eventos para otros sistemas (contabilidad, tienda web).
+ *
+ * Las ventas, devoluciones y cambios de productos se guardan como eventos en
+ * eventos_salida dentro de la misma transacción que el cambio: si la venta se
+ * deshace el evento tampoco existe, y si se confirma el evento no se pierde.
+ *
+ * Los eventos se leen en orden de secuencia, por páginas. La secuencia la
+ * asigna NumeradorEventos a los eventos ya confirmados (ver numerarPendientes):
+ * el id se asigna al insertar y una transacción abierta puede confirmar un id
+ * menor que otro ya visible, así que leer por id podía saltear eventos.
+ * - RelayEventos los envía a los destinos configurados (archivo, webhook)
+ * - los sistemas externos leen el feed por la API, con un cursor por consumidor
+ *
+ * La entrega es "al menos una vez": si algo falla entre enviar y guardar el
+ * cursor, la página se vuelve a enviar. Los consumidores descartan por id los
+ * eventos repetidos.
+ */
+@Service
+@Transactional
+public class EventosSalidaService {
+
+    public static final int MAXIMO_PAGINA = 1000;
+
+    private final EventoSalidaRepository eventoSalidaRepository;
+    private final CursorEventosRepository cursorEventosRepository;
+    private final ObjectMapper objectMapper;
+
+    public EventosSalidaService(EventoSalidaRepository eventoSalidaRepository,
+                                CursorEventosRepository cursorEventosRepository,
+                                ObjectMapper objectMapper) {
+        this.eventoSalidaRepository = eventoSalidaRepository;
+        this.cursorEventosRepository = cursorEventosRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Guarda el evento de una venta o devolución ya guardada (con ID).
+     * Se llama dentro de la transacción de la venta.
+     */
+    public void registrarVenta(Venta venta) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("ventaId", venta.getId());
+        datos.put("timestamp", venta.getTimestamp());
+        datos.put("metodoPago", venta.getMetodoPago());
+        datos.put("total", venta.getTotalVenta());
+        if (venta.isDevolucion()) {
+            datos.put("ventaOriginalId", venta.getVentaOriginalId());
+        }
+        List<Map<String, Object>> items = new ArrayList<>(venta.getItemsVendidos().size());
+        for (VentaItem item : venta.getItemsVendidos()) {
+            Map<String, Object> linea = new LinkedHashMap<>();
+            linea.put("productoId", item.getProducto().getId());
+            linea.put("cantidad", item.getCantidad());
+            linea.put("precioUnitario", item.getPrecioUnitario());
+            linea.put("descuento", item.getDescuento());
+            items.add(linea);
+        }
+        datos.put("items", items);
+        String tipo = venta.isDevolucion() ? EventoSalida.DEVOLUCION : EventoSalida.VENTA;
+        eventoSalidaRepository.save(new EventoSalida(venta.getTiendaId(), tipo, venta.getId(), json(datos)));
+    }
+
+    /**
+     * Guarda los cambios de productos como eventos.
+     *
+     * A diferencia de los caches (que escuchan con @TransactionalEventListener,
+     * después del commit) este listener corre en el momento de la publicación,
+     * dentro de la transacción del servicio: así el evento se confirma o se
+     * deshace junto con el producto. Cubre ventas, ediciones, ajustes de stock,
+     * recepciones de compras y renombres de categorías.
+     */
+    @EventListener
+    public void alModificarProductos(ProductosModificadosEvent evento) {
+        List<EventoSalida> eventos = new ArrayList<>(evento.getCambios().size());
+        for (ProductosModificadosEvent.Cambio cambio : evento.getCambios()) {
+            Producto antes = cambio.getAntes();
+            Producto despues = cambio.getDespues();
+            Map<String, Object> datos = new LinkedHashMap<>();
+            String tipo;
+            if (despues == null) {
+                tipo = EventoSalida.PRODUCTO_ELIMINADO;
+                datos.put("productoId", antes.getId());
+            } else if (antes != null && Objects.equals(antes.getVersion(), despues.getVersion())) {
+                //el stock no cambia la version: si la version es la misma solo cambio el stock
+                if (Objects.equals(antes.getStockActual(), despues.getStockActual())) {
+                    continue;
+                }
+                tipo = EventoSalida.STOCK;
+                datos.put("productoId", despues.getId());
+                datos.put("stockActual", despues.getStockActual());
+                datos.put("diferencia", despues.getStockActual() - antes.getStockActual());
+            } else {
+                tipo = EventoSalida.PRODUCTO;
+                datos.put("productoId", despues.getId());
+                datos.put("nombre", despues.getNombre());
+                datos.put("codigoBarras", despues.getCodigoBarras());
+                datos.put("categoriaId", despues.getCategoriaId());
+                datos.put("precioVenta", despues.getPrecioVenta());
+                datos.put("precioCosto", despues.getPrecioCosto());
+                datos.put("stockActual", despues.getStockActual());
+            }
+            Long productoId = despues != null ? despues.getId() : antes.getId();
+            eventos.add(new EventoSalida(evento.getTiendaId(), tipo, productoId, json(datos)));
+        }
+        eventoSalidaRepository.saveAll(eventos);
+    }
+
+    /**
+     * Numera los eventos confirmados que todavía no tienen secuencia, en orden
+     * de id, a continuación de la última asignada.
+     *
+     * Primero bloquea el contador y recién después lee los pendientes (lectura
+     * sin bloqueo): ve todo lo confirmado hasta ese momento. Un evento que se
+     * confirma después recibe una secuencia mayor en la próxima vuelta, así que
+     * un consumidor nunca encuentra una secuencia menor que otra ya leída.
+     *
+     * @return cantidad de eventos numerados
+     */
+    public int numerarPendientes(int lote) {
+        long ultima = eventoSalidaRepository.bloquearUltimaSecuencia();
+        List<Long> ids = eventoSalidaRepository.findIdsSinSecuencia(lote);
+        for (Long id : ids) {
+            eventoSalidaRepository.asignarSecuencia(id, ++ultima);
+        }
+        if (!ids.isEmpty()) {
+            eventoSalidaRepository.guardarUltimaSecuencia(ultima);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Eventos de la tienda después de la secuencia "desde", en orden.
+     * Los eventos recién confirmados aparecen cuando NumeradorEventos los numera.
+     */
+    @Transactional(readOnly = true)
+    public FeedEventosDTO obtenerFeed(Long tiendaId, long desde, int limite) {
+        int tamanio = validarLimite(limite);
+        List<EventoSalida> eventos = eventoSalidaRepository.findSiguientes(tiendaId, desde, PageRequest.of(0, tamanio));
+        return feed(eventos, desde, tamanio);
+    }
+
+    /**
+     * Igual que obtenerFeed pero de todas las tiendas (destinos del relay).
+     */
+    @Transactional(readOnly = true)
+    public FeedEventosDTO obtenerFeedTodas(long desde, int limite) {
+        int tamanio = validarLimite(limite);
+        List<EventoSalida> eventos = eventoSalidaRepository.findSiguientesTodas(desde, PageRequest.of(0, tamanio));
+        return feed(eventos, desde, tamanio);
+    }
+
+    /**
+     * Posición guardada de un consumidor (0 si todavía no leyó nada).
+     */
+    @Transactional(readOnly = true)
+    public long obtenerCursor(String consumidor, Long tiendaId) {
+        return cursorEventosRepository.findByConsumidorAndTiendaId(validarConsumidor(consumidor), tiendaId)
+                .map(CursorEventos::getUltimoEventoId)
+                .orElse(0L);
+    }
+
+    /**
+     * Confirma que el consumidor procesó hasta la secuencia "ultimoId". El cursor solo avanza:
+     * una confirmación vieja que llega tarde no lo hace retroceder.
+     */
+    public long confirmar(String consumidor, Long tiendaId, long ultimoId) {
+        String nombre = validarConsumidor(consumidor);
+        CursorEventos cursor = cursorEventosRepository.findByConsumidorAndTiendaId(nombre, tiendaId)
+                .orElseGet(() -> new CursorEventos(nombre, tiendaId));
+        if (ultimoId > cursor.getUltimoEventoId()) {
+            cursor.setUltimoEventoId(ultimoId);
+            cursor.setActualizado(LocalDateTime.now());
+            cursorEventosRepository.save(cursor);
+        }
+        return cursor.getUltimoEventoId();
+    }
+
+    private static FeedEventosDTO feed(List<EventoSalida> eventos, long desde, int tamanio) {
+        long ultimoId = eventos.isEmpty() ? desde : eventos.get(eventos.size() - 1).getSecuencia();
+        return new FeedEventosDTO(eventos, ultimoId, eventos.size() == tamanio);
+    }
+
+    private static int validarLimite(int limite) {
+        if (limite <= 0 || limite > MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAXIMO_PAGINA);
+        }
+        return limite;
+    }
+
+    private static String validarConsumidor(String consumidor) {
+        if (consumidor == null || consumidor.isBlank() || consumidor.length() > 100) {
+            throw new IllegalArgumentException("El nombre del consumidor es obligatorio (hasta 100 caracteres)");
+        }
+        return consumidor.trim();
+    }
+
+    private String json(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.MargenProductoDTO;
+import com.kmanager.kiosco_backend.dto.PrecioVigenteDTO;
+import com.kmanager.kiosco_backend.entity.PrecioHistorial;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.repository.PrecioHistorialRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial de precios de los productos y reportes que dependen del
+ * precio/costo vigente al momento de cada venta.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class HistorialPreciosService {
+
+    private final PrecioHistorialRepository precioHistorialRepository;
+    private final VentaRepository ventaRepository;
+    private final LineaTiempoPrecios lineaTiempoPrecios;
+    private final CatalogoCache catalogoCache;
+
+    /**
+     * agrega un registro al historial si el producto es nuevo o cambio su
+     * precio de venta o de costo. se llama dentro de la transaccion que
+     * modifica el producto, asi el historial y el producto no se desfasan.
+     */
+    public void registrarSiCambio(Producto antes, Producto despues) {
+        if (LineaTiempoPrecios.cambiaPrecio(antes, despues)) {
+            precioHistorialRepository.save(new PrecioHistorial(despues, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * historial completo de un producto, del mas viejo al mas nuevo.
+     */
+    @Transactional(readOnly = true)
+    public List<PrecioHistorial> obtenerHistorial(Long productoId) {
+        return precioHistorialRepository.findByTiendaIdAndProductoIdOrderByVigenteDesdeAscIdAsc(
+                TiendaContext.actual(), productoId);
+    }
+
+    /**
+     * precios de varios productos en un mismo momento (sin consultas por producto).
+     * los productos sin historial no aparecen en el resultado.
+     */
+    @Transactional(readOnly = true)
+    public List<PrecioVigenteDTO> obtenerPreciosEn(Collection<Long> productoIds, LocalDateTime momento) {
+        Long tiendaId = TiendaContext.actual();
+        List<PrecioVigenteDTO> precios = new ArrayList<>(productoIds.size());
+        for (Long productoId : productoIds) {
+            lineaTiempoPrecios.precioEn(tiendaId, productoId, momento).ifPresent(precios::add);
+        }
+        return precios;
+    }
+
+    /**
+     * margen por producto en un rango: ingresos reales (precio cobrado menos
+     * descuentos) contra el costo que tenia cada producto al momento de la venta.
+     *
+     * una consulta trae las lineas vendidas y otra (solo si no esta en memoria)
+     * el historial de precios; el costo de cada linea sale de la linea de tiempo.
+     * las devoluciones tienen cantidades negativas y restan solas.
+     */
+    @Transactional(readOnly = true)
+    public List<MargenProductoDTO> calcularMargenes(LocalDateTime inicio, LocalDateTime fin) {
+        Long tiendaId = TiendaContext.actual();
+        Map<Long, MargenProductoDTO> margenes = new LinkedHashMap<>();
+
+        for (Object[] fila : ventaRepository.findLineasEntreFechas(tiendaId, inicio, fin)) {
+            Long productoId = (Long) fila[0];
+            LocalDateTime momento = (LocalDateTime) fila[1];
+            int cantidad = ((Number) fila[2]).intValue();
+            double precioUnitario = ((Number) fila[3]).doubleValue();
+            double descuento = ((Number) fila[4]).doubleValue();
+            double costoHistorico = ((Number) fila[5]).doubleValue();
+
+            //si el producto no tiene historial se usa su costo actual
+            Double costo = lineaTiempoPrecios.costoEn(tiendaId, productoId, momento);
+            double costoUnitario = costo != null ? costo : costoHistorico;
+
+            MargenProductoDTO margen = margenes.computeIfAbsent(productoId, id -> {
+                MargenProductoDTO nuevo = new MargenProductoDTO();
+                nuevo.setProductoId(id);
+                nuevo.setNombre(catalogoCache.obtenerPorId(tiendaId, id).map(Producto::getNombre).orElse(null));
+                return nuevo;
+            });
+            margen.setUnidades(margen.getUnidades() + cantidad);
+            margen.setIngresos(margen.getIngresos() + cantidad * precioUnitario - descuento);
+            margen.setCosto(margen.getCosto() + cantidad * costoUnitario);
+        }
+
+        List<MargenProductoDTO> resultado = new ArrayList<>(margenes.values());
+        for (MargenProductoDTO margen : resultado) {
+            margen.setMargen(margen.getIngresos() - margen.getCosto());
+            margen.setMargenPorcentaje(margen.getIngresos() != 0
+                    ? margen.getMargen() * 100 / margen.getIngresos()
+                    : 0);
+        }
+        resultado.sort((a, b) -> Double.compare(b.getMargen(), a.getMargen()));
+        return resultado;
+    }
+}
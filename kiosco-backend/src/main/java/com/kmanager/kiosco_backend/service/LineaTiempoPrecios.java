@@ -0,0 +1,186 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.PrecioVigenteDTO;
+import com.kmanager.kiosco_backend.entity.PrecioHistorial;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.PrecioHistorialRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historial de precios en memoria, para saber el precio y el costo de un
+ * producto en cualquier momento sin una consulta por fila.
+ *
+ * Cada producto tiene su línea de tiempo en arreglos ordenados (fecha desde,
+ * precio de venta, precio de costo) y la búsqueda es binaria. El historial de
+ * una tienda se carga completo en una sola consulta la primera vez que se
+ * pide y se descarta cuando se confirma un cambio de precio (o un alta), así
+ * el siguiente reporte lo vuelve a leer ya actualizado. Una carga que estaba
+ * leyendo cuando llegó el descarte no se guarda (contador de generación).
+ */
+@Component
+public class LineaTiempoPrecios {
+
+    private final PrecioHistorialRepository precioHistorialRepository;
+    private final TransactionTemplate carga;
+
+    private final Map<Long, Map<Long, LineaTiempo>> lineas = new ConcurrentHashMap<>();
+    //aumenta con cada descarte: una carga que empezo antes no se guarda
+    private final Map<Long, AtomicLong> generaciones = new ConcurrentHashMap<>();
+
+    public LineaTiempoPrecios(PrecioHistorialRepository precioHistorialRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.precioHistorialRepository = precioHistorialRepository;
+        //transaccion propia: la de quien consulta puede tener una foto de antes del cambio
+        this.carga = new TransactionTemplate(transactionManager);
+        this.carga.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.carga.setReadOnly(true);
+    }
+
+    /**
+     * Precios de un producto ordenados por fecha. Antes del primer registro
+     * se usa el primero (es el dato más viejo que se tiene).
+     */
+    private static final class LineaTiempo {
+        private final long[] desde;
+        private final LocalDateTime[] fechas;
+        private final double[] ventas;
+        private final double[] costos;
+
+        private LineaTiempo(List<PrecioHistorial> registros) {
+            int n = registros.size();
+            this.desde = new long[n];
+            this.fechas = new LocalDateTime[n];
+            this.ventas = new double[n];
+            this.costos = new double[n];
+            for (int i = 0; i < n; i++) {
+                PrecioHistorial registro = registros.get(i);
+                fechas[i] = registro.getVigenteDesde();
+                desde[i] = clave(registro.getVigenteDesde());
+                ventas[i] = registro.getPrecioVenta();
+                costos[i] = registro.getPrecioCosto();
+            }
+        }
+
+        /**
+         * Posición del registro vigente en el momento dado.
+         */
+        private int indice(long momento) {
+            int i = Arrays.binarySearch(desde, momento);
+            if (i < 0) {
+                //punto de insercion - 1 = ultimo registro anterior al momento
+                i = -i - 2;
+            } else {
+                //varios registros con la misma fecha: vale el ultimo
+                while (i + 1 < desde.length && desde[i + 1] == momento) {
+                    i++;
+                }
+            }
+            return Math.max(i, 0);
+        }
+    }
+
+    /**
+     * Precio y costo de un producto en un momento dado.
+     */
+    public Optional<PrecioVigenteDTO> precioEn(Long tiendaId, Long productoId, LocalDateTime momento) {
+        LineaTiempo linea = lineasTienda(tiendaId).get(productoId);
+        if (linea == null) {
+            return Optional.empty();
+        }
+        int i = linea.indice(clave(momento));
+        return Optional.of(new PrecioVigenteDTO(productoId, linea.ventas[i], linea.costos[i], linea.fechas[i]));
+    }
+
+    /**
+     * Costo de un producto en un momento dado, o null si no tiene historial.
+     * Es la variante sin objetos intermedios para recorrer muchas filas.
+     */
+    public Double costoEn(Long tiendaId, Long productoId, LocalDateTime momento) {
+        LineaTiempo linea = lineasTienda(tiendaId).get(productoId);
+        return linea != null ? linea.costos[linea.indice(clave(momento))] : null;
+    }
+
+    /**
+     * Si se confirmó un alta o un cambio de precio, descarta el historial en
+     * memoria de la tienda (las ventas y ajustes de stock no lo tocan).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent evento) {
+        for (ProductosModificadosEvent.Cambio cambio : evento.getCambios()) {
+            if (cambio.getDespues() != null && cambiaPrecio(cambio.getAntes(), cambio.getDespues())) {
+                //primero la generacion: una carga en curso ya no se guarda, y lo que
+                //se guardo antes de aumentarla lo saca el remove
+                generacion(evento.getTiendaId()).incrementAndGet();
+                lineas.remove(evento.getTiendaId());
+                return;
+            }
+        }
+    }
+
+    /**
+     * true si el producto es nuevo o cambió su precio de venta o de costo.
+     */
+    public static boolean cambiaPrecio(Producto antes, Producto despues) {
+        return antes == null
+               || !Objects.equals(antes.getPrecioVenta(), despues.getPrecioVenta())
+               || !Objects.equals(antes.getPrecioCosto(), despues.getPrecioCosto());
+    }
+
+    private Map<Long, LineaTiempo> lineasTienda(Long tiendaId) {
+        AtomicLong generacion = generacion(tiendaId);
+        while (true) {
+            //si se descarto mientras se leia, computeIfAbsent no guarda nada (null) y se vuelve a leer
+            Map<Long, LineaTiempo> cargadas = lineas.computeIfAbsent(tiendaId, id -> {
+                long leida = generacion.get();
+                Map<Long, LineaTiempo> porProducto = cargar(id);
+                return generacion.get() == leida ? porProducto : null;
+            });
+            if (cargadas != null) {
+                return cargadas;
+            }
+        }
+    }
+
+    private AtomicLong generacion(Long tiendaId) {
+        return generaciones.computeIfAbsent(tiendaId, id -> new AtomicLong());
+    }
+
+    private Map<Long, LineaTiempo> cargar(Long tiendaId) {
+        return carga.execute(estado -> {
+            //el historial viene ordenado por producto: se corta en tramos de un mismo producto
+            List<PrecioHistorial> registros = precioHistorialRepository.findLineaTiempo(tiendaId);
+            Map<Long, LineaTiempo> porProducto = new HashMap<>();
+            int inicio = 0;
+            for (int i = 1; i <= registros.size(); i++) {
+                if (i == registros.size()
+                        || !registros.get(i).getProductoId().equals(registros.get(inicio).getProductoId())) {
+                    porProducto.put(registros.get(inicio).getProductoId(),
+                            new LineaTiempo(registros.subList(inicio, i)));
+                    inicio = i;
+                }
+            }
+            return porProducto;
+        });
+    }
+
+    private static long clave(LocalDateTime momento) {
+        //fecha local a un numero ordenable (microsegundos, igual que DATETIME(6))
+        return momento.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + momento.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,320 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.ReglaPrecio;
+import com.kmanager.kiosco_backend.event.ReglasPrecioModificadasEvent;
+import com.kmanager.kiosco_backend.repository.ReglaPrecioRepository;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de promociones que se evalúa al cobrar (ver VentaService#registraVenta).
+ *
+ * Las reglas activas de cada tienda se compilan una vez en un índice por
+ * producto y por categoría, así evaluar un carrito es recorrer sus líneas y
+ * mirar solo las reglas que les corresponden: no hay consultas a la base
+ * ni se recorren todas las reglas por cada línea.
+ *
+ * El índice se vuelve a compilar cuando se confirma un cambio en las reglas
+ * (ReglasPrecioModificadasEvent) o con POST /api/reglas-precio/recargar.
+ * Las ventas en curso siguen usando el índice anterior hasta terminar.
+ *
+ * Orden de aplicación:
+ * 1. Combos, de mayor a menor ahorro, mientras el carrito tenga todos sus productos.
+ * 2. A las unidades que no entraron en un combo, la mejor regla de producto o
+ *    de categoría (PORCENTAJE o NXM); las reglas no se acumulan entre sí.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class MotorPrecios {
+
+    private static final Regla[] NINGUNA = new Regla[0];
+
+    private final ReglaPrecioRepository reglaPrecioRepository;
+
+    private final Map<Long, ReglasTienda> reglas = new ConcurrentHashMap<>();
+
+    /**
+     * Línea del carrito. El motor completa el descuento total de la línea y
+     * el nombre de las promociones aplicadas.
+     */
+    @Data
+    public static class Linea {
+        private final Producto producto;
+        private final int cantidad;
+        private double descuento;
+        private String promocion;
+
+        private void sumarDescuento(double importe, String nombre) {
+            descuento += importe;
+            promocion = promocion == null ? nombre : promocion + ", " + nombre;
+        }
+    }
+
+    /**
+     * Regla ya compilada: parámetros en campos primitivos y los productos
+     * del combo en arreglos.
+     */
+    private static final class Regla {
+        private final String nombre;
+        private final String tipo;
+        private final double porcentaje;
+        private final int llevar;
+        private final int pagar;
+        private final double precioCombo;
+        private final long[] comboProductos;
+        private final int[] comboCantidades;
+        private final LocalDateTime vigenteDesde;
+        private final LocalDateTime vigenteHasta;
+        private final LocalTime horaDesde;
+        private final LocalTime horaHasta;
+
+        private Regla(ReglaPrecio regla) {
+            this.nombre = regla.getNombre();
+            this.tipo = regla.getTipo();
+            this.porcentaje = regla.getPorcentaje() != null ? regla.getPorcentaje() / 100.0 : 0;
+            this.llevar = regla.getLlevar() != null ? regla.getLlevar() : 0;
+            this.pagar = regla.getPagar() != null ? regla.getPagar() : 0;
+            this.precioCombo = regla.getPrecioCombo() != null ? regla.getPrecioCombo() : 0;
+            int n = regla.getProductosCombo().size();
+            this.comboProductos = new long[n];
+            this.comboCantidades = new int[n];
+            int i = 0;
+            for (Map.Entry<Long, Integer> item : regla.getProductosCombo().entrySet()) {
+                comboProductos[i] = item.getKey();
+                comboCantidades[i] = item.getValue();
+                i++;
+            }
+            this.vigenteDesde = regla.getVigenteDesde();
+            this.vigenteHasta = regla.getVigenteHasta();
+            this.horaDesde = regla.getHoraDesde();
+            this.horaHasta = regla.getHoraHasta();
+        }
+
+        private boolean vigente(LocalDateTime momento) {
+            if (vigenteDesde != null && momento.isBefore(vigenteDesde)) {
+                return false;
+            }
+            if (vigenteHasta != null && momento.isAfter(vigenteHasta)) {
+                return false;
+            }
+            if (horaDesde == null || horaHasta == null) {
+                return true;
+            }
+            LocalTime hora = momento.toLocalTime();
+            if (horaDesde.isBefore(horaHasta)) {
+                return !hora.isBefore(horaDesde) && hora.isBefore(horaHasta);
+            }
+            //la franja cruza la medianoche
+            return !hora.isBefore(horaDesde) || hora.isBefore(horaHasta);
+        }
+
+        /**
+         * Descuento de una regla PORCENTAJE o NXM sobre "unidades" unidades.
+         */
+        private double descuento(double precio, int unidades) {
+            if (ReglaPrecio.PORCENTAJE.equals(tipo)) {
+                return precio * unidades * porcentaje;
+            }
+            //NXM: por cada grupo de "llevar" unidades se regalan (llevar - pagar)
+            if (llevar <= pagar || pagar <= 0) {
+                return 0;
+            }
+            return (double) (unidades / llevar) * (llevar - pagar) * precio;
+        }
+    }
+
+    /**
+     * Índice de las reglas activas de una tienda.
+     */
+    private static final class ReglasTienda {
+        private final Map<Long, Regla[]> porProducto;
+        private final Map<String, Regla[]> porCategoria;
+        private final Map<Long, Regla[]> combosPorProducto;
+        private final int cantidad;
+
+        private ReglasTienda(List<ReglaPrecio> activas) {
+            Map<Long, List<Regla>> productos = new HashMap<>();
+            Map<String, List<Regla>> categorias = new HashMap<>();
+            Map<Long, List<Regla>> combos = new HashMap<>();
+            for (ReglaPrecio activa : activas) {
+                Regla regla = new Regla(activa);
+                if (ReglaPrecio.COMBO.equals(activa.getTipo())) {
+                    for (long productoId : regla.comboProductos) {
+                        combos.computeIfAbsent(productoId, k -> new ArrayList<>()).add(regla);
+                    }
+                } else if (activa.getProductoId() != null) {
+                    productos.computeIfAbsent(activa.getProductoId(), k -> new ArrayList<>()).add(regla);
+                } else if (activa.getCategoria() != null) {
+                    categorias.computeIfAbsent(activa.getCategoria(), k -> new ArrayList<>()).add(regla);
+                }
+            }
+            this.porProducto = congelar(productos);
+            this.porCategoria = congelar(categorias);
+            this.combosPorProducto = congelar(combos);
+            this.cantidad = activas.size();
+        }
+
+        private static <K> Map<K, Regla[]> congelar(Map<K, List<Regla>> indice) {
+            Map<K, Regla[]> resultado = new HashMap<>(indice.size() * 2);
+            indice.forEach((clave, lista) -> resultado.put(clave, lista.toArray(NINGUNA)));
+            return Map.copyOf(resultado);
+        }
+    }
+
+    /**
+     * Calcula los descuentos del carrito y los deja en cada línea.
+     * Solo trabaja en memoria: la primera venta de la tienda compila las reglas.
+     */
+    public void aplicar(Long tiendaId, List<Linea> lineas, LocalDateTime momento) {
+        ReglasTienda indice = reglas(tiendaId);
+        if (indice.cantidad == 0 || lineas.isEmpty()) {
+            return;
+        }
+
+        int[] restantes = new int[lineas.size()];
+        for (int i = 0; i < restantes.length; i++) {
+            restantes[i] = lineas.get(i).getCantidad();
+        }
+
+        if (!indice.combosPorProducto.isEmpty()) {
+            aplicarCombos(indice, lineas, restantes, momento);
+        }
+
+        for (int i = 0; i < restantes.length; i++) {
+            if (restantes[i] <= 0) {
+                continue;
+            }
+            Linea linea = lineas.get(i);
+            Producto producto = linea.getProducto();
+            double precio = producto.getPrecioVenta();
+            Regla mejor = null;
+            double mejorDescuento = 0;
+            Regla[] delProducto = indice.porProducto.getOrDefault(producto.getId(), NINGUNA);
+            Regla[] deCategoria = producto.getCategoria() != null
+                    ? indice.porCategoria.getOrDefault(producto.getCategoria(), NINGUNA)
+                    : NINGUNA;
+            for (Regla[] candidatas : new Regla[][]{delProducto, deCategoria}) {
+                for (Regla regla : candidatas) {
+                    double descuento = regla.descuento(precio, restantes[i]);
+                    if (descuento > mejorDescuento && regla.vigente(momento)) {
+                        mejor = regla;
+                        mejorDescuento = descuento;
+                    }
+                }
+            }
+            if (mejor != null) {
+                linea.sumarDescuento(mejorDescuento, mejor.nombre);
+            }
+        }
+
+        for (Linea linea : lineas) {
+            linea.setDescuento(Math.round(linea.getDescuento() * 100) / 100.0);
+        }
+    }
+
+    /**
+     * Aplica los combos cuyos productos están todos en el carrito, consumiendo
+     * las unidades que usan. El ahorro se reparte entre las líneas del combo
+     * en proporción a su importe.
+     */
+    private void aplicarCombos(ReglasTienda indice, List<Linea> lineas, int[] restantes, LocalDateTime momento) {
+        Map<Long, Integer> posicion = new HashMap<>(lineas.size() * 2);
+        List<Regla> candidatos = new ArrayList<>();
+        for (int i = 0; i < lineas.size(); i++) {
+            Long productoId = lineas.get(i).getProducto().getId();
+            posicion.put(productoId, i);
+            for (Regla combo : indice.combosPorProducto.getOrDefault(productoId, NINGUNA)) {
+                if (!candidatos.contains(combo) && combo.vigente(momento)) {
+                    candidatos.add(combo);
+                }
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return;
+        }
+
+        //ahorro de una aplicacion de cada combo con los precios actuales
+        Map<Regla, Double> ahorros = new HashMap<>();
+        for (Regla combo : candidatos) {
+            double valor = 0;
+            for (int j = 0; j < combo.comboProductos.length; j++) {
+                Integer i = posicion.get(combo.comboProductos[j]);
+                if (i == null) {
+                    valor = -1;
+                    break;
+                }
+                valor += lineas.get(i).getProducto().getPrecioVenta() * combo.comboCantidades[j];
+            }
+            ahorros.put(combo, valor < 0 ? 0 : valor - combo.precioCombo);
+        }
+        candidatos.sort(Comparator.comparingDouble((Regla c) -> ahorros.get(c)).reversed());
+
+        for (Regla combo : candidatos) {
+            double ahorro = ahorros.get(combo);
+            if (ahorro <= 0) {
+                continue;
+            }
+            int[] indices = new int[combo.comboProductos.length];
+            int veces = Integer.MAX_VALUE;
+            for (int j = 0; j < indices.length; j++) {
+                indices[j] = posicion.get(combo.comboProductos[j]);
+                veces = Math.min(veces, restantes[indices[j]] / combo.comboCantidades[j]);
+            }
+            if (veces <= 0) {
+                continue;
+            }
+            double valor = ahorro + combo.precioCombo;
+            for (int j = 0; j < indices.length; j++) {
+                Linea linea = lineas.get(indices[j]);
+                double importe = linea.getProducto().getPrecioVenta() * combo.comboCantidades[j];
+                restantes[indices[j]] -= veces * combo.comboCantidades[j];
+                linea.sumarDescuento(veces * ahorro * importe / valor, combo.nombre);
+            }
+        }
+    }
+
+    /**
+     * Vuelve a compilar las reglas de la tienda al confirmarse un cambio.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarReglas(ReglasPrecioModificadasEvent evento) {
+        recargar(evento.getTiendaId());
+    }
+
+    /**
+     * Vuelve a leer y compilar las reglas activas de la tienda.
+     * compute serializa las recargas de una misma tienda: la última en
+     * ejecutarse lee las reglas ya confirmadas por todas las anteriores.
+     *
+     * @return cantidad de reglas activas compiladas
+     */
+    public int recargar(Long tiendaId) {
+        ReglasTienda indice = reglas.compute(tiendaId, (id, anterior) -> compilar(id));
+        log.info("Reglas de precio de la tienda {} recargadas: {} activas", tiendaId, indice.cantidad);
+        return indice.cantidad;
+    }
+
+    private ReglasTienda reglas(Long tiendaId) {
+        return reglas.computeIfAbsent(tiendaId, this::compilar);
+    }
+
+    private ReglasTienda compilar(Long tiendaId) {
+        return new ReglasTienda(reglaPrecioRepository.findByTiendaIdAndActivaTrue(tiendaId));
+    }
+}
@@ -0,0 +1,43 @@
+package com.kmanager.kiosco_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asigna la secuencia a los eventos de salida ya confirmados
+ * (ver EventosSalidaService.numerarPendientes). Hasta que se numeran,
+ * los eventos no aparecen en el feed.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class NumeradorEventos {
+
+    private final EventosSalidaService eventosSalidaService;
+    private final int lote;
+
+    public NumeradorEventos(EventosSalidaService eventosSalidaService,
+                            @Value("${kiosco.eventos.lote:500}") int lote) {
+        this.eventosSalidaService = eventosSalidaService;
+        this.lote = lote;
+    }
+
+    @Scheduled(fixedDelayString = "${kiosco.eventos.numerar-ms:500}")
+    public void numerar() {
+        try {
+            int numerados;
+            do {
+                //cada tanda en su transaccion: el contador queda bloqueado poco tiempo
+                numerados = eventosSalidaService.numerarPendientes(lote);
+                if (numerados > 0) {
+                    log.debug("{} eventos numerados", numerados);
+                }
+            } while (numerados == lote);
+        } catch (Exception e) {
+            log.warn("No se pudieron numerar los eventos de salida: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.LineaCompraDTO;
+import com.kmanager.kiosco_backend.entity.AjusteStock;
+import com.kmanager.kiosco_backend.entity.OrdenCompra;
+import com.kmanager.kiosco_backend.entity.OrdenCompraItem;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Proveedor;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.AjusteStockRepository;
+import com.kmanager.kiosco_backend.repository.OrdenCompraRepository;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import com.kmanager.kiosco_backend.repository.ProveedorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Proveedores, órdenes de compra y recepción de mercadería.
+ *
+ * La recepción de una entrega entera es una sola transacción: los códigos
+ * escaneados se resuelven contra el catálogo en memoria, los productos se
+ * traen y bloquean en una sola consulta, los UPDATE se mandan en lotes
+ * (hibernate.jdbc.batch_size) y se publica un único ProductosModificadosEvent,
+ * así los caches y contadores se actualizan una vez por entrega y no por línea.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class OrdenCompraService {
+
+    private final OrdenCompraRepository ordenCompraRepository;
+    private final ProveedorRepository proveedorRepository;
+    private final ProductoRepository productoRepository;
+    private final AjusteStockRepository ajusteStockRepository;
+    private final CatalogoCache catalogoCache;
+    private final HistorialPreciosService historialPreciosService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // ===== Proveedores =====
+
+    @Transactional(readOnly = true)
+    public List<Proveedor> obtenerProveedores() {
+        return proveedorRepository.findByTiendaIdOrderByNombre(TiendaContext.actual());
+    }
+
+    public Proveedor crearProveedor(Proveedor proveedor) {
+        Long tiendaId = TiendaContext.actual();
+        if (proveedor.getNombre() == null || proveedor.getNombre().isBlank()) {
+            throw new IllegalArgumentException("El nombre del proveedor es obligatorio");
+        }
+        proveedor.setNombre(proveedor.getNombre().trim());
+        if (proveedorRepository.existsByTiendaIdAndNombre(tiendaId, proveedor.getNombre())) {
+            throw new IllegalArgumentException("Ya existe el proveedor: " + proveedor.getNombre());
+        }
+        proveedor.setId(null);
+        proveedor.setTiendaId(tiendaId);
+        return proveedorRepository.save(proveedor);
+    }
+
+    public Proveedor actualizarProveedor(Long id, Proveedor datos) {
+        Proveedor proveedor = proveedorRepository.findByIdAndTiendaId(id, TiendaContext.actual())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Proveedor no encontrado con ID: " + id));
+        if (datos.getNombre() != null && !datos.getNombre().isBlank()) {
+            proveedor.setNombre(datos.getNombre().trim());
+        }
+        proveedor.setTelefono(datos.getTelefono());
+        proveedor.setEmail(datos.getEmail());
+        return proveedorRepository.save(proveedor);
+    }
+
+    // ===== Ordenes de compra =====
+
+    /**
+     * Órdenes de la tienda, de la más nueva a la más vieja.
+     *
+     * @param estado PENDIENTE, RECIBIDA o CANCELADA; null trae todas
+     */
+    @Transactional(readOnly = true)
+    public List<OrdenCompra> obtenerOrdenes(String estado) {
+        Long tiendaId = TiendaContext.actual();
+        if (estado == null || estado.isBlank()) {
+            return ordenCompraRepository.findByTiendaIdOrderByFechaCreacionDesc(tiendaId);
+        }
+        return ordenCompraRepository.findByTiendaIdAndEstadoOrderByFechaCreacionDesc(tiendaId, estado.toUpperCase());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrdenCompra> obtenerOrden(Long id) {
+        return ordenCompraRepository.findByIdAndTiendaId(id, TiendaContext.actual());
+    }
+
+    /**
+     * Crea una orden PENDIENTE. Si una línea no trae costo se usa el costo
+     * actual del producto.
+     */
+    public OrdenCompra crearOrden(Long proveedorId, List<LineaCompraDTO> lineas, String observaciones) {
+        Long tiendaId = TiendaContext.actual();
+        proveedorRepository.findByIdAndTiendaId(proveedorId, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Proveedor no encontrado con ID: " + proveedorId));
+        if (lineas == null || lineas.isEmpty()) {
+            throw new IllegalArgumentException("La orden debe tener al menos un producto");
+        }
+
+        OrdenCompra orden = new OrdenCompra();
+        orden.setTiendaId(tiendaId);
+        orden.setProveedorId(proveedorId);
+        orden.setEstado(OrdenCompra.PENDIENTE);
+        orden.setFechaCreacion(LocalDateTime.now());
+        orden.setObservaciones(observaciones);
+        for (LineaCompraDTO linea : resolver(tiendaId, lineas).values()) {
+            Double costo = linea.getPrecioCosto() != null ? linea.getPrecioCosto()
+                    : catalogoCache.obtenerPorId(tiendaId, linea.getProductoId()).map(Producto::getPrecioCosto).orElseThrow();
+            orden.agregarItem(new OrdenCompraItem(linea.getProductoId(), linea.getCantidad(), costo));
+        }
+        return ordenCompraRepository.save(orden);
+    }
+
+    public OrdenCompra cancelarOrden(Long id) {
+        OrdenCompra orden = ordenCompraRepository.findForUpdateByIdAndTiendaId(id, TiendaContext.actual())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Orden de compra no encontrada con ID: " + id));
+        validarPendiente(orden);
+        orden.setEstado(OrdenCompra.CANCELADA);
+        return ordenCompraRepository.save(orden);
+    }
+
+    /**
+     * Recibe la mercadería de una orden.
+     *
+     * pasos:
+     * 1. Bloquea la orden (no se puede recibir dos veces)
+     * 2. Resuelve los códigos escaneados contra el catálogo en memoria
+     * 3. Trae y bloquea todos los productos en una sola consulta (IN)
+     * 4. Suma el stock y, si cambió, el costo (queda en el historial de precios)
+     * 5. Guarda todo en lotes y publica un solo evento con todos los cambios
+     *
+     * @param lineas lo que llegó; null o vacío recibe exactamente lo pedido.
+     *               Los productos que no estaban en la orden se agregan.
+     */
+    public OrdenCompra recibir(Long id, List<LineaCompraDTO> lineas) {
+        Long tiendaId = TiendaContext.actual();
+        OrdenCompra orden = ordenCompraRepository.findForUpdateByIdAndTiendaId(id, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Orden de compra no encontrada con ID: " + id));
+        validarPendiente(orden);
+
+        //productoId -> cantidad y costo recibidos
+        Map<Long, LineaCompraDTO> recibido = new LinkedHashMap<>();
+        if (lineas == null || lineas.isEmpty()) {
+            for (OrdenCompraItem item : orden.getItems()) {
+                recibido.merge(item.getProductoId(),
+                        new LineaCompraDTO(item.getProductoId(), null, item.getCantidadPedida(), item.getPrecioCosto()),
+                        OrdenCompraService::sumar);
+            }
+        } else {
+            recibido.putAll(resolver(tiendaId, lineas));
+        }
+
+        Map<Long, OrdenCompraItem> items = new HashMap<>();
+        for (OrdenCompraItem item : orden.getItems()) {
+            items.putIfAbsent(item.getProductoId(), item);
+        }
+
+        List<Producto> productos = productoRepository.findAllParaActualizarStock(tiendaId, recibido.keySet());
+        if (productos.size() != recibido.size()) {
+            throw new RuntimeException("Algunos productos de la entrega ya no existen");
+        }
+        List<Producto> anteriores = new ArrayList<>(productos.size());
+        List<AjusteStock> ajustes = new ArrayList<>(productos.size());
+        double totalCosto = 0;
+        for (Producto producto : productos) {
+            LineaCompraDTO linea = recibido.get(producto.getId());
+            Producto antes = producto.copia();
+            anteriores.add(antes);
+            if (linea.getCantidad() > 0) {
+                producto.agregarStock(linea.getCantidad());
+                AjusteStock ajuste = new AjusteStock(producto, AjusteStock.COMPRA, linea.getCantidad());
+                ajuste.setReferenciaId(orden.getId());
+                ajustes.add(ajuste);
+            }
+            Double costo = linea.getPrecioCosto() != null ? linea.getPrecioCosto() : producto.getPrecioCosto();
+            if (costo >= producto.getPrecioVenta()) {
+                throw new IllegalArgumentException("El costo de " + producto.getNombre() +
+                        " (" + costo + ") no puede ser mayor o igual al precio de venta (" + producto.getPrecioVenta() + ")");
+            }
+            producto.setPrecioCosto(costo);
+            historialPreciosService.registrarSiCambio(antes, producto);
+
+            OrdenCompraItem item = items.get(producto.getId());
+            if (item == null) {
+                //llego algo que no estaba pedido
+                item = new OrdenCompraItem(producto.getId(), 0, costo);
+                orden.agregarItem(item);
+            }
+            item.setCantidadRecibida(linea.getCantidad());
+            item.setPrecioCosto(costo);
+            totalCosto += linea.getCantidad() * costo;
+        }
+        productoRepository.saveAll(productos);
+        //lo recibido queda registrado para la auditoria de stock
+        ajusteStockRepository.saveAll(ajustes);
+        //flush: un cambio de costo aumenta la version y el producto publicado tiene que llevarla
+        productoRepository.flush();
+        List<ProductosModificadosEvent.Cambio> cambios = new ArrayList<>(productos.size());
+        for (int i = 0; i < productos.size(); i++) {
+            cambios.add(new ProductosModificadosEvent.Cambio(anteriores.get(i), productos.get(i).copia()));
+        }
+
+        orden.setEstado(OrdenCompra.RECIBIDA);
+        orden.setFechaRecepcion(LocalDateTime.now());
+        orden.setTotalCosto(Math.round(totalCosto * 100.0) / 100.0);
+
+        eventPublisher.publishEvent(new ProductosModificadosEvent(tiendaId, cambios));
+        return ordenCompraRepository.save(orden);
+    }
+
+    /**
+     * Resuelve el producto de cada línea desde el catálogo en memoria (por ID
+     * o código de barras) y junta las líneas repetidas (un mismo código
+     * escaneado varias veces). Si hay códigos desconocidos los informa todos juntos.
+     *
+     * @return productoId -> línea (con productoId completo)
+     */
+    private Map<Long, LineaCompraDTO> resolver(Long tiendaId, List<LineaCompraDTO> lineas) {
+        Map<Long, LineaCompraDTO> porProducto = new LinkedHashMap<>();
+        List<String> desconocidos = new ArrayList<>();
+        for (LineaCompraDTO linea : lineas) {
+            if (linea.getCantidad() == null || linea.getCantidad() < 0) {
+                throw new IllegalArgumentException("La cantidad no puede ser negativa");
+            }
+            if (linea.getPrecioCosto() != null && linea.getPrecioCosto() <= 0) {
+                throw new IllegalArgumentException("El costo debe ser mayor a 0");
+            }
+            Optional<Producto> producto = linea.getProductoId() != null
+                    ? catalogoCache.obtenerPorId(tiendaId, linea.getProductoId())
+                    : linea.getCodigoBarras() != null
+                    ? catalogoCache.buscarPorCodigoBarras(tiendaId, linea.getCodigoBarras())
+                    : Optional.empty();
+            if (producto.isEmpty()) {
+                desconocidos.add(linea.getProductoId() != null ? "ID " + linea.getProductoId()
+                        : String.valueOf(linea.getCodigoBarras()));
+                continue;
+            }
+            Long productoId = producto.get().getId();
+            porProducto.merge(productoId,
+                    new LineaCompraDTO(productoId, null, linea.getCantidad(), linea.getPrecioCosto()),
+                    OrdenCompraService::sumar);
+        }
+        if (!desconocidos.isEmpty()) {
+            throw new IllegalArgumentException("Productos no encontrados: " + String.join(", ", desconocidos));
+        }
+        return porProducto;
+    }
+
+    /**
+     * Junta dos líneas del mismo producto: suma cantidades y queda el último costo indicado.
+     */
+    private static LineaCompraDTO sumar(LineaCompraDTO a, LineaCompraDTO b) {
+        return new LineaCompraDTO(a.getProductoId(), null, a.getCantidad() + b.getCantidad(),
+                b.getPrecioCosto() != null ? b.getPrecioCosto() : a.getPrecioCosto());
+    }
+
+    private static void validarPendiente(OrdenCompra orden) {
+        if (!OrdenCompra.PENDIENTE.equals(orden.getEstado())) {
+            throw new IllegalArgumentException(
+                    "La orden " + orden.getId() + " ya está " + orden.getEstado().toLowerCase());
+        }
+    }
+}
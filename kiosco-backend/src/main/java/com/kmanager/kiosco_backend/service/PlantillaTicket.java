@@ -0,0 +1,232 @@
+package com.kmanager.kiosco_backend.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Plantilla de ticket ya compilada (ver TicketService y resources/tickets).
+ *
+ * El texto se divide en secciones {{#nombre}} ... {{/nombre}} (encabezado,
+ * item, pie, etc.) y cada línea en literales y campos {{campo}}. Eso se hace
+ * una sola vez; renderizar es recorrer los segmentos y escribirlos directo
+ * en el Writer, sin armar el ticket entero en un String.
+ *
+ * Reglas de las líneas:
+ * - si un campo de la línea no tiene valor (null) la línea se omite
+ * - {{separador}} sola en la línea: una línea de guiones del ancho del ticket
+ * - {{^}} al principio: la línea va centrada
+ * - {{>}} en el medio: lo que sigue va alineado a la derecha
+ *
+ * Las alineaciones solo se aplican en texto (ancho > 0); en HTML se ignoran
+ * y los valores se escapan.
+ */
+final class PlantillaTicket {
+
+    private enum Alineacion { IZQUIERDA, CENTRO, EXTREMOS, SEPARADOR }
+
+    //literal != null o campo != null
+    private record Segmento(String literal, String campo) {
+    }
+
+    private record Linea(Alineacion alineacion, Segmento[] izquierda, Segmento[] derecha) {
+    }
+
+    private static final Segmento[] NINGUNO = new Segmento[0];
+
+    private final Map<String, Linea[]> secciones;
+    private final boolean html;
+
+    private PlantillaTicket(Map<String, Linea[]> secciones, boolean html) {
+        this.secciones = secciones;
+        this.html = html;
+    }
+
+    /**
+     * Compila el texto de una plantilla. Las líneas fuera de una sección se ignoran.
+     */
+    static PlantillaTicket compilar(String texto, boolean html) {
+        Map<String, Linea[]> secciones = new HashMap<>();
+        String seccion = null;
+        List<Linea> lineas = new ArrayList<>();
+        for (String renglon : texto.split("\r?\n", -1)) {
+            String recortado = renglon.strip();
+            if (recortado.startsWith("{{#") && recortado.endsWith("}}")) {
+                seccion = recortado.substring(3, recortado.length() - 2);
+                lineas = new ArrayList<>();
+            } else if (recortado.startsWith("{{/") && recortado.endsWith("}}")) {
+                if (seccion == null || !seccion.equals(recortado.substring(3, recortado.length() - 2))) {
+                    throw new IllegalArgumentException("Plantilla de ticket mal formada: " + recortado);
+                }
+                secciones.put(seccion, lineas.toArray(new Linea[0]));
+                seccion = null;
+            } else if (seccion != null) {
+                lineas.add(compilarLinea(renglon));
+            }
+        }
+        if (seccion != null) {
+            throw new IllegalArgumentException("Plantilla de ticket mal formada: falta {{/" + seccion + "}}");
+        }
+        return new PlantillaTicket(secciones, html);
+    }
+
+    /**
+     * Escribe una sección con los valores dados.
+     *
+     * @param ancho columnas del ticket de texto (se ignora en HTML)
+     */
+    void escribir(Writer salida, String seccion, Function<String, String> valores, int ancho) throws IOException {
+        Linea[] lineas = secciones.get(seccion);
+        if (lineas == null) {
+            return;
+        }
+        StringBuilder izquierda = new StringBuilder(ancho);
+        StringBuilder derecha = new StringBuilder(ancho);
+        for (Linea linea : lineas) {
+            if (html || linea.alineacion() == Alineacion.IZQUIERDA) {
+                if (!html) {
+                    izquierda.setLength(0);
+                    if (!completar(izquierda, linea.izquierda(), valores)) {
+                        continue;
+                    }
+                    salida.append(izquierda, 0, Math.min(izquierda.length(), ancho));
+                } else if (!escribirHtml(salida, linea, valores)) {
+                    continue;
+                }
+                salida.write('\n');
+                continue;
+            }
+            switch (linea.alineacion()) {
+                case SEPARADOR -> repetir(salida, '-', ancho);
+                case CENTRO -> {
+                    izquierda.setLength(0);
+                    if (!completar(izquierda, linea.izquierda(), valores)) {
+                        continue;
+                    }
+                    int largo = Math.min(izquierda.length(), ancho);
+                    repetir(salida, ' ', (ancho - largo) / 2);
+                    salida.append(izquierda, 0, largo);
+                }
+                default -> {
+                    izquierda.setLength(0);
+                    derecha.setLength(0);
+                    if (!completar(izquierda, linea.izquierda(), valores)
+                            || !completar(derecha, linea.derecha(), valores)) {
+                        continue;
+                    }
+                    //si no entra, se corta lo de la izquierda (el importe siempre se ve)
+                    int largoDerecha = Math.min(derecha.length(), ancho);
+                    int largoIzquierda = Math.min(izquierda.length(), Math.max(ancho - largoDerecha - 1, 0));
+                    salida.append(izquierda, 0, largoIzquierda);
+                    repetir(salida, ' ', ancho - largoIzquierda - largoDerecha);
+                    salida.append(derecha, 0, largoDerecha);
+                }
+            }
+            salida.write('\n');
+        }
+    }
+
+    /**
+     * Arma la línea en el buffer; false si algún campo no tiene valor.
+     */
+    private static boolean completar(StringBuilder destino, Segmento[] segmentos, Function<String, String> valores) {
+        for (Segmento segmento : segmentos) {
+            if (segmento.literal() != null) {
+                destino.append(segmento.literal());
+            } else {
+                String valor = valores.apply(segmento.campo());
+                if (valor == null) {
+                    return false;
+                }
+                destino.append(valor);
+            }
+        }
+        return true;
+    }
+
+    private static boolean escribirHtml(Writer salida, Linea linea, Function<String, String> valores) throws IOException {
+        //primero se verifica que esten todos los campos, para no escribir media linea
+        String[] resueltos = new String[linea.izquierda().length + linea.derecha().length];
+        int i = 0;
+        for (Segmento[] parte : new Segmento[][]{linea.izquierda(), linea.derecha()}) {
+            for (Segmento segmento : parte) {
+                if (segmento.campo() != null && (resueltos[i] = valores.apply(segmento.campo())) == null) {
+                    return false;
+                }
+                i++;
+            }
+        }
+        i = 0;
+        for (Segmento[] parte : new Segmento[][]{linea.izquierda(), linea.derecha()}) {
+            for (Segmento segmento : parte) {
+                if (segmento.literal() != null) {
+                    salida.write(segmento.literal());
+                } else {
+                    escapar(salida, resueltos[i]);
+                }
+                i++;
+            }
+        }
+        return true;
+    }
+
+    private static Linea compilarLinea(String renglon) {
+        String texto = renglon;
+        if (texto.strip().equals("{{separador}}")) {
+            return new Linea(Alineacion.SEPARADOR, NINGUNO, NINGUNO);
+        }
+        Alineacion alineacion = Alineacion.IZQUIERDA;
+        if (texto.startsWith("{{^}}")) {
+            alineacion = Alineacion.CENTRO;
+            texto = texto.substring(5);
+        }
+        int corte = texto.indexOf("{{>}}");
+        if (corte >= 0) {
+            return new Linea(Alineacion.EXTREMOS, segmentos(texto.substring(0, corte)), segmentos(texto.substring(corte + 5)));
+        }
+        return new Linea(alineacion, segmentos(texto), NINGUNO);
+    }
+
+    private static Segmento[] segmentos(String texto) {
+        List<Segmento> segmentos = new ArrayList<>();
+        int desde = 0;
+        while (desde < texto.length()) {
+            int abre = texto.indexOf("{{", desde);
+            int cierra = abre >= 0 ? texto.indexOf("}}", abre) : -1;
+            if (abre < 0 || cierra < 0) {
+                segmentos.add(new Segmento(texto.substring(desde), null));
+                break;
+            }
+            if (abre > desde) {
+                segmentos.add(new Segmento(texto.substring(desde, abre), null));
+            }
+            segmentos.add(new Segmento(null, texto.substring(abre + 2, cierra).strip()));
+            desde = cierra + 2;
+        }
+        return segmentos.toArray(NINGUNO);
+    }
+
+    private static void repetir(Writer salida, char caracter, int veces) throws IOException {
+        for (int i = 0; i < veces; i++) {
+            salida.write(caracter);
+        }
+    }
+
+    private static void escapar(Writer salida, String valor) throws IOException {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '&' -> salida.write("&amp;");
+                case '<' -> salida.write("&lt;");
+                case '>' -> salida.write("&gt;");
+                case '"' -> salida.write("&quot;");
+                case '\'' -> salida.write("&#39;");
+                default -> salida.write(c);
+            }
+        }
+    }
+}
@@ -1,37 +1,72 @@
 package com.kmanager.kiosco_backend.service;
 
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.CatalogoCompactoDTO;
+import com.kmanager.kiosco_backend.dto.ProductoLoteDTO;
+import com.kmanager.kiosco_backend.entity.AjusteStock;
+import com.kmanager.kiosco_backend.entity.Categoria;
 import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.exception.PrecondicionRequeridaException;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.AjusteStockRepository;
 import com.kmanager.kiosco_backend.repository.ProductoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
+@Lazy(false)
 @RequiredArgsConstructor
 @Transactional
 public class ProductoService {
 
+    //tope de la busqueda en lote (un carrito o la descarga de un lector de mano)
+    private static final int MAXIMO_LOTE = 1000;
+
     //Inyeccion de dependencia del repositorio
     private final ProductoRepository productoRepository;
+    private final AjusteStockRepository ajusteStockRepository;
+    private final CatalogoCache catalogoCache;
+    private final HistorialPreciosService historialPreciosService;
+    private final CategoriaService categoriaService;
+    private final ConsultasCompartidas consultasCompartidas;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * obtiene todos los productos.
-     * @Transactional(readOnly = true) oprimiza las consulatas de solo lectura.
+     * obtiene todos los productos (desde el catalogo en memoria).
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producto> obtenerTodos(){
-        return productoRepository.findAll();
+        return catalogoCache.obtenerTodos(TiendaContext.actual());
     }
 
     /**
-     * busca un producto por ID
+     * obtiene todos los productos en formato columnar (ver CatalogoCompactoDTO).
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CatalogoCompactoDTO obtenerCatalogoCompacto() {
+        return CatalogoCompactoDTO.desde(catalogoCache.obtenerTodos(TiendaContext.actual()));
+    }
+
+    /**
+     * busca un producto por ID (desde el catalogo en memoria)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Producto> obtenerPorId(Long id){
-        return productoRepository.findById(id);
+        return catalogoCache.obtenerPorId(TiendaContext.actual(), id);
     }
 
     /**
@@ -45,23 +80,57 @@ public class ProductoService {
                     "El precio de venta debe ser mayor al precio de costo"
             );
         }
-        return productoRepository.save(producto);
+        //el producto siempre se crea en la tienda de la peticion
+        producto.setTiendaId(TiendaContext.actual());
+        producto.setVersion(null);
+        producto.setMovimientosStock(0L);
+        categoriaService.asignar(producto, null);
+        Producto nuevo = productoRepository.save(producto);
+        if (nuevo.getStockActual() != 0) {
+            //stock inicial, para la auditoria de stock
+            ajusteStockRepository.save(new AjusteStock(nuevo, AjusteStock.INICIAL, nuevo.getStockActual()));
+        }
+        historialPreciosService.registrarSiCambio(null, nuevo);
+        publicarCambio(null, nuevo);
+        return nuevo;
     }
 
     /**
-     * Actualiza un producto existente
+     * Actualiza los datos de catalogo de un producto existente.
+     *
+     * El stock no se toca (se ignora stockActual): lo mueven las ventas,
+     * devoluciones y ajustes, asi una edicion hecha mientras se vende no
+     * deshace las ventas. Para cambiar el stock esta ajustarStock.
+     *
+     * El cliente tiene que mandar la version que leyo (sin ella, 428). Si otro
+     * modifico el producto despues, se rechaza con
+     * ObjectOptimisticLockingFailureException (409).
      */
     public Producto actualizar(Long id, Producto productoActualizado) {
-        Producto productoExistente = productoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        Producto productoExistente = productoRepository.findByIdAndTiendaId(id, TiendaContext.actual())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Producto no encontrado con ID: " + id));
+        if (productoActualizado.getVersion() == null) {
+            throw new PrecondicionRequeridaException(
+                    "Falta la versión del producto " + id + ": mandá la que leíste para no pisar cambios de otros");
+        }
+        if (!productoActualizado.getVersion().equals(productoExistente.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Producto.class, id);
+        }
+        Producto antes = productoExistente.copia();
 
-        //Actualizaos los campos
+        //Actualizaos los campos de catalogo
         productoExistente.setNombre(productoActualizado.getNombre());
+        productoExistente.setCodigoBarras(productoActualizado.getCodigoBarras());
         productoExistente.setPrecioVenta(productoActualizado.getPrecioVenta());
         productoExistente.setPrecioCosto(productoActualizado.getPrecioCosto());
-        productoExistente.setStockActual(productoActualizado.getStockActual());
         productoExistente.setStockMinimo(productoActualizado.getStockMinimo());
         productoExistente.setCategoria(productoActualizado.getCategoria());
+        productoExistente.setCategoriaId(productoActualizado.getCategoriaId());
+        productoExistente.setImagenUrl(productoActualizado.getImagenUrl());
+        productoExistente.setTipoVenta(productoActualizado.getTipoVenta());
+        productoExistente.setUnidadMedida(productoActualizado.getUnidadMedida());
+        productoExistente.setIncrementoMinimo(productoActualizado.getIncrementoMinimo());
+        categoriaService.asignar(productoExistente, antes);
 
         //Validacion
         if (productoExistente.getPrecioVenta() <= productoExistente.getPrecioCosto()) {
@@ -70,71 +139,164 @@ public class ProductoService {
             );
         }
 
-        return productoRepository.save(productoExistente);
+        //flush: el UPDATE verifica la version (si otra edicion gano, falla aca) y
+        //el producto publicado ya lleva la version nueva
+        Producto guardado = productoRepository.saveAndFlush(productoExistente);
+        historialPreciosService.registrarSiCambio(antes, guardado);
+        publicarCambio(antes, guardado);
+        return guardado;
     }
 
     /**
      * Elimina un producto por ID
      */
     public void eliminar(Long id) {
-        if (!productoRepository.existsById(id)) {
-            throw new RuntimeException("Producto no encontrado con ID: " + id);
-        }
-        productoRepository.deleteById(id);
+        Producto producto = productoRepository.findByIdAndTiendaId(id, TiendaContext.actual())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Producto no encontrado con ID: " + id));
+        productoRepository.delete(producto);
+        publicarCambio(producto, null);
     }
 
     /**
-     * Busca productos por categoria
+     * Busca productos por nombre de categoria (desde el catalogo en memoria)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producto> buscarPorCategoria(String categoria) {
-        return productoRepository.findByCategoria(categoria);
+        return categoriaService.buscarPorNombre(categoria)
+                .map(c -> catalogoCache.obtenerPorCategoria(TiendaContext.actual(), c.getId()))
+                .orElse(List.of());
     }
 
     /**
      * busca productos por nombre(busqueda parcial)
+     * las busquedas iguales simultaneas comparten una consulta (ver ConsultasCompartidas)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producto> buscarPorNombre(String nombre) {
-        return productoRepository.findByNombreContainingIgnoreCase(nombre);
+        Long tiendaId = TiendaContext.actual();
+        return consultasCompartidas.ejecutar("productos.nombre:" + tiendaId + ":" + nombre, () ->
+                List.copyOf(productoRepository.findByTiendaIdAndNombreContainingIgnoreCase(tiendaId, nombre)));
     }
 
     /**
      * obtiene productos con stock bajo(sotckActual < stockMinimo).
+     * el listado y el contador del dashboard comparten la misma consulta.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producto> obtenerProductosConStockBajo() {
-        return productoRepository.findProductosConStockBajo();
+        Long tiendaId = TiendaContext.actual();
+        return consultasCompartidas.ejecutar("productos.stockBajo:" + tiendaId, () ->
+                List.copyOf(productoRepository.findProductosConStockBajo(tiendaId)));
     }
 
     /**
      * ajusta el stock de un producto (sumar o restar).
+     * el ajuste queda registrado en ajustes_stock (ver AuditoriaStockService).
      */
     public Producto ajustarStock(Long id, Integer cantidad) {
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        //bloquea la fila: el ajuste no se pisa con una venta concurrente
+        Producto producto = productoRepository.findAllParaActualizarStock(TiendaContext.actual(), List.of(id))
+                .stream().findFirst()
+                .orElseThrow(() -> new RecursoNoEncontradoException("Producto no encontrado con ID: " + id));
+        Producto antes = producto.copia();
 
         if (cantidad > 0) {
             producto.agregarStock(cantidad);
         } else if (cantidad < 0) {
             producto.descontarStock(Math.abs(cantidad));
         }
-        return productoRepository.save(producto);
+        if (cantidad != 0) {
+            ajusteStockRepository.save(new AjusteStock(producto, AjusteStock.AJUSTE, cantidad));
+        }
+        Producto guardado = productoRepository.save(producto);
+        publicarCambio(antes, guardado);
+        return guardado;
     }
 
     /**
-     * obtiene todas las categorias unicas
+     * obtiene los nombres de todas las categorias (desde la lista en memoria)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<String> obtenerCategorias(){
-        return productoRepository.findAllCategorias();
+        return categoriaService.obtenerTodas().stream().map(Categoria::getNombre).toList();
     }
 
     /**
-     * Busca un producto por codigo de barras
+     * Busca un producto por codigo de barras (desde el catalogo en memoria)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Producto> buscarPorCodigoBarras(String codigoBarras) {
-        return productoRepository.findByCodigoBarras(codigoBarras);
+        return catalogoCache.buscarPorCodigoBarras(TiendaContext.actual(), codigoBarras);
+    }
+
+    /**
+     * Busca varios productos por ID o código de barras en una sola llamada
+     * (recuperar un carrito guardado, descargar un lector de mano).
+     *
+     * Se resuelven desde el catálogo en memoria; lo que no está ahí se busca
+     * en la base con una sola consulta IN por tipo de clave. La respuesta
+     * respeta el orden del pedido y marca los que no se encontraron.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductoLoteDTO> buscarLote(List<ProductoLoteDTO> consultas) {
+        if (consultas.size() > MAXIMO_LOTE) {
+            throw new IllegalArgumentException("Se pueden buscar hasta " + MAXIMO_LOTE + " productos por llamada");
+        }
+        Long tiendaId = TiendaContext.actual();
+        List<ProductoLoteDTO> resultados = new ArrayList<>(consultas.size());
+        Set<Long> idsFaltantes = new HashSet<>();
+        Set<String> codigosFaltantes = new HashSet<>();
+        for (ProductoLoteDTO consulta : consultas) {
+            Optional<Producto> producto = consulta.getId() != null
+                    ? catalogoCache.obtenerPorId(tiendaId, consulta.getId())
+                    : consulta.getCodigoBarras() != null
+                    ? catalogoCache.buscarPorCodigoBarras(tiendaId, consulta.getCodigoBarras())
+                    : Optional.empty();
+            if (producto.isEmpty() && consulta.getId() != null) {
+                idsFaltantes.add(consulta.getId());
+            } else if (producto.isEmpty() && consulta.getCodigoBarras() != null) {
+                codigosFaltantes.add(consulta.getCodigoBarras());
+            }
+            resultados.add(new ProductoLoteDTO(consulta.getId(), consulta.getCodigoBarras(),
+                    producto.isPresent(), producto.orElse(null)));
+        }
+        if (idsFaltantes.isEmpty() && codigosFaltantes.isEmpty()) {
+            return resultados;
+        }
+
+        //lo que no estaba en el catalogo (por ejemplo, un alta que todavia no se aplico)
+        Map<Long, Producto> porId = new HashMap<>();
+        Map<String, Producto> porCodigo = new HashMap<>();
+        if (!idsFaltantes.isEmpty()) {
+            productoRepository.findByTiendaIdAndIdIn(tiendaId, idsFaltantes)
+                    .forEach(p -> porId.put(p.getId(), p.copia()));
+        }
+        if (!codigosFaltantes.isEmpty()) {
+            productoRepository.findByTiendaIdAndCodigoBarrasIn(tiendaId, codigosFaltantes)
+                    .forEach(p -> porCodigo.put(p.getCodigoBarras(), p.copia()));
+        }
+        for (ProductoLoteDTO resultado : resultados) {
+            if (!resultado.isEncontrado()) {
+                Producto producto = resultado.getId() != null
+                        ? porId.get(resultado.getId())
+                        : resultado.getCodigoBarras() != null ? porCodigo.get(resultado.getCodigoBarras()) : null;
+                resultado.setEncontrado(producto != null);
+                resultado.setProducto(producto);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * publica el cambio de un producto; la bandeja de salida lo guarda en esta
+     * misma transaccion (EventosSalidaService) y el catalogo en memoria y demas
+     * agregados se actualizan cuando la transaccion se confirma.
+     */
+    private void publicarCambio(Producto antes, Producto despues) {
+        Long tiendaId = despues != null ? despues.getTiendaId() : antes.getTiendaId();
+        eventPublisher.publishEvent(new ProductosModificadosEvent(tiendaId, List.of(
+                new ProductosModificadosEvent.Cambio(
+                        antes != null ? antes.copia() : null,
+                        despues != null ? despues.copia() : null))));
     }
 }
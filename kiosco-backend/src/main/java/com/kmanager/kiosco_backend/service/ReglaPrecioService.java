@@ -0,0 +1,167 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.entity.ReglaPrecio;
+import com.kmanager.kiosco_backend.event.ReglasPrecioModificadasEvent;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import com.kmanager.kiosco_backend.repository.ReglaPrecioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Alta, edición y baja de reglas de precio (promociones).
+ * Cada cambio hace que MotorPrecios vuelva a compilar las reglas de la tienda.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ReglaPrecioService {
+
+    private final ReglaPrecioRepository reglaPrecioRepository;
+    private final ProductoRepository productoRepository;
+    private final MotorPrecios motorPrecios;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<ReglaPrecio> obtenerTodas() {
+        return reglaPrecioRepository.findByTiendaId(TiendaContext.actual());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ReglaPrecio> obtenerPorId(Long id) {
+        return reglaPrecioRepository.findByIdAndTiendaId(id, TiendaContext.actual());
+    }
+
+    public ReglaPrecio crear(ReglaPrecio regla) {
+        Long tiendaId = TiendaContext.actual();
+        regla.setId(null);
+        regla.setTiendaId(tiendaId);
+        validar(regla);
+        ReglaPrecio guardada = reglaPrecioRepository.save(regla);
+        eventPublisher.publishEvent(new ReglasPrecioModificadasEvent(tiendaId));
+        return guardada;
+    }
+
+    public ReglaPrecio actualizar(Long id, ReglaPrecio datos) {
+        Long tiendaId = TiendaContext.actual();
+        ReglaPrecio regla = reglaPrecioRepository.findByIdAndTiendaId(id, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Regla de precio no encontrada con ID: " + id));
+
+        regla.setNombre(datos.getNombre());
+        regla.setTipo(datos.getTipo());
+        regla.setActiva(datos.getActiva());
+        regla.setProductoId(datos.getProductoId());
+        regla.setCategoria(datos.getCategoria());
+        regla.setPorcentaje(datos.getPorcentaje());
+        regla.setLlevar(datos.getLlevar());
+        regla.setPagar(datos.getPagar());
+        regla.setPrecioCombo(datos.getPrecioCombo());
+        regla.getProductosCombo().clear();
+        if (datos.getProductosCombo() != null) {
+            regla.getProductosCombo().putAll(datos.getProductosCombo());
+        }
+        regla.setVigenteDesde(datos.getVigenteDesde());
+        regla.setVigenteHasta(datos.getVigenteHasta());
+        regla.setHoraDesde(datos.getHoraDesde());
+        regla.setHoraHasta(datos.getHoraHasta());
+        validar(regla);
+
+        ReglaPrecio guardada = reglaPrecioRepository.save(regla);
+        eventPublisher.publishEvent(new ReglasPrecioModificadasEvent(tiendaId));
+        return guardada;
+    }
+
+    public void eliminar(Long id) {
+        Long tiendaId = TiendaContext.actual();
+        ReglaPrecio regla = reglaPrecioRepository.findByIdAndTiendaId(id, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Regla de precio no encontrada con ID: " + id));
+        reglaPrecioRepository.delete(regla);
+        eventPublisher.publishEvent(new ReglasPrecioModificadasEvent(tiendaId));
+    }
+
+    /**
+     * Vuelve a compilar las reglas de la tienda (por ejemplo, después de
+     * editarlas directamente en la base de datos).
+     *
+     * @return cantidad de reglas activas
+     */
+    @Transactional(readOnly = true)
+    public int recargar() {
+        return motorPrecios.recargar(TiendaContext.actual());
+    }
+
+    private void validar(ReglaPrecio regla) {
+        if (regla.getNombre() == null || regla.getNombre().isBlank()) {
+            throw new IllegalArgumentException("El nombre de la regla es obligatorio");
+        }
+        if (regla.getActiva() == null) {
+            regla.setActiva(true);
+        }
+        if (regla.getTipo() == null) {
+            throw new IllegalArgumentException("El tipo de la regla es obligatorio");
+        }
+        switch (regla.getTipo()) {
+            case ReglaPrecio.PORCENTAJE -> {
+                validarDestino(regla);
+                if (regla.getPorcentaje() == null || regla.getPorcentaje() <= 0 || regla.getPorcentaje() > 100) {
+                    throw new IllegalArgumentException("El porcentaje debe estar entre 0 y 100");
+                }
+            }
+            case ReglaPrecio.NXM -> {
+                validarDestino(regla);
+                if (regla.getLlevar() == null || regla.getPagar() == null
+                        || regla.getPagar() <= 0 || regla.getLlevar() <= regla.getPagar()) {
+                    throw new IllegalArgumentException("En una regla NXM se debe llevar más unidades de las que se pagan");
+                }
+            }
+            case ReglaPrecio.COMBO -> {
+                Map<Long, Integer> productos = regla.getProductosCombo();
+                if (productos == null || productos.size() < 2) {
+                    throw new IllegalArgumentException("Un combo debe tener al menos dos productos");
+                }
+                for (Map.Entry<Long, Integer> item : productos.entrySet()) {
+                    if (item.getValue() == null || item.getValue() <= 0) {
+                        throw new IllegalArgumentException("Las cantidades del combo deben ser mayores a 0");
+                    }
+                    validarProducto(regla.getTiendaId(), item.getKey());
+                }
+                if (regla.getPrecioCombo() == null || regla.getPrecioCombo() <= 0) {
+                    throw new IllegalArgumentException("El precio del combo debe ser mayor a 0");
+                }
+            }
+            default -> throw new IllegalArgumentException("Tipo de regla desconocido: " + regla.getTipo());
+        }
+        if ((regla.getHoraDesde() == null) != (regla.getHoraHasta() == null)) {
+            throw new IllegalArgumentException("La franja horaria necesita hora de inicio y de fin");
+        }
+        if (regla.getVigenteDesde() != null && regla.getVigenteHasta() != null
+                && !regla.getVigenteHasta().isAfter(regla.getVigenteDesde())) {
+            throw new IllegalArgumentException("El fin de la vigencia debe ser posterior al inicio");
+        }
+    }
+
+    /**
+     * PORCENTAJE y NXM se aplican a un producto o a una categoría (no a ambos).
+     */
+    private void validarDestino(ReglaPrecio regla) {
+        if ((regla.getProductoId() == null) == (regla.getCategoria() == null)) {
+            throw new IllegalArgumentException("La regla debe aplicarse a un producto o a una categoría");
+        }
+        if (regla.getProductoId() != null) {
+            validarProducto(regla.getTiendaId(), regla.getProductoId());
+        }
+    }
+
+    private void validarProducto(Long tiendaId, Long productoId) {
+        if (!productoRepository.existsByIdAndTiendaId(productoId, tiendaId)) {
+            throw new IllegalArgumentException("La regla usa el producto " + productoId + ", que no existe en la tienda");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.FeedEventosDTO;
+import com.kmanager.kiosco_backend.entity.CursorEventos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Entrega los eventos de la bandeja de salida a los destinos habilitados
+ * (archivo, webhook), por páginas y en orden.
+ *
+ * Por cada destino: lee la página siguiente a su cursor, la envía y recién
+ * después avanza el cursor. Si el envío falla se loguea y se reintenta en la
+ * siguiente vuelta desde el mismo lugar (al menos una vez).
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class RelayEventos {
+
+    private final EventosSalidaService eventosSalidaService;
+    private final List<DestinoEventos> destinos;
+    private final int lote;
+
+    public RelayEventos(EventosSalidaService eventosSalidaService,
+                        List<DestinoEventos> destinos,
+                        @Value("${kiosco.eventos.lote:500}") int lote) {
+        this.eventosSalidaService = eventosSalidaService;
+        this.destinos = destinos;
+        this.lote = lote;
+    }
+
+    @Scheduled(fixedDelayString = "${kiosco.eventos.relay-ms:5000}")
+    public void enviarPendientes() {
+        for (DestinoEventos destino : destinos) {
+            if (!destino.habilitado()) {
+                continue;
+            }
+            try {
+                enviar(destino);
+            } catch (Exception e) {
+                log.warn("No se pudieron enviar los eventos al destino {}: {}", destino.nombre(), e.getMessage());
+            }
+        }
+    }
+
+    private void enviar(DestinoEventos destino) throws Exception {
+        long desde = eventosSalidaService.obtenerCursor(destino.nombre(), CursorEventos.TODAS);
+        FeedEventosDTO pagina;
+        do {
+            pagina = eventosSalidaService.obtenerFeedTodas(desde, lote);
+            if (pagina.getEventos().isEmpty()) {
+                return;
+            }
+            destino.enviar(pagina.getEventos());
+            desde = eventosSalidaService.confirmar(destino.nombre(), CursorEventos.TODAS, pagina.getUltimoId());
+            log.debug("Destino {}: {} eventos enviados, cursor en {}",
+                    destino.nombre(), pagina.getEventos().size(), desde);
+        } while (pagina.isHayMas());
+    }
+}
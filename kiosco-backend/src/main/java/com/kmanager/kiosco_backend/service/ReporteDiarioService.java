@@ -0,0 +1,327 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kmanager.kiosco_backend.dto.ResumenDiarioDTO;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reportes diarios precalculados.
+ *
+ * Pasada la medianoche (kiosco.reportes-diarios.cron, por defecto 00:10) se
+ * resume el día anterior de cada tienda, ya cerrado, y se guarda en
+ * {directorio}/{tiendaId}/{fecha}/ como archivos comprimidos:
+ * - resumen.json.gz: totales, métodos de pago, recaudación por hora, más vendidos y stock
+ * - ventas-por-producto.csv.gz: unidades e importe vendido de cada producto
+ * - stock.csv.gz: stock de cada producto en el momento en que se leyó (stockTomado)
+ *
+ * El stock no tiene historia: es el de la primera generación del día. Si se
+ * regenera un día que ya tenía reporte se conserva ese stock; si no tenía,
+ * se guarda el stock actual con su stockTomado (no es el del cierre de ese día).
+ *
+ * Las ventas del día se leen con una sola consulta (líneas con su venta) y
+ * se recorren una vez; el stock con otra. Consultar un día ya generado es
+ * leer un archivo, sin tocar MySQL.
+ *
+ * No es transaccional: cada consulta usa su propia conexión y la escritura
+ * de archivos no retiene ninguna.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class ReporteDiarioService {
+
+    public static final String RESUMEN = "resumen.json";
+    public static final String VENTAS_POR_PRODUCTO = "ventas-por-producto.csv";
+    public static final String STOCK = "stock.csv";
+    public static final Set<String> ARCHIVOS = Set.of(RESUMEN, VENTAS_POR_PRODUCTO, STOCK);
+
+    private static final int MAS_VENDIDOS = 10;
+
+    private final VentaRepository ventaRepository;
+    private final ProductoRepository productoRepository;
+    private final TiendaRepository tiendaRepository;
+    private final ObjectMapper objectMapper;
+    private final Path directorio;
+
+    public ReporteDiarioService(VentaRepository ventaRepository,
+                                ProductoRepository productoRepository,
+                                TiendaRepository tiendaRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${kiosco.reportes-diarios.directorio:reportes-diarios}") String directorio) {
+        this.ventaRepository = ventaRepository;
+        this.productoRepository = productoRepository;
+        this.tiendaRepository = tiendaRepository;
+        this.objectMapper = objectMapper;
+        this.directorio = Paths.get(directorio);
+    }
+
+    /**
+     * Genera los reportes del día anterior (ya cerrado, con todas sus ventas)
+     * de todas las tiendas. Si una tienda falla se sigue con las demás.
+     */
+    @Scheduled(cron = "${kiosco.reportes-diarios.cron:0 10 0 * * *}")
+    public void generarAlCierre() {
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        for (Tienda tienda : tiendaRepository.findAll()) {
+            try {
+                ResumenDiarioDTO resumen = generar(tienda.getId(), ayer);
+                log.info("Reporte diario {} de la tienda {}: {} ventas, total {}",
+                        ayer, tienda.getId(), resumen.getCantidadVentas(), resumen.getTotalVendido());
+            } catch (RuntimeException e) {
+                log.error("No se pudo generar el reporte diario {} de la tienda {}", ayer, tienda.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Calcula y guarda los reportes de un día (reemplaza los anteriores si existían).
+     * Las ventas se vuelven a calcular; el stock se conserva si el día ya tenía
+     * reporte (ver la descripción de la clase). No se generan días futuros.
+     */
+    public ResumenDiarioDTO generar(Long tiendaId, LocalDate fecha) {
+        if (fecha.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("No se puede generar el reporte de un día futuro: " + fecha);
+        }
+        LocalDateTime desde = fecha.atStartOfDay();
+        LocalDateTime hasta = fecha.plusDays(1).atStartOfDay();
+        Path carpeta = carpeta(tiendaId, fecha);
+        Optional<ResumenDiarioDTO> anterior = leerResumen(carpeta);
+
+        ResumenDiarioDTO resumen = new ResumenDiarioDTO();
+        resumen.setTiendaId(tiendaId);
+        resumen.setFecha(fecha);
+        resumen.setGenerado(LocalDateTime.now());
+
+        // ===== Stock (una consulta) =====
+        //los productos hacen falta igual para nombres y categorias
+        List<Producto> productos = productoRepository.findByTiendaId(tiendaId);
+        Map<Long, Producto> porId = new HashMap<>(productos.size() * 2);
+        for (Producto producto : productos) {
+            porId.put(producto.getId(), producto);
+        }
+        boolean conservarStock = anterior.isPresent() && anterior.get().getStockTomado() != null
+                && Files.exists(carpeta.resolve(STOCK + ".gz"));
+        if (conservarStock) {
+            resumen.setStockTomado(anterior.get().getStockTomado());
+            resumen.setCantidadProductos(anterior.get().getCantidadProductos());
+            resumen.setProductosStockBajo(anterior.get().getProductosStockBajo());
+            resumen.setValorStockCosto(anterior.get().getValorStockCosto());
+            resumen.setValorStockVenta(anterior.get().getValorStockVenta());
+        } else {
+            resumen.setStockTomado(resumen.getGenerado());
+            for (Producto producto : productos) {
+                resumen.setCantidadProductos(resumen.getCantidadProductos() + 1);
+                if (producto.getStockActual() < producto.getStockMinimo()) {
+                    resumen.setProductosStockBajo(resumen.getProductosStockBajo() + 1);
+                }
+                resumen.setValorStockCosto(resumen.getValorStockCosto() + producto.getStockActual() * producto.getPrecioCosto());
+                resumen.setValorStockVenta(resumen.getValorStockVenta() + producto.getStockActual() * producto.getPrecioVenta());
+            }
+        }
+
+        // ===== Ventas del dia (una consulta, una pasada) =====
+        //por producto: [unidades, importe]
+        Map<Long, double[]> vendidos = new HashMap<>();
+        Long ventaAnterior = null;
+        for (Object[] fila : ventaRepository.findLineasConVentaEntreFechas(tiendaId, desde, hasta)) {
+            Long ventaId = (Long) fila[0];
+            LocalDateTime momento = (LocalDateTime) fila[1];
+            String metodoPago = (String) fila[2];
+            boolean devolucion = fila[3] != null;
+            Long productoId = (Long) fila[4];
+            int cantidad = ((Number) fila[5]).intValue();
+            double descuento = ((Number) fila[7]).doubleValue();
+            double importe = cantidad * ((Number) fila[6]).doubleValue() - descuento;
+
+            if (!ventaId.equals(ventaAnterior)) {
+                if (devolucion) {
+                    resumen.setCantidadDevoluciones(resumen.getCantidadDevoluciones() + 1);
+                } else {
+                    resumen.setCantidadVentas(resumen.getCantidadVentas() + 1);
+                }
+                ventaAnterior = ventaId;
+            }
+            if (devolucion) {
+                resumen.setTotalDevoluciones(resumen.getTotalDevoluciones() - importe);
+            }
+            resumen.setTotalVendido(resumen.getTotalVendido() + importe);
+            resumen.setUnidades(resumen.getUnidades() + cantidad);
+            resumen.setDescuentos(resumen.getDescuentos() + descuento);
+            resumen.getTotalesPorMetodoPago().merge(metodoPago, importe, Double::sum);
+            resumen.getRecaudacionPorHora()[momento.getHour()] += importe;
+
+            double[] vendido = vendidos.computeIfAbsent(productoId, id -> new double[2]);
+            vendido[0] += cantidad;
+            vendido[1] += importe;
+        }
+
+        List<ResumenDiarioDTO.ProductoVendido> ranking = new ArrayList<>(vendidos.size());
+        vendidos.forEach((productoId, vendido) -> ranking.add(new ResumenDiarioDTO.ProductoVendido(
+                productoId,
+                Optional.ofNullable(porId.get(productoId)).map(Producto::getNombre).orElse(null),
+                (long) vendido[0],
+                vendido[1])));
+        ranking.sort(Comparator.comparingLong(ResumenDiarioDTO.ProductoVendido::getUnidades).reversed());
+
+        resumen.setProductosMasVendidos(new ArrayList<>(ranking.subList(0, Math.min(MAS_VENDIDOS, ranking.size()))));
+
+        // ===== Archivos =====
+        try {
+            Files.createDirectories(carpeta);
+            escribir(carpeta, RESUMEN, salida -> objectMapper.writeValue(salida, resumen));
+            escribir(carpeta, VENTAS_POR_PRODUCTO, salida -> {
+                Writer csv = texto(salida);
+                csv.write("producto_id,nombre,categoria,unidades,importe\n");
+                for (ResumenDiarioDTO.ProductoVendido vendido : ranking) {
+                    Producto producto = porId.get(vendido.getProductoId());
+                    csv.write(vendido.getProductoId() + "," +
+                              csv(vendido.getNombre()) + "," +
+                              csv(producto != null ? producto.getCategoria() : null) + "," +
+                              vendido.getUnidades() + "," +
+                              vendido.getImporte() + "\n");
+                }
+                csv.flush();
+            });
+            if (!conservarStock) {
+                escribir(carpeta, STOCK, salida -> {
+                    Writer csv = texto(salida);
+                    csv.write("producto_id,nombre,categoria,stock_actual,stock_minimo,precio_costo,precio_venta,stock_bajo\n");
+                    for (Producto producto : productos) {
+                        csv.write(producto.getId() + "," +
+                                  csv(producto.getNombre()) + "," +
+                                  csv(producto.getCategoria()) + "," +
+                                  producto.getStockActual() + "," +
+                                  producto.getStockMinimo() + "," +
+                                  producto.getPrecioCosto() + "," +
+                                  producto.getPrecioVenta() + "," +
+                                  (producto.getStockActual() < producto.getStockMinimo()) + "\n");
+                    }
+                    csv.flush();
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el reporte diario en " + carpeta, e);
+        }
+        return resumen;
+    }
+
+    /**
+     * Resumen ya guardado de un día, si existe y se puede leer.
+     */
+    private Optional<ResumenDiarioDTO> leerResumen(Path carpeta) {
+        Path ruta = carpeta.resolve(RESUMEN + ".gz");
+        if (!Files.exists(ruta)) {
+            return Optional.empty();
+        }
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(ruta))) {
+            return Optional.of(objectMapper.readValue(entrada, ResumenDiarioDTO.class));
+        } catch (IOException e) {
+            log.warn("No se pudo leer el reporte diario anterior de {}: se vuelve a tomar el stock", carpeta, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Días con reportes generados para la tienda, del más nuevo al más viejo.
+     */
+    public List<LocalDate> obtenerFechas(Long tiendaId) {
+        Path carpetaTienda = directorio.resolve(tiendaId.toString());
+        if (!Files.isDirectory(carpetaTienda)) {
+            return List.of();
+        }
+        try (Stream<Path> dias = Files.list(carpetaTienda)) {
+            return dias.filter(dia -> Files.exists(dia.resolve(RESUMEN + ".gz")))
+                    .map(dia -> LocalDate.parse(dia.getFileName().toString()))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Archivo comprimido (.gz) de un día, si fue generado.
+     *
+     * @param archivo uno de ARCHIVOS (sin la extension .gz)
+     */
+    public Optional<Path> obtenerArchivo(Long tiendaId, LocalDate fecha, String archivo) {
+        if (!ARCHIVOS.contains(archivo)) {
+            throw new IllegalArgumentException("Archivo desconocido: " + archivo);
+        }
+        Path ruta = carpeta(tiendaId, fecha).resolve(archivo + ".gz");
+        return Files.exists(ruta) ? Optional.of(ruta) : Optional.empty();
+    }
+
+    private Path carpeta(Long tiendaId, LocalDate fecha) {
+        return directorio.resolve(tiendaId.toString()).resolve(fecha.toString());
+    }
+
+    private interface Contenido {
+        void escribir(OutputStream salida) throws IOException;
+    }
+
+    /**
+     * Escribe el archivo comprimido en un temporal y lo mueve al final: quien
+     * lo lea mientras se regenera ve el archivo anterior completo, nunca uno a medias.
+     */
+    private static void escribir(Path carpeta, String nombre, Contenido contenido) throws IOException {
+        Path temporal = Files.createTempFile(carpeta, nombre, ".tmp");
+        try {
+            try (OutputStream salida = new GZIPOutputStream(Files.newOutputStream(temporal))) {
+                contenido.escribir(salida);
+            }
+            Files.move(temporal, carpeta.resolve(nombre + ".gz"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static Writer texto(OutputStream salida) {
+        return new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.contains(",") || valor.contains("\"") || valor.contains("\n")) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+}
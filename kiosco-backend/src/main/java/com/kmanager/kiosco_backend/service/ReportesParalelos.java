@@ -0,0 +1,295 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.ResumenVentasDTO;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reportes de rangos largos calculados en paralelo.
+ *
+ * El rango se corta en particiones de un día o una semana y cada partición
+ * se resume con una consulta agregada en un pool acotado de hilos (cada
+ * hilo usa su propia conexión). Los resultados se suman a medida que llegan.
+ *
+ * Las particiones completas que ya cerraron (terminaron hace más de
+ * "margenCierre") no pueden cambiar, así que se guardan en cache: un mismo
+ * reporte pedido de nuevo solo consulta el período abierto. Las devoluciones
+ * de ventas viejas no rompen esto porque se registran con la fecha del día
+ * en que se hacen. La retención sí las cambia (borra las ventas viejas): al
+ * terminar descarta las particiones anteriores a su límite (descartarAnterioresA).
+ *
+ * No es transaccional: la petición no retiene una conexión mientras espera a
+ * los hilos. Los hilos no ven el TiendaContext de la petición (es por hilo),
+ * por eso la tienda se les pasa explícitamente.
+ *
+ * El timeout vale para el reporte entero. Cada partición corre en una
+ * transacción de solo lectura con lo que le queda de tiempo al reporte, que
+ * Spring pasa como timeout de la consulta (MySQL la corta del lado del
+ * servidor). Si el reporte vence o falla, las particiones que faltan se
+ * cancelan: las encoladas no llegan a correr y las que corren se interrumpen.
+ */
+@Service
+public class ReportesParalelos {
+
+    public static final String DIA = "DIA";
+    public static final String SEMANA = "SEMANA";
+
+    //a partir de este largo se particiona por semana si no se indica
+    private static final Duration RANGO_SEMANAL = Duration.ofDays(62);
+
+    private final VentaRepository ventaRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolExecutor ejecutor;
+    private final Map<ClaveParticion, ResumenVentasDTO.Particion> particionesCerradas;
+    private final Duration margenCierre;
+    private final long timeoutSegundos;
+
+    public ReportesParalelos(VentaRepository ventaRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${kiosco.reportes.hilos:4}") int hilos,
+                             @Value("${kiosco.reportes.particiones-en-cache:5000}") int particionesEnCache,
+                             @Value("${kiosco.reportes.margen-cierre-minutos:5}") long margenCierreMinutos,
+                             @Value("${kiosco.reportes.timeout-segundos:60}") long timeoutSegundos) {
+        this.ventaRepository = ventaRepository;
+        this.transactionManager = transactionManager;
+        this.margenCierre = Duration.ofMinutes(margenCierreMinutos);
+        this.timeoutSegundos = timeoutSegundos;
+
+        AtomicInteger numero = new AtomicInteger();
+        //cola acotada: si se llena, la propia peticion calcula la particion (frena a quien pide de mas)
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(hilos * 16),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "reportes-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.ejecutor.allowCoreThreadTimeOut(true);
+
+        //LRU: se descartan las particiones menos consultadas
+        this.particionesCerradas = Collections.synchronizedMap(
+                new LinkedHashMap<>(256, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<ClaveParticion, ResumenVentasDTO.Particion> eldest) {
+                        return size() > particionesEnCache;
+                    }
+                });
+    }
+
+    private record ClaveParticion(Long tiendaId, LocalDateTime desde, LocalDateTime hasta) {
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Descarta de la cache las particiones que empiezan antes del límite (de
+     * todas las tiendas): sus ventas ya no existen o solo quedan en parte.
+     *
+     * @return cantidad de particiones descartadas
+     */
+    public int descartarAnterioresA(LocalDateTime limite) {
+        //iterar un synchronizedMap requiere tomar su lock
+        synchronized (particionesCerradas) {
+            int antes = particionesCerradas.size();
+            particionesCerradas.keySet().removeIf(clave -> clave.desde().isBefore(limite));
+            return antes - particionesCerradas.size();
+        }
+    }
+
+    /**
+     * Resumen de ventas de la tienda de la petición en [inicio, fin].
+     *
+     * @param particion DIA o SEMANA; null elige según el largo del rango
+     */
+    public ResumenVentasDTO resumirVentas(LocalDateTime inicio, LocalDateTime fin, String particion) {
+        return resumirVentas(TiendaContext.actual(), inicio, fin, particion);
+    }
+
+    public ResumenVentasDTO resumirVentas(Long tiendaId, LocalDateTime inicio, LocalDateTime fin, String particion) {
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la de inicio");
+        }
+        if (particion == null || particion.isBlank()) {
+            particion = Duration.between(inicio, fin).compareTo(RANGO_SEMANAL) > 0 ? SEMANA : DIA;
+        }
+        particion = particion.toUpperCase();
+        if (!DIA.equals(particion) && !SEMANA.equals(particion)) {
+            throw new IllegalArgumentException("La partición debe ser DIA o SEMANA");
+        }
+
+        //el fin es inclusivo, como en el resto de los reportes: DATETIME(6) guarda
+        //microsegundos, asi que "< fin + 1 microsegundo" equivale a "<= fin"
+        LocalDateTime hasta = fin.plusNanos(1_000);
+        LocalDateTime cerradoHasta = LocalDateTime.now().minus(margenCierre);
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSegundos);
+
+        ResumenVentasDTO resumen = new ResumenVentasDTO();
+        resumen.setInicio(inicio);
+        resumen.setFin(fin);
+        resumen.setParticion(particion);
+
+        List<LocalDateTime[]> tramos = particionar(inicio, hasta, particion);
+        ResumenVentasDTO.Particion[] resultados = new ResumenVentasDTO.Particion[tramos.size()];
+        List<Future<?>> pendientes = new ArrayList<>();
+        int desdeCache = 0;
+
+        for (int i = 0; i < tramos.size(); i++) {
+            LocalDateTime desdeTramo = tramos.get(i)[0];
+            LocalDateTime hastaTramo = tramos.get(i)[1];
+            boolean cacheable = completo(desdeTramo, hastaTramo, particion) && !hastaTramo.isAfter(cerradoHasta);
+            ClaveParticion clave = new ClaveParticion(tiendaId, desdeTramo, hastaTramo);
+
+            ResumenVentasDTO.Particion cacheada = cacheable ? particionesCerradas.get(clave) : null;
+            if (cacheada != null) {
+                resultados[i] = cacheada;
+                synchronized (resumen) {
+                    resumen.sumar(cacheada);
+                }
+                desdeCache++;
+                continue;
+            }
+
+            int posicion = i;
+            //submit y no CompletableFuture: cancel(true) sobre un CompletableFuture no interrumpe al hilo
+            pendientes.add(ejecutor.submit(() -> {
+                ResumenVentasDTO.Particion resultado = resumirTramo(tiendaId, desdeTramo, hastaTramo, limite);
+                resultados[posicion] = resultado;
+                //se suma apenas llega, sin esperar al resto
+                synchronized (resumen) {
+                    resumen.sumar(resultado);
+                }
+                if (cacheable) {
+                    particionesCerradas.put(clave, resultado);
+                }
+            }));
+        }
+
+        esperar(pendientes, limite);
+        resumen.setParticionesDesdeCache(desdeCache);
+        resumen.getParticiones().addAll(List.of(resultados));
+        return resumen;
+    }
+
+    /**
+     * Totales por método de pago de [inicio, fin], para el endpoint de estadísticas.
+     * Cada fila: [metodoPago, total]
+     */
+    public List<Object[]> calcularVentasPorMetodoPago(LocalDateTime inicio, LocalDateTime fin) {
+        List<Object[]> filas = new ArrayList<>();
+        resumirVentas(inicio, fin, null).getTotalesPorMetodoPago()
+                .forEach((metodo, total) -> filas.add(new Object[]{metodo, total}));
+        return filas;
+    }
+
+    /**
+     * Resume un tramo con una consulta que no puede pasarse del límite del reporte.
+     */
+    private ResumenVentasDTO.Particion resumirTramo(Long tiendaId, LocalDateTime desde, LocalDateTime hasta, long limite) {
+        long restante = limite - System.nanoTime();
+        if (restante <= 0) {
+            throw new IllegalStateException("El reporte ya superó los " + timeoutSegundos + " segundos");
+        }
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        //el timeout de la transaccion va en segundos: se redondea para arriba
+        lectura.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(restante + 999_999_999)));
+        List<Object[]> filas = lectura.execute(estado -> ventaRepository.resumirTramo(tiendaId, desde, hasta));
+
+        ResumenVentasDTO.Particion particion = new ResumenVentasDTO.Particion();
+        particion.setInicio(desde);
+        particion.setFin(hasta);
+        for (Object[] fila : filas) {
+            double total = ((Number) fila[2]).doubleValue();
+            particion.setCantidadVentas(particion.getCantidadVentas() + ((Number) fila[1]).longValue());
+            particion.setTotalVendido(particion.getTotalVendido() + total);
+            particion.setUnidades(particion.getUnidades() + ((Number) fila[3]).longValue());
+            particion.getTotalesPorMetodoPago().put((String) fila[0], total);
+        }
+        return particion;
+    }
+
+    private void esperar(List<Future<?>> pendientes, long limite) {
+        try {
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            cancelar(pendientes);
+            throw new RuntimeException("El reporte tardó más de " + timeoutSegundos + " segundos");
+        } catch (InterruptedException e) {
+            cancelar(pendientes);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Reporte interrumpido");
+        } catch (ExecutionException e) {
+            //si una particion falla el reporte ya no sirve: no tiene sentido seguir con el resto
+            cancelar(pendientes);
+            throw new RuntimeException("Error al calcular el reporte: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void cancelar(List<Future<?>> pendientes) {
+        pendientes.forEach(pendiente -> pendiente.cancel(true));
+        //las canceladas que seguian en la cola dejan lugar a otros reportes
+        ejecutor.purge();
+    }
+
+    /**
+     * Corta [inicio, hasta) en tramos alineados al día (medianoche) o a la
+     * semana (lunes). El primer y el último tramo pueden ser parciales.
+     */
+    private static List<LocalDateTime[]> particionar(LocalDateTime inicio, LocalDateTime hasta, String particion) {
+        List<LocalDateTime[]> tramos = new ArrayList<>();
+        LocalDateTime desde = inicio;
+        while (desde.isBefore(hasta)) {
+            LocalDateTime siguiente = siguienteLimite(desde, particion);
+            LocalDateTime fin = siguiente.isBefore(hasta) ? siguiente : hasta;
+            tramos.add(new LocalDateTime[]{desde, fin});
+            desde = fin;
+        }
+        return tramos;
+    }
+
+    private static LocalDateTime siguienteLimite(LocalDateTime momento, String particion) {
+        if (DIA.equals(particion)) {
+            return momento.toLocalDate().plusDays(1).atStartOfDay();
+        }
+        return momento.toLocalDate().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atStartOfDay();
+    }
+
+    /**
+     * true si el tramo es una partición entera (no recortada por el rango pedido):
+     * solo esas se guardan en cache, porque otro reporte puede volver a pedirlas.
+     */
+    private static boolean completo(LocalDateTime desde, LocalDateTime hasta, String particion) {
+        boolean alineado = desde.toLocalTime().equals(LocalTime.MIDNIGHT)
+                           && (DIA.equals(particion) || desde.getDayOfWeek() == DayOfWeek.MONDAY);
+        return alineado && hasta.equals(siguienteLimite(desde, particion));
+    }
+}
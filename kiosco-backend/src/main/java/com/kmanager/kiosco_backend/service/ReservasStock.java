@@ -0,0 +1,278 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.ReservaStockDTO;
+import com.kmanager.kiosco_backend.dto.StockDisponibleDTO;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ReservaConsumidaEvent;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reservas de stock de los carritos en curso.
+ *
+ * Cuando la caja escanea un producto lo reserva: otra caja ya no puede
+ * vender esas unidades y la falta de stock aparece al escanear, no al
+ * cobrar. Disponible = stockActual - reservado.
+ *
+ * Todo vive en memoria: por cada producto hay un contador atómico con lo
+ * reservado, que se toma con compareAndSet contra el stock del catálogo en
+ * memoria (sin locks ni consultas a MySQL). Las reservas vencen solas si el
+ * carrito no se toca durante "ttl"; los vencimientos los lleva una
+ * RuedaVencimientos. La venta que usa la reserva la libera al confirmarse.
+ *
+ * Al reiniciar el backend las reservas se pierden (los carritos vuelven a
+ * validarse al cobrar, como antes).
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class ReservasStock {
+
+    private final CatalogoCache catalogoCache;
+    private final long ttlNanos;
+    private final RuedaVencimientos rueda;
+
+    private final Map<String, Reserva> reservas = new ConcurrentHashMap<>();
+    //tiendaId -> productoId -> unidades reservadas por todas las reservas vigentes
+    private final Map<Long, Map<Long, AtomicInteger>> reservado = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva de un carrito. Los items se modifican con la reserva sincronizada.
+     */
+    private static final class Reserva {
+        private final String id;
+        private final Long tiendaId;
+        private final String terminal;
+        private Map<Long, Integer> items = new HashMap<>();
+        private volatile long venceNanos;
+        private boolean cerrada;
+
+        private Reserva(Long tiendaId, String terminal) {
+            this.id = UUID.randomUUID().toString();
+            this.tiendaId = tiendaId;
+            this.terminal = terminal;
+        }
+    }
+
+    public ReservasStock(CatalogoCache catalogoCache,
+                         @Value("${kiosco.reservas.ttl-segundos:300}") long ttlSegundos) {
+        this.catalogoCache = catalogoCache;
+        this.ttlNanos = Duration.ofSeconds(ttlSegundos).toNanos();
+        //ticks de 1 segundo; una vuelta de la rueda son ~8.5 minutos
+        this.rueda = new RuedaVencimientos("reservas-vencimientos", Duration.ofSeconds(1), 512, this::vencer);
+    }
+
+    @PreDestroy
+    public void detener() {
+        rueda.cerrar();
+    }
+
+    /**
+     * Crea la reserva de un carrito.
+     *
+     * @param items productoId -> cantidad (puede estar vacío)
+     */
+    public ReservaStockDTO crear(Long tiendaId, String terminal, Map<Long, Integer> items) {
+        Reserva reserva = new Reserva(tiendaId, terminal);
+        synchronized (reserva) {
+            cambiarItems(reserva, items != null ? items : Map.of());
+            reservas.put(reserva.id, reserva);
+            return renovar(reserva);
+        }
+    }
+
+    /**
+     * Reemplaza los items de la reserva (el carrito completo) y renueva el vencimiento.
+     * Solo se toma la diferencia: si falta stock para algún producto no cambia nada.
+     */
+    public ReservaStockDTO actualizar(Long tiendaId, String id, Map<Long, Integer> items) {
+        Reserva reserva = obtener(tiendaId, id);
+        synchronized (reserva) {
+            if (reserva.cerrada) {
+                throw new RecursoNoEncontradoException("Reserva no encontrada con ID: " + id);
+            }
+            cambiarItems(reserva, items != null ? items : Map.of());
+            return renovar(reserva);
+        }
+    }
+
+    /**
+     * Libera la reserva (carrito cancelado).
+     */
+    public void liberar(Long tiendaId, String id) {
+        cerrar(obtener(tiendaId, id));
+    }
+
+    /**
+     * Unidades de un producto reservadas por otros carritos (sin contar la
+     * reserva indicada, que puede ser null).
+     */
+    public int reservadoPorOtros(Long tiendaId, Long productoId, String reservaId) {
+        int total = contador(tiendaId, productoId).get();
+        Reserva propia = reservaId != null ? reservas.get(reservaId) : null;
+        if (propia == null || !propia.tiendaId.equals(tiendaId)) {
+            return total;
+        }
+        synchronized (propia) {
+            return total - propia.items.getOrDefault(productoId, 0);
+        }
+    }
+
+    /**
+     * Stock disponible (stockActual - reservado) de varios productos.
+     */
+    public List<StockDisponibleDTO> obtenerDisponibles(Long tiendaId, Collection<Long> productoIds) {
+        List<StockDisponibleDTO> disponibles = new ArrayList<>(productoIds.size());
+        for (Long productoId : productoIds) {
+            catalogoCache.obtenerPorId(tiendaId, productoId).ifPresent(producto -> {
+                int reservadas = contador(tiendaId, productoId).get();
+                disponibles.add(new StockDisponibleDTO(productoId, producto.getStockActual(), reservadas,
+                        producto.getStockActual() - reservadas));
+            });
+        }
+        return disponibles;
+    }
+
+    /**
+     * La venta que usó la reserva se confirmó: el stock ya se descontó en la
+     * base, así que las unidades dejan de estar reservadas.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alConsumirReserva(ReservaConsumidaEvent evento) {
+        Reserva reserva = reservas.get(evento.getReservaId());
+        if (reserva != null && reserva.tiendaId.equals(evento.getTiendaId())) {
+            cerrar(reserva);
+        }
+    }
+
+    private void cambiarItems(Reserva reserva, Map<Long, Integer> nuevos) {
+        Set<Long> productos = new HashSet<>(reserva.items.keySet());
+        productos.addAll(nuevos.keySet());
+
+        //primero se toman los aumentos (pueden fallar) y despues se devuelven las bajas
+        Map<Long, Integer> tomados = new HashMap<>();
+        try {
+            for (Long productoId : productos) {
+                int cantidad = nuevos.getOrDefault(productoId, 0);
+                if (cantidad < 0) {
+                    throw new IllegalArgumentException("La cantidad no puede ser negativa");
+                }
+                int diferencia = cantidad - reserva.items.getOrDefault(productoId, 0);
+                if (diferencia > 0) {
+                    tomar(reserva.tiendaId, productoId, diferencia);
+                    tomados.put(productoId, diferencia);
+                }
+            }
+        } catch (RuntimeException e) {
+            tomados.forEach((productoId, cantidad) -> contador(reserva.tiendaId, productoId).addAndGet(-cantidad));
+            throw e;
+        }
+        for (Long productoId : productos) {
+            int diferencia = nuevos.getOrDefault(productoId, 0) - reserva.items.getOrDefault(productoId, 0);
+            if (diferencia < 0) {
+                contador(reserva.tiendaId, productoId).addAndGet(diferencia);
+            }
+        }
+
+        Map<Long, Integer> items = new HashMap<>();
+        nuevos.forEach((productoId, cantidad) -> {
+            if (cantidad > 0) {
+                items.put(productoId, cantidad);
+            }
+        });
+        reserva.items = items;
+    }
+
+    /**
+     * Suma unidades al contador del producto si alcanzan (compareAndSet, sin locks).
+     */
+    private void tomar(Long tiendaId, Long productoId, int cantidad) {
+        Producto producto = catalogoCache.obtenerPorId(tiendaId, productoId)
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + productoId));
+        AtomicInteger contador = contador(tiendaId, productoId);
+        while (true) {
+            int reservadas = contador.get();
+            int disponible = producto.getStockActual() - reservadas;
+            if (disponible < cantidad) {
+                throw new IllegalArgumentException(
+                        "Stock insuficiente para el  producto: " + producto.getNombre() +
+                        ". Disponible: " + Math.max(disponible, 0) + " , Solicitado: " + cantidad);
+            }
+            if (contador.compareAndSet(reservadas, reservadas + cantidad)) {
+                return;
+            }
+        }
+    }
+
+    private ReservaStockDTO renovar(Reserva reserva) {
+        long ahora = System.nanoTime();
+        reserva.venceNanos = ahora + ttlNanos;
+        rueda.programar(reserva.id, reserva.venceNanos);
+        LocalDateTime vence = LocalDateTime.now().plusNanos(ttlNanos);
+        return new ReservaStockDTO(reserva.id, reserva.terminal, Map.copyOf(reserva.items), vence);
+    }
+
+    private void vencer(String id) {
+        Reserva reserva = reservas.get(id);
+        if (reserva == null) {
+            return;
+        }
+        synchronized (reserva) {
+            //si se renovo, este aviso es de un vencimiento anterior: la renovacion programo otro
+            if (reserva.cerrada || reserva.venceNanos - System.nanoTime() > 0) {
+                return;
+            }
+            log.debug("Reserva {} de la terminal {} vencida", id, reserva.terminal);
+            devolverItems(reserva);
+        }
+        reservas.remove(reserva.id);
+    }
+
+    private void cerrar(Reserva reserva) {
+        synchronized (reserva) {
+            if (reserva.cerrada) {
+                return;
+            }
+            devolverItems(reserva);
+        }
+        reservas.remove(reserva.id);
+    }
+
+    private void devolverItems(Reserva reserva) {
+        reserva.cerrada = true;
+        reserva.items.forEach((productoId, cantidad) ->
+                contador(reserva.tiendaId, productoId).addAndGet(-cantidad));
+        reserva.items = Map.of();
+    }
+
+    private Reserva obtener(Long tiendaId, String id) {
+        Reserva reserva = reservas.get(id);
+        if (reserva == null || !reserva.tiendaId.equals(tiendaId)) {
+            throw new RecursoNoEncontradoException("Reserva no encontrada con ID: " + id);
+        }
+        return reserva;
+    }
+
+    private AtomicInteger contador(Long tiendaId, Long productoId) {
+        return reservado.computeIfAbsent(tiendaId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(productoId, id -> new AtomicInteger());
+    }
+}
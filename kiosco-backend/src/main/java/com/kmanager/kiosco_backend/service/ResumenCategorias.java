@@ -0,0 +1,310 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contadores por categoría y de toda la tienda (cantidad de productos, con
+ * stock bajo y valor del stock al costo y a precio de venta) mantenidos en memoria.
+ *
+ * Se arman una vez por tienda recorriendo el CatalogoCache (sin consultar
+ * MySQL) y después se ajustan con cada ProductosModificadosEvent confirmado,
+ * así consultarlos no recorre productos.
+ *
+ * Por cada producto se guarda lo que aporta a su categoría; un cambio resta
+ * el aporte guardado y suma el nuevo. Aplicar dos veces el mismo estado de un
+ * producto no altera los totales, por eso no importa si un evento llega
+ * cuando los contadores ya se armaron con el catálogo actualizado.
+ *
+ * Los valores son sumas y restas de doubles que se van acumulando; recalcular()
+ * los vuelve a armar desde cero (lo hace ValuacionInventarioService cada tanto).
+ * Como recalcular() parte del mismo catálogo que alimentan los eventos, no
+ * detecta un evento perdido: para eso compararConBase() los compara con las
+ * sumas que hace MySQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResumenCategorias {
+
+    private final CatalogoCache catalogoCache;
+    private final ProductoRepository productoRepository;
+
+    //diferencia de valor a partir de la cual recalcular() avisa en el log
+    private static final double TOLERANCIA = 0.01;
+
+    private final Map<Long, EstadoTienda> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Totales de una categoría (o de toda la tienda).
+     */
+    public static final class Totales {
+        private long cantidadProductos;
+        private long productosStockBajo;
+        private double valorStockCosto;
+        private double valorStockVenta;
+
+        public long getCantidadProductos() {
+            return cantidadProductos;
+        }
+
+        public long getProductosStockBajo() {
+            return productosStockBajo;
+        }
+
+        public double getValorStockCosto() {
+            return valorStockCosto;
+        }
+
+        public double getValorStockVenta() {
+            return valorStockVenta;
+        }
+
+        private void acumular(Totales otros) {
+            cantidadProductos += otros.cantidadProductos;
+            productosStockBajo += otros.productosStockBajo;
+            valorStockCosto += otros.valorStockCosto;
+            valorStockVenta += otros.valorStockVenta;
+        }
+
+        private void sumar(Aporte aporte, int signo) {
+            cantidadProductos += signo;
+            productosStockBajo += aporte.stockBajo() ? signo : 0;
+            valorStockCosto += signo * aporte.valorCosto();
+            valorStockVenta += signo * aporte.valorVenta();
+        }
+
+        private boolean difiere(Totales otros) {
+            return cantidadProductos != otros.cantidadProductos
+                   || productosStockBajo != otros.productosStockBajo
+                   || Math.abs(valorStockCosto - otros.valorStockCosto) > TOLERANCIA
+                   || Math.abs(valorStockVenta - otros.valorStockVenta) > TOLERANCIA;
+        }
+
+        private Totales copia() {
+            Totales copia = new Totales();
+            copia.cantidadProductos = cantidadProductos;
+            copia.productosStockBajo = productosStockBajo;
+            copia.valorStockCosto = valorStockCosto;
+            copia.valorStockVenta = valorStockVenta;
+            return copia;
+        }
+    }
+
+    /**
+     * Lo que un producto suma a los totales de su categoría.
+     */
+    private record Aporte(Long categoriaId, boolean stockBajo, double valorCosto, double valorVenta) {
+        private static Aporte de(Producto producto) {
+            return new Aporte(producto.getCategoriaId(), producto.isStockBajo(),
+                    producto.getStockActual() * producto.getPrecioCosto(),
+                    producto.getStockActual() * producto.getPrecioVenta());
+        }
+    }
+
+    private static final class EstadoTienda {
+        private final Map<Long, Aporte> aportes = new HashMap<>();
+        private final Map<Long, Totales> porCategoria = new HashMap<>();
+        private final Totales general = new Totales();
+
+        private synchronized void aplicar(Producto producto) {
+            restar(aportes.remove(producto.getId()));
+            Aporte aporte = Aporte.de(producto);
+            aportes.put(producto.getId(), aporte);
+            porCategoria.computeIfAbsent(aporte.categoriaId(), c -> new Totales()).sumar(aporte, 1);
+            general.sumar(aporte, 1);
+        }
+
+        private synchronized void quitar(Long productoId) {
+            restar(aportes.remove(productoId));
+        }
+
+        private void restar(Aporte aporte) {
+            if (aporte == null) {
+                return;
+            }
+            Totales totales = porCategoria.get(aporte.categoriaId());
+            totales.sumar(aporte, -1);
+            general.sumar(aporte, -1);
+            if (totales.cantidadProductos == 0) {
+                porCategoria.remove(aporte.categoriaId());
+            }
+        }
+
+        private synchronized Map<Long, Totales> copia() {
+            Map<Long, Totales> copia = new HashMap<>(porCategoria.size() * 2);
+            porCategoria.forEach((categoriaId, totales) -> copia.put(categoriaId, totales.copia()));
+            return copia;
+        }
+
+        private synchronized Totales copia(Long categoriaId) {
+            Totales totales = porCategoria.get(categoriaId);
+            return totales != null ? totales.copia() : new Totales();
+        }
+
+        private synchronized Totales copiaGeneral() {
+            return general.copia();
+        }
+
+        /**
+         * Categorías cuyos totales no coinciden con los de otro estado
+         * (null representa a toda la tienda).
+         */
+        private synchronized Set<Long> diferencias(EstadoTienda otro) {
+            Set<Long> distintas = new HashSet<>();
+            Set<Long> categorias = new HashSet<>(porCategoria.keySet());
+            categorias.addAll(otro.porCategoria.keySet());
+            for (Long categoriaId : categorias) {
+                Totales propios = porCategoria.getOrDefault(categoriaId, new Totales());
+                if (propios.difiere(otro.porCategoria.getOrDefault(categoriaId, new Totales()))) {
+                    distintas.add(categoriaId);
+                }
+            }
+            if (general.difiere(otro.general)) {
+                distintas.add(null);
+            }
+            return distintas;
+        }
+    }
+
+    /**
+     * Totales de todas las categorías con productos (categoriaId -> totales).
+     */
+    public Map<Long, Totales> obtenerTodas(Long tiendaId) {
+        return estado(tiendaId).copia();
+    }
+
+    /**
+     * Totales de una categoría (en cero si no tiene productos).
+     */
+    public Totales obtener(Long tiendaId, Long categoriaId) {
+        return estado(tiendaId).copia(categoriaId);
+    }
+
+    /**
+     * Totales de toda la tienda.
+     */
+    public Totales obtenerGeneral(Long tiendaId) {
+        return estado(tiendaId).copiaGeneral();
+    }
+
+    /**
+     * Tiendas cuyos contadores ya están armados.
+     */
+    public Set<Long> tiendasCargadas() {
+        return Set.copyOf(estados.keySet());
+    }
+
+    /**
+     * Vuelve a armar los contadores de la tienda desde el catálogo y los
+     * reemplaza. Si no coincidían con los que había, lo avisa en el log.
+     *
+     * @return true si había diferencias
+     */
+    public boolean recalcular(Long tiendaId) {
+        boolean[] diferencias = {false};
+        //compute bloquea la tienda: no se aplican eventos mientras se recalcula
+        estados.compute(tiendaId, (id, anterior) -> {
+            EstadoTienda nuevo = armar(id);
+            if (anterior != null) {
+                Set<Long> distintas = anterior.diferencias(nuevo);
+                if (!distintas.isEmpty()) {
+                    log.warn("Contadores de la tienda {} corregidos; categorías con diferencias: {} (general: {} -> {})",
+                            id, distintas, valores(anterior.copiaGeneral()), valores(nuevo.copiaGeneral()));
+                    diferencias[0] = true;
+                }
+            }
+            return nuevo;
+        });
+        return diferencias[0];
+    }
+
+    /**
+     * Compara los contadores en memoria con las sumas de MySQL (una consulta
+     * agrupada por categoria_id) y avisa en el log cada categoría que no
+     * coincide. No corrige nada: una diferencia indica un evento perdido o mal
+     * aplicado en el catálogo. Una venta confirmada entre la consulta y la
+     * lectura de la memoria también puede dar una diferencia momentánea.
+     *
+     * @return categorías con diferencias (null representa a toda la tienda)
+     */
+    public Set<Long> compararConBase(Long tiendaId) {
+        EstadoTienda enMemoria = estados.get(tiendaId);
+        if (enMemoria == null) {
+            return Set.of();
+        }
+        EstadoTienda enBase = new EstadoTienda();
+        for (Object[] fila : productoRepository.sumarValuacionPorCategoria(tiendaId)) {
+            Totales totales = new Totales();
+            totales.cantidadProductos = ((Number) fila[1]).longValue();
+            totales.productosStockBajo = ((Number) fila[2]).longValue();
+            totales.valorStockCosto = ((Number) fila[3]).doubleValue();
+            totales.valorStockVenta = ((Number) fila[4]).doubleValue();
+            enBase.porCategoria.put((Long) fila[0], totales);
+            enBase.general.acumular(totales);
+        }
+
+        Set<Long> distintas = enMemoria.diferencias(enBase);
+        if (!distintas.isEmpty()) {
+            for (Long categoriaId : distintas) {
+                Totales propios = categoriaId != null ? enMemoria.copia(categoriaId) : enMemoria.copiaGeneral();
+                Totales base = categoriaId != null
+                        ? enBase.porCategoria.getOrDefault(categoriaId, new Totales())
+                        : enBase.general;
+                log.warn("Valuación de la tienda {} ({}) distinta a la base: memoria {}, base {}, diferencia costo {}, venta {}",
+                        tiendaId, categoriaId != null ? "categoría " + categoriaId : "total",
+                        valores(propios), valores(base),
+                        String.format("%.2f", propios.valorStockCosto - base.valorStockCosto),
+                        String.format("%.2f", propios.valorStockVenta - base.valorStockVenta));
+            }
+        }
+        return distintas;
+    }
+
+    //despues de CatalogoCache: asi, armar desde el catalogo nunca ve un cambio que aca todavia no se aplico
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent evento) {
+        //igual que CatalogoCache: si la tienda todavia no se armo no hace nada
+        estados.computeIfPresent(evento.getTiendaId(), (id, estado) -> {
+            for (ProductosModificadosEvent.Cambio cambio : evento.getCambios()) {
+                if (cambio.getDespues() != null) {
+                    estado.aplicar(cambio.getDespues());
+                } else {
+                    estado.quitar(cambio.getAntes().getId());
+                }
+            }
+            return estado;
+        });
+    }
+
+    private EstadoTienda estado(Long tiendaId) {
+        return estados.computeIfAbsent(tiendaId, this::armar);
+    }
+
+    private EstadoTienda armar(Long tiendaId) {
+        EstadoTienda estado = new EstadoTienda();
+        for (Producto producto : catalogoCache.obtenerTodos(tiendaId)) {
+            estado.aplicar(producto);
+        }
+        return estado;
+    }
+
+    private static String valores(Totales totales) {
+        return String.format("%d productos, costo %.2f, venta %.2f",
+                totales.cantidadProductos, totales.valorStockCosto, totales.valorStockVenta);
+    }
+}
@@ -0,0 +1,224 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.EstadoRetencionDTO;
+import com.kmanager.kiosco_backend.entity.ProductoResumenDiario;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.entity.VentaResumenDiario;
+import com.kmanager.kiosco_backend.repository.EventoSalidaRepository;
+import com.kmanager.kiosco_backend.repository.ResumenHistoricoRepository;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retención de ventas: las ventas más viejas que kiosco.retencion.meses se
+ * suman a los resúmenes diarios (ventas_resumen_diario, productos_resumen_diario)
+ * y se borran, así ventas y venta_items no crecen sin límite y las consultas
+ * de ventas recientes no recorren años de historia.
+ *
+ * Se trabaja por tandas de kiosco.retencion.lote ventas, cada una en su propia
+ * transacción corta: sumar la tanda a los resúmenes, borrar sus items y borrar
+ * las ventas, todo con sentencias SQL (sin cargar entidades ni pasar por el
+ * cascade de Venta.itemsVendidos). Entre tandas se hace una pausa para no
+ * competir con las cajas. Si se corta a la mitad, las tandas confirmadas ya
+ * están resumidas y borradas y la próxima ejecución sigue desde ahí.
+ *
+ * También borra los eventos de la bandeja de salida más viejos que
+ * kiosco.retencion.eventos-dias. Al terminar (aunque se haya cortado) descarta
+ * de ReportesParalelos las particiones cerradas anteriores al límite, que
+ * tenían totales de ventas ya borradas.
+ *
+ * Con kiosco.retencion.meses=0 (por defecto) no se borra nada.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class RetencionVentasService {
+
+    private final TiendaRepository tiendaRepository;
+    private final VentaRepository ventaRepository;
+    private final ResumenHistoricoRepository resumenHistoricoRepository;
+    private final EventoSalidaRepository eventoSalidaRepository;
+    private final ReportesParalelos reportesParalelos;
+    private final TransactionTemplate transaccion;
+    private final int meses;
+    private final int eventosDias;
+    private final int lote;
+    private final long pausaMs;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    //progreso de la ultima ejecucion; lo escribe solo el hilo que la corre
+    private volatile EstadoRetencionDTO estado = new EstadoRetencionDTO();
+
+    public RetencionVentasService(TiendaRepository tiendaRepository,
+                                  VentaRepository ventaRepository,
+                                  ResumenHistoricoRepository resumenHistoricoRepository,
+                                  EventoSalidaRepository eventoSalidaRepository,
+                                  ReportesParalelos reportesParalelos,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${kiosco.retencion.meses:0}") int meses,
+                                  @Value("${kiosco.retencion.eventos-dias:30}") int eventosDias,
+                                  @Value("${kiosco.retencion.lote:500}") int lote,
+                                  @Value("${kiosco.retencion.pausa-ms:200}") long pausaMs) {
+        this.tiendaRepository = tiendaRepository;
+        this.ventaRepository = ventaRepository;
+        this.resumenHistoricoRepository = resumenHistoricoRepository;
+        this.eventoSalidaRepository = eventoSalidaRepository;
+        this.reportesParalelos = reportesParalelos;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.meses = meses;
+        this.eventosDias = eventosDias;
+        this.lote = lote;
+        this.pausaMs = pausaMs;
+    }
+
+    /**
+     * Ejecución programada, fuera del horario de atención (por defecto 4 AM).
+     */
+    @Scheduled(cron = "${kiosco.retencion.cron:0 0 4 * * *}")
+    public void ejecutarProgramada() {
+        if (meses > 0) {
+            ejecutar();
+        }
+    }
+
+    /**
+     * Lanza la retención en segundo plano (por ejemplo desde la API).
+     */
+    public EstadoRetencionDTO ejecutarEnSegundoPlano() {
+        if (meses <= 0) {
+            throw new IllegalArgumentException("La retención está deshabilitada (kiosco.retencion.meses=0)");
+        }
+        if (enCurso.get()) {
+            throw new IllegalArgumentException("La retención ya se está ejecutando");
+        }
+        CompletableFuture.runAsync(this::ejecutar);
+        return obtenerEstado();
+    }
+
+    public EstadoRetencionDTO obtenerEstado() {
+        EstadoRetencionDTO actual = estado;
+        EstadoRetencionDTO copia = new EstadoRetencionDTO();
+        copia.setHabilitada(meses > 0);
+        copia.setEnCurso(enCurso.get());
+        copia.setInicio(actual.getInicio());
+        copia.setFin(actual.getFin());
+        copia.setLimite(actual.getLimite());
+        copia.setLotes(actual.getLotes());
+        copia.setVentasBorradas(actual.getVentasBorradas());
+        copia.setItemsBorrados(actual.getItemsBorrados());
+        copia.setEventosBorrados(actual.getEventosBorrados());
+        copia.setError(actual.getError());
+        return copia;
+    }
+
+    /**
+     * Totales diarios por método de pago de las ventas ya borradas.
+     */
+    public List<VentaResumenDiario> obtenerHistorico(LocalDate desde, LocalDate hasta) {
+        return resumenHistoricoRepository.findByTiendaIdAndFechaBetweenOrderByFechaAscMetodoPagoAsc(
+                TiendaContext.actual(), desde, hasta);
+    }
+
+    /**
+     * Unidades e importe diarios por producto de las ventas ya borradas.
+     */
+    public List<ProductoResumenDiario> obtenerHistoricoProductos(LocalDate desde, LocalDate hasta) {
+        return resumenHistoricoRepository.findProductosEntreFechas(TiendaContext.actual(), desde, hasta);
+    }
+
+    /**
+     * Resume y borra las ventas anteriores al límite, tienda por tienda.
+     * Si ya hay una ejecución en curso no hace nada.
+     */
+    public void ejecutar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            return;
+        }
+        EstadoRetencionDTO progreso = new EstadoRetencionDTO();
+        progreso.setInicio(LocalDateTime.now());
+        progreso.setLimite(LocalDate.now().minusMonths(meses).atStartOfDay());
+        estado = progreso;
+        try {
+            for (Tienda tienda : tiendaRepository.findAll()) {
+                borrarVentas(tienda.getId(), progreso);
+            }
+            borrarEventos(progreso);
+            log.info("Retención terminada: {} ventas y {} items anteriores a {} resumidos y borrados en {} tandas; {} eventos borrados",
+                    progreso.getVentasBorradas(), progreso.getItemsBorrados(), progreso.getLimite(),
+                    progreso.getLotes(), progreso.getEventosBorrados());
+        } catch (RuntimeException e) {
+            progreso.setError(e.getMessage());
+            log.error("La retención de ventas se interrumpió", e);
+        } finally {
+            //si se corto a la mitad igual puede haber dias ya borrados
+            reportesParalelos.descartarAnterioresA(progreso.getLimite());
+            progreso.setFin(LocalDateTime.now());
+            enCurso.set(false);
+        }
+    }
+
+    private void borrarVentas(Long tiendaId, EstadoRetencionDTO progreso) {
+        while (true) {
+            List<Long> ids = ventaRepository.findIdsAnterioresA(tiendaId, progreso.getLimite(), lote);
+            if (ids.isEmpty()) {
+                return;
+            }
+            //una transaccion corta por tanda: resumir y borrar van juntos
+            int items = transaccion.execute(status -> {
+                resumenHistoricoRepository.sumarVentas(ids);
+                resumenHistoricoRepository.sumarProductos(ids);
+                int borrados = ventaRepository.borrarItems(ids);
+                ventaRepository.borrarVentas(ids);
+                return borrados;
+            });
+            progreso.setLotes(progreso.getLotes() + 1);
+            progreso.setVentasBorradas(progreso.getVentasBorradas() + ids.size());
+            progreso.setItemsBorrados(progreso.getItemsBorrados() + items);
+            if (progreso.getLotes() % 100 == 0) {
+                log.info("Retención: {} ventas borradas ({} tandas)", progreso.getVentasBorradas(), progreso.getLotes());
+            }
+            if (ids.size() < lote) {
+                return;
+            }
+            pausa();
+        }
+    }
+
+    private void borrarEventos(EstadoRetencionDTO progreso) {
+        LocalDateTime limite = LocalDateTime.now().minusDays(eventosDias);
+        int borrados;
+        do {
+            borrados = transaccion.execute(status -> eventoSalidaRepository.borrarAnterioresA(limite, lote));
+            progreso.setEventosBorrados(progreso.getEventosBorrados() + borrados);
+            if (borrados == lote) {
+                pausa();
+            }
+        } while (borrados == lote);
+    }
+
+    private void pausa() {
+        if (pausaMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retención interrumpida", e);
+        }
+    }
+}
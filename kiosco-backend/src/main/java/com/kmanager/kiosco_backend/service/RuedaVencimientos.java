@@ -0,0 +1,96 @@
+package com.kmanager.kiosco_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de vencimientos (hashed timing wheel).
+ *
+ * El tiempo se divide en ticks; cada tick tiene una ranura en un arreglo
+ * circular y cada vencimiento se anota en la ranura de su tick. Un solo
+ * hilo avanza un tick por vez y revisa únicamente esa ranura, así programar
+ * un vencimiento es agregar a una cola y no hace falta ordenar nada (ni
+ * recorrer todos los pendientes en cada tick).
+ *
+ * Los vencimientos más lejanos que una vuelta de la rueda quedan en su
+ * ranura hasta la vuelta que corresponda. No se cancelan: quien programa
+ * decide al recibir la clave si realmente venció (por ejemplo, si se renovó
+ * basta con ignorarla, porque la renovación programó otro vencimiento).
+ */
+@Slf4j
+final class RuedaVencimientos {
+
+    private record Entrada(String clave, long venceNanos) {
+    }
+
+    private final long tickNanos;
+    private final Queue<Entrada>[] ranuras;
+    private final Consumer<String> alVencer;
+    private final ScheduledExecutorService reloj;
+    private final long inicio = System.nanoTime();
+
+    //proximo tick a procesar (solo lo escribe el hilo del reloj)
+    private volatile long tickActual;
+
+    @SuppressWarnings("unchecked")
+    RuedaVencimientos(String nombre, Duration tick, int cantidadRanuras, Consumer<String> alVencer) {
+        this.tickNanos = tick.toNanos();
+        this.alVencer = alVencer;
+        this.ranuras = new Queue[cantidadRanuras];
+        for (int i = 0; i < cantidadRanuras; i++) {
+            ranuras[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.reloj = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        reloj.scheduleAtFixedRate(this::avanzar, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Anota la clave para avisar cuando llegue venceNanos (System.nanoTime()).
+     * Puede avisar hasta un tick tarde, nunca antes.
+     */
+    void programar(String clave, long venceNanos) {
+        //nunca en un tick que ya se proceso (o se esta procesando)
+        long tick = Math.max(Math.ceilDiv(venceNanos - inicio, tickNanos), tickActual + 1);
+        ranuras[(int) (tick % ranuras.length)].add(new Entrada(clave, venceNanos));
+    }
+
+    void cerrar() {
+        reloj.shutdownNow();
+    }
+
+    private void avanzar() {
+        long ahora = System.nanoTime();
+        long hasta = (ahora - inicio) / tickNanos;
+        while (tickActual <= hasta) {
+            Queue<Entrada> ranura = ranuras[(int) (tickActual % ranuras.length)];
+            //solo las que estaban al empezar: las que se vuelven a anotar quedan para la proxima vuelta
+            for (int pendientes = ranura.size(); pendientes > 0; pendientes--) {
+                Entrada entrada = ranura.poll();
+                if (entrada == null) {
+                    break;
+                }
+                if (entrada.venceNanos() - ahora > 0) {
+                    ranura.add(entrada);
+                    continue;
+                }
+                try {
+                    alVencer.accept(entrada.clave());
+                } catch (RuntimeException e) {
+                    log.warn("Error al procesar el vencimiento de {}", entrada.clave(), e);
+                }
+            }
+            tickActual++;
+        }
+    }
+}
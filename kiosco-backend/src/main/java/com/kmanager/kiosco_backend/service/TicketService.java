@@ -0,0 +1,190 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.entity.VentaItem;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Tickets de venta para imprimir o reimprimir.
+ *
+ * Dos formatos: texto plano de ancho fijo (impresoras térmicas, 32/42/48
+ * columnas) y HTML listo para imprimir desde el navegador o guardar como PDF.
+ * Las plantillas están en resources/tickets; se compilan la primera vez que
+ * se usan y quedan en memoria.
+ *
+ * Se escribe directo en el Writer de la respuesta. Los tickets de un día se
+ * leen por tandas, así un día con miles de ventas no queda entero en memoria.
+ *
+ * Sin @Transactional: el ticket se escribe en el hilo de la respuesta y cada
+ * consulta usa su propia conexión, sin tenerla tomada mientras el cliente lee.
+ */
+@Service
+@RequiredArgsConstructor
+public class TicketService {
+
+    public static final String TEXTO = "texto";
+    public static final String HTML = "html";
+
+    public static final int ANCHO_MINIMO = 24;
+    public static final int ANCHO_MAXIMO = 80;
+
+    //ventas leidas por consulta al escribir los tickets de un dia
+    private static final int TANDA = 200;
+
+    private static final Locale LOCALE = Locale.forLanguageTag("es-AR");
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final VentaRepository ventaRepository;
+    private final TiendaRepository tiendaRepository;
+
+    //formato -> plantilla compilada
+    private final Map<String, PlantillaTicket> plantillas = new ConcurrentHashMap<>();
+
+    /**
+     * Verifica formato y ancho antes de empezar a escribir la respuesta
+     * (una vez empezada ya no se puede contestar 400).
+     */
+    public void validar(String formato, int ancho) {
+        plantilla(formato);
+        if (TEXTO.equals(formato) && (ancho < ANCHO_MINIMO || ancho > ANCHO_MAXIMO)) {
+            throw new IllegalArgumentException(
+                    "El ancho del ticket debe estar entre " + ANCHO_MINIMO + " y " + ANCHO_MAXIMO + " columnas");
+        }
+    }
+
+    /**
+     * Venta con sus items, para escribir su ticket.
+     */
+    public Venta obtenerVenta(Long tiendaId, Long ventaId) {
+        List<Venta> ventas = ventaRepository.findConItemsByIdIn(tiendaId, List.of(ventaId));
+        if (ventas.isEmpty()) {
+            throw new RecursoNoEncontradoException("Venta no encontrada con ID: " + ventaId);
+        }
+        return ventas.get(0);
+    }
+
+    /**
+     * Escribe el ticket de una venta.
+     *
+     * @param tiendaId se pasa aparte: esto corre en el hilo de la respuesta, sin TiendaContext
+     */
+    public void escribir(Long tiendaId, Venta venta, String formato, int ancho, Writer salida) throws IOException {
+        PlantillaTicket plantilla = plantilla(formato);
+        Tienda tienda = obtenerTienda(tiendaId);
+        plantilla.escribir(salida, "inicio", campo -> null, ancho);
+        escribirTicket(plantilla, tienda, venta, ancho, salida);
+        plantilla.escribir(salida, "fin", campo -> null, ancho);
+        salida.flush();
+    }
+
+    /**
+     * Escribe los tickets de todas las ventas de un día (reimpresión o archivo),
+     * en orden, leyéndolas por tandas.
+     */
+    public void escribirDia(Long tiendaId, LocalDate fecha, String formato, int ancho, Writer salida) throws IOException {
+        PlantillaTicket plantilla = plantilla(formato);
+        Tienda tienda = obtenerTienda(tiendaId);
+        List<Long> ids = ventaRepository.findIdsEntreFechas(tiendaId, fecha.atStartOfDay(), fecha.plusDays(1).atStartOfDay());
+
+        plantilla.escribir(salida, "inicio", campo -> null, ancho);
+        boolean primero = true;
+        for (int desde = 0; desde < ids.size(); desde += TANDA) {
+            List<Long> tanda = ids.subList(desde, Math.min(desde + TANDA, ids.size()));
+            for (Venta venta : ventaRepository.findConItemsByIdIn(tiendaId, tanda)) {
+                if (!primero) {
+                    plantilla.escribir(salida, "separacion", campo -> null, ancho);
+                }
+                primero = false;
+                escribirTicket(plantilla, tienda, venta, ancho, salida);
+            }
+            //cada tanda se manda al cliente apenas esta escrita
+            salida.flush();
+        }
+        plantilla.escribir(salida, "fin", campo -> null, ancho);
+        salida.flush();
+    }
+
+    private void escribirTicket(PlantillaTicket plantilla, Tienda tienda, Venta venta, int ancho,
+                                Writer salida) throws IOException {
+        Function<String, String> valoresVenta = valoresVenta(tienda, venta);
+        plantilla.escribir(salida, "encabezado", valoresVenta, ancho);
+        for (VentaItem item : venta.getItemsVendidos()) {
+            plantilla.escribir(salida, "item", valoresItem(item), ancho);
+        }
+        plantilla.escribir(salida, "pie", valoresVenta, ancho);
+    }
+
+    private static Function<String, String> valoresVenta(Tienda tienda, Venta venta) {
+        return campo -> switch (campo) {
+            case "tienda" -> tienda.getNombre();
+            case "direccion" -> tienda.getDireccion();
+            case "numero" -> String.valueOf(venta.getId());
+            case "fecha" -> venta.getTimestamp().format(FECHA);
+            case "ventaOriginal" -> venta.isDevolucion() ? String.valueOf(venta.getVentaOriginalId()) : null;
+            case "anulada" -> Boolean.TRUE.equals(venta.getAnulada()) ? "ANULADA" : null;
+            case "metodoPago" -> venta.getMetodoPago();
+            case "total" -> dinero(venta.getTotalVenta());
+            default -> throw new IllegalArgumentException("Campo desconocido en la plantilla de ticket: " + campo);
+        };
+    }
+
+    private static Function<String, String> valoresItem(VentaItem item) {
+        Producto producto = item.getProducto();
+        return campo -> switch (campo) {
+            case "nombre" -> producto.getNombre();
+            case "cantidad" -> producto.esPorPeso()
+                    ? item.getCantidad() + " " + producto.getUnidadMedida()
+                    : String.valueOf(item.getCantidad());
+            case "precio" -> dinero(item.getPrecioUnitario());
+            case "subtotal" -> dinero(item.getSubtotal());
+            //sin promocion la linea del descuento no se imprime
+            case "promocion" -> item.getPromocion();
+            //el descuento se resta (en las devoluciones es negativo, y se suma)
+            case "descuento" -> item.getDescuento() != 0 ? dinero(-item.getDescuento()) : null;
+            default -> throw new IllegalArgumentException("Campo desconocido en la plantilla de ticket: " + campo);
+        };
+    }
+
+    private static String dinero(double valor) {
+        return (valor < 0 ? "-$" : "$") + String.format(LOCALE, "%,.2f", Math.abs(valor));
+    }
+
+    private Tienda obtenerTienda(Long tiendaId) {
+        return tiendaRepository.findById(tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Tienda no encontrada con ID: " + tiendaId));
+    }
+
+    private PlantillaTicket plantilla(String formato) {
+        if (!TEXTO.equals(formato) && !HTML.equals(formato)) {
+            throw new IllegalArgumentException("Formato de ticket inválido: " + formato + " (texto o html)");
+        }
+        return plantillas.computeIfAbsent(formato, f -> {
+            String archivo = "tickets/ticket." + (HTML.equals(f) ? "html" : "txt");
+            try {
+                String texto = new ClassPathResource(archivo).getContentAsString(StandardCharsets.UTF_8);
+                return PlantillaTicket.compilar(texto, HTML.equals(f));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer la plantilla " + archivo, e);
+            }
+        });
+    }
+}
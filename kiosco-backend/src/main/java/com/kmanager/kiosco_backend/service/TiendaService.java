@@ -0,0 +1,77 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.ResumenTiendaDTO;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class TiendaService {
+
+    private final TiendaRepository tiendaRepository;
+    private final VentaRepository ventaRepository;
+    private final ProductoRepository productoRepository;
+
+    /**
+     * obtiene todas las tiendas.
+     */
+    @Transactional(readOnly = true)
+    public List<Tienda> obtenerTodas() {
+        return tiendaRepository.findAll();
+    }
+
+    /**
+     * crea una nueva tienda
+     */
+    public Tienda crear(Tienda tienda) {
+        if (tiendaRepository.existsByNombre(tienda.getNombre())) {
+            throw new IllegalArgumentException("Ya existe una tienda con el nombre: " + tienda.getNombre());
+        }
+        tienda.setId(null);
+        return tiendaRepository.save(tienda);
+    }
+
+    /**
+     * Reporte consolidado de todas las tiendas en un rango de fechas.
+     * Son dos consultas agrupadas por tienda (ventas y productos), sin
+     * importar cuantas tiendas haya.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumenTiendaDTO> generarReporteConsolidado(LocalDateTime inicio, LocalDateTime fin) {
+        Map<Long, ResumenTiendaDTO> resumenes = new LinkedHashMap<>();
+        for (Tienda tienda : tiendaRepository.findAll()) {
+            resumenes.put(tienda.getId(), new ResumenTiendaDTO(tienda.getId(), tienda.getNombre(), 0, 0.0, 0, 0));
+        }
+
+        for (Object[] fila : ventaRepository.calcularTotalesPorTienda(inicio, fin)) {
+            ResumenTiendaDTO resumen = resumen(resumenes, (Long) fila[0]);
+            resumen.setCantidadVentas(((Number) fila[1]).longValue());
+            resumen.setTotalVendido(fila[2] != null ? ((Number) fila[2]).doubleValue() : 0.0);
+        }
+
+        for (Object[] fila : productoRepository.contarProductosPorTienda()) {
+            ResumenTiendaDTO resumen = resumen(resumenes, (Long) fila[0]);
+            resumen.setCantidadProductos(((Number) fila[1]).longValue());
+            resumen.setProductosStockBajo(fila[2] != null ? ((Number) fila[2]).longValue() : 0);
+        }
+        return new ArrayList<>(resumenes.values());
+    }
+
+    private ResumenTiendaDTO resumen(Map<Long, ResumenTiendaDTO> resumenes, Long tiendaId) {
+        //datos de una tienda que ya no existe: se muestran igual, sin nombre
+        return resumenes.computeIfAbsent(tiendaId,
+                id -> new ResumenTiendaDTO(id, null, 0, 0.0, 0, 0));
+    }
+}
@@ -0,0 +1,119 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.entity.Turno;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.exception.ConflictoException;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.TurnoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Turnos de caja (apertura y cierre de caja por terminal).
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class TurnoService {
+
+    private final TurnoRepository turnoRepository;
+
+    /**
+     * abre un turno para una terminal.
+     * una terminal solo puede tener un turno abierto a la vez (lo garantiza el
+     * indice unico de terminal_abierta; el conflicto se responde con 409).
+     */
+    public Turno abrir(String terminal, Double montoInicial) {
+        if (terminal == null || terminal.isBlank()) {
+            throw new IllegalArgumentException("La terminal es obligatoria");
+        }
+        Long tiendaId = TiendaContext.actual();
+        turnoRepository.findFirstByTiendaIdAndTerminalAndEstado(tiendaId, terminal, Turno.ABIERTO)
+                .ifPresent(t -> {
+                    throw new ConflictoException(
+                            "La terminal " + terminal + " ya tiene el turno " + t.getId() + " abierto");
+                });
+        try {
+            //flush: si otra apertura gano la carrera, el indice unico falla aca
+            return turnoRepository.saveAndFlush(new Turno(tiendaId, terminal, montoInicial));
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictoException("La terminal " + terminal + " ya tiene un turno abierto");
+        }
+    }
+
+    /**
+     * cierra un turno y devuelve su resumen.
+     * los totales ya estan acumulados, no se recorren las ventas.
+     * el turno se lee bloqueado, igual que al registrar una venta: sin el bloqueo
+     * el cierre guarda los totales que leyo y pierde los de una venta concurrente.
+     */
+    public Turno cerrar(Long id, Double efectivoContado) {
+        Turno turno = turnoRepository.findForUpdateByIdAndTiendaId(id, TiendaContext.actual())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Turno no encontrado con ID: " + id));
+        turno.cerrar(efectivoContado);
+        return turnoRepository.save(turno);
+    }
+
+    /**
+     * suma una venta al turno abierto de la terminal.
+     * se llama desde VentaService dentro de la misma transaccion que la venta.
+     * si la venta no indica terminal no se asocia a ningun turno.
+     */
+    public void registrarVenta(Venta venta, String terminal) {
+        if (terminal == null || terminal.isBlank()) {
+            return;
+        }
+        Turno turno = turnoRepository
+                .findFirstForUpdateByTiendaIdAndTerminalAndEstado(venta.getTiendaId(), terminal, Turno.ABIERTO)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No hay un turno abierto para la terminal: " + terminal));
+        turno.acumularVenta(venta);
+        venta.setTurnoId(turno.getId());
+    }
+
+    /**
+     * suma una devolucion al turno abierto de la terminal (misma transaccion).
+     */
+    public void registrarDevolucion(Venta devolucion, String terminal) {
+        if (terminal == null || terminal.isBlank()) {
+            return;
+        }
+        Turno turno = turnoRepository
+                .findFirstForUpdateByTiendaIdAndTerminalAndEstado(devolucion.getTiendaId(), terminal, Turno.ABIERTO)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No hay un turno abierto para la terminal: " + terminal));
+        turno.acumularDevolucion(devolucion);
+        devolucion.setTurnoId(turno.getId());
+    }
+
+    /**
+     * busca un turno por ID
+     */
+    @Transactional(readOnly = true)
+    public Optional<Turno> obtenerPorId(Long id) {
+        return turnoRepository.findByIdAndTiendaId(id, TiendaContext.actual());
+    }
+
+    /**
+     * obtiene el turno abierto de una terminal (con sus totales parciales)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Turno> obtenerAbierto(String terminal) {
+        return turnoRepository.findFirstByTiendaIdAndTerminalAndEstado(TiendaContext.actual(), terminal, Turno.ABIERTO);
+    }
+
+    /**
+     * obtiene los turnos abiertos en un rango de fechas
+     */
+    @Transactional(readOnly = true)
+    public List<Turno> obtenerEntreFechas(LocalDateTime inicio, LocalDateTime fin) {
+        return turnoRepository.findByTiendaIdAndAperturaBetweenOrderByAperturaDesc(TiendaContext.actual(), inicio, fin);
+    }
+}
@@ -0,0 +1,78 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.ValuacionInventarioDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Valuación del inventario (stockActual x precioCosto y x precioVenta).
+ *
+ * Los totales no se calculan al pedirlos: los lleva ResumenCategorias y se
+ * ajustan con cada movimiento de stock o cambio de precio confirmado (ventas,
+ * devoluciones, ajustes, altas y modificaciones publican ProductosModificadosEvent).
+ *
+ * Cada tanto se vuelven a sumar desde cero para corregir el error que
+ * acumulan las sumas y restas de doubles, y se comparan con las sumas de
+ * MySQL para detectar eventos perdidos (eso solo se avisa en el log).
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+public class ValuacionInventarioService {
+
+    private final ResumenCategorias resumenCategorias;
+    private final CategoriaService categoriaService;
+
+    /**
+     * Valuación de la tienda de la petición, en total y por categoría.
+     */
+    public ValuacionInventarioDTO obtener() {
+        Long tiendaId = TiendaContext.actual();
+        ResumenCategorias.Totales general = resumenCategorias.obtenerGeneral(tiendaId);
+
+        ValuacionInventarioDTO valuacion = new ValuacionInventarioDTO();
+        valuacion.setCantidadProductos(general.getCantidadProductos());
+        valuacion.setValorCosto(redondear(general.getValorStockCosto()));
+        valuacion.setValorVenta(redondear(general.getValorStockVenta()));
+        valuacion.setMargenPotencial(redondear(general.getValorStockVenta() - general.getValorStockCosto()));
+        categoriaService.obtenerResumen().forEach(categoria -> {
+            categoria.setValorStockCosto(redondear(categoria.getValorStockCosto()));
+            categoria.setValorStockVenta(redondear(categoria.getValorStockVenta()));
+            valuacion.getCategorias().add(categoria);
+        });
+        return valuacion;
+    }
+
+    /**
+     * Recalcula los totales de todas las tiendas ya cargadas y los compara
+     * con los de la base.
+     */
+    @Scheduled(fixedDelayString = "${kiosco.valuacion.verificar-ms:900000}",
+               initialDelayString = "${kiosco.valuacion.verificar-ms:900000}")
+    public void verificar() {
+        int corregidas = 0;
+        int distintasDeLaBase = 0;
+        for (Long tiendaId : resumenCategorias.tiendasCargadas()) {
+            try {
+                if (resumenCategorias.recalcular(tiendaId)) {
+                    corregidas++;
+                }
+                if (!resumenCategorias.compararConBase(tiendaId).isEmpty()) {
+                    distintasDeLaBase++;
+                }
+            } catch (Exception e) {
+                log.error("No se pudo verificar la valuación de la tienda {}", tiendaId, e);
+            }
+        }
+        log.debug("Valuación verificada: {} tiendas corregidas, {} distintas de la base", corregidas, distintasDeLaBase);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+}
@@ -1,76 +1,151 @@
 package com.kmanager.kiosco_backend.service;
 
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.dto.VentasCompactasDTO;
+import com.kmanager.kiosco_backend.dto.VentasPorHoraDTO;
+import com.kmanager.kiosco_backend.dto.VentasPorIntervaloDTO;
 import com.kmanager.kiosco_backend.entity.Producto;
 import com.kmanager.kiosco_backend.entity.Venta;
 import com.kmanager.kiosco_backend.entity.VentaItem;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.event.ReservaConsumidaEvent;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
 import com.kmanager.kiosco_backend.repository.ProductoRepository;
 import com.kmanager.kiosco_backend.repository.VentaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Lazy(false)
 @RequiredArgsConstructor
 @Transactional
 public class VentaService {
 
     private final VentaRepository ventaRepository;
     private final ProductoRepository productoRepository;
+    private final TurnoService turnoService;
+    private final MotorPrecios motorPrecios;
+    private final ReservasStock reservasStock;
+    private final ReportesParalelos reportesParalelos;
+    private final EventosSalidaService eventosSalidaService;
+    private final ClienteService clienteService;
+    private final ConsultasCompartidas consultasCompartidas;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Registra una nueva venta sin asociarla a un turno de caja.
+     */
+    public Venta registraVenta(String metodoPago, Map<Long, Integer> items) {
+        return registraVenta(metodoPago, items, null, null, null);
+    }
 
     /**
      * Registra una nueva venta
      * este metodo es CRITICO y debe ser transaccional
      * @param metodoPago metodo de pago utilizado
      * @param items mapa de productoId -> cantidad
+     * @param terminal terminal (caja) que registra la venta, puede ser null
+     * @param reservaId reserva de stock del carrito (ver ReservasStock), puede ser null
+     * @param clienteId cliente de la venta; obligatorio en cuenta corriente, puede ser null
      * @return la venta registrada
      *
      * pasos:
      * 1. Crea la venta
      * 2. Por cada item:
-     *   a.Busca el producto
-     *   b.Valida que haya stock suficiente
+     *   a.Busca el producto (todos en una consulta, con las filas bloqueadas)
+     *   b.Valida que haya stock suficiente (sin contar lo reservado por otras cajas)
      *   c.Descuenta el stock
-     * 3. calcula el total
-     * 4.guarda todo en una transaccion atomica
+     * 3. aplica las promociones vigentes (MotorPrecios, en memoria)
+     * 4. calcula el total
+     * 5. si se indico terminal, suma la venta al turno de caja abierto
+     * 6.guarda todo en una transaccion atomica (con el evento para los sistemas externos)
+     * 7. en cuenta corriente, carga la venta en la cuenta del cliente (misma transaccion)
      */
-
-    public Venta registraVenta(String metodoPago, Map<Long, Integer> items) {
+    public Venta registraVenta(String metodoPago, Map<Long, Integer> items, String terminal, String reservaId,
+                               Long clienteId) {
         //Validaciones iniciales
         if (items == null || items.isEmpty()) {
             throw new IllegalArgumentException("La venta debe tener al menos un producto");
         }
+        if (ClienteService.esCuentaCorriente(metodoPago) && clienteId == null) {
+            throw new IllegalArgumentException("Las ventas en cuenta corriente deben indicar el cliente");
+        }
+        if (clienteId != null) {
+            //el cliente tiene que ser de esta tienda
+            clienteService.obtenerPorId(clienteId);
+        }
 
-        //crea la venta
-        Venta venta = new Venta(metodoPago);
+        //crea la venta en la tienda de la peticion
+        Long tiendaId = TiendaContext.actual();
+        Venta venta = new Venta(tiendaId, metodoPago);
+        venta.setClienteId(clienteId);
+        List<ProductosModificadosEvent.Cambio> cambios = new ArrayList<>();
+        List<MotorPrecios.Linea> lineas = new ArrayList<>(items.size());
+
+        //trae y bloquea todos los productos del carrito en una sola consulta:
+        //dos ventas del mismo producto descuentan el stock una despues de la otra
+        Map<Long, Producto> productos = new HashMap<>();
+        for (Producto producto : productoRepository.findAllParaActualizarStock(tiendaId, items.keySet())) {
+            productos.put(producto.getId(), producto);
+        }
 
         //Proceas cada item del carrito
         for (Map.Entry<Long, Integer> entry : items.entrySet()) {
             Long productoId = entry.getKey();
             Integer cantidad = entry.getValue();
 
-            //busca el producto
-            Producto producto = productoRepository.findById(productoId)
-                    .orElseThrow(() -> new RuntimeException(
-                            "Producto no encontrado con ID: " + productoId
-                    ));
+            Producto producto = productos.get(productoId);
+            if (producto == null) {
+                throw new RecursoNoEncontradoException("Producto no encontrado con ID: " + productoId);
+            }
+
+            //las unidades reservadas por otros carritos no se pueden vender;
+            //las de la propia reserva si (ya se validaron al escanear)
+            int reservadoOtros = reservasStock.reservadoPorOtros(tiendaId, productoId, reservaId);
+            if (reservadoOtros > 0 && cantidad > producto.getStockActual() - reservadoOtros) {
+                throw new IllegalArgumentException(
+                        "Stock insuficiente para el  producto: " + producto.getNombre() +
+                        ". Disponible: " + Math.max(producto.getStockActual() - reservadoOtros, 0) +
+                        " (hay unidades reservadas en otras cajas), Solicitado: " + cantidad);
+            }
 
             //Critico: validar y descontar stock
             //este metodo lanza excepcion si no hay suficiente stock
+            Producto antes = producto.copia();
             producto.descontarStock(cantidad);
+            cambios.add(new ProductosModificadosEvent.Cambio(antes, producto.copia()));
 
-            //crear el item de venta
-            VentaItem ventaItem = new VentaItem(producto, cantidad);
-            venta.agregarItem(ventaItem);
+            lineas.add(new MotorPrecios.Linea(producto, cantidad));
+        }
+        //guardar los productos con el stock actualizado
+        productoRepository.saveAll(productos.values());
 
-            //guardar el producto con stock actualizado
-            productoRepository.save(producto);
+        //promociones: el motor ya tiene las reglas compiladas, no consulta la base
+        motorPrecios.aplicar(tiendaId, lineas, venta.getTimestamp());
+
+        //crear los items de venta
+        for (MotorPrecios.Linea linea : lineas) {
+            VentaItem ventaItem = new VentaItem(linea.getProducto(), linea.getCantidad());
+            ventaItem.setDescuento(linea.getDescuento());
+            ventaItem.setPromocion(linea.getPromocion());
+            venta.agregarItem(ventaItem);
         }
 
         //calcular el total de la venta
@@ -81,8 +156,172 @@ public class VentaService {
             throw new IllegalArgumentException("El total de la venta debe ser mayor a 0");
         }
 
+        //acumula los totales del turno de caja (misma transaccion)
+        turnoService.registrarVenta(venta, terminal);
+
+        //caches y agregados de productos se actualizan al confirmar la transaccion
+        eventPublisher.publishEvent(new ProductosModificadosEvent(tiendaId, cambios));
+        if (reservaId != null) {
+            //la reserva se libera solo si la venta se confirma
+            eventPublisher.publishEvent(new ReservaConsumidaEvent(tiendaId, reservaId));
+        }
+
         //guardar la venta (esto tambien guarda los items por cascade)
-        return ventaRepository.save(venta);
+        Venta guardada = ventaRepository.save(venta);
+        if (ClienteService.esCuentaCorriente(metodoPago)) {
+            //bloquea al cliente y controla el limite de credito; si falla se deshace toda la venta
+            clienteService.registrarVenta(guardada);
+        }
+        //evento para los sistemas externos, en la misma transaccion
+        eventosSalidaService.registrarVenta(guardada);
+        return guardada;
+    }
+
+    /**
+     * Registra la devolucion (total o parcial) de una venta.
+     *
+     * La devolucion se guarda como una venta negativa vinculada a la original
+     * (cantidades y total negativos, mismo precio unitario y metodo de pago),
+     * asi los totales diarios y por metodo de pago siguen cuadrando sin
+     * recalcular nada: la suma ya incluye la devolucion.
+     *
+     * pasos:
+     * 1. Bloquea la venta original (dos devoluciones no pueden cruzarse)
+     * 2. Calcula lo que queda por devolver de cada producto (vendido - ya devuelto)
+     * 3. Trae todos los productos afectados en una sola consulta y repone el stock
+     * 4. si se indico terminal, descuenta la devolucion del turno de caja
+     *
+     * @param ventaId venta a devolver
+     * @param items productoId -> cantidad a devolver; null o vacio devuelve todo lo pendiente (anulacion)
+     * @param terminal terminal (caja) que hace la devolucion, puede ser null
+     * @return la venta negativa registrada
+     */
+    public Venta registrarDevolucion(Long ventaId, Map<Long, Integer> items, String terminal) {
+        Long tiendaId = TiendaContext.actual();
+        Venta original = ventaRepository.findForUpdateByIdAndTiendaId(ventaId, tiendaId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Venta no encontrada con ID: " + ventaId));
+
+        if (original.isDevolucion()) {
+            throw new IllegalArgumentException("No se puede devolver una devolución");
+        }
+        if (Boolean.TRUE.equals(original.getAnulada())) {
+            throw new IllegalArgumentException("La venta " + ventaId + " ya fue anulada");
+        }
+
+        //items de la venta original y cantidades pendientes de devolver por producto
+        Map<Long, VentaItem> itemsOriginales = new HashMap<>();
+        Map<Long, Integer> pendientes = new LinkedHashMap<>();
+        for (VentaItem item : original.getItemsVendidos()) {
+            Long productoId = item.getProducto().getId();
+            itemsOriginales.put(productoId, item);
+            pendientes.merge(productoId, item.getCantidad(), Integer::sum);
+        }
+        for (Object[] fila : ventaRepository.sumarCantidadesDevueltas(ventaId)) {
+            //las cantidades devueltas son negativas
+            pendientes.merge((Long) fila[0], ((Number) fila[1]).intValue(), Integer::sum);
+        }
+
+        Map<Long, Integer> aDevolver = new LinkedHashMap<>();
+        if (items == null || items.isEmpty()) {
+            pendientes.forEach((productoId, pendiente) -> {
+                if (pendiente > 0) {
+                    aDevolver.put(productoId, pendiente);
+                }
+            });
+        } else {
+            for (Map.Entry<Long, Integer> entry : items.entrySet()) {
+                Long productoId = entry.getKey();
+                Integer cantidad = entry.getValue();
+                if (cantidad == null || cantidad <= 0) {
+                    throw new IllegalArgumentException("La cantidad a devolver debe ser mayor a 0");
+                }
+                Integer pendiente = pendientes.get(productoId);
+                if (pendiente == null) {
+                    throw new IllegalArgumentException(
+                            "El producto " + productoId + " no forma parte de la venta " + ventaId);
+                }
+                if (cantidad > pendiente) {
+                    throw new IllegalArgumentException(
+                            "No se pueden devolver " + cantidad + " unidades del producto " + productoId +
+                            ". Pendientes de devolución: " + pendiente);
+                }
+                aDevolver.put(productoId, cantidad);
+            }
+        }
+        if (aDevolver.isEmpty()) {
+            throw new IllegalArgumentException("No quedan productos por devolver en la venta " + ventaId);
+        }
+
+        //repone el stock de todos los productos afectados en un solo paso
+        Venta devolucion = new Venta(tiendaId, original.getMetodoPago());
+        devolucion.setVentaOriginalId(ventaId);
+        devolucion.setClienteId(original.getClienteId());
+        List<Producto> productos = productoRepository.findAllParaActualizarStock(tiendaId, aDevolver.keySet());
+        if (productos.size() != aDevolver.size()) {
+            //sin el producto no hay donde reponer el stock: se informa en vez de saltear la linea
+            List<Long> faltantes = new ArrayList<>(aDevolver.keySet());
+            productos.forEach(producto -> faltantes.remove(producto.getId()));
+            throw new IllegalArgumentException(
+                    "No se puede devolver la venta " + ventaId + ": los productos " + faltantes + " ya no existen");
+        }
+        List<ProductosModificadosEvent.Cambio> cambios = new ArrayList<>();
+        for (Producto producto : productos) {
+            int cantidad = aDevolver.get(producto.getId());
+            Producto antes = producto.copia();
+            producto.agregarStock(cantidad);
+            cambios.add(new ProductosModificadosEvent.Cambio(antes, producto.copia()));
+            VentaItem itemOriginal = itemsOriginales.get(producto.getId());
+            VentaItem item = new VentaItem(producto, -cantidad, itemOriginal.getPrecioUnitario());
+            item.setDescuento(-descuentoProporcional(itemOriginal, pendientes.get(producto.getId()), cantidad));
+            item.setPromocion(itemOriginal.getPromocion());
+            devolucion.agregarItem(item);
+        }
+        productoRepository.saveAll(productos);
+        devolucion.calcularTotal();
+
+        //si ya no queda nada pendiente la venta original queda anulada
+        boolean todoDevuelto = pendientes.entrySet().stream()
+                .allMatch(e -> e.getValue() - aDevolver.getOrDefault(e.getKey(), 0) <= 0);
+        original.setAnulada(todoDevuelto);
+
+        turnoService.registrarDevolucion(devolucion, terminal);
+        eventPublisher.publishEvent(new ProductosModificadosEvent(tiendaId, cambios));
+        Venta guardada = ventaRepository.save(devolucion);
+        //lo devuelto se descuenta de la deuda del cliente; las ventas en cuenta corriente
+        //de antes de las cuentas de clientes no tienen cliente ni deuda que descontar
+        if (ClienteService.esCuentaCorriente(devolucion.getMetodoPago()) && original.getClienteId() != null) {
+            clienteService.registrarVenta(guardada);
+        }
+        eventosSalidaService.registrarVenta(guardada);
+        return guardada;
+    }
+
+    /**
+     * parte del descuento del item original que corresponde a las unidades devueltas.
+     * se calcula como diferencia de acumulados (lo devuelto despues menos lo devuelto
+     * antes) para que varias devoluciones parciales sumen exactamente el descuento original.
+     */
+    private double descuentoProporcional(VentaItem itemOriginal, int pendienteAntes, int cantidad) {
+        double descuento = itemOriginal.getDescuento();
+        int vendido = itemOriginal.getCantidad();
+        if (descuento == 0 || vendido <= 0) {
+            return 0;
+        }
+        int devueltoAntes = vendido - pendienteAntes;
+        int devueltoDespues = devueltoAntes + cantidad;
+        return redondear(redondear(descuento * devueltoDespues / vendido) - redondear(descuento * devueltoAntes / vendido));
+    }
+
+    private static double redondear(double importe) {
+        return Math.round(importe * 100) / 100.0;
+    }
+
+    /**
+     * obtiene las devoluciones registradas para una venta.
+     */
+    @Transactional(readOnly = true)
+    public List<Venta> obtenerDevoluciones(Long ventaId) {
+        return ventaRepository.findByVentaOriginalIdAndTiendaId(ventaId, TiendaContext.actual());
     }
 
     /**
@@ -90,7 +329,7 @@ public class VentaService {
      */
     @Transactional(readOnly = true)
     public List<Venta> obtenerTodas() {
-        return ventaRepository.findAll();
+        return ventaRepository.findByTiendaId(TiendaContext.actual());
     }
 
     /**
@@ -98,7 +337,7 @@ public class VentaService {
      */
     @Transactional(readOnly = true)
     public Optional<Venta> obtenerPorId(Long id) {
-        return ventaRepository.findById(id);
+        return ventaRepository.findByIdAndTiendaId(id, TiendaContext.actual());
     }
 
     /**
@@ -110,7 +349,7 @@ public class VentaService {
         LocalDateTime inicioDia = LocalDate.now().atStartOfDay();
         LocalDateTime finDia = LocalDate.now().atTime(LocalTime.MAX);
 
-        return ventaRepository.findByTimestampBetween(inicioDia, finDia);
+        return ventaRepository.findByTiendaIdAndTimestampBetween(TiendaContext.actual(), inicioDia, finDia);
     }
 
     /**
@@ -118,36 +357,59 @@ public class VentaService {
      */
     @Transactional(readOnly = true)
     public List<Venta> obtenerVentasEntreFechas(LocalDateTime inicio, LocalDateTime fin) {
-        return ventaRepository.findByTimestampBetween(inicio, fin);
+        return ventaRepository.findByTiendaIdAndTimestampBetween(TiendaContext.actual(), inicio, fin);
     }
 
     /**
-     * calcula el total vendido en el dia actual.
+     * obtiene ventas en un rango de fechas en formato columnar
+     * (ver VentasCompactasDTO). Items y productos se cargan en una sola consulta.
      */
     @Transactional(readOnly = true)
+    public VentasCompactasDTO obtenerVentasCompactasEntreFechas(LocalDateTime inicio, LocalDateTime fin) {
+        return VentasCompactasDTO.desde(
+                ventaRepository.findConItemsByTimestampBetween(TiendaContext.actual(), inicio, fin));
+    }
+
+    /**
+     * calcula el total vendido en el dia actual.
+     * las peticiones simultaneas comparten una sola consulta (ver ConsultasCompartidas);
+     * sin transaccion para que las que esperan no retengan una conexion.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Double calcularTotalVentasDiarias() {
         LocalDateTime inicioDia = LocalDate.now().atStartOfDay();
         LocalDateTime finDia = LocalDate.now().atTime(LocalTime.MAX);
-
-        Double total = ventaRepository.calcularTotalVentasEntreFechas(inicioDia, finDia);
-        return total != null ? total : 0.0;
+        return calcularTotalVentasEntreFechas(inicioDia, finDia);
     }
 
     /**
-     * calcula el total vendido en un rango de fechas
+     * calcula el total vendido en un rango de fechas (consultas simultaneas compartidas)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Double calcularTotalVentasEntreFechas(LocalDateTime inicio, LocalDateTime fin) {
-        Double total = ventaRepository.calcularTotalVentasEntreFechas(inicio, fin);
-        return total != null ? total : 0.0;
+        Long tiendaId = TiendaContext.actual();
+        return consultasCompartidas.ejecutar("ventas.total:" + tiendaId + ":" + inicio + ":" + fin, () -> {
+            Double total = ventaRepository.calcularTotalVentasEntreFechas(tiendaId, inicio, fin);
+            return total != null ? total : 0.0;
+        });
     }
 
     /**
-     * obtiene las ultimas 10 ventas.
+     * obtiene las ultimas 10 ventas, con sus items ya cargados
+     * (el resultado se comparte entre las peticiones simultaneas).
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Venta> obtenerLasUltimasVentas() {
-        return ventaRepository.findTop10ByOrderByTimestampDesc();
+        Long tiendaId = TiendaContext.actual();
+        return consultasCompartidas.ejecutar("ventas.ultimas:" + tiendaId, () -> {
+            List<Long> ids = ventaRepository.findIdsRecientes(tiendaId, PageRequest.of(0, 10));
+            if (ids.isEmpty()) {
+                return List.<Venta>of();
+            }
+            List<Venta> ventas = new ArrayList<>(ventaRepository.findConItemsByIdIn(tiendaId, ids));
+            ventas.sort(Comparator.comparing(Venta::getTimestamp).reversed());
+            return List.copyOf(ventas);
+        });
     }
 
     /**
@@ -155,15 +417,69 @@ public class VentaService {
      */
     @Transactional(readOnly = true)
     public List<Venta> obtenerVentasPorMetodoPago(String metodoPago) {
-        return ventaRepository.findByMetodoPago(metodoPago);
+        return ventaRepository.findByTiendaIdAndMetodoPago(TiendaContext.actual(), metodoPago);
     }
 
     /**
      * calcula estadisticas de ventas por metodo de pago en un rango.
+     * los rangos de mas de un dia se calculan por particiones en paralelo
+     * (ver ReportesParalelos); sin transaccion para no retener una conexion
+     * mientras se espera a los hilos del reporte.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Object[]> calcularVentasPorMetodoPago(LocalDateTime inicio, LocalDateTime fin) {
-        return ventaRepository.calcularVentasPorMetodoPago(inicio, fin);
+        if (Duration.between(inicio, fin).toDays() >= 1) {
+            return reportesParalelos.calcularVentasPorMetodoPago(inicio, fin);
+        }
+        return ventaRepository.calcularVentasPorMetodoPago(TiendaContext.actual(), inicio, fin);
+    }
+
+    /**
+     * calcula el mapa de calor de ventas (dia de la semana x hora) en un rango.
+     * solo devuelve las celdas que tienen ventas.
+     */
+    @Transactional(readOnly = true)
+    public List<VentasPorHoraDTO> calcularVentasPorDiaYHora(LocalDateTime inicio, LocalDateTime fin) {
+        List<VentasPorHoraDTO> celdas = new ArrayList<>();
+        for (Object[] fila : ventaRepository.calcularVentasPorDiaYHora(TiendaContext.actual(), inicio, fin)) {
+            celdas.add(new VentasPorHoraDTO(
+                    ((Number) fila[0]).intValue(),
+                    ((Number) fila[1]).intValue(),
+                    ((Number) fila[2]).longValue(),
+                    ((Number) fila[3]).doubleValue(),
+                    ((Number) fila[4]).longValue(),
+                    ((Number) fila[5]).longValue()
+            ));
+        }
+        return celdas;
+    }
+
+    /**
+     * calcula ventas agrupadas en intervalos de "minutos" minutos dentro de un rango.
+     * solo devuelve los intervalos que tienen ventas.
+     */
+    @Transactional(readOnly = true)
+    public List<VentasPorIntervaloDTO> calcularVentasPorIntervalo(LocalDateTime inicio, LocalDateTime fin, int minutos) {
+        if (minutos <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser mayor a 0 minutos");
+        }
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la de inicio");
+        }
+        long segundos = Duration.ofMinutes(minutos).getSeconds();
+
+        List<VentasPorIntervaloDTO> intervalos = new ArrayList<>();
+        for (Object[] fila : ventaRepository.calcularVentasPorIntervalo(TiendaContext.actual(), inicio, fin, segundos)) {
+            long numero = ((Number) fila[0]).longValue();
+            intervalos.add(new VentasPorIntervaloDTO(
+                    inicio.plusSeconds(numero * segundos),
+                    ((Number) fila[1]).longValue(),
+                    ((Number) fila[2]).doubleValue(),
+                    ((Number) fila[3]).longValue(),
+                    ((Number) fila[4]).longValue()
+            ));
+        }
+        return intervalos;
     }
 
 
@@ -0,0 +1,30 @@
+-- Resumenes diarios de las ventas viejas que borra la retencion (RetencionVentasService).
+-- Las ventas e items anteriores al limite se suman aca y se borran por tandas;
+-- los totales historicos se siguen pudiendo consultar sin las filas originales.
+
+CREATE TABLE ventas_resumen_diario (
+    id                    BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id             BIGINT       NOT NULL,
+    fecha                 DATE         NOT NULL,
+    metodo_pago           VARCHAR(255) NOT NULL,
+    cantidad_ventas       BIGINT       NOT NULL,
+    cantidad_devoluciones BIGINT       NOT NULL,
+    total                 DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ventas_resumen_diario UNIQUE (tienda_id, fecha, metodo_pago),
+    CONSTRAINT fk_ventas_resumen_diario_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE productos_resumen_diario (
+    id          BIGINT NOT NULL AUTO_INCREMENT,
+    tienda_id   BIGINT NOT NULL,
+    fecha       DATE   NOT NULL,
+    producto_id BIGINT NOT NULL,
+    unidades    BIGINT NOT NULL,
+    importe     DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_productos_resumen_diario UNIQUE (tienda_id, fecha, producto_id),
+    -- historico de un producto
+    KEY idx_productos_resumen_diario_producto (tienda_id, producto_id, fecha),
+    CONSTRAINT fk_productos_resumen_diario_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
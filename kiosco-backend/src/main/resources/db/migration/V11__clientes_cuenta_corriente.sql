@@ -0,0 +1,41 @@
+-- Clientes y cuenta corriente (fiado). El saldo de cada cliente se mantiene al
+-- registrar ventas, devoluciones y pagos; los movimientos son el detalle.
+
+CREATE TABLE clientes (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id         BIGINT       NOT NULL,
+    nombre            VARCHAR(255) NOT NULL,
+    documento         VARCHAR(30),
+    telefono          VARCHAR(50),
+    limite_credito    DOUBLE,
+    saldo             DOUBLE       NOT NULL DEFAULT 0,
+    ultimo_movimiento DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_clientes_tienda_nombre UNIQUE (tienda_id, nombre),
+    -- reporte de deudores (saldo > 0, de mayor a menor)
+    KEY idx_clientes_tienda_saldo (tienda_id, saldo),
+    CONSTRAINT fk_clientes_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+-- sin FK a ventas: la retencion borra ventas viejas y el movimiento queda
+CREATE TABLE movimientos_cuenta (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id     BIGINT       NOT NULL,
+    cliente_id    BIGINT       NOT NULL,
+    fecha         DATETIME(6)  NOT NULL,
+    tipo          VARCHAR(20)  NOT NULL,
+    importe       DOUBLE       NOT NULL,
+    saldo         DOUBLE       NOT NULL,
+    venta_id      BIGINT,
+    metodo_pago   VARCHAR(255),
+    observaciones VARCHAR(255),
+    PRIMARY KEY (id),
+    -- resumen de cuenta de un cliente, del mas nuevo al mas viejo
+    KEY idx_movimientos_cuenta_cliente (cliente_id, id),
+    CONSTRAINT fk_movimientos_cuenta_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id)
+) ENGINE = InnoDB;
+
+ALTER TABLE ventas
+    ADD COLUMN cliente_id BIGINT NULL,
+    ADD KEY idx_ventas_cliente (cliente_id),
+    ADD CONSTRAINT fk_ventas_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id);
@@ -0,0 +1,31 @@
+-- Movimientos de stock que no son ventas: altas con stock, ajustes manuales y
+-- recepciones de ordenes de compra. Con esto el stock esperado de un producto es
+--   ajustes - unidades vendidas (venta_items + productos_resumen_diario)
+-- y la auditoria (AuditoriaStockService) lo compara con productos.stock_actual.
+
+CREATE TABLE ajustes_stock (
+    id            BIGINT      NOT NULL AUTO_INCREMENT,
+    tienda_id     BIGINT      NOT NULL,
+    producto_id   BIGINT      NOT NULL,
+    fecha         DATETIME(6) NOT NULL,
+    tipo          VARCHAR(20) NOT NULL,
+    cantidad      INT         NOT NULL,
+    -- orden de compra en las recepciones
+    referencia_id BIGINT,
+    PRIMARY KEY (id),
+    -- sin FK a productos: al eliminar un producto sus ajustes quedan como historial
+    KEY idx_ajustes_stock_producto (tienda_id, producto_id),
+    CONSTRAINT fk_ajustes_stock_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+-- Punto de partida: para los productos que ya existen no hay registro de como se
+-- llego al stock actual, asi que se toma como inicial el stock actual mas todo lo
+-- vendido hasta hoy (el stock esperado queda igual al actual).
+INSERT INTO ajustes_stock (tienda_id, producto_id, fecha, tipo, cantidad)
+SELECT p.tienda_id, p.id, NOW(6), 'INICIAL',
+       p.stock_actual + COALESCE(i.vendido, 0) + COALESCE(r.resumido, 0)
+FROM productos p
+LEFT JOIN (SELECT producto_id, SUM(cantidad) AS vendido
+           FROM venta_items GROUP BY producto_id) i ON i.producto_id = p.id
+LEFT JOIN (SELECT producto_id, SUM(unidades) AS resumido
+           FROM productos_resumen_diario GROUP BY producto_id) r ON r.producto_id = p.id;
@@ -0,0 +1,13 @@
+-- Un solo turno abierto por terminal, garantizado por la base: terminal_abierta
+-- tiene la terminal mientras el turno esta abierto y NULL al cerrarlo (el indice
+-- unico admite varios NULL). Dos aperturas simultaneas ya no crean dos turnos.
+
+ALTER TABLE turnos ADD COLUMN terminal_abierta VARCHAR(50) NULL;
+
+-- si ya hubiera dos abiertos para la misma terminal, se marca solo el ultimo
+UPDATE turnos t
+JOIN (SELECT MAX(id) AS id FROM turnos WHERE estado = 'ABIERTO' GROUP BY tienda_id, terminal) ultimo
+  ON ultimo.id = t.id
+SET t.terminal_abierta = t.terminal;
+
+ALTER TABLE turnos ADD CONSTRAINT uk_turnos_terminal_abierta UNIQUE (tienda_id, terminal_abierta);
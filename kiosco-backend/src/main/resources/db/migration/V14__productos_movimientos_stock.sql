@@ -0,0 +1,4 @@
+-- Contador de movimientos de stock (ventas, devoluciones, ajustes, recepciones y
+-- correcciones). Junto con version ordena las fotos de un producto en los caches.
+
+ALTER TABLE productos ADD COLUMN movimientos_stock BIGINT NOT NULL DEFAULT 0;
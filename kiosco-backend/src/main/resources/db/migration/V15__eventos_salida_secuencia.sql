@@ -0,0 +1,25 @@
+-- Orden del feed de eventos asignado despues del commit (NumeradorEventos).
+-- El id se asigna al insertar y una transaccion todavia abierta puede confirmar un id
+-- menor que otro ya leido; la secuencia solo se da a eventos ya confirmados y siempre
+-- crece, asi un consumidor que avanzo su cursor no se saltea nada.
+
+ALTER TABLE eventos_salida ADD COLUMN secuencia BIGINT NULL AFTER id;
+
+-- los eventos existentes quedan con secuencia = id: los cursores guardados siguen valiendo
+UPDATE eventos_salida SET secuencia = id;
+
+ALTER TABLE eventos_salida
+    ADD CONSTRAINT uk_eventos_salida_secuencia UNIQUE (secuencia),
+    ADD KEY idx_eventos_salida_tienda_secuencia (tienda_id, secuencia);
+
+-- ultima secuencia asignada (una sola fila); se bloquea al numerar
+CREATE TABLE eventos_salida_secuencia (
+    id     TINYINT NOT NULL,
+    ultima BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- arranca despues de todo lo que pudo haber visto un consumidor (aunque la retencion ya lo haya borrado)
+INSERT INTO eventos_salida_secuencia (id, ultima)
+SELECT 1, GREATEST(COALESCE((SELECT MAX(id) FROM eventos_salida), 0),
+                   COALESCE((SELECT MAX(ultimo_evento_id) FROM cursores_eventos), 0));
@@ -0,0 +1,40 @@
+-- Esquema inicial: las tablas que creaba Hibernate con ddl-auto=update.
+-- Se usa IF NOT EXISTS para que una base ya creada por Hibernate pueda
+-- adoptarse con Flyway sin perder datos (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS productos (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    nombre            VARCHAR(255) NOT NULL,
+    codigo_barras     VARCHAR(255),
+    precio_venta      DOUBLE       NOT NULL,
+    precio_costo      DOUBLE       NOT NULL,
+    stock_actual      INT          NOT NULL,
+    stock_minimo      INT          NOT NULL,
+    categoria         VARCHAR(255) NOT NULL,
+    imagen_url        VARCHAR(500),
+    tipo_venta        VARCHAR(20),
+    unidad_medida     VARCHAR(20),
+    incremento_minimo DOUBLE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_productos_nombre UNIQUE (nombre),
+    CONSTRAINT uk_productos_codigo_barras UNIQUE (codigo_barras)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS ventas (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    timestamp   DATETIME(6)  NOT NULL,
+    total_venta DOUBLE       NOT NULL,
+    metodo_pago VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS venta_items (
+    id              BIGINT NOT NULL AUTO_INCREMENT,
+    venta_id        BIGINT NOT NULL,
+    producto_id     BIGINT NOT NULL,
+    cantidad        INT    NOT NULL,
+    precio_unitario DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_venta_items_venta FOREIGN KEY (venta_id) REFERENCES ventas (id),
+    CONSTRAINT fk_venta_items_producto FOREIGN KEY (producto_id) REFERENCES productos (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,85 @@
+-- Tiendas (multi-kiosco), turnos de caja y devoluciones.
+
+CREATE TABLE tiendas (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    nombre    VARCHAR(255) NOT NULL,
+    direccion VARCHAR(200),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_tiendas_nombre UNIQUE (nombre)
+) ENGINE = InnoDB;
+
+-- los datos existentes pasan a la tienda por defecto
+INSERT INTO tiendas (id, nombre) VALUES (1, 'Principal');
+
+-- ===== productos: nombre y codigo de barras pasan a ser unicos por tienda =====
+
+ALTER TABLE productos ADD COLUMN tienda_id BIGINT NOT NULL DEFAULT 1 AFTER id;
+
+-- los indices unicos de una sola columna pueden tener el nombre que les puso
+-- Hibernate, asi que se buscan en information_schema y se borran si existen
+SET @indice := (SELECT s.index_name FROM information_schema.statistics s
+                WHERE s.table_schema = DATABASE() AND s.table_name = 'productos'
+                  AND s.column_name = 'nombre' AND s.non_unique = 0 AND s.seq_in_index = 1
+                  AND (SELECT COUNT(*) FROM information_schema.statistics c
+                       WHERE c.table_schema = s.table_schema AND c.table_name = s.table_name
+                         AND c.index_name = s.index_name) = 1
+                LIMIT 1);
+SET @sentencia := IF(@indice IS NULL, 'DO 0', CONCAT('ALTER TABLE productos DROP INDEX `', @indice, '`'));
+PREPARE borrar_indice FROM @sentencia;
+EXECUTE borrar_indice;
+DEALLOCATE PREPARE borrar_indice;
+
+SET @indice := (SELECT s.index_name FROM information_schema.statistics s
+                WHERE s.table_schema = DATABASE() AND s.table_name = 'productos'
+                  AND s.column_name = 'codigo_barras' AND s.non_unique = 0 AND s.seq_in_index = 1
+                  AND (SELECT COUNT(*) FROM information_schema.statistics c
+                       WHERE c.table_schema = s.table_schema AND c.table_name = s.table_name
+                         AND c.index_name = s.index_name) = 1
+                LIMIT 1);
+SET @sentencia := IF(@indice IS NULL, 'DO 0', CONCAT('ALTER TABLE productos DROP INDEX `', @indice, '`'));
+PREPARE borrar_indice FROM @sentencia;
+EXECUTE borrar_indice;
+DEALLOCATE PREPARE borrar_indice;
+
+ALTER TABLE productos
+    ADD CONSTRAINT uk_productos_tienda_nombre UNIQUE (tienda_id, nombre),
+    ADD CONSTRAINT uk_productos_tienda_codigo_barras UNIQUE (tienda_id, codigo_barras),
+    ADD CONSTRAINT fk_productos_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id);
+
+-- ===== turnos de caja =====
+
+CREATE TABLE turnos (
+    id                    BIGINT      NOT NULL AUTO_INCREMENT,
+    tienda_id             BIGINT      NOT NULL,
+    terminal              VARCHAR(50) NOT NULL,
+    estado                VARCHAR(20) NOT NULL,
+    apertura              DATETIME(6) NOT NULL,
+    cierre                DATETIME(6),
+    monto_inicial         DOUBLE      NOT NULL,
+    cantidad_ventas       INT         NOT NULL,
+    cantidad_items        INT         NOT NULL,
+    total_ventas          DOUBLE      NOT NULL,
+    cantidad_devoluciones INT         NOT NULL,
+    total_devoluciones    DOUBLE      NOT NULL,
+    efectivo_contado      DOUBLE,
+    diferencia            DOUBLE,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_turnos_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE turno_totales_metodo_pago (
+    turno_id    BIGINT       NOT NULL,
+    metodo_pago VARCHAR(255) NOT NULL,
+    total       DOUBLE       NOT NULL,
+    PRIMARY KEY (turno_id, metodo_pago),
+    CONSTRAINT fk_turno_totales_turno FOREIGN KEY (turno_id) REFERENCES turnos (id)
+) ENGINE = InnoDB;
+
+-- ===== ventas: tienda, turno y devoluciones =====
+
+ALTER TABLE ventas
+    ADD COLUMN tienda_id BIGINT NOT NULL DEFAULT 1 AFTER id,
+    ADD COLUMN turno_id BIGINT,
+    ADD COLUMN venta_original_id BIGINT,
+    ADD COLUMN anulada BIT(1) NOT NULL DEFAULT 0,
+    ADD CONSTRAINT fk_ventas_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id);
@@ -0,0 +1,44 @@
+-- Indices para las consultas de VentaRepository, ProductoRepository y TurnoRepository.
+-- Todas las consultas filtran primero por tienda, por eso tienda_id va adelante.
+
+-- ===== ventas =====
+
+-- rangos de fecha: findByTiendaIdAndTimestampBetween, calcularTotalVentasEntreFechas,
+-- countByTiendaIdAndTimestampBetween, calcularVentasPorMetodoPago, mapa de calor,
+-- findTop10ByTiendaIdOrderByTimestampDesc (recorre el indice al reves).
+-- metodo_pago y total_venta al final hacen que los totales se resuelvan solo con el indice.
+CREATE INDEX idx_ventas_tienda_timestamp
+    ON ventas (tienda_id, timestamp, metodo_pago, total_venta);
+
+-- findByTiendaIdAndMetodoPago
+CREATE INDEX idx_ventas_tienda_metodo_pago
+    ON ventas (tienda_id, metodo_pago, timestamp);
+
+-- devoluciones de una venta (sumarCantidadesDevueltas, findByVentaOriginalIdAndTiendaId)
+CREATE INDEX idx_ventas_venta_original ON ventas (venta_original_id);
+
+-- ventas de un turno de caja
+CREATE INDEX idx_ventas_turno ON ventas (turno_id);
+
+-- ===== venta_items =====
+
+-- items de una venta con los datos que usan los totales (mapa de calor, intervalos)
+CREATE INDEX idx_venta_items_venta
+    ON venta_items (venta_id, producto_id, cantidad, precio_unitario);
+
+-- historial de un producto
+CREATE INDEX idx_venta_items_producto ON venta_items (producto_id, venta_id);
+
+-- ===== productos =====
+
+-- findByTiendaIdAndCategoria, countByTiendaIdAndCategoria, findAllCategorias y stock bajo.
+-- stock_actual < stock_minimo compara dos columnas y MySQL no puede usarlo como rango,
+-- pero con ambas en el indice la condicion se evalua dentro del indice
+-- (index condition pushdown) sin leer las filas de la tabla.
+CREATE INDEX idx_productos_tienda_categoria_stock
+    ON productos (tienda_id, categoria, stock_actual, stock_minimo);
+
+-- ===== turnos =====
+
+CREATE INDEX idx_turnos_tienda_terminal_estado ON turnos (tienda_id, terminal, estado);
+CREATE INDEX idx_turnos_tienda_apertura ON turnos (tienda_id, apertura);
@@ -0,0 +1,43 @@
+-- Reglas de precio (promociones) y descuento por item de venta.
+
+CREATE TABLE reglas_precio (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id     BIGINT       NOT NULL,
+    nombre        VARCHAR(255) NOT NULL,
+    tipo          VARCHAR(20)  NOT NULL,
+    activa        BIT(1)       NOT NULL,
+    producto_id   BIGINT,
+    categoria     VARCHAR(100),
+    porcentaje    DOUBLE,
+    llevar        INT,
+    pagar         INT,
+    precio_combo  DOUBLE,
+    vigente_desde DATETIME(6),
+    vigente_hasta DATETIME(6),
+    hora_desde    TIME(6),
+    hora_hasta    TIME(6),
+    PRIMARY KEY (id),
+    KEY idx_reglas_precio_tienda_activa (tienda_id, activa),
+    CONSTRAINT fk_reglas_precio_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+-- productos de cada combo (sin FK a productos: si se borra un producto el combo deja de aplicarse)
+CREATE TABLE regla_precio_combo_items (
+    regla_id    BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    cantidad    INT    NOT NULL,
+    PRIMARY KEY (regla_id, producto_id),
+    CONSTRAINT fk_regla_combo_regla FOREIGN KEY (regla_id) REFERENCES reglas_precio (id)
+) ENGINE = InnoDB;
+
+-- las ventas anteriores no tienen descuento
+ALTER TABLE venta_items
+    ADD COLUMN descuento DOUBLE NOT NULL DEFAULT 0,
+    ADD COLUMN promocion VARCHAR(255);
+
+-- los totales del mapa de calor y por intervalo restan el descuento: se agrega al
+-- indice de items para que sigan resolviendose solo con el indice (ver V3).
+-- se borra y se crea en la misma sentencia porque la FK de venta_id lo necesita
+ALTER TABLE venta_items
+    DROP INDEX idx_venta_items_venta,
+    ADD INDEX idx_venta_items_venta (venta_id, producto_id, cantidad, precio_unitario, descuento);
@@ -0,0 +1,20 @@
+-- Historial de precios de venta y costo por producto (solo se agregan filas).
+
+CREATE TABLE precios_historial (
+    id            BIGINT      NOT NULL AUTO_INCREMENT,
+    tienda_id     BIGINT      NOT NULL,
+    producto_id   BIGINT      NOT NULL,
+    precio_venta  DOUBLE      NOT NULL,
+    precio_costo  DOUBLE      NOT NULL,
+    vigente_desde DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    -- historial de un producto y linea de tiempo de la tienda (ordenada por producto y fecha)
+    KEY idx_precios_historial_tienda_producto (tienda_id, producto_id, vigente_desde),
+    CONSTRAINT fk_precios_historial_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+-- los precios actuales pasan a ser el primer registro de cada producto
+-- (no se sabe desde cuando rigen: se toma como vigente desde siempre)
+INSERT INTO precios_historial (tienda_id, producto_id, precio_venta, precio_costo, vigente_desde)
+SELECT tienda_id, id, precio_venta, precio_costo, '1970-01-01 00:00:00'
+FROM productos;
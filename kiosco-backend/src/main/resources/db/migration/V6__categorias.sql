@@ -0,0 +1,24 @@
+-- Categorias como tabla propia; productos.categoria (texto) se mantiene por compatibilidad.
+
+CREATE TABLE categorias (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id BIGINT       NOT NULL,
+    nombre    VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categorias_tienda_nombre UNIQUE (tienda_id, nombre),
+    CONSTRAINT fk_categorias_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+-- una categoria por cada texto distinto que ya usan los productos de cada tienda
+INSERT INTO categorias (tienda_id, nombre)
+SELECT DISTINCT tienda_id, categoria FROM productos WHERE categoria <> '';
+
+ALTER TABLE productos ADD COLUMN categoria_id BIGINT AFTER categoria;
+
+UPDATE productos p
+JOIN categorias c ON c.tienda_id = p.tienda_id AND c.nombre = p.categoria
+SET p.categoria_id = c.id;
+
+ALTER TABLE productos
+    ADD CONSTRAINT fk_productos_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id),
+    ADD INDEX idx_productos_tienda_categoria_id (tienda_id, categoria_id);
@@ -0,0 +1,41 @@
+-- Proveedores y ordenes de compra (la recepcion suma stock y actualiza costos en un solo paso).
+
+CREATE TABLE proveedores (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id BIGINT       NOT NULL,
+    nombre    VARCHAR(255) NOT NULL,
+    telefono  VARCHAR(50),
+    email     VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_proveedores_tienda_nombre UNIQUE (tienda_id, nombre),
+    CONSTRAINT fk_proveedores_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE ordenes_compra (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    tienda_id       BIGINT       NOT NULL,
+    proveedor_id    BIGINT       NOT NULL,
+    estado          VARCHAR(20)  NOT NULL,
+    fecha_creacion  DATETIME(6)  NOT NULL,
+    fecha_recepcion DATETIME(6),
+    total_costo     DOUBLE       NOT NULL,
+    observaciones   VARCHAR(500),
+    PRIMARY KEY (id),
+    -- listado de ordenes de la tienda (todas o por estado), de la mas nueva a la mas vieja
+    KEY idx_ordenes_compra_tienda_estado_fecha (tienda_id, estado, fecha_creacion),
+    KEY idx_ordenes_compra_tienda_fecha (tienda_id, fecha_creacion),
+    CONSTRAINT fk_ordenes_compra_tienda FOREIGN KEY (tienda_id) REFERENCES tiendas (id),
+    CONSTRAINT fk_ordenes_compra_proveedor FOREIGN KEY (proveedor_id) REFERENCES proveedores (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE orden_compra_items (
+    id                BIGINT NOT NULL AUTO_INCREMENT,
+    orden_id          BIGINT NOT NULL,
+    producto_id       BIGINT NOT NULL,
+    cantidad_pedida   INT    NOT NULL,
+    cantidad_recibida INT    NOT NULL,
+    precio_costo      DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orden_compra_items_orden FOREIGN KEY (orden_id) REFERENCES ordenes_compra (id),
+    CONSTRAINT fk_orden_compra_items_producto FOREIGN KEY (producto_id) REFERENCES productos (id)
+) ENGINE = InnoDB;
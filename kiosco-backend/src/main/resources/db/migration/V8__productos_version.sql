@@ -0,0 +1,3 @@
+-- Version para el control de concurrencia optimista de las ediciones de productos.
+
+ALTER TABLE productos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
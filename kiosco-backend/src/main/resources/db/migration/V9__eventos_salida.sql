@@ -0,0 +1,27 @@
+-- Bandeja de salida de eventos para otros sistemas (contabilidad, tienda web).
+-- Los eventos se escriben en la misma transaccion que la venta o el producto;
+-- el id es el orden del feed y cada consumidor guarda hasta donde leyo.
+
+CREATE TABLE eventos_salida (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    tienda_id  BIGINT      NOT NULL,
+    tipo       VARCHAR(30) NOT NULL,
+    entidad_id BIGINT      NOT NULL,
+    datos      TEXT        NOT NULL,
+    creado     DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    -- feed de una tienda a partir de un id
+    KEY idx_eventos_salida_tienda_id (tienda_id, id),
+    KEY idx_eventos_salida_creado (creado)
+) ENGINE = InnoDB;
+
+-- tienda_id = 0: el consumidor lee los eventos de todas las tiendas (destinos del relay)
+CREATE TABLE cursores_eventos (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    consumidor       VARCHAR(100) NOT NULL,
+    tienda_id        BIGINT       NOT NULL,
+    ultimo_evento_id BIGINT       NOT NULL,
+    actualizado      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cursores_eventos_consumidor_tienda UNIQUE (consumidor, tienda_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,86 @@
+package com.kmanager.kiosco_backend.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captura las sentencias que se preparan en el hilo actual, tal como llegan
+ * al driver JDBC (ya generadas por Hibernate, con los "?" de los parámetros).
+ *
+ * Envuelve el DataSource de la aplicación: cada Connection se reemplaza por un
+ * proxy que anota el SQL de prepareStatement/prepareCall mientras hay una
+ * captura abierta en el hilo (ver capturar). Fuera de una captura no hace nada.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class CapturaSql {
+
+	private static final ThreadLocal<List<String>> sentencias = new ThreadLocal<>();
+
+	/**
+	 * Ejecuta la acción y devuelve las sentencias que preparó este hilo, en orden.
+	 * Las de otros hilos (jobs programados) no se anotan.
+	 */
+	public static List<String> capturar(Runnable accion) {
+		List<String> capturadas = new ArrayList<>();
+		sentencias.set(capturadas);
+		try {
+			accion.run();
+		} finally {
+			sentencias.remove();
+		}
+		return capturadas;
+	}
+
+	@Bean
+	static BeanPostProcessor capturaSqlDataSource() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String nombre) {
+				return bean instanceof DataSource dataSource ? new DataSourceCapturado(dataSource) : bean;
+			}
+		};
+	}
+
+	private static final class DataSourceCapturado extends DelegatingDataSource {
+
+		private DataSourceCapturado(DataSource destino) {
+			super(destino);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return capturada(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String usuario, String clave) throws SQLException {
+			return capturada(super.getConnection(usuario, clave));
+		}
+
+		private static Connection capturada(Connection conexion) {
+			return (Connection) Proxy.newProxyInstance(CapturaSql.class.getClassLoader(),
+					new Class<?>[]{Connection.class}, (proxy, metodo, argumentos) -> {
+						List<String> capturadas = sentencias.get();
+						if (capturadas != null && metodo.getName().startsWith("prepare")
+								&& argumentos != null && argumentos[0] instanceof String sql) {
+							capturadas.add(sql);
+						}
+						try {
+							return metodo.invoke(conexion, argumentos);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						}
+					});
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.kmanager.kiosco_backend.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica con EXPLAIN que las consultas de los repositorios usan los índices
+ * de las migraciones (V3__indices_consultas.sql y siguientes).
+ *
+ * El SQL no se copia a mano: se llama al método del repositorio y se toma la
+ * sentencia que Hibernate le pasó al driver (ver CapturaSql). El EXPLAIN se
+ * hace con los mismos parámetros.
+ *
+ * Corre contra un esquema propio (kmanager_test, o el que diga
+ * kiosco.test.datasource.url), nunca contra la base de la aplicación: Flyway
+ * lo crea y lo migra al arrancar. Con tablas vacías MySQL puede preferir leer
+ * la tabla entera, así que antes se cargan datos en una tienda propia del test
+ * (un año de ventas, productos en 20 categorías,
+ * eventos) y se actualizan las
+ * estadísticas con ANALYZE TABLE. Se controla el índice elegido ("key") y que
+ * no se recorra la tabla ("type"). Al terminar se borra la tienda y todo lo
+ * cargado; las consultas filtran por esa tienda, así que no tocan otras filas.
+ */
+@SpringBootTest(properties = "spring.datasource.url=${kiosco.test.datasource.url:"
+		+ "jdbc:mysql://localhost:3306/kmanager_test?createDatabaseIfNotExist=true&useSSL=false&serverTimezone=UTC}")
+@Import(CapturaSql.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndicesConsultasTests {
+
+	private static final int PRODUCTOS = 400;
+	private static final int CATEGORIAS = 20;
+	private static final int VENTAS = 6000;
+	private static final int EVENTOS = 3000;
+	private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 8, 0);
+	//los accesos que no recorren la tabla ni un indice entero
+	private static final List<String> ACCESOS_SELECTIVOS = List.of("const", "eq_ref", "ref", "range");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private VentaRepository ventaRepository;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private EventoSalidaRepository eventoSalidaRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Long tiendaId;
+	private Long categoriaId;
+	private Long ventaDevueltaId;
+	private long secuenciaMedia;
+
+	@BeforeAll
+	void cargarDatos() {
+		String nombre = "Indices " + System.nanoTime();
+		jdbcTemplate.update("INSERT INTO tiendas (nombre) VALUES (?)", nombre);
+		tiendaId = jdbcTemplate.queryForObject("SELECT id FROM tiendas WHERE nombre = ?", Long.class, nombre);
+
+		List<Object[]> categorias = new ArrayList<>();
+		for (int i = 0; i < CATEGORIAS; i++) {
+			categorias.add(new Object[]{tiendaId, "Categoria " + i});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO categorias (tienda_id, nombre) VALUES (?, ?)", categorias);
+		List<Long> categoriaIds = ids("SELECT id FROM categorias WHERE tienda_id = ? ORDER BY id");
+		categoriaId = categoriaIds.get(3);
+
+		List<Object[]> productos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			int categoria = i % CATEGORIAS;
+			productos.add(new Object[]{tiendaId, "Producto " + i, 100.0, 60.0, i % 50, 5,
+					"Categoria " + categoria, categoriaIds.get(categoria)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO productos (tienda_id, nombre, precio_venta, precio_costo, " +
+				"stock_actual, stock_minimo, categoria, categoria_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", productos);
+		List<Long> productoIds = ids("SELECT id FROM productos WHERE tienda_id = ? ORDER BY id");
+
+		//un año de ventas; "Transferencia" es poco frecuente (1 de cada 100)
+		List<Object[]> ventas = new ArrayList<>();
+		for (int i = 0; i < VENTAS; i++) {
+			String metodo = i % 100 == 0 ? "Transferencia" : i % 3 == 0 ? "Tarjeta" : "Efectivo";
+			ventas.add(new Object[]{tiendaId, INICIO.plusMinutes(i * 87L), 100.0, metodo});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO ventas (tienda_id, timestamp, total_venta, metodo_pago) " +
+				"VALUES (?, ?, ?, ?)", ventas);
+		List<Long> ventaIds = ids("SELECT id FROM ventas WHERE tienda_id = ? ORDER BY id");
+
+		List<Object[]> items = new ArrayList<>();
+		for (int i = 0; i < ventaIds.size(); i++) {
+			items.add(new Object[]{ventaIds.get(i), productoIds.get(i % PRODUCTOS), 1, 100.0});
+		}
+		//devoluciones: una de cada 60 ventas, con el mismo producto que la original
+		ventaDevueltaId = ventaIds.get(60);
+		List<Object[]> devoluciones = new ArrayList<>();
+		for (int i = 0; i < ventaIds.size(); i += 60) {
+			devoluciones.add(new Object[]{tiendaId, INICIO.plusMinutes(i * 87L + 30), -100.0, "Efectivo", ventaIds.get(i)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO ventas (tienda_id, timestamp, total_venta, metodo_pago, venta_original_id) " +
+				"VALUES (?, ?, ?, ?, ?)", devoluciones);
+		List<Long> devolucionIds = ids("SELECT id FROM ventas WHERE tienda_id = ? AND venta_original_id IS NOT NULL ORDER BY id");
+		for (int d = 0; d < devolucionIds.size(); d++) {
+			items.add(new Object[]{devolucionIds.get(d), productoIds.get(d * 60 % PRODUCTOS), -1, 100.0});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO venta_items (venta_id, producto_id, cantidad, precio_unitario) " +
+				"VALUES (?, ?, ?, ?)", items);
+
+		//los eventos llevan su secuencia de un rango reservado en el contador, como hace
+		//NumeradorEventos pero sin numerar eventos pendientes que no son del test
+		long primera = new TransactionTemplate(transactionManager).execute(estado -> {
+			Long ultima = jdbcTemplate.queryForObject(
+					"SELECT ultima FROM eventos_salida_secuencia WHERE id = 1 FOR UPDATE", Long.class);
+			jdbcTemplate.update("UPDATE eventos_salida_secuencia SET ultima = ? WHERE id = 1", ultima + EVENTOS);
+			return ultima + 1;
+		});
+		List<Object[]> eventos = new ArrayList<>();
+		for (int i = 0; i < EVENTOS; i++) {
+			eventos.add(new Object[]{primera + i, tiendaId, "VENTA", ventaIds.get(i), "{}", INICIO.plusMinutes(i * 87L)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO eventos_salida (secuencia, tienda_id, tipo, entidad_id, datos, creado) " +
+				"VALUES (?, ?, ?, ?, ?, ?)", eventos);
+		secuenciaMedia = primera + EVENTOS / 2;
+
+		jdbcTemplate.execute("ANALYZE TABLE ventas, venta_items, productos, eventos_salida");
+	}
+
+	@AfterAll
+	void borrarDatos() {
+		jdbcTemplate.update("DELETE i FROM venta_items i JOIN ventas v ON v.id = i.venta_id WHERE v.tienda_id = ?", tiendaId);
+		jdbcTemplate.update("DELETE FROM ventas WHERE tienda_id = ? AND venta_original_id IS NOT NULL", tiendaId);
+		jdbcTemplate.update("DELETE FROM ventas WHERE tienda_id = ?", tiendaId);
+		jdbcTemplate.update("DELETE FROM productos WHERE tienda_id = ?", tiendaId);
+		jdbcTemplate.update("DELETE FROM categorias WHERE tienda_id = ?", tiendaId);
+		jdbcTemplate.update("DELETE FROM eventos_salida WHERE tienda_id = ?", tiendaId);
+		jdbcTemplate.update("DELETE FROM tiendas WHERE id = ?", tiendaId);
+	}
+
+	@Test
+	void totalEntreFechasUsaIndiceTiendaTimestamp() {
+		LocalDateTime desde = LocalDateTime.of(2024, 3, 1, 0, 0);
+		LocalDateTime hasta = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+		String sql = sqlGenerado(() -> ventaRepository.calcularTotalVentasEntreFechas(tiendaId, desde, hasta));
+
+		assertUsaIndice(sql, "idx_ventas_tienda_timestamp", tiendaId, desde, hasta);
+	}
+
+	@Test
+	void ventasPorMetodoPagoUsaIndiceTiendaTimestamp() {
+		LocalDateTime desde = LocalDateTime.of(2024, 3, 1, 0, 0);
+		LocalDateTime hasta = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+		String sql = sqlGenerado(() -> ventaRepository.calcularVentasPorMetodoPago(tiendaId, desde, hasta));
+
+		assertUsaIndice(sql, "idx_ventas_tienda_timestamp", tiendaId, desde, hasta);
+	}
+
+	@Test
+	void ultimasVentasUsaIndiceTiendaTimestamp() {
+		String sql = sqlGenerado(() -> ventaRepository.findIdsRecientes(tiendaId, PageRequest.of(0, 10)));
+
+		assertUsaIndice(sql, "idx_ventas_tienda_timestamp", tiendaId, 10);
+	}
+
+	@Test
+	void filtroPorMetodoPagoUsaIndice() {
+		String sql = sqlGenerado(() -> ventaRepository.findByTiendaIdAndMetodoPago(tiendaId, "Transferencia"));
+
+		assertUsaIndice(sql, "idx_ventas_tienda_metodo_pago", tiendaId, "Transferencia");
+	}
+
+	@Test
+	void devolucionesDeUnaVentaUsanIndices() {
+		String sql = sqlGenerado(() -> ventaRepository.sumarCantidadesDevueltas(ventaDevueltaId));
+
+		assertUsaIndice(sql, "idx_ventas_venta_original", ventaDevueltaId);
+		assertUsaIndice(sql, "idx_venta_items_venta", ventaDevueltaId);
+	}
+
+	@Test
+	void stockBajoPorCategoriaUsaIndice() {
+		String sql = sqlGenerado(() -> productoRepository.findProductosConStockBajoPorCategoria(tiendaId, categoriaId));
+
+		//la FK de categoria_id tiene su propio indice (categoria_id), igual de selectivo:
+		//cualquiera de los dos evita recorrer los productos de la tienda
+		List<Map<String, Object>> plan = explain(sql, tiendaId, categoriaId);
+		assertThat(plan).as("plan de: %s", sql).singleElement().satisfies(fila -> {
+			assertThat(String.valueOf(fila.get("key"))).isIn("idx_productos_tienda_categoria_id", "fk_productos_categoria");
+			assertThat(String.valueOf(fila.get("type"))).isIn(ACCESOS_SELECTIVOS);
+		});
+	}
+
+	@Test
+	void feedDeEventosUsaIndiceTiendaSecuencia() {
+		String sql = sqlGenerado(() -> eventoSalidaRepository.findSiguientes(tiendaId, secuenciaMedia, PageRequest.of(0, 500)));
+
+		assertUsaIndice(sql, "idx_eventos_salida_tienda_secuencia", tiendaId, secuenciaMedia, 500);
+	}
+
+	/**
+	 * Ejecuta la consulta y devuelve el primer SELECT que preparó.
+	 */
+	private String sqlGenerado(Runnable consulta) {
+		List<String> sentencias = CapturaSql.capturar(consulta);
+		return sentencias.stream()
+				.filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("la consulta no preparó ningún SELECT: " + sentencias));
+	}
+
+	private void assertUsaIndice(String sql, String indice, Object... parametros) {
+		assertThat(explain(sql, parametros))
+				.as("plan de: %s", sql)
+				.anySatisfy(fila -> {
+					assertThat(fila.get("key")).isEqualTo(indice);
+					assertThat(String.valueOf(fila.get("type"))).isIn(ACCESOS_SELECTIVOS);
+				})
+				.noneSatisfy(fila -> assertThat(fila.get("type")).isEqualTo("ALL"));
+	}
+
+	private List<Map<String, Object>> explain(String sql, Object... parametros) {
+		return jdbcTemplate.queryForList("EXPLAIN " + sql, parametros);
+	}
+
+	private List<Long> ids(String sql) {
+		return jdbcTemplate.queryForList(sql, Long.class, tiendaId);
+	}
+}
@@ -0,0 +1,128 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.DiscrepanciaStockDTO;
+import com.kmanager.kiosco_backend.dto.EstadoAuditoriaStockDTO;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.AjusteStockRepository;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Auditoría de stock contra repositorios simulados. Cada fila de compararStock:
+ * [productoId, nombre, stockActual, ajustes, vendido, vendido ya resumido].
+ */
+class AuditoriaStockServiceTests {
+
+	private static final Long TIENDA = 1L;
+
+	private final ProductoRepository productoRepository = mock(ProductoRepository.class);
+	private final AjusteStockRepository ajusteStockRepository = mock(AjusteStockRepository.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final AuditoriaStockService auditoria = new AuditoriaStockService(productoRepository,
+			ajusteStockRepository, eventPublisher, mock(PlatformTransactionManager.class));
+
+	@Test
+	void soloInformaLosProductosQueNoCoinciden() {
+		conFilas(fila(1L, 10, 15, 3, 2), fila(2L, 8, 20, 10, 0));
+
+		EstadoAuditoriaStockDTO estado = auditoria.ejecutar(List.of(TIENDA), false);
+
+		assertThat(estado.getProductosRevisados()).isEqualTo(2);
+		assertThat(estado.getTiendas()).isEqualTo(1);
+		assertThat(estado.isEnCurso()).isFalse();
+		assertThat(estado.getDiscrepancias()).singleElement().satisfies(discrepancia -> {
+			assertThat(discrepancia.getProductoId()).isEqualTo(2L);
+			assertThat(discrepancia.getStockEsperado()).isEqualTo(10);
+			assertThat(discrepancia.getDiferencia()).isEqualTo(-2);
+			assertThat(discrepancia.isCorregido()).isFalse();
+		});
+		verify(productoRepository, never()).saveAll(any());
+	}
+
+	@Test
+	void alCorregirRecalculaConLosProductosBloqueados() {
+		conFilas(fila(2L, 8, 20, 10, 0));
+		Producto producto = producto(2L, 7);
+		when(productoRepository.findAllParaActualizarStock(eq(TIENDA), any())).thenReturn(List.of(producto));
+		//entre la revision y la correccion se vendio una unidad
+		when(ajusteStockRepository.compararStock(eq(TIENDA), any())).thenReturn(List.<Object[]>of(fila(2L, 7, 20, 11, 0)));
+
+		EstadoAuditoriaStockDTO estado = auditoria.ejecutar(List.of(TIENDA), true);
+
+		assertThat(producto.getStockActual()).isEqualTo(9);
+		assertThat(producto.getMovimientosStock()).isEqualTo(1L);
+		assertThat(estado.getCorregidos()).isEqualTo(1);
+		DiscrepanciaStockDTO reportada = estado.getDiscrepancias().get(0);
+		assertThat(reportada.getStockEsperado()).isEqualTo(9);
+		assertThat(reportada.isCorregido()).isTrue();
+		ArgumentCaptor<ProductosModificadosEvent> evento = ArgumentCaptor.forClass(ProductosModificadosEvent.class);
+		verify(eventPublisher).publishEvent(evento.capture());
+		assertThat(evento.getValue().getCambios()).singleElement().satisfies(cambio -> {
+			assertThat(cambio.getAntes().getStockActual()).isEqualTo(7);
+			assertThat(cambio.getDespues().getStockActual()).isEqualTo(9);
+		});
+	}
+
+	@Test
+	void conEsperadoNegativoNoCorrige() {
+		conFilas(fila(3L, 4, 0, 5, 0));
+		when(productoRepository.findAllParaActualizarStock(eq(TIENDA), any())).thenReturn(List.of(producto(3L, 4)));
+		when(ajusteStockRepository.compararStock(eq(TIENDA), any())).thenReturn(List.<Object[]>of(fila(3L, 4, 0, 5, 0)));
+
+		EstadoAuditoriaStockDTO estado = auditoria.ejecutar(List.of(TIENDA), true);
+
+		assertThat(estado.getCorregidos()).isZero();
+		assertThat(estado.getDiscrepancias()).singleElement()
+				.satisfies(discrepancia -> assertThat(discrepancia.getStockEsperado()).isEqualTo(-5));
+		verify(productoRepository, never()).saveAll(any());
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+
+	@Test
+	void unErrorQuedaEnElEstadoYSePuedeVolverAEjecutar() {
+		when(ajusteStockRepository.compararStock(TIENDA)).thenThrow(new IllegalStateException("sin conexion"));
+
+		EstadoAuditoriaStockDTO fallida = auditoria.ejecutar(List.of(TIENDA), false);
+		assertThat(fallida.getError()).isEqualTo("sin conexion");
+		assertThat(fallida.getFin()).isNotNull();
+
+		conFilas(fila(1L, 10, 10, 0, 0));
+		EstadoAuditoriaStockDTO siguiente = auditoria.ejecutar(List.of(TIENDA), false);
+		assertThat(siguiente.getError()).isNull();
+		assertThat(siguiente.getDiscrepancias()).isEmpty();
+	}
+
+	private void conFilas(Object[]... filas) {
+		//el stream se consume una vez: uno nuevo por llamada (doAnswer: puede haber un thenThrow anterior)
+		doAnswer(invocacion -> Stream.of(filas)).when(ajusteStockRepository).compararStock(TIENDA);
+	}
+
+	private static Object[] fila(Long productoId, long stockActual, long ajustes, long vendido, long resumido) {
+		return new Object[]{productoId, "Producto " + productoId, stockActual, ajustes, vendido, resumido};
+	}
+
+	private static Producto producto(Long id, int stock) {
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setTiendaId(TIENDA);
+		producto.setNombre("Producto " + id);
+		producto.setStockActual(stock);
+		return producto;
+	}
+}
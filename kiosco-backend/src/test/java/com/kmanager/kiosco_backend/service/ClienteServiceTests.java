@@ -0,0 +1,120 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.entity.Cliente;
+import com.kmanager.kiosco_backend.entity.MovimientoCuenta;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import com.kmanager.kiosco_backend.repository.ClienteRepository;
+import com.kmanager.kiosco_backend.repository.MovimientoCuentaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cuenta corriente de ClienteService contra repositorios simulados
+ * (cliente 7 de la tienda 1, debe 800 con límite de 1000).
+ */
+class ClienteServiceTests {
+
+	private static final Long TIENDA = 1L;
+	private static final Long CLIENTE = 7L;
+
+	private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+	private final MovimientoCuentaRepository movimientoCuentaRepository = mock(MovimientoCuentaRepository.class);
+	private final ClienteService servicio = new ClienteService(clienteRepository, movimientoCuentaRepository);
+
+	private Cliente cliente;
+
+	@BeforeEach
+	void crear() {
+		TiendaContext.establecer(TIENDA);
+		cliente = new Cliente();
+		cliente.setId(CLIENTE);
+		cliente.setTiendaId(TIENDA);
+		cliente.setNombre("Juan");
+		cliente.setSaldo(800.0);
+		cliente.setLimiteCredito(1000.0);
+		when(clienteRepository.findByIdAndTiendaId(CLIENTE, TIENDA)).thenReturn(Optional.of(cliente));
+		when(clienteRepository.findForUpdateByIdAndTiendaId(CLIENTE, TIENDA)).thenReturn(Optional.of(cliente));
+		when(movimientoCuentaRepository.save(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+	}
+
+	@AfterEach
+	void limpiar() {
+		TiendaContext.limpiar();
+	}
+
+	@Test
+	void clienteInexistenteODeOtraTiendaEsNoEncontrado() {
+		assertThatThrownBy(() -> servicio.obtenerPorId(99L))
+				.isInstanceOf(RecursoNoEncontradoException.class);
+		assertThatThrownBy(() -> servicio.registrarPago(99L, 100.0, "Efectivo", null))
+				.isInstanceOf(RecursoNoEncontradoException.class);
+		assertThatThrownBy(() -> servicio.obtenerMovimientos(99L, null, null))
+				.isInstanceOf(RecursoNoEncontradoException.class);
+	}
+
+	@Test
+	void laVentaQueSuperaElLimiteSeRechaza() {
+		assertThatThrownBy(() -> servicio.registrarVenta(venta(250.0)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("límite de crédito");
+
+		assertThat(cliente.getSaldo()).isEqualTo(800.0);
+		verify(movimientoCuentaRepository, never()).save(any());
+	}
+
+	@Test
+	void laVentaSumaALaDeudaYQuedaElMovimiento() {
+		servicio.registrarVenta(venta(150.25));
+
+		ArgumentCaptor<MovimientoCuenta> movimiento = ArgumentCaptor.forClass(MovimientoCuenta.class);
+		verify(movimientoCuentaRepository).save(movimiento.capture());
+		assertThat(cliente.getSaldo()).isEqualTo(950.25);
+		assertThat(movimiento.getValue().getTipo()).isEqualTo(MovimientoCuenta.VENTA);
+		assertThat(movimiento.getValue().getSaldo()).isEqualTo(950.25);
+		assertThat(movimiento.getValue().getVentaId()).isEqualTo(15L);
+	}
+
+	@Test
+	void laDevolucionSeAceptaAunqueElClienteEsteSobreElLimite() {
+		cliente.setSaldo(1200.0);
+		Venta devolucion = venta(-300.0);
+		devolucion.setVentaOriginalId(14L);
+
+		servicio.registrarVenta(devolucion);
+
+		assertThat(cliente.getSaldo()).isEqualTo(900.0);
+	}
+
+	@Test
+	void elPagoDescuentaYPuedeDejarSaldoAFavor() {
+		MovimientoCuenta pago = servicio.registrarPago(CLIENTE, 1000.0, "Efectivo", "pago total");
+
+		assertThat(pago.getTipo()).isEqualTo(MovimientoCuenta.PAGO);
+		assertThat(pago.getImporte()).isEqualTo(-1000.0);
+		assertThat(cliente.getSaldo()).isEqualTo(-200.0);
+		assertThatThrownBy(() -> servicio.registrarPago(CLIENTE, 10.0, ClienteService.CUENTA_CORRIENTE, null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static Venta venta(double total) {
+		Venta venta = new Venta(TIENDA, ClienteService.CUENTA_CORRIENTE);
+		venta.setId(15L);
+		venta.setClienteId(CLIENTE);
+		venta.setTotalVenta(total);
+		return venta;
+	}
+}
@@ -0,0 +1,58 @@
+package com.kmanager.kiosco_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Resultados compartidos de ConsultasCompartidas con ttl de 50 ms.
+ */
+class ConsultasCompartidasTests {
+
+	private final ConsultasCompartidas consultas = new ConsultasCompartidas(50);
+	private final AtomicInteger ejecutadas = new AtomicInteger();
+
+	@Test
+	void dentroDelTtlReutilizaElResultado() {
+		assertThat(consultas.ejecutar("1|total", this::contar)).isEqualTo(1);
+		assertThat(consultas.ejecutar("1|total", this::contar)).isEqualTo(1);
+		assertThat(ejecutadas).hasValue(1);
+	}
+
+	@Test
+	void vencidoSeVuelveAConsultar() throws InterruptedException {
+		consultas.ejecutar("1|total", this::contar);
+		Thread.sleep(120);
+
+		assertThat(consultas.ejecutar("1|total", this::contar)).isEqualTo(2);
+	}
+
+	@Test
+	void lasClavesVencidasSeBarrenAlAgregarOtra() throws InterruptedException {
+		consultas.ejecutar("1|total|2025-06-01", this::contar);
+		consultas.ejecutar("1|total|2025-06-02", this::contar);
+		assertThat(consultas.tamanio()).isEqualTo(2);
+		Thread.sleep(120);
+
+		consultas.ejecutar("1|total|2025-06-03", this::contar);
+
+		assertThat(consultas.tamanio()).isEqualTo(1);
+	}
+
+	@Test
+	void losErroresNoSeGuardan() {
+		assertThatThrownBy(() -> consultas.ejecutar("1|stock", () -> {
+			throw new IllegalStateException("sin conexion");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(consultas.tamanio()).isZero();
+		assertThat(consultas.ejecutar("1|stock", this::contar)).isEqualTo(1);
+	}
+
+	private Integer contar() {
+		return ejecutadas.incrementAndGet();
+	}
+}
@@ -0,0 +1,132 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kmanager.kiosco_backend.dto.FeedEventosDTO;
+import com.kmanager.kiosco_backend.entity.CursorEventos;
+import com.kmanager.kiosco_backend.entity.EventoSalida;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ProductosModificadosEvent;
+import com.kmanager.kiosco_backend.repository.CursorEventosRepository;
+import com.kmanager.kiosco_backend.repository.EventoSalidaRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Numeración, feed y cursores de la bandeja de salida contra repositorios simulados.
+ */
+class EventosSalidaServiceTests {
+
+	private static final Long TIENDA = 1L;
+
+	private final EventoSalidaRepository eventoSalidaRepository = mock(EventoSalidaRepository.class);
+	private final CursorEventosRepository cursorEventosRepository = mock(CursorEventosRepository.class);
+	private final EventosSalidaService servicio =
+			new EventosSalidaService(eventoSalidaRepository, cursorEventosRepository, new ObjectMapper());
+
+	@Test
+	void numeraLosPendientesAContinuacionDeLaUltimaSecuencia() {
+		//el 8 se confirmo despues que el 9 y el 10: igual recibe una secuencia mayor a las ya leidas
+		when(eventoSalidaRepository.bloquearUltimaSecuencia()).thenReturn(107L);
+		when(eventoSalidaRepository.findIdsSinSecuencia(500)).thenReturn(List.of(8L, 11L));
+
+		assertThat(servicio.numerarPendientes(500)).isEqualTo(2);
+
+		verify(eventoSalidaRepository).asignarSecuencia(8L, 108L);
+		verify(eventoSalidaRepository).asignarSecuencia(11L, 109L);
+		verify(eventoSalidaRepository).guardarUltimaSecuencia(109L);
+	}
+
+	@Test
+	void sinPendientesNoTocaElContador() {
+		when(eventoSalidaRepository.bloquearUltimaSecuencia()).thenReturn(107L);
+		when(eventoSalidaRepository.findIdsSinSecuencia(500)).thenReturn(List.of());
+
+		assertThat(servicio.numerarPendientes(500)).isZero();
+
+		verify(eventoSalidaRepository, never()).guardarUltimaSecuencia(anyLong());
+	}
+
+	@Test
+	void elFeedAvanzaPorSecuenciaYNoPorId() {
+		when(eventoSalidaRepository.findSiguientes(eq(TIENDA), eq(100L), any()))
+				.thenReturn(List.of(evento(11L, 101L), evento(8L, 102L)));
+
+		FeedEventosDTO pagina = servicio.obtenerFeed(TIENDA, 100L, 2);
+
+		assertThat(pagina.getUltimoId()).isEqualTo(102L);
+		assertThat(pagina.isHayMas()).isTrue();
+	}
+
+	@Test
+	void elFeedVacioDevuelveElMismoDesde() {
+		when(eventoSalidaRepository.findSiguientesTodas(eq(100L), any())).thenReturn(List.of());
+
+		FeedEventosDTO pagina = servicio.obtenerFeedTodas(100L, 500);
+
+		assertThat(pagina.getUltimoId()).isEqualTo(100L);
+		assertThat(pagina.isHayMas()).isFalse();
+	}
+
+	@Test
+	void elCursorNoRetrocede() {
+		CursorEventos cursor = new CursorEventos("contabilidad", TIENDA);
+		cursor.setUltimoEventoId(50L);
+		when(cursorEventosRepository.findByConsumidorAndTiendaId("contabilidad", TIENDA))
+				.thenReturn(Optional.of(cursor));
+
+		assertThat(servicio.confirmar("contabilidad", TIENDA, 40L)).isEqualTo(50L);
+		verify(cursorEventosRepository, never()).save(any());
+
+		assertThat(servicio.confirmar("contabilidad", TIENDA, 60L)).isEqualTo(60L);
+		verify(cursorEventosRepository).save(cursor);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void soloStockGeneraEventoStockYSinCambiosNoGeneraNada() {
+		Producto antes = producto(10);
+		Producto vendido = antes.copia();
+		vendido.setStockActual(7);
+
+		servicio.alModificarProductos(new ProductosModificadosEvent(TIENDA, List.of(
+				new ProductosModificadosEvent.Cambio(antes, vendido),
+				new ProductosModificadosEvent.Cambio(antes, antes.copia()))));
+
+		ArgumentCaptor<List<EventoSalida>> guardados = ArgumentCaptor.forClass(List.class);
+		verify(eventoSalidaRepository).saveAll(guardados.capture());
+		assertThat(guardados.getValue()).singleElement().satisfies(evento -> {
+			assertThat(evento.getTipo()).isEqualTo(EventoSalida.STOCK);
+			assertThat(evento.getSecuencia()).isNull();
+			assertThat(evento.getDatos()).contains("\"diferencia\":-3");
+		});
+	}
+
+	private static EventoSalida evento(Long id, Long secuencia) {
+		EventoSalida evento = new EventoSalida(TIENDA, EventoSalida.VENTA, id, "{}");
+		evento.setId(id);
+		evento.setSecuencia(secuencia);
+		return evento;
+	}
+
+	private static Producto producto(int stock) {
+		Producto producto = new Producto();
+		producto.setId(3L);
+		producto.setTiendaId(TIENDA);
+		producto.setNombre("Alfajor");
+		producto.setStockActual(stock);
+		producto.setVersion(1L);
+		return producto;
+	}
+}
@@ -0,0 +1,145 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.ReglaPrecio;
+import com.kmanager.kiosco_backend.repository.ReglaPrecioRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Descuentos que calcula MotorPrecios sobre carritos armados en memoria
+ * (las reglas vienen de un repositorio simulado).
+ */
+class MotorPreciosTests {
+
+	private static final Long TIENDA = 1L;
+	private static final LocalDateTime MEDIODIA = LocalDateTime.of(2025, 6, 10, 12, 0);
+
+	private final ReglaPrecioRepository reglaPrecioRepository = mock(ReglaPrecioRepository.class);
+	private final MotorPrecios motor = new MotorPrecios(reglaPrecioRepository);
+
+	@Test
+	void porcentajeSobreProducto() {
+		conReglas(porcentaje("10% gaseosa", 1L, null, 10));
+		MotorPrecios.Linea linea = new MotorPrecios.Linea(producto(1L, "Bebidas", 100), 2);
+
+		motor.aplicar(TIENDA, List.of(linea), MEDIODIA);
+
+		assertThat(linea.getDescuento()).isEqualTo(20.0);
+		assertThat(linea.getPromocion()).isEqualTo("10% gaseosa");
+	}
+
+	@Test
+	void nxmSoloCuentaGruposCompletos() {
+		ReglaPrecio tresPorDos = regla("3x2", ReglaPrecio.NXM);
+		tresPorDos.setProductoId(1L);
+		tresPorDos.setLlevar(3);
+		tresPorDos.setPagar(2);
+		conReglas(tresPorDos);
+		MotorPrecios.Linea linea = new MotorPrecios.Linea(producto(1L, "Bebidas", 50), 7);
+
+		motor.aplicar(TIENDA, List.of(linea), MEDIODIA);
+
+		//7 unidades: dos grupos de 3, se regala una por grupo
+		assertThat(linea.getDescuento()).isEqualTo(100.0);
+	}
+
+	@Test
+	void seAplicaLaMejorReglaSinAcumular() {
+		conReglas(porcentaje("10% producto", 1L, null, 10), porcentaje("25% bebidas", null, "Bebidas", 25));
+		MotorPrecios.Linea linea = new MotorPrecios.Linea(producto(1L, "Bebidas", 100), 1);
+
+		motor.aplicar(TIENDA, List.of(linea), MEDIODIA);
+
+		assertThat(linea.getDescuento()).isEqualTo(25.0);
+		assertThat(linea.getPromocion()).isEqualTo("25% bebidas");
+	}
+
+	@Test
+	void comboConsumeUnidadesYElRestoUsaLaReglaDeProducto() {
+		ReglaPrecio combo = regla("Combo desayuno", ReglaPrecio.COMBO);
+		combo.setProductosCombo(Map.of(1L, 1, 2L, 1));
+		combo.setPrecioCombo(150.0);
+		conReglas(combo, porcentaje("10% cafe", 1L, null, 10));
+		MotorPrecios.Linea cafe = new MotorPrecios.Linea(producto(1L, "Cafeteria", 100), 2);
+		MotorPrecios.Linea medialuna = new MotorPrecios.Linea(producto(2L, "Panaderia", 100), 1);
+
+		motor.aplicar(TIENDA, List.of(cafe, medialuna), MEDIODIA);
+
+		//el combo ahorra 50, repartido por importe (25 y 25); el segundo cafe lleva el 10%
+		assertThat(cafe.getDescuento()).isEqualTo(35.0);
+		assertThat(cafe.getPromocion()).isEqualTo("Combo desayuno, 10% cafe");
+		assertThat(medialuna.getDescuento()).isEqualTo(25.0);
+	}
+
+	@Test
+	void franjaHorariaQueCruzaLaMedianoche() {
+		ReglaPrecio nocturna = porcentaje("Happy hour", 1L, null, 20);
+		nocturna.setHoraDesde(LocalTime.of(22, 0));
+		nocturna.setHoraHasta(LocalTime.of(2, 0));
+		conReglas(nocturna);
+
+		MotorPrecios.Linea deNoche = new MotorPrecios.Linea(producto(1L, "Bebidas", 100), 1);
+		motor.aplicar(TIENDA, List.of(deNoche), MEDIODIA.withHour(1));
+		MotorPrecios.Linea deDia = new MotorPrecios.Linea(producto(1L, "Bebidas", 100), 1);
+		motor.aplicar(TIENDA, List.of(deDia), MEDIODIA);
+
+		assertThat(deNoche.getDescuento()).isEqualTo(20.0);
+		assertThat(deDia.getDescuento()).isZero();
+		assertThat(deDia.getPromocion()).isNull();
+	}
+
+	@Test
+	void recargarTomaLasReglasNuevas() {
+		conReglas();
+		MotorPrecios.Linea antes = new MotorPrecios.Linea(producto(1L, "Bebidas", 100), 1);
+		motor.aplicar(TIENDA, List.of(antes), MEDIODIA);
+
+		conReglas(porcentaje("10% gaseosa", 1L, null, 10));
+		assertThat(motor.recargar(TIENDA)).isEqualTo(1);
+		MotorPrecios.Linea despues = new MotorPrecios.Linea(producto(1L, "Bebidas", 100), 1);
+		motor.aplicar(TIENDA, List.of(despues), MEDIODIA);
+
+		assertThat(antes.getDescuento()).isZero();
+		assertThat(despues.getDescuento()).isEqualTo(10.0);
+	}
+
+	private void conReglas(ReglaPrecio... reglas) {
+		when(reglaPrecioRepository.findByTiendaIdAndActivaTrue(TIENDA)).thenReturn(List.of(reglas));
+	}
+
+	private static ReglaPrecio regla(String nombre, String tipo) {
+		ReglaPrecio regla = new ReglaPrecio();
+		regla.setTiendaId(TIENDA);
+		regla.setNombre(nombre);
+		regla.setTipo(tipo);
+		return regla;
+	}
+
+	private static ReglaPrecio porcentaje(String nombre, Long productoId, String categoria, double porcentaje) {
+		ReglaPrecio regla = regla(nombre, ReglaPrecio.PORCENTAJE);
+		regla.setProductoId(productoId);
+		regla.setCategoria(categoria);
+		regla.setPorcentaje(porcentaje);
+		return regla;
+	}
+
+	private static Producto producto(Long id, String categoria, double precio) {
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setTiendaId(TIENDA);
+		producto.setNombre("Producto " + id);
+		producto.setCategoria(categoria);
+		producto.setPrecioVenta(precio);
+		producto.setPrecioCosto(precio / 2);
+		return producto;
+	}
+}
@@ -0,0 +1,110 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.ResumenVentasDTO;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache de particiones cerradas y timeout de ReportesParalelos: cada día del
+ * rango tiene 2 ventas por 100 en efectivo (repositorio simulado).
+ */
+class ReportesParalelosTests {
+
+	private static final Long TIENDA = 1L;
+	private static final LocalDateTime PRIMERO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+	private final VentaRepository ventaRepository = mock(VentaRepository.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private ReportesParalelos reportes;
+
+	@BeforeEach
+	void crear() {
+		when(ventaRepository.resumirTramo(eq(TIENDA), any(), any()))
+				.thenReturn(List.<Object[]>of(new Object[]{"Efectivo", 2L, 100.0, 3L}));
+		reportes = new ReportesParalelos(ventaRepository, transactionManager, 2, 100, 5, 10);
+	}
+
+	@AfterEach
+	void cerrar() {
+		reportes.cerrar();
+	}
+
+	@Test
+	void losDiasCerradosSeLeenDeLaCache() {
+		//del 1 al 3 de enero; el 3 queda recortado (termina 23:59:59) y no se guarda
+		ResumenVentasDTO primero = tresDias();
+		ResumenVentasDTO segundo = tresDias();
+
+		assertThat(primero.getParticionesDesdeCache()).isZero();
+		assertThat(segundo.getParticionesDesdeCache()).isEqualTo(2);
+		assertThat(segundo.getTotalVendido()).isEqualTo(300.0);
+		assertThat(segundo.getCantidadVentas()).isEqualTo(6);
+	}
+
+	@Test
+	void laRetencionDescartaLasParticionesAnterioresAlLimite() {
+		tresDias();
+
+		assertThat(reportes.descartarAnterioresA(PRIMERO.plusDays(1))).isEqualTo(1);
+
+		//el 1 de enero se vuelve a consultar (ya sin las ventas borradas) y el 2 sigue en cache
+		when(ventaRepository.resumirTramo(TIENDA, PRIMERO, PRIMERO.plusDays(1))).thenReturn(List.of());
+		ResumenVentasDTO despues = tresDias();
+		assertThat(despues.getParticionesDesdeCache()).isEqualTo(1);
+		assertThat(despues.getTotalVendido()).isEqualTo(200.0);
+	}
+
+	@Test
+	void cadaParticionConsultaConElTiempoQueLeQuedaAlReporte() {
+		tresDias();
+
+		ArgumentCaptor<TransactionDefinition> definiciones = ArgumentCaptor.forClass(TransactionDefinition.class);
+		verify(transactionManager, atLeastOnce()).getTransaction(definiciones.capture());
+		assertThat(definiciones.getAllValues()).allSatisfy(definicion -> {
+			assertThat(definicion.isReadOnly()).isTrue();
+			assertThat(definicion.getTimeout()).isBetween(1, 10);
+		});
+	}
+
+	@Test
+	void alVencerSeInterrumpenLasParticionesEnCurso() throws InterruptedException {
+		reportes.cerrar();
+		reportes = new ReportesParalelos(ventaRepository, transactionManager, 2, 100, 5, 1);
+		CountDownLatch interrumpida = new CountDownLatch(1);
+		when(ventaRepository.resumirTramo(eq(TIENDA), any(), any())).thenAnswer(invocacion -> {
+			try {
+				Thread.sleep(30_000);
+			} catch (InterruptedException e) {
+				interrumpida.countDown();
+			}
+			return List.of();
+		});
+
+		assertThatThrownBy(this::tresDias).hasMessageContaining("tardó más de 1 segundos");
+		assertThat(interrumpida.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private ResumenVentasDTO tresDias() {
+		return reportes.resumirVentas(TIENDA, PRIMERO, PRIMERO.plusDays(2).withHour(23).withMinute(59).withSecond(59),
+				ReportesParalelos.DIA);
+	}
+}
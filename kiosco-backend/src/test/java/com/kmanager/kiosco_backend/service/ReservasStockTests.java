@@ -0,0 +1,123 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.ReservaStockDTO;
+import com.kmanager.kiosco_backend.dto.StockDisponibleDTO;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.event.ReservaConsumidaEvent;
+import com.kmanager.kiosco_backend.exception.RecursoNoEncontradoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reservas de stock en memoria contra un catálogo simulado
+ * (producto 1 con 10 unidades en la tienda 1).
+ */
+class ReservasStockTests {
+
+	private static final Long TIENDA = 1L;
+	private static final Long PRODUCTO = 1L;
+
+	private final CatalogoCache catalogoCache = mock(CatalogoCache.class);
+	private ReservasStock reservas;
+
+	@BeforeEach
+	void crear() {
+		Producto producto = new Producto();
+		producto.setId(PRODUCTO);
+		producto.setTiendaId(TIENDA);
+		producto.setNombre("Alfajor");
+		producto.setStockActual(10);
+		when(catalogoCache.obtenerPorId(TIENDA, PRODUCTO)).thenReturn(Optional.of(producto));
+		reservas = new ReservasStock(catalogoCache, 1);
+	}
+
+	@AfterEach
+	void detener() {
+		reservas.detener();
+	}
+
+	@Test
+	void otraCajaNoPuedeTomarLoReservado() {
+		reservas.crear(TIENDA, "CAJA-1", Map.of(PRODUCTO, 7));
+
+		assertThatThrownBy(() -> reservas.crear(TIENDA, "CAJA-2", Map.of(PRODUCTO, 4)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Stock insuficiente");
+		assertThat(disponible()).isEqualTo(3);
+	}
+
+	@Test
+	void actualizarSoloTomaLaDiferenciaYSiFallaNoCambiaNada() {
+		ReservaStockDTO reserva = reservas.crear(TIENDA, "CAJA-1", Map.of(PRODUCTO, 4));
+
+		reservas.actualizar(TIENDA, reserva.getId(), Map.of(PRODUCTO, 9));
+		assertThat(disponible()).isEqualTo(1);
+
+		assertThatThrownBy(() -> reservas.actualizar(TIENDA, reserva.getId(), Map.of(PRODUCTO, 11)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(disponible()).isEqualTo(1);
+
+		reservas.actualizar(TIENDA, reserva.getId(), Map.of(PRODUCTO, 2));
+		assertThat(disponible()).isEqualTo(8);
+	}
+
+	@Test
+	void liberarDevuelveElStockYLaReservaDejaDeExistir() {
+		ReservaStockDTO reserva = reservas.crear(TIENDA, "CAJA-1", Map.of(PRODUCTO, 5));
+
+		reservas.liberar(TIENDA, reserva.getId());
+
+		assertThat(disponible()).isEqualTo(10);
+		assertThatThrownBy(() -> reservas.liberar(TIENDA, reserva.getId()))
+				.isInstanceOf(RecursoNoEncontradoException.class);
+	}
+
+	@Test
+	void otraTiendaNoVeLaReserva() {
+		ReservaStockDTO reserva = reservas.crear(TIENDA, "CAJA-1", Map.of(PRODUCTO, 1));
+
+		assertThatThrownBy(() -> reservas.actualizar(2L, reserva.getId(), Map.of()))
+				.isInstanceOf(RecursoNoEncontradoException.class);
+		assertThatThrownBy(() -> reservas.crear(TIENDA, "CAJA-1", Map.of(99L, 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void laVentaConfirmadaConsumeLaReserva() {
+		ReservaStockDTO reserva = reservas.crear(TIENDA, "CAJA-1", Map.of(PRODUCTO, 3));
+		assertThat(reservas.reservadoPorOtros(TIENDA, PRODUCTO, reserva.getId())).isZero();
+		assertThat(reservas.reservadoPorOtros(TIENDA, PRODUCTO, null)).isEqualTo(3);
+
+		reservas.alConsumirReserva(new ReservaConsumidaEvent(TIENDA, reserva.getId()));
+
+		assertThat(reservas.reservadoPorOtros(TIENDA, PRODUCTO, null)).isZero();
+	}
+
+	@Test
+	void laReservaVenceSiNoSeRenueva() throws InterruptedException {
+		reservas.crear(TIENDA, "CAJA-1", Map.of(PRODUCTO, 6));
+		assertThat(disponible()).isEqualTo(4);
+
+		//ttl de 1 segundo y ticks de 1 segundo: vence en 1 a 3 segundos
+		long limite = System.currentTimeMillis() + 5_000;
+		while (disponible() != 10 && System.currentTimeMillis() < limite) {
+			Thread.sleep(100);
+		}
+		assertThat(disponible()).isEqualTo(10);
+	}
+
+	private int disponible() {
+		List<StockDisponibleDTO> disponibles = reservas.obtenerDisponibles(TIENDA, List.of(PRODUCTO));
+		return disponibles.get(0).getDisponible();
+	}
+}
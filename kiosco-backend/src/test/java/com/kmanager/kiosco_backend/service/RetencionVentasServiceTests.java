@@ -0,0 +1,77 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.dto.EstadoRetencionDTO;
+import com.kmanager.kiosco_backend.entity.Tienda;
+import com.kmanager.kiosco_backend.repository.EventoSalidaRepository;
+import com.kmanager.kiosco_backend.repository.ResumenHistoricoRepository;
+import com.kmanager.kiosco_backend.repository.TiendaRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Retención de ventas contra repositorios simulados (3 meses, tandas de 2).
+ */
+class RetencionVentasServiceTests {
+
+	private static final Long TIENDA = 1L;
+
+	private final TiendaRepository tiendaRepository = mock(TiendaRepository.class);
+	private final VentaRepository ventaRepository = mock(VentaRepository.class);
+	private final ResumenHistoricoRepository resumenHistoricoRepository = mock(ResumenHistoricoRepository.class);
+	private final EventoSalidaRepository eventoSalidaRepository = mock(EventoSalidaRepository.class);
+	private final ReportesParalelos reportesParalelos = mock(ReportesParalelos.class);
+	private final RetencionVentasService retencion = new RetencionVentasService(tiendaRepository, ventaRepository,
+			resumenHistoricoRepository, eventoSalidaRepository, reportesParalelos,
+			mock(PlatformTransactionManager.class), 3, 30, 2, 0);
+
+	private final LocalDateTime limite = LocalDate.now().minusMonths(3).atStartOfDay();
+
+	@Test
+	void resumeYBorraPorTandasYDescartaLosReportesEnCache() {
+		when(tiendaRepository.findAll()).thenReturn(List.of(new Tienda(TIENDA, "Central", null)));
+		when(ventaRepository.findIdsAnterioresA(TIENDA, limite, 2)).thenReturn(List.of(1L, 2L), List.of(3L));
+		when(ventaRepository.borrarItems(any())).thenReturn(4, 1);
+
+		retencion.ejecutar();
+
+		verify(resumenHistoricoRepository).sumarVentas(List.of(1L, 2L));
+		verify(resumenHistoricoRepository).sumarProductos(List.of(3L));
+		verify(ventaRepository).borrarVentas(List.of(3L));
+		verify(reportesParalelos).descartarAnterioresA(limite);
+		EstadoRetencionDTO estado = retencion.obtenerEstado();
+		assertThat(estado.getLotes()).isEqualTo(2);
+		assertThat(estado.getVentasBorradas()).isEqualTo(3);
+		assertThat(estado.getItemsBorrados()).isEqualTo(5);
+		assertThat(estado.getError()).isNull();
+	}
+
+	@Test
+	void siSeCortaIgualDescartaLosReportesEnCache() {
+		when(tiendaRepository.findAll()).thenReturn(List.of(new Tienda(TIENDA, "Central", null)));
+		when(ventaRepository.findIdsAnterioresA(TIENDA, limite, 2)).thenReturn(List.of(1L, 2L));
+		when(ventaRepository.borrarItems(any())).thenReturn(2);
+		when(resumenHistoricoRepository.sumarVentas(any()))
+				.thenReturn(2)
+				.thenThrow(new IllegalStateException("sin conexion"));
+
+		retencion.ejecutar();
+
+		verify(reportesParalelos).descartarAnterioresA(limite);
+		verify(eventoSalidaRepository, never()).borrarAnterioresA(any(), anyInt());
+		assertThat(retencion.obtenerEstado().getVentasBorradas()).isEqualTo(2);
+		assertThat(retencion.obtenerEstado().getError()).isEqualTo("sin conexion");
+	}
+}
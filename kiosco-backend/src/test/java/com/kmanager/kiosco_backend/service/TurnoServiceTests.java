@@ -0,0 +1,84 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Turno;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.entity.VentaItem;
+import com.kmanager.kiosco_backend.repository.TurnoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Totales y cierre de TurnoService contra un repositorio simulado
+ * (turno 5 abierto en la terminal "caja-1" de la tienda 1).
+ */
+class TurnoServiceTests {
+
+	private static final Long TIENDA = 1L;
+	private static final Long TURNO = 5L;
+	private static final String TERMINAL = "caja-1";
+
+	private final TurnoRepository turnoRepository = mock(TurnoRepository.class);
+	private final TurnoService servicio = new TurnoService(turnoRepository);
+
+	private Turno turno;
+
+	@BeforeEach
+	void crear() {
+		TiendaContext.establecer(TIENDA);
+		turno = new Turno(TIENDA, TERMINAL, 1000.0);
+		turno.setId(TURNO);
+		when(turnoRepository.findForUpdateByIdAndTiendaId(TURNO, TIENDA)).thenReturn(Optional.of(turno));
+		when(turnoRepository.findFirstForUpdateByTiendaIdAndTerminalAndEstado(TIENDA, TERMINAL, Turno.ABIERTO))
+				.thenReturn(Optional.of(turno));
+		when(turnoRepository.save(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+	}
+
+	@AfterEach
+	void limpiar() {
+		TiendaContext.limpiar();
+	}
+
+	@Test
+	void cerrarLeeElTurnoBloqueado() {
+		Turno cerrado = servicio.cerrar(TURNO, 1000.0);
+
+		assertThat(cerrado.isAbierto()).isFalse();
+		verify(turnoRepository).findForUpdateByIdAndTiendaId(TURNO, TIENDA);
+		verify(turnoRepository, never()).findByIdAndTiendaId(anyLong(), anyLong());
+	}
+
+	@Test
+	void devolucionDescuentaLosItemsDelTurno() {
+		Producto producto = new Producto();
+		producto.setId(10L);
+		producto.setPrecioVenta(100.0);
+
+		Venta venta = new Venta(TIENDA, "Efectivo");
+		venta.agregarItem(new VentaItem(producto, 3));
+		venta.calcularTotal();
+		servicio.registrarVenta(venta, TERMINAL);
+
+		Venta devolucion = new Venta(TIENDA, "Efectivo");
+		devolucion.agregarItem(new VentaItem(producto, -2, 100.0));
+		devolucion.calcularTotal();
+		servicio.registrarDevolucion(devolucion, TERMINAL);
+
+		assertThat(turno.getCantidadItems()).isEqualTo(1);
+		assertThat(turno.getTotalVentas()).isEqualTo(300.0);
+		assertThat(turno.getTotalDevoluciones()).isEqualTo(200.0);
+		assertThat(turno.getTotalesPorMetodoPago()).containsEntry("Efectivo", 100.0);
+	}
+}
@@ -0,0 +1,96 @@
+package com.kmanager.kiosco_backend.service;
+
+import com.kmanager.kiosco_backend.config.TiendaContext;
+import com.kmanager.kiosco_backend.entity.Producto;
+import com.kmanager.kiosco_backend.entity.Venta;
+import com.kmanager.kiosco_backend.entity.VentaItem;
+import com.kmanager.kiosco_backend.repository.ProductoRepository;
+import com.kmanager.kiosco_backend.repository.VentaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Devoluciones de VentaService contra repositorios simulados: la venta 20
+ * en cuenta corriente, 3 unidades del producto 5 a 100 cada una.
+ */
+class VentaServiceTests {
+
+	private static final Long TIENDA = 1L;
+	private static final Long VENTA = 20L;
+
+	private final VentaRepository ventaRepository = mock(VentaRepository.class);
+	private final ProductoRepository productoRepository = mock(ProductoRepository.class);
+	private final ClienteService clienteService = mock(ClienteService.class);
+	private final VentaService servicio = new VentaService(ventaRepository, productoRepository,
+			mock(TurnoService.class), mock(MotorPrecios.class), mock(ReservasStock.class),
+			mock(ReportesParalelos.class), mock(EventosSalidaService.class), clienteService,
+			mock(ConsultasCompartidas.class), mock(ApplicationEventPublisher.class));
+
+	private Producto producto;
+
+	@BeforeEach
+	void crear() {
+		TiendaContext.establecer(TIENDA);
+		producto = new Producto();
+		producto.setId(5L);
+		producto.setTiendaId(TIENDA);
+		producto.setNombre("Yerba");
+		producto.setPrecioVenta(100.0);
+		producto.setStockActual(10);
+		when(productoRepository.findAllParaActualizarStock(any(), any())).thenReturn(List.of(producto));
+		when(ventaRepository.save(any(Venta.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+	}
+
+	@AfterEach
+	void limpiar() {
+		TiendaContext.limpiar();
+	}
+
+	@Test
+	void laDevolucionEnCuentaCorrienteSeDescuentaDeLaDeudaDelCliente() {
+		Venta original = original(7L);
+
+		Venta devolucion = servicio.registrarDevolucion(VENTA, Map.of(5L, 1), null);
+
+		assertThat(devolucion.getClienteId()).isEqualTo(7L);
+		assertThat(devolucion.getTotalVenta()).isEqualTo(-100.0);
+		assertThat(original.getAnulada()).isFalse();
+		verify(clienteService).registrarVenta(devolucion);
+	}
+
+	@Test
+	void unaVentaEnCuentaCorrienteSinClienteSeDevuelveSinTocarCuentas() {
+		//venta de antes de las cuentas de clientes: "Cuenta corriente" pero sin cliente
+		Venta original = original(null);
+
+		Venta devolucion = servicio.registrarDevolucion(VENTA, null, null);
+
+		assertThat(devolucion.getTotalVenta()).isEqualTo(-300.0);
+		assertThat(original.getAnulada()).isTrue();
+		assertThat(producto.getStockActual()).isEqualTo(13);
+		verify(clienteService, never()).registrarVenta(any());
+	}
+
+	private Venta original(Long clienteId) {
+		Venta venta = new Venta(TIENDA, ClienteService.CUENTA_CORRIENTE);
+		venta.setId(VENTA);
+		venta.setClienteId(clienteId);
+		venta.agregarItem(new VentaItem(producto, 3, 100.0));
+		venta.calcularTotal();
+		when(ventaRepository.findForUpdateByIdAndTiendaId(VENTA, TIENDA)).thenReturn(Optional.of(venta));
+		return venta;
+	}
+}
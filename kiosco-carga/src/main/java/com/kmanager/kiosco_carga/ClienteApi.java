@@ -0,0 +1,82 @@
+package com.kmanager.kiosco_carga;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Cliente HTTP minimo contra la API del backend.
+ * Todas las peticiones van con el header X-Tienda-Id de la tienda de la prueba.
+ */
+public class ClienteApi {
+
+    /**
+     * Respuesta de una peticion con la latencia medida en nanosegundos.
+     */
+    public record Respuesta(int status, String cuerpo, long nanos) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final HttpClient http;
+    private final String base;
+    private final ObjectMapper mapper;
+    private volatile Long tiendaId;
+
+    public ClienteApi(String base, ObjectMapper mapper) {
+        this.base = base;
+        this.mapper = mapper;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public void usarTienda(Long tiendaId) {
+        this.tiendaId = tiendaId;
+    }
+
+    public Respuesta get(String ruta) {
+        return enviar(peticion(ruta).GET().build());
+    }
+
+    public Respuesta post(String ruta, Object cuerpo) {
+        try {
+            String json = cuerpo != null ? mapper.writeValueAsString(cuerpo) : "";
+            return enviar(peticion(ruta)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + ruta))
+                .timeout(Duration.ofSeconds(30));
+        if (tiendaId != null) {
+            builder.header("X-Tienda-Id", tiendaId.toString());
+        }
+        return builder;
+    }
+
+    private Respuesta enviar(HttpRequest request) {
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            return new Respuesta(response.statusCode(), response.body(), System.nanoTime() - inicio);
+        } catch (IOException e) {
+            return new Respuesta(-1, e.toString(), System.nanoTime() - inicio);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Respuesta(-1, "interrumpido", System.nanoTime() - inicio);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.kmanager.kiosco_carga;
+
+import java.time.Duration;
+
+/**
+ * Parametros de la prueba de carga, leidos de la linea de comandos.
+ *
+ * Ejemplo: --url http://localhost:8080/api --terminales 8 --paneles 2 --duracion 60
+ */
+public class Configuracion {
+
+    String url = "http://localhost:8080/api";
+    int terminales = 4;
+    int paneles = 2;
+    Duration duracion = Duration.ofSeconds(60);
+    int productos = 200;
+    int stockInicial = 100;
+    int carritoMedio = 4;
+    int carritoMaximo = 12;
+    long intervaloPanelMs = 2000;
+
+    static Configuracion desdeArgumentos(String[] args) {
+        Configuracion c = new Configuracion();
+        for (int i = 0; i < args.length; i++) {
+            String nombre = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + nombre);
+            }
+            String valor = args[++i];
+            switch (nombre) {
+                case "--url" -> c.url = valor.endsWith("/") ? valor.substring(0, valor.length() - 1) : valor;
+                case "--terminales" -> c.terminales = Integer.parseInt(valor);
+                case "--paneles" -> c.paneles = Integer.parseInt(valor);
+                case "--duracion" -> c.duracion = Duration.ofSeconds(Long.parseLong(valor));
+                case "--productos" -> c.productos = Integer.parseInt(valor);
+                case "--stock" -> c.stockInicial = Integer.parseInt(valor);
+                case "--carrito-medio" -> c.carritoMedio = Integer.parseInt(valor);
+                case "--carrito-maximo" -> c.carritoMaximo = Integer.parseInt(valor);
+                case "--intervalo-panel-ms" -> c.intervaloPanelMs = Long.parseLong(valor);
+                default -> throw new IllegalArgumentException("Parametro desconocido: " + nombre);
+            }
+        }
+        if (c.terminales < 1 || c.productos < 1 || c.carritoMedio < 1 || c.carritoMaximo < c.carritoMedio) {
+            throw new IllegalArgumentException("Parametros invalidos");
+        }
+        return c;
+    }
+
+    @Override
+    public String toString() {
+        return "url=" + url + ", terminales=" + terminales + ", paneles=" + paneles +
+               ", duracion=" + duracion.getSeconds() + "s, productos=" + productos +
+               ", stock=" + stockInicial + ", carrito medio/maximo=" + carritoMedio + "/" + carritoMaximo;
+    }
+}
@@ -0,0 +1,203 @@
+package com.kmanager.kiosco_carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga del backend: varias cajas vendiendo a la vez y dashboards
+ * consultando reportes, contra un servidor ya levantado.
+ *
+ * Pasos:
+ * 1. Crea una tienda propia para la prueba (no toca los datos de las demás).
+ * 2. Carga el catálogo de prueba con stock inicial conocido.
+ * 3. Abre un turno por caja (sin turno abierto la venta se rechaza).
+ * 4. Corre las cajas y los paneles durante el tiempo indicado.
+ * 5. Imprime latencias p50/p99 por operación, sentencias SQL por venta
+ *    (si el backend corre con el perfil "carga") y controla que el stock
+ *    final coincida con lo vendido y que ningún producto quede negativo.
+ *
+ * Uso: mvn -pl kiosco-carga exec:java -Dexec.args="--terminales 8 --duracion 60"
+ *
+ * Sale con código 1 si el control de consistencia falla, si alguna venta
+ * falló por otro motivo que la falta de stock o si no se concretó ninguna venta.
+ */
+public class GeneradorCarga {
+
+    /**
+     * Producto cargado para la prueba.
+     */
+    public record ProductoCarga(Long id, String codigoBarras) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracion config = Configuracion.desdeArgumentos(args);
+        ObjectMapper mapper = new ObjectMapper();
+        ClienteApi cliente = new ClienteApi(config.url, mapper);
+
+        System.out.println("Prueba de carga: " + config);
+
+        // ===== Tienda y catálogo de prueba =====
+        Long tiendaId = crearTienda(cliente, mapper);
+        cliente.usarTienda(tiendaId);
+        List<ProductoCarga> productos = cargarCatalogo(cliente, mapper, config);
+        System.out.println("Tienda " + tiendaId + " con " + productos.size() + " productos");
+        abrirTurnos(cliente, config);
+
+        boolean diagnostico = cliente.post("/diagnostico/estadisticas-db/reiniciar", null).ok();
+        if (!diagnostico) {
+            System.out.println("(sin estadísticas de base de datos: levantar el backend con el perfil 'carga')");
+        }
+
+        // ===== Carga =====
+        Metricas metricas = new Metricas();
+        ConcurrentHashMap<Long, LongAdder> vendidos = new ConcurrentHashMap<>();
+        LongAdder rechazadasPorStock = new LongAdder();
+        LongAdder ventasOk = new LongAdder();
+        LongAdder ventasFallidas = new LongAdder();
+        long finNanos = System.nanoTime() + config.duracion.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.terminales + config.paneles);
+        long inicio = System.nanoTime();
+        for (int i = 1; i <= config.terminales; i++) {
+            executor.submit(new Terminal(terminal(i), cliente, config, productos, metricas, finNanos,
+                    vendidos, rechazadasPorStock, ventasOk, ventasFallidas));
+        }
+        for (int i = 0; i < config.paneles; i++) {
+            executor.submit(new Panel(cliente, config, metricas, finNanos));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(config.duracion.toSeconds() + 60, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        Duration transcurrido = Duration.ofNanos(System.nanoTime() - inicio);
+
+        // ===== Resultados =====
+        System.out.println();
+        metricas.imprimir(transcurrido);
+        System.out.println("Ventas confirmadas: " + ventasOk.sum());
+        System.out.println("Ventas rechazadas por falta de stock: " + rechazadasPorStock.sum());
+        System.out.println("Ventas fallidas (otros errores): " + ventasFallidas.sum());
+
+        if (diagnostico) {
+            imprimirEstadisticasDb(cliente, mapper);
+        }
+
+        boolean consistente = controlarStock(cliente, mapper, config, vendidos);
+        boolean ventasCorrectas = ventasOk.sum() > 0 && ventasFallidas.sum() == 0;
+        if (!ventasCorrectas) {
+            System.out.println(ventasOk.sum() == 0
+                    ? "Prueba FALLIDA: no se concretó ninguna venta"
+                    : "Prueba FALLIDA: " + ventasFallidas.sum() + " ventas fallaron por errores inesperados");
+        }
+        System.exit(consistente && ventasCorrectas ? 0 : 1);
+    }
+
+    private static String terminal(int numero) {
+        return "CARGA-" + numero;
+    }
+
+    /**
+     * Abre un turno por cada caja de la prueba: el backend rechaza las ventas
+     * de una terminal sin turno abierto.
+     */
+    private static void abrirTurnos(ClienteApi cliente, Configuracion config) {
+        for (int i = 1; i <= config.terminales; i++) {
+            Map<String, Object> turno = new LinkedHashMap<>();
+            turno.put("terminal", terminal(i));
+            turno.put("montoInicial", 0.0);
+            ClienteApi.Respuesta respuesta = cliente.post("/turnos/abrir", turno);
+            if (!respuesta.ok()) {
+                throw new IllegalStateException("No se pudo abrir el turno de " + terminal(i) + ": "
+                        + respuesta.cuerpo());
+            }
+        }
+    }
+
+    private static Long crearTienda(ClienteApi cliente, ObjectMapper mapper) throws Exception {
+        Map<String, Object> tienda = new LinkedHashMap<>();
+        tienda.put("nombre", "Carga " + System.currentTimeMillis());
+        tienda.put("direccion", "Prueba de carga");
+        ClienteApi.Respuesta respuesta = cliente.post("/tiendas", tienda);
+        if (!respuesta.ok()) {
+            throw new IllegalStateException("No se pudo crear la tienda de prueba: " + respuesta.cuerpo());
+        }
+        return mapper.readTree(respuesta.cuerpo()).get("id").asLong();
+    }
+
+    private static List<ProductoCarga> cargarCatalogo(ClienteApi cliente, ObjectMapper mapper,
+                                                      Configuracion config) throws Exception {
+        List<ProductoCarga> productos = new ArrayList<>();
+        for (int i = 0; i < config.productos; i++) {
+            Map<String, Object> producto = new LinkedHashMap<>();
+            producto.put("nombre", "Producto carga " + i);
+            producto.put("codigoBarras", String.format("990%010d", i));
+            producto.put("precioVenta", 100.0 + i);
+            producto.put("precioCosto", 60.0 + i);
+            producto.put("stockActual", config.stockInicial);
+            producto.put("stockMinimo", config.stockInicial / 10);
+            producto.put("categoria", "Categoria " + (i % 10));
+            ClienteApi.Respuesta respuesta = cliente.post("/productos", producto);
+            if (!respuesta.ok()) {
+                throw new IllegalStateException("No se pudo crear el producto " + i + ": " + respuesta.cuerpo());
+            }
+            JsonNode creado = mapper.readTree(respuesta.cuerpo());
+            productos.add(new ProductoCarga(creado.get("id").asLong(), creado.get("codigoBarras").asText()));
+        }
+        return productos;
+    }
+
+    private static void imprimirEstadisticasDb(ClienteApi cliente, ObjectMapper mapper) throws Exception {
+        ClienteApi.Respuesta respuesta = cliente.get("/diagnostico/estadisticas-db");
+        if (!respuesta.ok()) {
+            return;
+        }
+        JsonNode estadisticas = mapper.readTree(respuesta.cuerpo());
+        System.out.println("Base de datos: " + estadisticas);
+    }
+
+    /**
+     * Compara el stock final de cada producto con stock inicial - unidades vendidas.
+     * Una diferencia indica una venta perdida o duplicada; un stock negativo, sobreventa.
+     */
+    private static boolean controlarStock(ClienteApi cliente, ObjectMapper mapper, Configuracion config,
+                                          Map<Long, LongAdder> vendidos) throws Exception {
+        ClienteApi.Respuesta respuesta = cliente.get("/productos");
+        if (!respuesta.ok()) {
+            System.out.println("No se pudo leer el stock final: " + respuesta.cuerpo());
+            return false;
+        }
+        int diferencias = 0;
+        int negativos = 0;
+        for (JsonNode producto : mapper.readTree(respuesta.cuerpo())) {
+            long id = producto.get("id").asLong();
+            long stock = producto.get("stockActual").asLong();
+            LongAdder vendido = vendidos.get(id);
+            long esperado = config.stockInicial - (vendido != null ? vendido.sum() : 0);
+            if (stock < 0) {
+                negativos++;
+                System.out.println("Sobreventa: producto " + id + " con stock " + stock);
+            }
+            if (stock != esperado) {
+                diferencias++;
+                System.out.println("Stock inconsistente: producto " + id + " tiene " + stock +
+                                   ", se esperaba " + esperado);
+            }
+        }
+        boolean consistente = diferencias == 0 && negativos == 0;
+        System.out.println(consistente
+                ? "Control de stock OK"
+                : "Control de stock FALLIDO: " + diferencias + " diferencias, " + negativos + " negativos");
+        return consistente;
+    }
+}
@@ -0,0 +1,70 @@
+package com.kmanager.kiosco_carga;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y contadores por operacion (escanear, venta, panel, ...).
+ */
+public class Metricas {
+
+    private final Map<String, Registro> registros = new ConcurrentHashMap<>();
+
+    private static class Registro {
+        private final List<Long> latencias = new ArrayList<>();
+        private final LongAdder errores = new LongAdder();
+
+        private synchronized void agregar(long nanos) {
+            latencias.add(nanos);
+        }
+
+        private synchronized long[] ordenadas() {
+            long[] valores = latencias.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(valores);
+            return valores;
+        }
+    }
+
+    /**
+     * Registra una peticion. Las respuestas con error cuentan como error
+     * pero su latencia tambien se incluye.
+     */
+    public void registrar(String operacion, long nanos, boolean ok) {
+        Registro registro = registros.computeIfAbsent(operacion, o -> new Registro());
+        registro.agregar(nanos);
+        if (!ok) {
+            registro.errores.increment();
+        }
+    }
+
+    public void imprimir(Duration duracion) {
+        double segundos = duracion.toMillis() / 1000.0;
+        System.out.printf("%-14s %9s %9s %8s %9s %9s %9s%n",
+                "operacion", "total", "ops/s", "errores", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Registro> entry : new TreeMap<>(registros).entrySet()) {
+            long[] valores = entry.getValue().ordenadas();
+            if (valores.length == 0) {
+                continue;
+            }
+            System.out.printf("%-14s %9d %9.1f %8d %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    valores.length,
+                    valores.length / segundos,
+                    entry.getValue().errores.sum(),
+                    percentil(valores, 0.50) / 1e6,
+                    percentil(valores, 0.99) / 1e6,
+                    valores[valores.length - 1] / 1e6);
+        }
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))];
+    }
+}
@@ -0,0 +1,50 @@
+package com.kmanager.kiosco_carga;
+
+import java.time.LocalDate;
+
+/**
+ * Simula un dashboard abierto: consulta periódicamente los reportes que
+ * muestra el frontend mientras las cajas venden.
+ */
+public class Panel implements Runnable {
+
+    private final String[] consultas;
+
+    private final ClienteApi cliente;
+    private final Configuracion config;
+    private final Metricas metricas;
+    private final long finNanos;
+
+    public Panel(ClienteApi cliente, Configuracion config, Metricas metricas, long finNanos) {
+        this.cliente = cliente;
+        this.config = config;
+        this.metricas = metricas;
+        this.finNanos = finNanos;
+
+        LocalDate hoy = LocalDate.now();
+        String rangoHoy = "?inicio=" + hoy + "T00:00:00&fin=" + hoy.plusDays(1) + "T00:00:00";
+        this.consultas = new String[]{
+                "/ventas/total/diario",
+                "/ventas/ultimas",
+                "/ventas/estadisticas/metodos-pago" + rangoHoy,
+                "/reportes/stock-bajo",
+                "/productos/compacto"
+        };
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < finNanos) {
+            for (String consulta : consultas) {
+                ClienteApi.Respuesta respuesta = cliente.get(consulta);
+                metricas.registrar("panel", respuesta.nanos(), respuesta.ok());
+            }
+            try {
+                Thread.sleep(config.intervaloPanelMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
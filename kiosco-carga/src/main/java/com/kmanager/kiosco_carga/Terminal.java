@@ -0,0 +1,113 @@
+package com.kmanager.kiosco_carga;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simula una caja del POS: escanea productos uno por uno (GET por código
+ * de barras) y cobra el carrito (POST /ventas), hasta que vence el plazo.
+ * El turno de la caja lo abre GeneradorCarga antes de empezar.
+ *
+ * Los productos se eligen con sesgo hacia los primeros del catálogo para que
+ * varias cajas vendan los mismos productos a la vez, que es donde aparecen
+ * los problemas de concurrencia con el stock.
+ */
+public class Terminal implements Runnable {
+
+    private static final String[] METODOS_PAGO = {"Efectivo", "Tarjeta", "QR"};
+
+    private final String nombre;
+    private final ClienteApi cliente;
+    private final Configuracion config;
+    private final List<GeneradorCarga.ProductoCarga> productos;
+    private final Metricas metricas;
+    private final long finNanos;
+
+    /** Unidades vendidas confirmadas (201) por producto, para el control final. */
+    private final Map<Long, LongAdder> vendidos;
+    private final LongAdder rechazadasPorStock;
+    private final LongAdder ventasOk;
+    /** Ventas con cualquier otra respuesta (4xx que no es falta de stock, 5xx, sin conexión). */
+    private final LongAdder ventasFallidas;
+
+    public Terminal(String nombre, ClienteApi cliente, Configuracion config,
+                    List<GeneradorCarga.ProductoCarga> productos, Metricas metricas, long finNanos,
+                    ConcurrentHashMap<Long, LongAdder> vendidos, LongAdder rechazadasPorStock,
+                    LongAdder ventasOk, LongAdder ventasFallidas) {
+        this.nombre = nombre;
+        this.cliente = cliente;
+        this.config = config;
+        this.productos = productos;
+        this.metricas = metricas;
+        this.finNanos = finNanos;
+        this.vendidos = vendidos;
+        this.rechazadasPorStock = rechazadasPorStock;
+        this.ventasOk = ventasOk;
+        this.ventasFallidas = ventasFallidas;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < finNanos && !Thread.currentThread().isInterrupted()) {
+            Map<Long, Integer> carrito = new LinkedHashMap<>();
+            int tamanio = tamanioCarrito(random);
+            for (int i = 0; i < tamanio; i++) {
+                GeneradorCarga.ProductoCarga producto = elegirProducto(random);
+                ClienteApi.Respuesta escaneo = cliente.get("/productos/buscar/codigo-barras?codigo="
+                        + URLEncoder.encode(producto.codigoBarras(), StandardCharsets.UTF_8));
+                metricas.registrar("escanear", escaneo.nanos(), escaneo.ok());
+                if (escaneo.ok()) {
+                    carrito.merge(producto.id(), 1 + random.nextInt(3), Integer::sum);
+                }
+            }
+            if (carrito.isEmpty()) {
+                continue;
+            }
+
+            Map<String, Object> venta = new LinkedHashMap<>();
+            venta.put("metodoPago", METODOS_PAGO[random.nextInt(METODOS_PAGO.length)]);
+            venta.put("terminal", nombre);
+            venta.put("items", carrito);
+            ClienteApi.Respuesta respuesta = cliente.post("/ventas", venta);
+
+            if (respuesta.ok()) {
+                metricas.registrar("venta", respuesta.nanos(), true);
+                ventasOk.increment();
+                carrito.forEach((id, cantidad) ->
+                        vendidos.computeIfAbsent(id, k -> new LongAdder()).add(cantidad));
+            } else if (respuesta.status() == 400 && respuesta.cuerpo().contains("Stock insuficiente")) {
+                //rechazo esperado cuando el producto se agota: no cuenta como error
+                metricas.registrar("venta-sin-stock", respuesta.nanos(), true);
+                rechazadasPorStock.increment();
+            } else {
+                metricas.registrar("venta", respuesta.nanos(), false);
+                if (ventasFallidas.sum() == 0) {
+                    System.out.println(nombre + ": venta fallida (" + respuesta.status() + "): " + respuesta.cuerpo());
+                }
+                ventasFallidas.increment();
+            }
+        }
+    }
+
+    /**
+     * Tamaño de carrito con distribución geométrica de media carritoMedio,
+     * acotado a carritoMaximo.
+     */
+    private int tamanioCarrito(ThreadLocalRandom random) {
+        double p = 1.0 / config.carritoMedio;
+        int tamanio = 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p + 1e-9));
+        return Math.min(Math.max(tamanio, 1), config.carritoMaximo);
+    }
+
+    private GeneradorCarga.ProductoCarga elegirProducto(ThreadLocalRandom random) {
+        double r = random.nextDouble();
+        return productos.get((int) (r * r * productos.size()));
+    }
+}
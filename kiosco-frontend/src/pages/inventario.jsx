@@ -122,7 +122,14 @@ export default function Inventario() {
       console.log('Datos que se envian:',  data);
 
       if (productoEditando) {
-        await productosAPI.actualizar(productoEditando.id, data);
+        // el PUT no toca el stock: el cambio se manda como ajuste, asi no pisa
+        // las ventas que se hicieron mientras el formulario estaba abierto
+        const { stockActual, ...catalogo } = data;
+        await productosAPI.actualizar(productoEditando.id, { ...catalogo, version: productoEditando.version });
+        const diferenciaStock = stockActual - productoEditando.stockActual;
+        if (diferenciaStock !== 0 && !isNaN(diferenciaStock)) {
+          await productosAPI.ajustarStock(productoEditando.id, diferenciaStock);
+        }
         mostrarToast('Producto actualizado exitosamente', 'success');
       } else {
         await productosAPI.crear(data);
@@ -132,6 +139,13 @@ export default function Inventario() {
       cargarProductos();
       cerrarModal();
     } catch (error) {
+      if (error.status === 409) {
+        // otro usuario edito el producto: se recargan los datos para no pisarlos
+        mostrarToast(error.mensaje, 'warning');
+        cargarProductos();
+        cerrarModal();
+        return;
+      }
       mostrarToast(error.mensaje || 'Error al guardar producto', 'error');
     } finally {
       setLoading(false);
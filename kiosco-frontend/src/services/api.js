@@ -47,6 +47,49 @@ export const productosAPI = {
   //Codigo de barra
   buscarPorCodigoBarras: (codigo) => 
     api.get('/productos/buscar/codigo-barras', {params: {codigo} }),
+
+  // Buscar varios productos de una vez: [{ id }, { codigoBarras }, ...]
+  buscarLote: (consultas) => api.post('/productos/lote', consultas),
+};
+
+// ========== RESERVAS DE STOCK ==========
+
+export const reservasAPI = {
+  // Reservar el carrito: items = { productoId: cantidad }
+  crear: (terminal, items) => api.post('/reservas', { terminal, items }),
+
+  // Reemplazar el carrito reservado (renueva el vencimiento)
+  actualizar: (id, items) => api.put(`/reservas/${id}`, { items }),
+
+  // Liberar la reserva (carrito cancelado)
+  liberar: (id) => api.delete(`/reservas/${id}`),
+
+  // Stock disponible (descontando lo reservado por otras cajas)
+  disponible: (ids) => api.get('/reservas/disponible', { params: { ids: ids.join(',') } }),
+};
+
+// ========== CLIENTES (CUENTA CORRIENTE) ==========
+
+export const clientesAPI = {
+  // Listar clientes (con su saldo)
+  obtenerTodos: () => api.get('/clientes'),
+
+  obtenerPorId: (id) => api.get(`/clientes/${id}`),
+
+  crear: (cliente) => api.post('/clientes', cliente),
+
+  actualizar: (id, cliente) => api.put(`/clientes/${id}`, cliente),
+
+  // Registrar un pago a cuenta
+  registrarPago: (id, importe, metodoPago, observaciones) =>
+    api.post(`/clientes/${id}/pagos`, { importe, metodoPago, observaciones }),
+
+  // Resumen de cuenta: para la pagina siguiente pasar antesDe = id del ultimo movimiento
+  movimientos: (id, antesDe, limite = 50) =>
+    api.get(`/clientes/${id}/movimientos`, { params: { antesDe, limite } }),
+
+  // Clientes con deuda y total adeudado
+  deudores: () => api.get('/clientes/deudores'),
 };
 
 // ========== VENTAS ==========